@@ -0,0 +1,27 @@
+package de.aha.backend.config;
+
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.util.SearchNormalizer;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pflegt {@code specializationKey} und {@code specializationTokens} bei jedem Speichern
+ * eines Beraters, damit die Spezialisierungssuche indexiert laufen kann.
+ */
+@Component
+public class AdvisorSearchKeyCallback implements BeforeConvertCallback<Advisor> {
+
+    @Override
+    public Advisor onBeforeConvert(Advisor advisor, String collection) {
+        apply(advisor);
+        return advisor;
+    }
+
+    public static void apply(Advisor advisor) {
+        advisor.setSpecializationKey(SearchNormalizer.normalize(advisor.getSpecialization()));
+        advisor.setSpecializationTokens(advisor.getSpecialization() != null
+                ? SearchNormalizer.tokens(advisor.getSpecialization())
+                : null);
+    }
+}
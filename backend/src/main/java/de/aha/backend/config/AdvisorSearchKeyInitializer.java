@@ -0,0 +1,45 @@
+package de.aha.backend.config;
+
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.util.SearchNormalizer;
+import de.aha.backend.util.SpecializationCriteria;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ergänzt {@code specializationKey}/{@code specializationTokens} bei Bestandsdaten,
+ * die vor Einführung der Felder gespeichert wurden. Die zugehörigen Indizes
+ * sind in {@link MongoIndexes} deklariert.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdvisorSearchKeyInitializer {
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        Query missing = new Query(Criteria.where(SpecializationCriteria.KEY_FIELD).exists(false)
+                .and("specialization").ne(null));
+        missing.fields().include("specialization");
+
+        List<Advisor> advisors = mongoTemplate.find(missing, Advisor.class);
+        for (Advisor advisor : advisors) {
+            Update update = new Update()
+                    .set(SpecializationCriteria.KEY_FIELD, SearchNormalizer.normalize(advisor.getSpecialization()))
+                    .set(SpecializationCriteria.TOKENS_FIELD, SearchNormalizer.tokens(advisor.getSpecialization()));
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(advisor.getId())), update, Advisor.class);
+        }
+        if (!advisors.isEmpty()) {
+            log.info("Backfilled specialization search keys for {} advisors", advisors.size());
+        }
+    }
+}
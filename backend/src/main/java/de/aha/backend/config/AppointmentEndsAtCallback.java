@@ -0,0 +1,33 @@
+package de.aha.backend.config;
+
+import de.aha.backend.model.appointment.Appointment;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pflegt {@code endsAt} bei jedem Speichern eines Termins, damit Überschneidungen
+ * mit einer indexierten Intervallabfrage erkannt werden können.
+ */
+@Component
+public class AppointmentEndsAtCallback implements BeforeConvertCallback<Appointment> {
+
+    @Override
+    public Appointment onBeforeConvert(Appointment appointment, String collection) {
+        apply(appointment);
+        return appointment;
+    }
+
+    public static void apply(Appointment appointment) {
+        appointment.setEndsAt(endsAt(appointment));
+    }
+
+    static LocalDateTime endsAt(Appointment appointment) {
+        if (appointment.getScheduledAt() == null) {
+            return null;
+        }
+        int duration = appointment.getDurationMinutes() != null ? appointment.getDurationMinutes() : 0;
+        return appointment.getScheduledAt().plusMinutes(duration);
+    }
+}
@@ -0,0 +1,40 @@
+package de.aha.backend.config;
+
+import de.aha.backend.model.appointment.Appointment;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ergänzt {@code endsAt} bei Terminen, die vor Einführung des Feldes gespeichert
+ * wurden. Der zugehörige Index ist in {@link MongoIndexes} deklariert.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AppointmentEndsAtInitializer {
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        Query missing = new Query(Criteria.where("endsAt").exists(false)
+                .and("scheduledAt").ne(null));
+        missing.fields().include("scheduledAt", "durationMinutes");
+
+        List<Appointment> appointments = mongoTemplate.find(missing, Appointment.class);
+        for (Appointment appointment : appointments) {
+            Update update = new Update().set("endsAt", AppointmentEndsAtCallback.endsAt(appointment));
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(appointment.getId())), update, Appointment.class);
+        }
+        if (!appointments.isEmpty()) {
+            log.info("Backfilled endsAt for {} appointments", appointments.size());
+        }
+    }
+}
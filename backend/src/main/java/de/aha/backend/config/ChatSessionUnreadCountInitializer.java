@@ -0,0 +1,64 @@
+package de.aha.backend.config;
+
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.SenderType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ergänzt {@code userUnreadCount}/{@code advisorUnreadCount} bei Sessions, die vor
+ * Einführung der Zähler gespeichert wurden, und entfernt das alte Feld {@code unreadCount}.
+ * Das alte Feld hielt den Stand derjenigen Seite, die zuletzt ihre Sessions abgerufen hat,
+ * und lässt sich keinem Zähler zuordnen. Die Zähler werden deshalb aus den ungelesenen
+ * Nachrichten der Gegenseite gezählt.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatSessionUnreadCountInitializer {
+    static final String LEGACY_FIELD = "unreadCount";
+
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        int counters = backfill("userUnreadCount", SenderType.ADVISOR)
+                + backfill("advisorUnreadCount", SenderType.USER);
+        if (counters > 0) {
+            log.info("Backfilled {} unread counters on chat sessions", counters);
+        }
+    }
+
+    /**
+     * @param counter   der fehlende Zähler
+     * @param writtenBy wessen ungelesene Nachrichten in diesen Zähler gehören
+     * @return Anzahl ergänzter Sessions
+     */
+    private int backfill(String counter, SenderType writtenBy) {
+        Query missing = new Query(Criteria.where(counter).exists(false));
+        missing.fields().include("id");
+
+        List<ChatSession> sessions = mongoTemplate.find(missing, ChatSession.class);
+        for (ChatSession session : sessions) {
+            long unread = mongoTemplate.count(Query.query(Criteria.where("sessionId").is(session.getId())
+                    .and("senderType").is(writtenBy)
+                    .and("read").is(false)), ChatMessage.class);
+            Update update = new Update()
+                    .set(counter, (int) unread)
+                    .unset(LEGACY_FIELD);
+            // nur setzen, solange der Zähler noch fehlt; ein zwischenzeitliches $inc bleibt erhalten
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(session.getId()).and(counter).exists(false)),
+                    update, ChatSession.class);
+        }
+        return sessions.size();
+    }
+}
@@ -0,0 +1,37 @@
+package de.aha.backend.config;
+
+import com.mongodb.MongoException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Legt beim Start alle in {@link MongoIndexes} deklarierten Indizes an.
+ * Bereits vorhandene Indizes sind ein No-Op. Schlägt ein einzelner Index fehl
+ * (z.B. ein Unique-Index bei doppelten Bestandsdaten), wird das geloggt und
+ * der Start nicht abgebrochen.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexBootstrap {
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void ensureIndexes() {
+        int failed = 0;
+        for (MongoIndexes.IndexSpec spec : MongoIndexes.all()) {
+            try {
+                mongoTemplate.indexOps(spec.entity()).createIndex(spec.index());
+            } catch (DataAccessException | MongoException e) {
+                failed++;
+                log.error("Could not create index {} on {}: {}",
+                        spec.index().getIndexKeys(), spec.entity().getSimpleName(), e.getMessage());
+            }
+        }
+        log.info("Ensured {} MongoDB indexes ({} failed)", MongoIndexes.all().size() - failed, failed);
+    }
+}
@@ -0,0 +1,150 @@
+package de.aha.backend.config;
+
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.Review;
+import de.aha.backend.model.appointment.Appointment;
+import de.aha.backend.model.appointment.SlotClaim;
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.user.User;
+import de.aha.backend.repository.UserRepository;
+import de.aha.backend.util.SpecializationCriteria;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+/**
+ * Zentrale Liste aller Indizes, die von den Repository-Abfragen benötigt werden.
+ * <p>
+ * {@code spring.data.mongodb.auto-index-creation} ist deaktiviert, die
+ * {@code @Indexed}/{@code @CompoundIndex}-Annotationen an den Entitäten werden also
+ * nicht angelegt. Stattdessen legt {@link MongoIndexBootstrap} beim Start die hier
+ * deklarierten Indizes an. Feldnamen sind Property-Namen, das Mapping auf
+ * {@code @Field}-Namen übernimmt Spring Data. Der Text-Index für
+ * {@code AdvisorRepository.fullTextSearch} wird weiterhin in {@link MongoConfig} angelegt.
+ * <p>
+ * Neue Repository-Abfragen brauchen hier einen passenden Index, sonst schlägt
+ * {@code RepositoryIndexCoverageTest} fehl.
+ */
+public final class MongoIndexes {
+
+    public record IndexSpec(Class<?> entity, IndexDefinition index) {
+    }
+
+    private MongoIndexes() {
+        // Utility class
+    }
+
+    public static List<IndexSpec> all() {
+        return List.of(
+                // advisors: findByUserId
+                new IndexSpec(Advisor.class, new Index().on("userId", Direction.ASC).unique()),
+                // advisors: findByEmail
+                new IndexSpec(Advisor.class, new Index().on("email", Direction.ASC)),
+                // advisors: findAvailableAdvisors, findByAvailableTrue
+                new IndexSpec(Advisor.class, new Index()
+                        .on("available", Direction.ASC)
+                        .on("rating", Direction.ASC)
+                        .on("consultationFee", Direction.ASC)),
+                // advisors: findByRatingGreaterThanEqual, findTop5ByOrderByRatingDesc, searchAdvisors
+                new IndexSpec(Advisor.class, new Index().on("rating", Direction.ASC)),
+                // advisors: findByConsultationFeeLessThanEqual
+                new IndexSpec(Advisor.class, new Index().on("consultationFee", Direction.ASC)),
+                // advisors: findTop5ByOrderByReviewCountDesc
+                new IndexSpec(Advisor.class, new Index().on("reviewCount", Direction.ASC)),
+                // advisors: findByLanguagesContaining, findByLanguages
+                new IndexSpec(Advisor.class, new Index().on("languages", Direction.ASC)),
+                // advisors: findByQualificationsIn
+                new IndexSpec(Advisor.class, new Index().on("qualifications", Direction.ASC)),
+                // advisors: findOnlineAdvisors
+                new IndexSpec(Advisor.class, new Index().on("online", Direction.ASC)),
+                // advisors: searchBySpecialization (normalisierte Präfixsuche)
+                new IndexSpec(Advisor.class, new Index().on(SpecializationCriteria.KEY_FIELD, Direction.ASC)),
+                new IndexSpec(Advisor.class, new Index().on(SpecializationCriteria.TOKENS_FIELD, Direction.ASC)),
+
+                // appointments: findBookedAppointmentsForAdvisorInTimeRange,
+                // findByAdvisorId...OrderByScheduledAt, advisor branch of findByParticipant
+                new IndexSpec(Appointment.class, new Index()
+                        .on("advisorId", Direction.ASC)
+                        .on("scheduledAt", Direction.ASC)
+                        .on("status", Direction.ASC)),
+                // appointments: existsOverlappingAppointment. endsAt vor scheduledAt, damit die Bedingung
+                // endsAt > start die vergangenen Termine schon in den Indexgrenzen ausschließt
+                new IndexSpec(Appointment.class, new Index()
+                        .on("advisorId", Direction.ASC)
+                        .on("endsAt", Direction.ASC)
+                        .on("scheduledAt", Direction.ASC)),
+                // appointments: findByPatientId...OrderByScheduledAt, patient branch of findByParticipant
+                new IndexSpec(Appointment.class, new Index()
+                        .on("patientId", Direction.ASC)
+                        .on("scheduledAt", Direction.ASC)),
+
+                // slot_claims: deleteByReservationId, SlotReservationService.confirm
+                new IndexSpec(SlotClaim.class, new Index().on("reservationId", Direction.ASC)),
+                // slot_claims: deleteByAppointmentId
+                new IndexSpec(SlotClaim.class, new Index().on("appointmentId", Direction.ASC)),
+                // slot_claims: abgelaufene Raster entfernen
+                new IndexSpec(SlotClaim.class, new Index().on("expiresAt", Direction.ASC).expire(0)),
+
+                // chat_messages: findBySessionIdOrderByTimestampAsc, findLatestBefore (rückwärts, _id als Tie-Break)
+                new IndexSpec(ChatMessage.class, new Index()
+                        .on("sessionId", Direction.ASC)
+                        .on("timestamp", Direction.ASC)
+                        .on("_id", Direction.ASC)),
+                // chat_messages: ungelesene Nachrichten, nur über die (wenigen) ungelesenen Dokumente
+                new IndexSpec(ChatMessage.class, new Index()
+                        .on("sessionId", Direction.ASC)
+                        .on("senderType", Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("read").is(false)))),
+
+                // chat_sessions: findByUserIdAndAdvisorId, existsByUserIdAndAdvisorId
+                new IndexSpec(ChatSession.class, new Index()
+                        .named("user_advisor_idx")
+                        .on("userId", Direction.ASC)
+                        .on("advisorId", Direction.ASC)
+                        .unique()),
+                // chat_sessions: findByUserIdOrderByLastMessageTimeDesc, findActiveSessionsByUserId, findUserInbox
+                new IndexSpec(ChatSession.class, new Index()
+                        .on("userId", Direction.ASC)
+                        .on("lastMessageTime", Direction.DESC)),
+                // chat_sessions: findByAdvisorIdOrderByLastMessageTimeDesc, findActiveSessionsByAdvisorId
+                new IndexSpec(ChatSession.class, new Index()
+                        .on("advisorId", Direction.ASC)
+                        .on("lastMessageTime", Direction.DESC)),
+
+                // reviews: findByAdvisorIdOrderByCreationDateDesc, countByAdvisorId, findAverageRatingByAdvisorId,
+                // findByAdvisorIdAndRatingGreaterThanEqual
+                new IndexSpec(Review.class, new Index()
+                        .on("advisorId", Direction.ASC)
+                        .on("creationDate", Direction.DESC)),
+                // reviews: existsByAdvisorIdAndPatientId (eine Bewertung pro Patient und Berater)
+                new IndexSpec(Review.class, new Index()
+                        .on("advisorId", Direction.ASC)
+                        .on("patientId", Direction.ASC)
+                        .unique()),
+
+                // users: findByEmail, existsByEmail
+                new IndexSpec(User.class, new Index().on("email", Direction.ASC).unique()),
+                // users: findByEmailIgnoreCase. Eindeutig ohne Rücksicht auf Groß-/Kleinschreibung,
+                // die Registrierung verlässt sich darauf (Insert + DuplicateKeyException statt Vorab-Abfrage)
+                new IndexSpec(User.class, new Index()
+                        .named("email_ci_unique")
+                        .on("email", Direction.ASC)
+                        .unique()
+                        .collation(Collation.parse(UserRepository.EMAIL_COLLATION))),
+                // users: findByUsername, existsByUsername
+                new IndexSpec(User.class, new Index().on("username", Direction.ASC)),
+                // users: findByProviderAndProviderId
+                new IndexSpec(User.class, new Index()
+                        .on("provider", Direction.ASC)
+                        .on("providerId", Direction.ASC)),
+                // users: findByRole...
+                new IndexSpec(User.class, new Index().on("role", Direction.ASC))
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package de.aha.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Aktiviert {@code @Scheduled}-Methoden, z.B. für das Wegschreiben des Online-Status.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
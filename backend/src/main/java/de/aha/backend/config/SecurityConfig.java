@@ -1,6 +1,7 @@
 package de.aha.backend.config;
 
 //import com.amazingapps.restaurantfinder.security.JwtAuthenticationFilter;
+import de.aha.backend.security.TokenInteract;
 import de.aha.backend.service.CustomOAuth2UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -14,6 +15,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
 
 import static org.springframework.security.config.Customizer.withDefaults;
@@ -29,6 +31,7 @@ public class SecurityConfig {
 
 //    private final CustomOAuth2UserService oauth2UserService;
     private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
+    private final TokenInteract tokenInteract;
 
     /**
      * Configures the security filter chain, including JWT authentication and session management.
@@ -62,6 +65,7 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .logout(logout -> logout
                         .logoutUrl("/logout")
+                        .addLogoutHandler(tokenLogoutHandler())
                         .logoutSuccessHandler(logoutSuccessHandler())
                         .invalidateHttpSession(true)
                         .clearAuthentication(true)
@@ -78,6 +82,15 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Provides a logout handler bean that evicts the caller's token from the verified token cache.
+     * @return LogoutHandler instance
+     */
+    @Bean
+    public LogoutHandler tokenLogoutHandler() {
+        return (request, response, authentication) -> tokenInteract.logout(request);
+    }
+
     /**
      * Provides a logout success handler bean that returns HTTP 200 OK.
      * @return LogoutSuccessHandler instance
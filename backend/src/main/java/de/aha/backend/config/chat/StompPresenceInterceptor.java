@@ -0,0 +1,59 @@
+package de.aha.backend.config.chat;
+
+import de.aha.backend.security.TokenInteract;
+import de.aha.backend.service.AdvisorPresenceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Liest beim STOMP-CONNECT das JWT aus dem {@code Authorization}-Header und setzt die
+ * User-ID als Principal der Session. Jede weitere eingehende Nachricht, auch ein
+ * Heartbeat, zählt für die Presence als Lebenszeichen.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompPresenceInterceptor implements ChannelInterceptor {
+
+    private static final String TOKEN_PREFIX = "Bearer ";
+
+    private final TokenInteract tokenInteract;
+    // verzögert aufgelöst, die Registry braucht den erst mit dieser Konfiguration erzeugten SimpMessagingTemplate
+    private final ObjectProvider<AdvisorPresenceRegistry> presenceRegistry;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            authenticate(accessor);
+            return message;
+        }
+
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            presenceRegistry.ifAvailable(registry -> registry.heartbeat(sessionId));
+        }
+        return message;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(TOKEN_PREFIX)) {
+            // anonyme Verbindung, z.B. nur für öffentliche Topics
+            return;
+        }
+        String userId = tokenInteract.verify(header.substring(TOKEN_PREFIX.length())).userId();
+        accessor.setUser(UsernamePasswordAuthenticationToken.authenticated(userId, null, List.of()));
+    }
+}
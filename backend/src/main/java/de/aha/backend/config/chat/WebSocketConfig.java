@@ -1,20 +1,153 @@
 package de.aha.backend.config.chat;
 
+import de.aha.backend.security.CurrentUserMessageArgumentResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionHandler;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketSessionMetrics webSocketSessionMetrics;
+    private final StompPresenceInterceptor stompPresenceInterceptor;
+    // Scheduler des Brokers, verzögert aufgelöst, er entsteht erst mit dieser Konfiguration
+    @Qualifier("messageBrokerTaskScheduler")
+    private final ObjectProvider<TaskScheduler> messageBrokerTaskScheduler;
+
+    // simple: In-Memory-Broker je Knoten, relay: externer STOMP-Broker (z.B. RabbitMQ, ActiveMQ) für mehrere Knoten
+    @Value("${app.chat.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${app.chat.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.chat.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.chat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    // STOMP-Heartbeats in beide Richtungen; ohne sie sendet ein untätiger Client nichts und
+    // seine Presence läuft nach app.presence.heartbeat-timeout ab
+    @Value("${app.chat.websocket.heartbeat:PT25S}")
+    private Duration heartbeat;
+
+    @Value("${app.presence.heartbeat-timeout:PT90S}")
+    private Duration presenceTimeout;
+
+    // Ein Client, der länger blockiert oder mehr Daten auflaufen lässt, wird getrennt
+    @Value("${app.chat.websocket.send-time-limit:PT10S}")
+    private Duration sendTimeLimit;
+
+    @Value("${app.chat.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.chat.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    // Eigene, begrenzte Executoren für die Client-Channels
+    @Value("${app.chat.channel.inbound.pool-size:8}")
+    private int inboundPoolSize;
+
+    @Value("${app.chat.channel.outbound.pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${app.chat.channel.queue-capacity:10000}")
+    private int channelQueueCapacity;
+
+    @Value("${app.chat.channel.virtual-threads:false}")
+    private boolean virtualThreads;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (heartbeat.isZero() || heartbeat.isNegative() || heartbeat.compareTo(presenceTimeout) >= 0) {
+            throw new IllegalStateException("app.chat.websocket.heartbeat (" + heartbeat
+                    + ") must be positive and below app.presence.heartbeat-timeout (" + presenceTimeout + ")");
+        }
+        long heartbeatMillis = heartbeat.toMillis();
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Client-Heartbeats handelt der externe Broker aus, sie laufen trotzdem über den
+                    // Inbound-Channel; die System-Verbindung hält sich selbst am Leben
+                    .setSystemHeartbeatSendInterval(heartbeatMillis)
+                    .setSystemHeartbeatReceiveInterval(heartbeatMillis)
+                    // Benutzer, die an einem anderen Knoten verbunden sind, über den Broker erreichen
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                    .setTaskScheduler(messageBrokerTaskScheduler.getObject());
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // bewusst ohne setPreservePublishOrder: damit wartet jede Nachricht auf die vorige und
+        // die Grenzen aus configureWebSocketTransport greifen bei langsamen Clients nie
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(webSocketSessionMetrics::decorate);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompPresenceInterceptor)
+                .taskExecutor(channelExecutor("ws-inbound-", inboundPoolSize, webSocketSessionMetrics.inboundRejections()));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("ws-outbound-", outboundPoolSize, webSocketSessionMetrics.outboundRejections()));
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix, int poolSize,
+                                                   RejectedExecutionHandler rejectionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        // volle Queue: Nachricht wird abgelehnt (und gezählt) statt unbegrenzt Speicher zu belegen
+        executor.setQueueCapacity(channelQueueCapacity);
+        executor.setRejectedExecutionHandler(rejectionHandler);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+
+    // @CurrentUser in @MessageMapping-Methoden, aus dem Principal der STOMP-Session
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
+        argumentResolvers.add(new CurrentUserMessageArgumentResolver());
     }
 
     @Override
@@ -26,4 +159,4 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws-chat")
                 .setAllowedOriginPatterns("*");
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,6 @@
 package de.aha.backend.config.chat;
 
-import de.aha.backend.service.AdvisorService;
+import de.aha.backend.service.AdvisorPresenceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -10,18 +10,26 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+import java.security.Principal;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class WebSocketEventListener {
 
-//    private final AdvisorService advisorService;
+    private final AdvisorPresenceRegistry presenceRegistry;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
         SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
         String sessionId = headers.getSessionId();
         log.info("WebSocket connection established: {}", sessionId);
+
+        // Principal setzt der StompPresenceInterceptor aus dem JWT; zählt nur, wenn es ein Berater ist
+        Principal user = event.getUser();
+        if (user != null && sessionId != null) {
+            presenceRegistry.connect(user.getName(), sessionId);
+        }
     }
 
     @EventListener
@@ -29,8 +37,9 @@ public class WebSocketEventListener {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         String sessionId = headerAccessor.getSessionId();
 
-        // Hier könnten wir den Online-Status des Advisors aktualisieren
-        // advisorService.updateAdvisorOnlineStatus(advisorId, false);
+        if (sessionId != null) {
+            presenceRegistry.disconnect(sessionId);
+        }
 
         log.info("WebSocket connection closed: {}", sessionId);
     }
@@ -0,0 +1,113 @@
+package de.aha.backend.config.chat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zählt WebSocket-Sessions, insbesondere solche, die wegen Überschreitung von
+ * Sendepuffer oder Sendezeit geschlossen wurden (langsame Clients), sowie Nachrichten,
+ * die die Executoren der Client-Channels wegen voller Queue abgelehnt haben.
+ * Der Stand wird periodisch geloggt.
+ */
+@Slf4j
+@Component
+public class WebSocketSessionMetrics {
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicLong openedSessions = new AtomicLong();
+    private final AtomicLong slowSessionsClosed = new AtomicLong();
+    private final AtomicLong transportErrors = new AtomicLong();
+    private final AtomicLong inboundRejected = new AtomicLong();
+    private final AtomicLong outboundRejected = new AtomicLong();
+    private Snapshot lastLogged;
+
+    public record Snapshot(int activeSessions, long openedSessions, long slowSessionsClosed, long transportErrors,
+                           long inboundRejected, long outboundRejected) {
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(activeSessions.get(), openedSessions.get(), slowSessionsClosed.get(), transportErrors.get(),
+                inboundRejected.get(), outboundRejected.get());
+    }
+
+    /**
+     * Loggt den aktuellen Stand, sofern er sich seit dem letzten Lauf geändert hat.
+     */
+    @Scheduled(fixedDelayString = "${app.chat.websocket.metrics-log-interval:PT1M}")
+    public void logSnapshot() {
+        Snapshot snapshot = snapshot();
+        synchronized (this) {
+            if (snapshot.equals(lastLogged)) {
+                return;
+            }
+            lastLogged = snapshot;
+        }
+        log.info("WebSocket: {} active sessions ({} opened, {} closed as slow, {} transport errors), "
+                        + "rejected frames inbound {} outbound {}",
+                snapshot.activeSessions(), snapshot.openedSessions(), snapshot.slowSessionsClosed(),
+                snapshot.transportErrors(), snapshot.inboundRejected(), snapshot.outboundRejected());
+    }
+
+    /**
+     * Handler für den Executor des Inbound-Channels: zählt die Ablehnung und lehnt weiterhin ab.
+     */
+    public RejectedExecutionHandler inboundRejections() {
+        return countingRejections(inboundRejected, "inbound");
+    }
+
+    /**
+     * Handler für den Executor des Outbound-Channels: zählt die Ablehnung und lehnt weiterhin ab.
+     */
+    public RejectedExecutionHandler outboundRejections() {
+        return countingRejections(outboundRejected, "outbound");
+    }
+
+    private static RejectedExecutionHandler countingRejections(AtomicLong counter, String channel) {
+        return (task, executor) -> {
+            counter.incrementAndGet();
+            throw new RejectedExecutionException("Client " + channel + " channel queue full ("
+                    + executor.getQueue().size() + " queued)");
+        };
+    }
+
+    /**
+     * Decorator für den WebSocket-Handler, siehe {@code WebSocketTransportRegistration#addDecoratorFactory}.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                activeSessions.incrementAndGet();
+                openedSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+                transportErrors.incrementAndGet();
+                super.handleTransportError(session, exception);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                activeSessions.decrementAndGet();
+                // SESSION_NOT_RELIABLE: Sendepuffer oder Sendezeit überschritten, der Client hat nicht mitgelesen
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    long slow = slowSessionsClosed.incrementAndGet();
+                    log.warn("Closed slow WebSocket session {} ({} slow sessions closed so far)", session.getId(), slow);
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+}
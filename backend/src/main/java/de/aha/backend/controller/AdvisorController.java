@@ -1,5 +1,6 @@
 package de.aha.backend.controller;
 
+import de.aha.backend.dto.advisor.AdvisorSummary;
 import de.aha.backend.dto.chat.ApiResponse;
 import de.aha.backend.model.advisor.Advisor;
 import de.aha.backend.model.appointment.WorkingHours;
@@ -33,6 +34,15 @@ public class AdvisorController {
         return ResponseEntity.ok(advisors);
     }
 
+    @GetMapping(params = "view=summary")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<List<AdvisorSummary>> getAllAdvisorSummaries(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) String language) {
+        List<AdvisorSummary> advisors = advisorService.searchAdvisorSummaries(specialization, language);
+        return ResponseEntity.ok(advisors);
+    }
+
     @GetMapping("/{advisorId}")
     @SecurityRequirement(name = "Bearer Authentication")
     public ResponseEntity<Advisor> getAdvisorById(@PathVariable String advisorId) {
@@ -90,6 +100,17 @@ public class AdvisorController {
         }
     }
 
+    @GetMapping(value = "/available", params = "view=summary")
+    public ResponseEntity<ApiResponse<List<AdvisorSummary>>> getAvailableAdvisorSummaries() {
+        try {
+            List<AdvisorSummary> advisors = advisorService.getAvailableAdvisorSummaries();
+            return ResponseEntity.ok(ApiResponse.success(advisors));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to fetch available advisors: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/online")
     public ResponseEntity<ApiResponse<List<Advisor>>> getOnlineAdvisors() {
         try {
@@ -101,6 +122,17 @@ public class AdvisorController {
         }
     }
 
+    @GetMapping(value = "/online", params = "view=summary")
+    public ResponseEntity<ApiResponse<List<AdvisorSummary>>> getOnlineAdvisorSummaries() {
+        try {
+            List<AdvisorSummary> advisors = advisorService.getOnlineAdvisorSummaries();
+            return ResponseEntity.ok(ApiResponse.success(advisors));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to fetch online advisors: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/apiresponse/{id}")
     public ResponseEntity<ApiResponse<Advisor>> getAdvisorByIdAsApiResponse(@PathVariable String id) {
         try {
@@ -2,6 +2,8 @@ package de.aha.backend.controller;
 
 import de.aha.backend.dto.advisor.AdvisorSearchRequest;
 import de.aha.backend.dto.advisor.AdvisorSearchResponse;
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.dto.advisor.FacetCount;
 import de.aha.backend.model.advisor.Advisor;
 import de.aha.backend.security.AuthInterceptor;
 import de.aha.backend.security.AuthRequired;
@@ -25,12 +27,27 @@ public class AdvisorSearchController {
 
     @GetMapping("/search")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<AdvisorSearchResponse> searchAdvisors(
+    public ResponseEntity<AdvisorSearchResponse<Advisor>> searchAdvisors(
             @ModelAttribute AdvisorSearchRequest request) {
-        AdvisorSearchResponse response = advisorSearchService.searchAdvisors(request);
+        AdvisorSearchResponse<Advisor> response = advisorSearchService.searchAdvisors(request);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/search", params = "view=summary")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<AdvisorSearchResponse<AdvisorSummary>> searchAdvisorSummaries(
+            @ModelAttribute AdvisorSearchRequest request) {
+        AdvisorSearchResponse<AdvisorSummary> response = advisorSearchService.searchAdvisorSummaries(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/stats")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<AdvisorSearchResponse.SearchStats> getSearchStats() {
+        AdvisorSearchResponse.SearchStats stats = advisorSearchService.getSearchStats();
+        return ResponseEntity.ok(stats);
+    }
+
     @GetMapping("/specializations")
     @SecurityRequirement(name = "Bearer Authentication")
     public ResponseEntity<List<String>> getAllSpecializations() {
@@ -45,6 +62,20 @@ public class AdvisorSearchController {
         return ResponseEntity.ok(languages);
     }
 
+    @GetMapping("/specializations/counts")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<List<FacetCount>> getSpecializationCounts() {
+        List<FacetCount> specializations = advisorSearchService.getSpecializationCounts();
+        return ResponseEntity.ok(specializations);
+    }
+
+    @GetMapping("/languages/counts")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<List<FacetCount>> getLanguageCounts() {
+        List<FacetCount> languages = advisorSearchService.getLanguageCounts();
+        return ResponseEntity.ok(languages);
+    }
+
     @GetMapping("/featured")
     @SecurityRequirement(name = "Bearer Authentication")
     public ResponseEntity<List<Advisor>> getFeaturedAdvisors() {
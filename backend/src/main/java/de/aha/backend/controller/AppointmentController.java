@@ -14,11 +14,14 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -27,6 +30,8 @@ import java.util.List;
 @AuthRequired(AuthInterceptor.class)
 @Tag(name = "appointment", description = "Appointment endpoints")
 public class AppointmentController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AppointmentService appointmentService;
     private final AuthInterceptor authInterceptor;
 
@@ -74,7 +79,10 @@ public class AppointmentController {
 
     /**
      * Retrieves appointments of the currently authenticated user.
+     * Optionally restricted to a single {@code date} or a {@code from}/{@code to} window and
+     * paginated with {@code page}/{@code size}; without {@code size} all matching appointments are returned.
      * Returns a 200 OK response with user appointments if successful.
+     * Returns a 400 Bad Request response if the date window is invalid.
      * Returns a 401 Unauthorized response if the user is not authenticated.
      * Returns a 500 Internal Server Error response if an unexpected error occurs.
      * Returns a 503 Service Unavailable response if the service is temporarily unavailable.
@@ -84,12 +92,21 @@ public class AppointmentController {
     @Operation(summary = "Get appointments of the current user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User appointments"),
+            @ApiResponse(responseCode = "400", description = "Invalid date window"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "500", description = "Internal server error"),
             @ApiResponse(responseCode = "503", description = "Service unavailable"),
     })
-    public ResponseEntity<List<AppointmentResponse>> getUserAppointments(@RequestParam(required = false) LocalDate date) {
-        var appointments = appointmentService.getAppointments(date, authInterceptor.getUserId());
+    public ResponseEntity<List<AppointmentResponse>> getUserAppointments(
+            @RequestParam(required = false) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        Pageable pageable = size == null
+                ? Pageable.unpaged()
+                : PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE));
+        var appointments = appointmentService.getAppointments(date, from, to, pageable, authInterceptor.getUserId());
         return ResponseEntity.ok(appointments);
     }
 
@@ -126,6 +143,29 @@ public class AppointmentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Retrieves the free slots of an advisor for every day from {@code from} to {@code to} (inclusive, at most 31 days).
+     * Returns a 200 OK response with one availability entry per day if successful.
+     * Returns a 400 Bad Request response if the range is invalid.
+     * Returns a 404 Not Found response if the advisor does not exist.
+     */
+    @GetMapping(value = "/availability/{advisorId}", params = {"from", "to"})
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Get the availability of an advisor for a date range")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Availability per day"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "Advisor not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+    })
+    public ResponseEntity<List<AvailabilityResponse>> checkAvailabilityRange(
+            @PathVariable String advisorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(appointmentService.checkAvailability(advisorId, from, to));
+    }
+
     @DeleteMapping("/{appointmentId}")
     @SecurityRequirement(name = "Bearer Authentication")
     public ResponseEntity<Void> cancelAppointment(@PathVariable String appointmentId) {
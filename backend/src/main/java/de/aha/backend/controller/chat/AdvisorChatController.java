@@ -12,16 +12,16 @@ import de.aha.backend.model.chat.SenderType;
 import de.aha.backend.model.user.User;
 import de.aha.backend.security.AuthInterceptor;
 import de.aha.backend.security.AuthRequired;
+import de.aha.backend.security.CurrentUser;
 import de.aha.backend.service.AdvisorService;
 import de.aha.backend.service.UserService;
+import de.aha.backend.service.chat.ChatMessageDispatcher;
 import de.aha.backend.service.chat.ChatMessageService;
 import de.aha.backend.service.chat.ChatSessionService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -39,8 +39,7 @@ public class AdvisorChatController {
 
     private final ChatMessageService chatMessageService;
     private final ChatSessionService chatSessionService;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final AuthInterceptor authInterceptor;
+    private final ChatMessageDispatcher chatMessageDispatcher;
     private final UserService userService;
     private final AdvisorService advisorService;
 
@@ -48,28 +47,18 @@ public class AdvisorChatController {
     @PostMapping("/{userId}/message")
     public ResponseEntity<ApiResponse<ChatMessageDTO>> sendMessageToUser(
             @PathVariable String userId,
-            @Valid @RequestBody SendMessageRequest request) {
+            @Valid @RequestBody SendMessageRequest request,
+            @CurrentUser String advisorId) {
 
         User user = userService.findById(userId);
-        var advisorId = authInterceptor.getUserId();
         var advisor = advisorService.getAdvisorById(advisorId).
                 orElseThrow(() -> new NotFoundObjectException("Advisor not found with advisor id: " + advisorId));
 
         try {
-            // Session finden oder erstellen
-            ChatSession session = chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)
-                    .orElseGet(() -> {
-                        // In einer echten Implementierung würden wir hier User-Daten laden
-                        ChatSession newSession = ChatSession.builder()
-                                .userId(userId)
-                                .advisorId(advisorId)
-                                .advisorName(advisor.getName()) // "Advisor Name" Würde aus Advisor-Service geladen
-                                .lastMessage(request.getContent())
-                                .lastMessageTime(LocalDateTime.now())
-                                .unreadCount(1) // User hat eine ungelesene Nachricht
-                                .build();
-                        return chatSessionService.createOrUpdateSession(newSession);
-                    });
+            // Session anlegen oder aktualisieren und Zähler des Users erhöhen, atomar in einem Schritt
+            LocalDateTime now = LocalDateTime.now();
+            ChatSession session = chatSessionService.recordMessage(
+                    userId, advisorId, advisor.getName(), SenderType.ADVISOR, request.getContent(), now);
 
             // Nachricht erstellen
             ChatMessage message = ChatMessage.builder()
@@ -78,7 +67,7 @@ public class AdvisorChatController {
                     .senderId(advisorId)
                     .senderName(advisor.getName()) // "Advisor Name" Würde aus Advisor-Service geladen
                     .senderType(SenderType.ADVISOR)
-                    .timestamp(LocalDateTime.now())
+                    .timestamp(now)
                     .type(MessageType.TEXT)
                     .read(false)
                     .audioUrl(request.getAudioUrl())
@@ -86,15 +75,9 @@ public class AdvisorChatController {
 
             ChatMessage savedMessage = chatMessageService.saveMessage(message);
 
-            // Session aktualisieren
-            session.setLastMessage(request.getContent());
-            session.setLastMessageTime(savedMessage.getTimestamp());
-            session.setUnreadCount((int) chatMessageService.getUnreadCountForUser(session.getId()));
-            chatSessionService.createOrUpdateSession(session);
-
             // Nachricht über WebSocket an User senden
             ChatMessageDTO messageDTO = convertToDTO(savedMessage);
-            messagingTemplate.convertAndSendToUser(
+            chatMessageDispatcher.sendToUser(
                     userId,
                     "/queue/messages",
                     messageDTO
@@ -111,20 +94,26 @@ public class AdvisorChatController {
         }
     }
 
-    // Chat-Historie für Advisor abrufen
+    // Chat-Historie für Advisor abrufen: ohne before die neuesten Nachrichten, mit before die Seite davor
     @GetMapping("/{userId}/history")
     public ResponseEntity<ApiResponse<List<ChatMessageDTO>>> getChatHistoryForAdvisor(
             @PathVariable String userId,
-            @AuthenticationPrincipal String advisorId) {
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "" + ChatController.DEFAULT_HISTORY_LIMIT) int limit,
+            @CurrentUser String advisorId) {
 
         try {
             ChatSession session = chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)
                     .orElseThrow(() -> new RuntimeException("Chat session not found"));
 
-            List<ChatMessage> messages = chatMessageService.getChatHistory(session.getId());
+            List<ChatMessage> messages = chatMessageService.getChatHistoryPage(
+                    session, before, Math.clamp(limit, 1, ChatController.MAX_HISTORY_LIMIT));
 
-            // Nachrichten des Users als gelesen markieren
-            chatMessageService.markMessagesAsRead(session.getId(), SenderType.USER);
+            if (before == null) {
+                // Nachrichten des Users als gelesen markieren
+                chatMessageService.markMessagesAsRead(session.getId(), SenderType.USER);
+                chatSessionService.resetUnreadCount(session.getId(), SenderType.ADVISOR);
+            }
 
             List<ChatMessageDTO> messageDTOs = messages.stream()
                     .map(this::convertToDTO)
@@ -139,10 +128,33 @@ public class AdvisorChatController {
         }
     }
 
+    // Vollständige Chat-Historie für Advisor, z.B. für den Export
+    @GetMapping("/{userId}/history/export")
+    public ResponseEntity<ApiResponse<List<ChatMessageDTO>>> exportChatHistoryForAdvisor(
+            @PathVariable String userId,
+            @CurrentUser String advisorId) {
+
+        try {
+            ChatSession session = chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)
+                    .orElseThrow(() -> new RuntimeException("Chat session not found"));
+
+            List<ChatMessageDTO> messageDTOs = chatMessageService.getChatHistory(session.getId()).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(ApiResponse.success(messageDTOs));
+
+        } catch (Exception e) {
+            log.error("Error exporting chat history for advisor: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to export chat history: " + e.getMessage()));
+        }
+    }
+
     // Chat-Sessions für Advisor abrufen
     @GetMapping("/sessions")
     public ResponseEntity<ApiResponse<List<ChatSessionDTO>>> getAdvisorChatSessions(
-            @AuthenticationPrincipal String advisorId) {
+            @CurrentUser String advisorId) {
 
         try {
             List<ChatSession> sessions = chatSessionService.getAdvisorSessions(advisorId);
@@ -163,15 +175,16 @@ public class AdvisorChatController {
     @PostMapping("/{userId}/read")
     public ResponseEntity<ApiResponse<Void>> markMessagesAsReadByAdvisor(
             @PathVariable String userId,
-            @AuthenticationPrincipal String advisorId) {
+            @CurrentUser String advisorId) {
 
         try {
             ChatSession session = chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)
                     .orElseThrow(() -> new RuntimeException("Chat session not found"));
 
-            chatMessageService.markMessagesAsRead(session.getId(), SenderType.USER);
+            long marked = chatMessageService.markMessagesAsRead(session.getId(), SenderType.USER);
+            chatSessionService.resetUnreadCount(session.getId(), SenderType.ADVISOR);
 
-            log.info("Messages marked as read by advisor for session: {}", session.getId());
+            log.info("{} messages marked as read by advisor for session: {}", marked, session.getId());
 
             return ResponseEntity.ok(ApiResponse.success(null));
 
@@ -207,7 +220,9 @@ public class AdvisorChatController {
                 .advisorImage(session.getAdvisorImage())
                 .lastMessage(session.getLastMessage())
                 .lastMessageTime(session.getLastMessageTime())
-                .unreadCount(session.getUnreadCount())
+                .unreadCount(session.getAdvisorUnreadCount())
+                .userReadUpTo(session.getUserReadUpTo())
+                .advisorReadUpTo(session.getAdvisorReadUpTo())
                 .isActive(session.getIsActive())
                 .createdAt(session.getCreationDate())
                 .build();
@@ -1,8 +1,10 @@
 package de.aha.backend.controller.chat;
 
 import de.aha.backend.dto.chat.ApiResponse;
+import de.aha.backend.dto.chat.ChatInboxEntryDTO;
 import de.aha.backend.dto.chat.ChatMessageDTO;
 import de.aha.backend.dto.chat.ChatSessionDTO;
+import de.aha.backend.dto.chat.InboxEntry;
 import de.aha.backend.dto.chat.SendMessageRequest;
 import de.aha.backend.exception.NotFoundObjectException;
 import de.aha.backend.model.chat.ChatMessage;
@@ -12,18 +14,19 @@ import de.aha.backend.model.chat.SenderType;
 import de.aha.backend.model.user.User;
 import de.aha.backend.security.AuthInterceptor;
 import de.aha.backend.security.AuthRequired;
+import de.aha.backend.security.CurrentUser;
 import de.aha.backend.service.AdvisorService;
 import de.aha.backend.service.UserService;
+import de.aha.backend.service.chat.ChatMessageDispatcher;
 import de.aha.backend.service.chat.ChatMessageService;
 import de.aha.backend.service.chat.ChatSessionService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -39,10 +42,16 @@ import java.util.stream.Collectors;
 @Tag(name = "chat", description = "chat endpoints")
 public class ChatController {
 
+    // Seitengröße der Chat-Historie beim Zurückblättern
+    static final int DEFAULT_HISTORY_LIMIT = 50;
+    static final int MAX_HISTORY_LIMIT = 200;
+    // Seitengröße des Posteingangs
+    static final int DEFAULT_INBOX_SIZE = 20;
+    static final int MAX_INBOX_SIZE = 100;
+
     private final ChatMessageService chatMessageService;
     private final ChatSessionService chatSessionService;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final AuthInterceptor authInterceptor;
+    private final ChatMessageDispatcher chatMessageDispatcher;
     private final UserService userService;
     private final AdvisorService advisorService;
 
@@ -50,28 +59,18 @@ public class ChatController {
     @PostMapping("/{advisorId}/message")
     public ResponseEntity<ApiResponse<ChatMessageDTO>> sendMessage(
             @PathVariable String advisorId,
-            @Valid @RequestBody SendMessageRequest request) {
+            @Valid @RequestBody SendMessageRequest request,
+            @CurrentUser String userId) {
 
-        var userId = authInterceptor.getUserId();
         User user = userService.findById(userId);
         var advisor = advisorService.getAdvisorById(advisorId).
                 orElseThrow(() -> new NotFoundObjectException("Advisor not found with advisor id: " + advisorId));
 
         try {
-            // Session finden oder erstellen
-            ChatSession session = chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)
-                    .orElseGet(() -> {
-                        // In einer echten Implementierung würden wir hier Advisor-Daten laden
-                        ChatSession newSession = ChatSession.builder()
-                                .userId(userId)
-                                .advisorId(advisorId)
-                                .advisorName(advisor.getName()) // "Advisor Name" Würde aus Advisor-Service geladen
-                                .lastMessage(request.getContent())
-                                .lastMessageTime(LocalDateTime.now())
-                                .unreadCount(0)
-                                .build();
-                        return chatSessionService.createOrUpdateSession(newSession);
-                    });
+            // Session anlegen oder aktualisieren und Zähler des Advisors erhöhen, atomar in einem Schritt
+            LocalDateTime now = LocalDateTime.now();
+            ChatSession session = chatSessionService.recordMessage(
+                    userId, advisorId, advisor.getName(), SenderType.USER, request.getContent(), now);
 
             // Nachricht erstellen
             ChatMessage message = ChatMessage.builder()
@@ -80,7 +79,7 @@ public class ChatController {
                     .senderId(userId)
                     .senderName(user.getUsername()) // "Current user" Würde aus User-Service geladen
                     .senderType(SenderType.USER)
-                    .timestamp(LocalDateTime.now())
+                    .timestamp(now)
                     .type(MessageType.TEXT)
                     .read(false)
                     .audioUrl(request.getAudioUrl())
@@ -88,15 +87,9 @@ public class ChatController {
 
             ChatMessage savedMessage = chatMessageService.saveMessage(message);
 
-            // Session aktualisieren
-            session.setLastMessage(request.getContent());
-            session.setLastMessageTime(savedMessage.getTimestamp());
-            session.setUnreadCount((int) chatMessageService.getUnreadCountForAdvisor(session.getId()));
-            chatSessionService.createOrUpdateSession(session);
-
             // Nachricht über WebSocket an Advisor senden
             ChatMessageDTO messageDTO = convertToDTO(savedMessage);
-            messagingTemplate.convertAndSendToUser(
+            chatMessageDispatcher.sendToUser(
                     advisorId,
                     "/queue/messages",
                     messageDTO
@@ -113,24 +106,28 @@ public class ChatController {
         }
     }
 
-    // Chat-Historie abrufen
+    // Chat-Historie abrufen: ohne before die neuesten Nachrichten, mit before die Seite davor
     @GetMapping("/{advisorId}/history")
     public ResponseEntity<ApiResponse<List<ChatMessageDTO>>> getChatHistory(
             @PathVariable String advisorId,
-            @AuthenticationPrincipal String userId) {
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "" + DEFAULT_HISTORY_LIMIT) int limit,
+            @CurrentUser String userId) {
 
         try {
             ChatSession session = chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)
                     .orElseThrow(() -> new RuntimeException("Chat session not found"));
 
-            List<ChatMessage> messages = chatMessageService.getChatHistory(session.getId());
+            List<ChatMessage> messages = chatMessageService.getChatHistoryPage(
+                    session, before, Math.clamp(limit, 1, MAX_HISTORY_LIMIT));
 
-            // Nachrichten des Advisors als gelesen markieren
-            chatMessageService.markMessagesAsRead(session.getId(), SenderType.ADVISOR);
+            if (before == null) {
+                // Nachrichten des Advisors als gelesen markieren
+                chatMessageService.markMessagesAsRead(session.getId(), SenderType.ADVISOR);
 
-            // Unread Count aktualisieren
-            session.setUnreadCount(0);
-            chatSessionService.createOrUpdateSession(session);
+                // Unread Count des Users zurücksetzen
+                chatSessionService.resetUnreadCount(session.getId(), SenderType.USER);
+            }
 
             List<ChatMessageDTO> messageDTOs = messages.stream()
                     .map(this::convertToDTO)
@@ -145,10 +142,33 @@ public class ChatController {
         }
     }
 
+    // Vollständige Chat-Historie, z.B. für den Export
+    @GetMapping("/{advisorId}/history/export")
+    public ResponseEntity<ApiResponse<List<ChatMessageDTO>>> exportChatHistory(
+            @PathVariable String advisorId,
+            @CurrentUser String userId) {
+
+        try {
+            ChatSession session = chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)
+                    .orElseThrow(() -> new RuntimeException("Chat session not found"));
+
+            List<ChatMessageDTO> messageDTOs = chatMessageService.getChatHistory(session.getId()).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(ApiResponse.success(messageDTOs));
+
+        } catch (Exception e) {
+            log.error("Error exporting chat history: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to export chat history: " + e.getMessage()));
+        }
+    }
+
     // Chat-Sessions für Benutzer abrufen
     @GetMapping("/sessions")
     public ResponseEntity<ApiResponse<List<ChatSessionDTO>>> getUserChatSessions(
-            @AuthenticationPrincipal String userId) {
+            @CurrentUser String userId) {
 
         try {
             List<ChatSession> sessions = chatSessionService.getUserSessions(userId);
@@ -165,23 +185,46 @@ public class ChatController {
         }
     }
 
+    // Posteingang: alle Sessions mit letzter Nachricht, ungelesenen Nachrichten und Online-Status des Beraters.
+    // Für inkrementelles Polling den neuesten bekannten lastMessageTime als updatedSince übergeben.
+    @GetMapping("/inbox")
+    public ResponseEntity<ApiResponse<List<ChatInboxEntryDTO>>> getInbox(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + DEFAULT_INBOX_SIZE) int size,
+            @CurrentUser String userId) {
+
+        try {
+            List<ChatInboxEntryDTO> inbox = chatSessionService.getUserInbox(
+                            userId, updatedSince, Math.max(page, 0), Math.clamp(size, 1, MAX_INBOX_SIZE)).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(ApiResponse.success(inbox));
+
+        } catch (Exception e) {
+            log.error("Error fetching inbox: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to fetch inbox: " + e.getMessage()));
+        }
+    }
+
     // Nachrichten als gelesen markieren
     @PostMapping("/{advisorId}/read")
     public ResponseEntity<ApiResponse<Void>> markMessagesAsRead(
             @PathVariable String advisorId,
-            @AuthenticationPrincipal String userId) {
+            @CurrentUser String userId) {
 
         try {
             ChatSession session = chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)
                     .orElseThrow(() -> new RuntimeException("Chat session not found"));
 
-            chatMessageService.markMessagesAsRead(session.getId(), SenderType.ADVISOR);
+            long marked = chatMessageService.markMessagesAsRead(session.getId(), SenderType.ADVISOR);
 
             // Unread Count zurücksetzen
-            session.setUnreadCount(0);
-            chatSessionService.createOrUpdateSession(session);
+            chatSessionService.resetUnreadCount(session.getId(), SenderType.USER);
 
-            log.info("Messages marked as read for session: {}", session.getId());
+            log.info("{} messages marked as read for session: {}", marked, session.getId());
 
             return ResponseEntity.ok(ApiResponse.success(null));
 
@@ -193,21 +236,46 @@ public class ChatController {
     }
 
     // WebSocket Message Handling
+    // Absender und Empfänger ergeben sich nur aus dem Principal der STOMP-Session und den
+    // Teilnehmern der Chat-Session; senderId/senderType aus dem Payload werden ignoriert
     @MessageMapping("/chat.sendMessage")
-    public void sendMessage(@Payload ChatMessageDTO chatMessageDTO) {
+    public void sendMessage(@Payload ChatMessageDTO chatMessageDTO, @CurrentUser String userId) {
         try {
-            // Nachricht speichern
-            ChatMessage message = convertToEntity(chatMessageDTO);
+            ChatSession session = chatSessionService.getSession(chatMessageDTO.getSessionId()).orElse(null);
+            if (session == null) {
+                log.warn("Dropping WebSocket message for unknown session {}", chatMessageDTO.getSessionId());
+                return;
+            }
+
+            SenderType senderType;
+            String recipientId;
+            if (userId.equals(session.getUserId())) {
+                senderType = SenderType.USER;
+                recipientId = session.getAdvisorId();
+            } else if (userId.equals(session.getAdvisorId())) {
+                senderType = SenderType.ADVISOR;
+                recipientId = session.getUserId();
+            } else {
+                log.warn("Dropping WebSocket message from {} who is not part of session {}", userId, session.getId());
+                return;
+            }
+
+            // Nachricht speichern; ID, Lesestatus und Zeitstempel vergibt der Server
+            ChatMessage message = ChatMessage.builder()
+                    .sessionId(session.getId())
+                    .content(chatMessageDTO.getContent())
+                    .senderId(userId)
+                    .senderName(chatMessageDTO.getSenderName())
+                    .senderType(senderType)
+                    .timestamp(LocalDateTime.now())
+                    .type(chatMessageDTO.getType() != null ? MessageType.valueOf(chatMessageDTO.getType()) : MessageType.TEXT)
+                    .read(false)
+                    .audioUrl(chatMessageDTO.getAudioUrl())
+                    .build();
             ChatMessage savedMessage = chatMessageService.saveMessage(message);
 
             // An Empfänger senden
-            String destination = "/queue/messages";
-            messagingTemplate.convertAndSendToUser(
-                    chatMessageDTO.getSenderId().equals("user") ?
-                            chatMessageDTO.getSessionId() : chatMessageDTO.getSenderId(),
-                    destination,
-                    convertToDTO(savedMessage)
-            );
+            chatMessageDispatcher.sendToUser(recipientId, "/queue/messages", convertToDTO(savedMessage));
 
         } catch (Exception e) {
             log.error("Error in WebSocket message handling: {}", e.getMessage());
@@ -215,9 +283,9 @@ public class ChatController {
     }
 
     @MessageMapping("/chat.addUser")
-    public void addUser(@Payload ChatMessageDTO chatMessageDTO) {
+    public void addUser(@Payload ChatMessageDTO chatMessageDTO, @CurrentUser(required = false) String userId) {
         // Benutzer zu Chat hinzufügen
-        log.info("User added to chat: {}", chatMessageDTO.getSenderId());
+        log.info("User added to chat: {}", userId != null ? userId : chatMessageDTO.getSenderId());
     }
 
     // Helper Methods
@@ -245,24 +313,25 @@ public class ChatController {
                 .advisorImage(session.getAdvisorImage())
                 .lastMessage(session.getLastMessage())
                 .lastMessageTime(session.getLastMessageTime())
-                .unreadCount(session.getUnreadCount())
+                .unreadCount(session.getUserUnreadCount())
+                .userReadUpTo(session.getUserReadUpTo())
+                .advisorReadUpTo(session.getAdvisorReadUpTo())
                 .isActive(session.getIsActive())
                 .createdAt(session.getCreationDate())
                 .build();
     }
 
-    private ChatMessage convertToEntity(ChatMessageDTO dto) {
-        return ChatMessage.builder()
-                .id(dto.getId())
-                .sessionId(dto.getSessionId())
-                .content(dto.getContent())
-                .senderId(dto.getSenderId())
-                .senderName(dto.getSenderName())
-                .senderType(SenderType.valueOf(dto.getSenderType()))
-                .timestamp(dto.getTimestamp())
-                .type(MessageType.valueOf(dto.getType()))
-                .read(dto.isRead())
-                .audioUrl(dto.getAudioUrl())
+    private ChatInboxEntryDTO convertToDTO(InboxEntry entry) {
+        return ChatInboxEntryDTO.builder()
+                .sessionId(entry.sessionId())
+                .advisorId(entry.advisorId())
+                .advisorName(entry.advisorName())
+                .advisorImage(entry.advisorImage())
+                .lastMessage(entry.lastMessage())
+                .lastMessageSenderType(entry.lastMessageSenderType() != null ? entry.lastMessageSenderType().name() : null)
+                .lastMessageTime(entry.lastMessageTime())
+                .unreadCount(entry.unreadCount())
+                .advisorOnline(advisorService.isAdvisorOnline(entry.advisorId()))
                 .build();
     }
 }
\ No newline at end of file
@@ -20,6 +20,12 @@ public class AdvisorSearchRequest {
     @Builder.Default
     private Integer size = 12;
 
+    // Keyset-Pagination: "cursor" aktiviert den Modus, cursor ist das nextCursor der vorherigen Seite
+    private String pagination;
+    private String cursor;
+    // Gesamtzahl im Cursor-Modus nur auf Anfrage ermitteln
+    private Boolean includeCount;
+
     // Getter für Pagination
     public Integer getPage() {
         return page != null ? page : 0;
@@ -28,4 +34,8 @@ public class AdvisorSearchRequest {
     public Integer getSize() {
         return size != null ? size : 12;
     }
+
+    public boolean isCursorMode() {
+        return "cursor".equalsIgnoreCase(pagination) || (cursor != null && !cursor.isBlank());
+    }
 }
@@ -1,24 +1,27 @@
 package de.aha.backend.dto.advisor;
 
-import de.aha.backend.model.advisor.Advisor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class AdvisorSearchResponse {
-    private List<Advisor> advisors;
+public class AdvisorSearchResponse<T> {
+    // Advisor (vollständig) oder AdvisorSummary (view=summary)
+    private List<T> advisors;
     private Long totalCount;
     private Integer currentPage;
     private Integer totalPages;
     private Boolean hasNext;
     private Boolean hasPrevious;
+    // Nur im Cursor-Modus gesetzt, null auf der letzten Seite
+    private String nextCursor;
 
     // Suchstatistiken
     private SearchStats searchStats;
@@ -32,5 +35,8 @@ public class AdvisorSearchResponse {
         private Long availableToday;
         private Double averageRating;
         private Double averageFee;
+        // Zeitpunkt des letzten vollständigen Neuaufbaus bzw. der letzten inkrementellen Änderung
+        private LocalDateTime computedAt;
+        private LocalDateTime updatedAt;
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package de.aha.backend.dto.advisor;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Schlankes Lesemodell eines Beraters für Such- und Listenansichten (Karten).
+ * Wird per Feldprojektion direkt aus der {@code advisors} Collection gelesen, ohne
+ * {@code recentReviews}, {@code workingHours}, {@code address}, {@code bio} und
+ * {@code qualifications}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdvisorSummary {
+
+    // Felder, die für die Projektion aus Mongo geladen werden
+    public static final String[] FIELDS = {
+            "name", "specialization", "rating", "languages", "imageUrl", "image",
+            "experience", "consultationFee", "available", "reviewCount", "online"
+    };
+
+    private String id;
+    private String name;
+    private String specialization;
+    private Double rating;
+    private List<String> languages;
+    private String imageUrl;
+    private String image;
+    private Integer experience;
+    private Double consultationFee;
+    private Boolean available;
+    private Integer reviewCount;
+    private Boolean online;
+}
@@ -0,0 +1,8 @@
+package de.aha.backend.dto.advisor;
+
+/**
+ * Ein Facettenwert (z.B. eine Spezialisierung oder Sprache) mit der Anzahl der
+ * Berater, die ihn führen.
+ */
+public record FacetCount(String value, long count) {
+}
@@ -0,0 +1,9 @@
+package de.aha.backend.dto.advisor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Änderung des Online-Status eines Beraters, wird über {@code /topic/presence} verteilt.
+ */
+public record PresenceDelta(String advisorId, boolean online, LocalDateTime lastSeen) {
+}
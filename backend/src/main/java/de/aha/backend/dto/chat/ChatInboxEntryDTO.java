@@ -0,0 +1,24 @@
+package de.aha.backend.dto.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatInboxEntryDTO {
+    private String sessionId;
+    private String advisorId;
+    private String advisorName;
+    private String advisorImage;
+    private String lastMessage;
+    private String lastMessageSenderType;
+    private LocalDateTime lastMessageTime;
+    private long unreadCount;
+    private boolean advisorOnline;
+}
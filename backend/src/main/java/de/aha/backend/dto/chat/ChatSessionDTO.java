@@ -20,6 +20,8 @@ public class ChatSessionDTO {
     private String lastMessage;
     private LocalDateTime lastMessageTime;
     private Integer unreadCount;
+    private LocalDateTime userReadUpTo;
+    private LocalDateTime advisorReadUpTo;
     private Boolean isActive;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package de.aha.backend.dto.chat;
+
+import de.aha.backend.model.chat.SenderType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Eine Session im Posteingang, wie sie die Aggregation über {@code chat_sessions} liefert.
+ *
+ * @param lastMessage           Inhalt der neuesten Nachricht oder {@code null}
+ * @param lastMessageSenderType wer die neueste Nachricht geschrieben hat, {@code null} bei älteren Sessions
+ * @param unreadCount           ungelesene Nachrichten der Gegenseite
+ */
+public record InboxEntry(String sessionId, String advisorId, String advisorName, String advisorImage,
+                         LocalDateTime lastMessageTime, String lastMessage, SenderType lastMessageSenderType,
+                         long unreadCount) {
+}
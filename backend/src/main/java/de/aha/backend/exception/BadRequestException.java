@@ -0,0 +1,34 @@
+package de.aha.backend.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a request contains invalid input (e.g., a malformed pagination cursor).
+ * Contains error type and HTTP status.
+ */
+@Getter
+public class BadRequestException extends RuntimeException {
+
+    private final ErrorType errorType;
+    private final HttpStatus status;
+
+    /**
+     * Constructs a new BadRequestException with default error type and status.
+     * @param message error message
+     */
+    public BadRequestException(String message) {
+        this(message, null);
+    }
+
+    /**
+     * Constructs a new BadRequestException with default error type and status and an underlying cause.
+     * @param message error message
+     * @param error underlying cause
+     */
+    public BadRequestException(String message, Throwable error) {
+        super(message, error);
+        this.errorType = ErrorType.BAD_REQUEST;
+        this.status = HttpStatus.BAD_REQUEST;
+    }
+}
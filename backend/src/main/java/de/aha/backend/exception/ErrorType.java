@@ -15,5 +15,6 @@ public enum ErrorType {
     UNSUPPORTED_OPERATION,
     FORBIDDEN,
     CONFLICT,
-    REQUEST_ROUTE_ERROR
+    REQUEST_ROUTE_ERROR,
+    SERVICE_UNAVAILABLE
 }
\ No newline at end of file
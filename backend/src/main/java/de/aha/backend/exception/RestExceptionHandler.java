@@ -31,6 +31,7 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 /**
@@ -52,7 +53,7 @@ public class RestExceptionHandler {
      */
     public static ResponseEntity<ResponseError> buildResponse(HttpStatus status, ErrorType code, String msg,
                                                               Throwable ex) {
-        if (NOT_FOUND.equals(status) || CONFLICT.equals(status)) {
+        if (NOT_FOUND.equals(status) || CONFLICT.equals(status) || SERVICE_UNAVAILABLE.equals(status)) {
             log.warn(msg);
         } else {
             log.error(msg, ex);
@@ -103,6 +104,24 @@ public class RestExceptionHandler {
         return buildResponse(CONFLICT, ErrorType.CONFLICT, ex.getMessage(), ex);
     }
 
+    /**
+     * Handles BadRequestException (invalid input errors).
+     */
+    @ResponseStatus(BAD_REQUEST)
+    @ExceptionHandler(BadRequestException.class)
+    protected ResponseEntity<ResponseError> handleBadRequestException(BadRequestException ex) {
+        return buildResponse(BAD_REQUEST, ErrorType.BAD_REQUEST, ex.getMessage(), ex);
+    }
+
+    /**
+     * Handles ServiceUnavailableException (saturated resources, the client may retry).
+     */
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    @ExceptionHandler(ServiceUnavailableException.class)
+    protected ResponseEntity<ResponseError> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        return buildResponse(SERVICE_UNAVAILABLE, ErrorType.SERVICE_UNAVAILABLE, ex.getMessage(), ex);
+    }
+
     /**
      * Handles NotFoundObjectException (not found errors).
      */
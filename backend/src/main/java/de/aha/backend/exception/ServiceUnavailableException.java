@@ -0,0 +1,35 @@
+package de.aha.backend.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a request is rejected because a bounded resource (e.g. the password hashing pool)
+ * is saturated. The client may retry later.
+ * Contains error type and HTTP status.
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final ErrorType errorType;
+    private final HttpStatus status;
+
+    /**
+     * Constructs a new ServiceUnavailableException with default error type and status.
+     * @param message error message
+     */
+    public ServiceUnavailableException(String message) {
+        this(message, null);
+    }
+
+    /**
+     * Constructs a new ServiceUnavailableException with default error type and status and an underlying cause.
+     * @param message error message
+     * @param error underlying cause
+     */
+    public ServiceUnavailableException(String message, Throwable error) {
+        super(message, error);
+        this.errorType = ErrorType.SERVICE_UNAVAILABLE;
+        this.status = HttpStatus.SERVICE_UNAVAILABLE;
+    }
+}
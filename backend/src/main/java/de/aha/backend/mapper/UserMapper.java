@@ -3,20 +3,19 @@ package de.aha.backend.mapper;
 import de.aha.backend.dto.user.*;
 import de.aha.backend.model.appointment.WorkingHours;
 import de.aha.backend.model.user.*;
-import de.aha.backend.util.PasswordUtil;
 import lombok.Builder;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class UserMapper {
-    public static User mapToUser(RegisterRequest request) {
+    public static User mapToUser(RegisterRequest request, String passwordHash) {
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(PasswordUtil.hash(request.getPassword()));
+        user.setPassword(passwordHash);
         user.setRole(request.getRole());
         user.setProvider("local");
-        user.setProviderId(PasswordUtil.hash(request.getPassword()));
+        user.setProviderId(passwordHash);
         user.setUsername(request.getUsername());
         return user;
     }
@@ -3,6 +3,7 @@ package de.aha.backend.model.advisor;
 import de.aha.backend.model.AbstractDocument;
 import de.aha.backend.model.appointment.WorkingHours;
 import de.aha.backend.model.user.Address;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.TextIndexed;
@@ -31,6 +32,10 @@ public class Advisor extends AbstractDocument {
     @TextIndexed
     private String specialization;
 
+    // Normalisierte Suchschlüssel, werden beim Speichern aus specialization abgeleitet
+    private String specializationKey;
+    private List<String> specializationTokens;
+
     @Builder.Default
     private Double rating = 5.0;
 
@@ -80,6 +85,10 @@ public class Advisor extends AbstractDocument {
     @Builder.Default
     private Boolean online = false;
 
+    // Knoten mit mindestens einer Session des Beraters, gepflegt von AdvisorPresenceRegistry
+    @JsonIgnore
+    private List<String> onlineNodes;
+
     private String responseTime;
 
     @Builder.Default
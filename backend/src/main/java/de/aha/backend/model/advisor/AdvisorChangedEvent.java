@@ -0,0 +1,11 @@
+package de.aha.backend.model.advisor;
+
+/**
+ * Wird nach jeder Schreiboperation auf einem Berater veröffentlicht, damit
+ * abgeleitete Lesemodelle (z.B. Suchstatistiken) inkrementell nachgezogen
+ * werden können, ohne die gesamte Collection neu zu lesen.
+ *
+ * @param advisor der gespeicherte Zustand des Beraters
+ */
+public record AdvisorChangedEvent(Advisor advisor) {
+}
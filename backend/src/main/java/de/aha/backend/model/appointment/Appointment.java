@@ -29,6 +29,9 @@ public class Appointment extends AbstractDocument {
     private LocalDateTime scheduledAt;
     @Field("duration_minutes")
     private Integer durationMinutes;
+    // scheduledAt + durationMinutes, wird von AppointmentEndsAtCallback gepflegt
+    @Field("ends_at")
+    private LocalDateTime endsAt;
     private String notes;
     private List<String> symptoms;
     private Priority priority;
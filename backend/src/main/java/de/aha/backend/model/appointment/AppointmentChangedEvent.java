@@ -0,0 +1,11 @@
+package de.aha.backend.model.appointment;
+
+/**
+ * Wird nach jeder Schreiboperation auf einem Termin veröffentlicht, damit
+ * abgeleitete Lesemodelle (z.B. der Verfügbarkeitsindex der Berater) ohne
+ * erneute Abfrage nachgezogen werden können.
+ *
+ * @param appointment der gespeicherte Zustand des Termins
+ */
+public record AppointmentChangedEvent(Appointment appointment) {
+}
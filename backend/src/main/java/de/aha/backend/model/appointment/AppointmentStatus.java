@@ -1,6 +1,18 @@
 package de.aha.backend.model.appointment;
 
+import java.util.List;
+
 public enum AppointmentStatus {
     REQUESTED, SCHEDULED, CONFIRMED, IN_PROGRESS,
-    COMPLETED, CANCELLED, NO_SHOW
+    COMPLETED, CANCELLED, NO_SHOW;
+
+    /**
+     * Status, in denen ein Termin seine Zeit beim Berater belegt. Gilt für Slot-Claims,
+     * Verfügbarkeitsindex und Überschneidungsprüfung gleichermaßen.
+     */
+    public static final List<AppointmentStatus> BLOCKING = List.of(REQUESTED, SCHEDULED, CONFIRMED, IN_PROGRESS);
+
+    public boolean isBlocking() {
+        return BLOCKING.contains(this);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package de.aha.backend.model.appointment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Belegt ein Zeitraster von {@link #BUCKET_MINUTES} Minuten eines Beraters.
+ * <p>
+ * Die ID setzt sich aus Berater und Rasterbeginn zusammen, der eindeutige
+ * {@code _id}-Index der Collection verhindert so Doppelbuchungen ohne globale Sperre:
+ * von zwei gleichzeitigen Inserts für dasselbe Raster schlägt einer mit einem
+ * Duplicate-Key-Fehler fehl.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "slot_claims")
+public class SlotClaim {
+
+    public static final int BUCKET_MINUTES = 15;
+
+    @Id
+    private String id;
+    @Field("advisor_id")
+    private String advisorId;
+    @Field("slot_start")
+    private LocalDateTime slotStart;
+    // gemeinsame Kennung aller Raster einer Reservierung
+    @Field("reservation_id")
+    private String reservationId;
+    @Field("appointment_id")
+    private String appointmentId;
+    // bis zur Bestätigung kurz, danach Terminende; der TTL-Index entfernt den Claim
+    @Field("expires_at")
+    private LocalDateTime expiresAt;
+
+    public static String idOf(String advisorId, LocalDateTime slotStart) {
+        return advisorId + "|" + slotStart;
+    }
+}
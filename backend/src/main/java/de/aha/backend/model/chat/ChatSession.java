@@ -3,6 +3,7 @@ package de.aha.backend.model.chat;
 import de.aha.backend.model.AbstractDocument;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -28,8 +29,21 @@ public class ChatSession extends AbstractDocument {
 
     private String lastMessage;
     private LocalDateTime lastMessageTime;
+    private SenderType lastMessageSenderType;
+    // nicht gespeichert: Zähler des Abrufenden, gesetzt von getUserSessions/getAdvisorSessions
+    @Transient
     private Integer unreadCount;
 
+    // atomar gepflegte Zähler und einzige Quelle für ungelesene Nachrichten des Benutzers bzw. Beraters
+    @Builder.Default
+    private Integer userUnreadCount = 0;
+    @Builder.Default
+    private Integer advisorUnreadCount = 0;
+
+    // Lese-Wasserzeichen: alles bis zu diesem Zeitpunkt hat der Benutzer bzw. der Berater gelesen
+    private LocalDateTime userReadUpTo;
+    private LocalDateTime advisorReadUpTo;
+
     @Builder.Default
     private Boolean isActive = true;
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package de.aha.backend.repository;
 
+import de.aha.backend.dto.advisor.FacetCount;
 import de.aha.backend.model.advisor.Advisor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,7 +13,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AdvisorRepository extends MongoRepository<Advisor, String> {
+public interface AdvisorRepository extends MongoRepository<Advisor, String>, AdvisorRepositoryCustom {
     List<Advisor> findBySpecializationContainingIgnoreCase(String specialization);
     List<Advisor> findByLanguagesContaining(String language);
     List<Advisor> findBySpecializationContainingIgnoreCaseAndLanguagesContaining(
@@ -69,6 +71,24 @@ public interface AdvisorRepository extends MongoRepository<Advisor, String> {
     @Query(value = "{}", fields = "{ 'languages' : 1 }")
     List<Advisor> findAllLanguages();
 
+    // Facetten mit Anzahl, serverseitig gruppiert
+    @Aggregation(pipeline = {
+            "{ $match: { 'specialization': { $nin: [null, ''] } } }",
+            "{ $group: { _id: '$specialization', count: { $sum: 1 } } }",
+            "{ $project: { _id: 0, value: '$_id', count: 1 } }",
+            "{ $sort: { value: 1 } }"
+    })
+    List<FacetCount> countBySpecialization();
+
+    @Aggregation(pipeline = {
+            "{ $unwind: '$languages' }",
+            "{ $match: { 'languages': { $nin: [null, ''] } } }",
+            "{ $group: { _id: '$languages', count: { $sum: 1 } } }",
+            "{ $project: { _id: 0, value: '$_id', count: 1 } }",
+            "{ $sort: { value: 1 } }"
+    })
+    List<FacetCount> countByLanguage();
+
     // Verfügbarkeitsprüfung
     @Query("{ 'available': true, 'rating': { '$gte': ?0 }, 'consultationFee': { '$lte': ?1 } }")
     List<Advisor> findAvailableAdvisors(Double minRating, Double maxFee);
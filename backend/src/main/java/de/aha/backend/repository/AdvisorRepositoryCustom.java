@@ -0,0 +1,34 @@
+package de.aha.backend.repository;
+
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.model.advisor.Advisor;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+public interface AdvisorRepositoryCustom {
+
+    /**
+     * Liefert Berater als {@link AdvisorSummary}, geladen mit einer Feldprojektion
+     * statt des vollständigen Dokuments.
+     *
+     * @param query Filter, Sortierung und Paginierung
+     * @return die passenden Berater in der schlanken Darstellung
+     */
+    List<AdvisorSummary> findSummaries(Query query);
+
+    /**
+     * Sucht Berater über die normalisierte Spezialisierung (Präfix auf Schlüssel oder
+     * einzelnes Wort), optional eingeschränkt auf eine Sprache.
+     *
+     * @param specialization Suchbegriff, z.B. "psych"
+     * @param language Sprache oder {@code null}
+     * @return die passenden Berater
+     */
+    List<Advisor> searchBySpecialization(String specialization, String language);
+
+    /**
+     * Wie {@link #searchBySpecialization(String, String)}, aber als {@link AdvisorSummary}.
+     */
+    List<AdvisorSummary> searchSummariesBySpecialization(String specialization, String language);
+}
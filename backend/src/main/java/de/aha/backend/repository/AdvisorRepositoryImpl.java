@@ -0,0 +1,53 @@
+package de.aha.backend.repository;
+
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.util.SpecializationCriteria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+public class AdvisorRepositoryImpl implements AdvisorRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean legacySpecializationRegex;
+
+    public AdvisorRepositoryImpl(MongoTemplate mongoTemplate,
+                                 @Value("${app.search.specialization.legacy-regex:false}") boolean legacySpecializationRegex) {
+        this.mongoTemplate = mongoTemplate;
+        this.legacySpecializationRegex = legacySpecializationRegex;
+    }
+
+    @Override
+    public List<AdvisorSummary> findSummaries(Query query) {
+        query.fields().include(AdvisorSummary.FIELDS);
+        return mongoTemplate.query(Advisor.class)
+                .as(AdvisorSummary.class)
+                .matching(query)
+                .all();
+    }
+
+    @Override
+    public List<Advisor> searchBySpecialization(String specialization, String language) {
+        return mongoTemplate.find(specializationQuery(specialization, language), Advisor.class);
+    }
+
+    @Override
+    public List<AdvisorSummary> searchSummariesBySpecialization(String specialization, String language) {
+        return findSummaries(specializationQuery(specialization, language));
+    }
+
+    private Query specializationQuery(String specialization, String language) {
+        Query query = new Query();
+        if (specialization != null) {
+            query.addCriteria(SpecializationCriteria.matching(specialization, legacySpecializationRegex));
+        }
+        if (language != null) {
+            query.addCriteria(Criteria.where("languages").is(language));
+        }
+        return query;
+    }
+}
@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AppointmentRepository extends MongoRepository<Appointment, String> {
+public interface AppointmentRepository extends MongoRepository<Appointment, String>, AppointmentRepositoryCustom {
     List<Appointment> findByPatientIdOrderByScheduledAtDesc(String patientId);
 
     List<Appointment> findByAdvisorIdOrderByScheduledAtDesc(String advisorId);
@@ -28,7 +28,8 @@ public interface AppointmentRepository extends MongoRepository<Appointment, Stri
     List<Appointment> findByAdvisorIdAndStatusOrderByScheduledAt(
             String advisorId, AppointmentStatus status);
 
-    @Query("{ 'advisorId': ?0, 'scheduledAt': { $gte: ?1, $lt: ?2 }, 'status': { $in: ['SCHEDULED', 'CONFIRMED', 'IN_PROGRESS'] } }")
+    // Status entsprechen AppointmentStatus.BLOCKING
+    @Query("{ 'advisorId': ?0, 'scheduledAt': { $gte: ?1, $lt: ?2 }, 'status': { $in: ['REQUESTED', 'SCHEDULED', 'CONFIRMED', 'IN_PROGRESS'] } }")
     List<Appointment> findBookedAppointmentsForAdvisorInTimeRange(
             String advisorId, LocalDateTime start, LocalDateTime end);
 
@@ -36,7 +37,9 @@ public interface AppointmentRepository extends MongoRepository<Appointment, Stri
 
     Optional<Appointment> findByIdAndAdvisorId(String id, String advisorId);
 
-    boolean existsByAdvisorIdAndScheduledAtBetweenAndStatusIn(
+    // Überlappung der Intervalle [scheduledAt, endsAt) und [start, end)
+    @Query(value = "{ 'advisorId': ?0, 'endsAt': { $gt: ?1 }, 'scheduledAt': { $lt: ?2 }, 'status': { $in: ?3 } }", exists = true)
+    boolean existsOverlappingAppointment(
             String advisorId,
             LocalDateTime start,
             LocalDateTime end,
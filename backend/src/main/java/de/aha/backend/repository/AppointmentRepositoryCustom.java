@@ -0,0 +1,25 @@
+package de.aha.backend.repository;
+
+import de.aha.backend.model.appointment.Appointment;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AppointmentRepositoryCustom {
+
+    /**
+     * Liefert die Termine, an denen jemand als Patient oder als Berater beteiligt ist,
+     * in einer einzigen {@code $or}-Abfrage. Die Sortierung übernimmt die Datenbank
+     * (Merge-Sort über die Indizes {@code patientId/scheduledAt} und {@code advisorId/scheduledAt}).
+     *
+     * @param patientId Patienten-ID oder {@code null}
+     * @param advisorId Berater-ID oder {@code null}
+     * @param from Beginn des Zeitfensters (inklusive) oder {@code null}
+     * @param to Ende des Zeitfensters (exklusive) oder {@code null}
+     * @param pageable Seite und Sortierung, {@link Pageable#unpaged()} für alle Termine
+     * @return die passenden Termine in der angeforderten Reihenfolge
+     */
+    List<Appointment> findByParticipant(String patientId, String advisorId,
+                                        LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,61 @@
+package de.aha.backend.repository;
+
+import de.aha.backend.model.appointment.Appointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AppointmentRepositoryImpl implements AppointmentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public AppointmentRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Appointment> findByParticipant(String patientId, String advisorId,
+                                               LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        // Das Zeitfenster steht in jedem Zweig, damit beide Zweige ihren Index
+        // (Teilnehmer, scheduledAt) vollständig nutzen und per Merge-Sort vereint werden
+        List<Criteria> participants = new ArrayList<>();
+        if (patientId != null) {
+            participants.add(withinWindow(Criteria.where("patientId").is(patientId), from, to));
+        }
+        if (advisorId != null) {
+            participants.add(withinWindow(Criteria.where("advisorId").is(advisorId), from, to));
+        }
+        if (participants.isEmpty()) {
+            return List.of();
+        }
+
+        Query query = new Query(participants.size() == 1
+                ? participants.getFirst()
+                : new Criteria().orOperator(participants));
+        query.with(pageable.getSortOr(Sort.by(Sort.Direction.DESC, "scheduledAt")));
+        if (pageable.isPaged()) {
+            query.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return mongoTemplate.find(query, Appointment.class);
+    }
+
+    private static Criteria withinWindow(Criteria participant, LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return participant;
+        }
+        Criteria window = participant.and("scheduledAt");
+        if (from != null) {
+            window.gte(from);
+        }
+        if (to != null) {
+            window.lt(to);
+        }
+        return window;
+    }
+}
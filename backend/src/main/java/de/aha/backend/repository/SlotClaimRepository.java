@@ -0,0 +1,13 @@
+package de.aha.backend.repository;
+
+import de.aha.backend.model.appointment.SlotClaim;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SlotClaimRepository extends MongoRepository<SlotClaim, String> {
+
+    long deleteByReservationId(String reservationId);
+
+    long deleteByAppointmentId(String appointmentId);
+}
@@ -2,6 +2,8 @@ package de.aha.backend.repository;
 
 import de.aha.backend.model.user.User;
 import de.aha.backend.model.user.UserRole;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,11 +16,18 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends AbstractRepository<User, String>{
 
+    /**
+     * Case-insensitive collation of the unique email index (see MongoIndexes).
+     */
+    String EMAIL_COLLATION = "{ 'locale': 'en', 'strength': 2 }";
+
     /**
      * Finds a user by email, ignoring case.
+     * Uses the collated unique email index instead of a case-insensitive regex scan.
      * @param email user's email address
      * @return Optional containing the user if found, or empty otherwise
      */
+    @Query(value = "{ 'email': ?0 }", collation = EMAIL_COLLATION)
     Optional<User> findByEmailIgnoreCase(String email);
 
     Optional<User> findByUsername(String username);
@@ -33,4 +42,13 @@ public interface UserRepository extends AbstractRepository<User, String>{
     //List<User> findByRoleAndLanguagesContaining(UserRole role, String language);
     //List<User> findByRoleAndSpecialization(UserRole role, String specialization);
     List<User> findByRole(UserRole role);
+
+    /**
+     * Replaces the password hash only if it is still the given one, so a background rehash
+     * never overwrites a password changed in the meantime.
+     * @return number of updated users (0 or 1)
+     */
+    @Query("{ '_id': ?0, 'password': ?1 }")
+    @Update("{ '$set': { 'password': ?2 } }")
+    long updatePasswordIfUnchanged(String id, String currentHash, String newHash);
 }
\ No newline at end of file
@@ -4,20 +4,20 @@ import de.aha.backend.model.chat.ChatMessage;
 import de.aha.backend.model.chat.SenderType;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface ChatMessageRepository extends MongoRepository<ChatMessage, String> {
+public interface ChatMessageRepository extends MongoRepository<ChatMessage, String>, ChatMessageRepositoryCustom {
 
     List<ChatMessage> findBySessionIdOrderByTimestampAsc(String sessionId);
 
+    // Serverseitiges updateMany, liefert die Anzahl geänderter Nachrichten
     @Query("{ 'sessionId': ?0, 'read': false, 'senderType': ?1 }")
-    List<ChatMessage> findUnreadMessagesBySessionAndSenderType(String sessionId, SenderType senderType);
-
-    @Query(value = "{ 'sessionId': ?0, 'read': false, 'senderType': ?1 }", count = true)
-    long countUnreadMessagesBySessionAndSenderType(String sessionId, SenderType senderType);
+    @Update("{ '$set': { 'read': true } }")
+    long markReadBySessionAndSenderType(String sessionId, SenderType senderType);
 
     @Query("{ 'sessionId': ?0, 'senderType': 'ADVISOR', 'read': false }")
     List<ChatMessage> findUnreadAdvisorMessages(String sessionId);
@@ -0,0 +1,20 @@
+package de.aha.backend.repository.chat;
+
+import de.aha.backend.model.chat.ChatMessage;
+
+import java.util.List;
+
+public interface ChatMessageRepositoryCustom {
+
+    /**
+     * Liefert die neuesten Nachrichten einer Session vor einem Cursor, neueste zuerst.
+     * Gleiche Zeitstempel werden über die ID aufgelöst, damit beim Zurückblättern
+     * keine Nachricht doppelt erscheint oder verloren geht.
+     *
+     * @param sessionId die Session
+     * @param before Cursor-Nachricht (exklusive) oder {@code null} für die neuesten Nachrichten
+     * @param limit maximale Anzahl Nachrichten
+     * @return höchstens {@code limit} Nachrichten, absteigend nach Zeitstempel
+     */
+    List<ChatMessage> findLatestBefore(String sessionId, ChatMessage before, int limit);
+}
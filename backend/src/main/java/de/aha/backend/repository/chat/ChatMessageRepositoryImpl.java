@@ -0,0 +1,38 @@
+package de.aha.backend.repository.chat;
+
+import de.aha.backend.model.chat.ChatMessage;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+public class ChatMessageRepositoryImpl implements ChatMessageRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ChatMessageRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<ChatMessage> findLatestBefore(String sessionId, ChatMessage before, int limit) {
+        Criteria criteria = Criteria.where("sessionId").is(sessionId);
+        if (before != null) {
+            // timestamp <= Cursor begrenzt den Indexbereich, das $or schließt den Cursor selbst
+            // und alle neueren Nachrichten mit gleichem Zeitstempel aus
+            Object beforeId = ObjectId.isValid(before.getId()) ? new ObjectId(before.getId()) : before.getId();
+            criteria.and("timestamp").lte(before.getTimestamp())
+                    .orOperator(
+                            Criteria.where("timestamp").lt(before.getTimestamp()),
+                            Criteria.where("_id").lt(beforeId));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+}
@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ChatSessionRepository extends MongoRepository<ChatSession, String> {
+public interface ChatSessionRepository extends MongoRepository<ChatSession, String>, ChatSessionRepositoryCustom {
 
     List<ChatSession> findByUserIdOrderByLastMessageTimeDesc(String userId);
 
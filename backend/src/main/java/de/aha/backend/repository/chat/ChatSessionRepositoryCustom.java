@@ -0,0 +1,22 @@
+package de.aha.backend.repository.chat;
+
+import de.aha.backend.dto.chat.InboxEntry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChatSessionRepositoryCustom {
+
+    /**
+     * Liefert den Posteingang eines Benutzers in einer Aggregation: seine Sessions, neueste
+     * zuerst, jeweils mit der letzten Nachricht und der Anzahl ungelesener Nachrichten des
+     * Beraters. Beides steht an der Session selbst, {@code chat_messages} wird nicht gelesen.
+     *
+     * @param userId der Benutzer
+     * @param updatedSince nur Sessions mit einer Nachricht nach diesem Zeitpunkt, {@code null} für alle
+     * @param skip Anzahl zu überspringender Sessions
+     * @param limit maximale Anzahl Sessions
+     * @return höchstens {@code limit} Einträge, absteigend nach {@code lastMessageTime}
+     */
+    List<InboxEntry> findUserInbox(String userId, LocalDateTime updatedSince, long skip, int limit);
+}
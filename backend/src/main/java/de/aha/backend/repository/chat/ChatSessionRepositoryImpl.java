@@ -0,0 +1,49 @@
+package de.aha.backend.repository.chat;
+
+import de.aha.backend.dto.chat.InboxEntry;
+import de.aha.backend.model.chat.ChatSession;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ChatSessionRepositoryImpl implements ChatSessionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ChatSessionRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<InboxEntry> findUserInbox(String userId, LocalDateTime updatedSince, long skip, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (updatedSince != null) {
+            criteria.and("lastMessageTime").gt(updatedSince);
+        }
+
+        // Sortierung und Seite über den Index userId/lastMessageTime; die letzte Nachricht pflegt
+        // recordMessage an der Session, ein $lookup auf chat_messages ist nicht nötig
+        TypedAggregation<ChatSession> aggregation = Aggregation.newAggregation(ChatSession.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.Direction.DESC, "lastMessageTime"),
+                Aggregation.skip(skip),
+                Aggregation.limit(limit),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("sessionId", new Document("$toString", "$_id"))
+                        .append("advisorId", 1)
+                        .append("advisorName", 1)
+                        .append("advisorImage", 1)
+                        .append("lastMessageTime", 1)
+                        .append("lastMessage", 1)
+                        .append("lastMessageSenderType", 1)
+                        .append("unreadCount", new Document("$ifNull", List.of("$userUnreadCount", 0)))));
+
+        return mongoTemplate.aggregate(aggregation, InboxEntry.class).getMappedResults();
+    }
+}
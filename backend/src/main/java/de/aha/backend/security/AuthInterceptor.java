@@ -8,27 +8,38 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.servlet.ModelAndView;
 
 /**
  * Interceptor for authenticating requests using JWT tokens.
- * Extracts user information from token and sets it in ThreadLocal.
+ * Extracts the user ID from the token and stores it as a request attribute, so it lives exactly
+ * as long as the request, also across async dispatches and on virtual threads.
+ * Handlers should take it as a {@link CurrentUser} parameter.
  */
 @Component
 @RequiredArgsConstructor
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class AuthInterceptor implements HandlerInterceptor {
 
+    /**
+     * Request attribute holding the authenticated user ID.
+     */
+    public static final String USER_ID_ATTRIBUTE = AuthInterceptor.class.getName() + ".userId";
+
     private final TokenInteract tokenInteract;
-    private final ThreadLocal<String> users = new ThreadLocal<>();
 
     /**
-     * Checks JWT token validity and sets user in ThreadLocal before handling request.
+     * Checks JWT token validity and stores the user ID as request attribute before handling request.
      */
     @Override
     public boolean preHandle(HttpServletRequest request, @NonNull HttpServletResponse response,
                              @NonNull Object handler) throws Exception {
+        if (request.getAttribute(USER_ID_ATTRIBUTE) != null) {
+            // erneuter Dispatch desselben Requests (async), das Token wurde schon geprüft
+            return true;
+        }
         String path = request.getRequestURI();
         if (path.endsWith("/version")
                 || path.endsWith("/api/v1/authenticate")
@@ -40,31 +51,24 @@ public class AuthInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        String token = tokenInteract.getToken(request);
-        if (tokenInteract.validateToken(token)) {
-            String user = tokenInteract.getUserId(token);
-            if (StringUtils.isNotBlank(user)) {
-                users.set(user);
-                return true;
-            }
+        // eine Prüfung pro Request, die User-ID kommt aus demselben Ergebnis
+        String user = tokenInteract.verify(tokenInteract.getToken(request)).userId();
+        if (StringUtils.isNotBlank(user)) {
+            request.setAttribute(USER_ID_ATTRIBUTE, user);
+            return true;
         }
         response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
         return false;
     }
 
     /**
-     * Returns the userId extracted from the JWT token for the current request thread.
+     * Returns the userId extracted from the JWT token for the request currently handled by this thread.
+     * Only valid on the request thread; code running elsewhere should receive the ID via {@link CurrentUser}.
      */
     public String getUserId() {
-        return users.get();
-    }
-
-    /**
-     * Removes user information from ThreadLocal after request is handled.
-     */
-    @Override
-    public void postHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
-                           @NonNull Object handler, ModelAndView modelAndView) {
-        users.remove();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                ? (String) attributes.getAttribute(USER_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package de.aha.backend.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the ID of the authenticated user into a {@code String} handler parameter.
+ * REST handlers get it from the request attribute set by {@link AuthInterceptor}, STOMP
+ * {@code @MessageMapping} handlers from the session principal set at CONNECT.
+ * Nothing is bound to the thread, so it also works on virtual threads and in async handlers.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+
+    /**
+     * Whether a missing user is rejected with {@link de.aha.backend.exception.AppAuthenticationException};
+     * otherwise {@code null} is injected.
+     * @return true if an authenticated user is required
+     */
+    boolean required() default true;
+}
@@ -0,0 +1,35 @@
+package de.aha.backend.security;
+
+import de.aha.backend.exception.AppAuthenticationException;
+import org.springframework.core.MethodParameter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.security.Principal;
+
+/**
+ * Resolves {@link CurrentUser} parameters of STOMP {@code @MessageMapping} handlers from the
+ * session principal that {@code StompPresenceInterceptor} sets from the JWT at CONNECT.
+ */
+public class CurrentUserMessageArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class) && String.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, Message<?> message) {
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        return checkRequired(parameter, user != null ? user.getName() : null);
+    }
+
+    static String checkRequired(MethodParameter parameter, String userId) {
+        CurrentUser annotation = parameter.getParameterAnnotation(CurrentUser.class);
+        if (userId == null && annotation != null && annotation.required()) {
+            throw new AppAuthenticationException("Unauthorized");
+        }
+        return userId;
+    }
+}
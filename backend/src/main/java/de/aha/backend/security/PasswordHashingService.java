@@ -0,0 +1,186 @@
+package de.aha.backend.security;
+
+import de.aha.backend.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hasht und prüft Passwörter mit konfigurierbarem Verfahren ({@code bcrypt} oder {@code argon2})
+ * und Kostenparametern.
+ * <p>
+ * Neue Hashes tragen das Verfahren als Präfix ({@code {bcrypt}...}, {@code {argon2}...}), Hashes
+ * ohne Präfix stammen aus der Zeit vor diesem Service und werden als bcrypt geprüft. Passt ein
+ * gespeicherter Hash nicht mehr zur Konfiguration, meldet {@link #needsRehash} das, der Login
+ * schreibt dann einen neuen Hash.
+ * <p>
+ * Die Berechnung läuft auf einem eigenen, begrenzten Pool statt auf dem Request-Thread. Ist die
+ * Warteschlange voll, wird sofort mit {@link ServiceUnavailableException} (503) abgelehnt, statt
+ * bei einem Login-Ansturm alle Worker-Threads mit bcrypt zu blockieren. Auslastung und
+ * Ablehnungen werden periodisch geloggt.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final Duration timeout;
+    private final AtomicLong rejected = new AtomicLong();
+    private long lastLoggedTasks;
+
+    public PasswordHashingService(@Value("${app.password.algorithm:bcrypt}") String algorithm,
+                                  @Value("${app.password.bcrypt.strength:10}") int bcryptStrength,
+                                  @Value("${app.password.argon2.memory-kib:16384}") int argon2MemoryKib,
+                                  @Value("${app.password.argon2.iterations:2}") int argon2Iterations,
+                                  @Value("${app.password.argon2.parallelism:1}") int argon2Parallelism,
+                                  @Value("${app.password.executor.pool-size:0}") int poolSize,
+                                  @Value("${app.password.executor.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.password.executor.timeout:PT5S}") Duration timeout) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcrypt,
+                ARGON2, new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH,
+                        argon2Parallelism, argon2MemoryKib, argon2Iterations));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password algorithm '" + algorithm
+                    + "', expected one of " + encoders.keySet());
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Bestandshashes ohne Präfix
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        this.encoder = delegating;
+
+        // 0: ein Thread pro Kern, mehr bringt bei CPU-gebundener Arbeit nichts
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().daemon().name("password-hash-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing: {} on {} threads, queue capacity {}", algorithm, threads, queueCapacity);
+    }
+
+    public record Stats(int poolSize, int active, int queued, int queueCapacity, long completed, long rejected) {
+    }
+
+    public Stats stats() {
+        return new Stats(executor.getPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+                queueCapacity, executor.getCompletedTaskCount(), rejected.get());
+    }
+
+    /**
+     * Loggt die Auslastung des Pools, sofern seit dem letzten Lauf gehasht oder abgelehnt wurde.
+     */
+    @Scheduled(fixedDelayString = "${app.password.executor.stats-log-interval:PT5M}")
+    public void logStats() {
+        Stats stats = stats();
+        long tasks = stats.completed() + stats.rejected();
+        synchronized (this) {
+            if (tasks == lastLoggedTasks) {
+                return;
+            }
+            lastLoggedTasks = tasks;
+        }
+        log.info("Password hashing: {} of {} threads active, {}/{} queued ({} completed, {} rejected)",
+                stats.active(), stats.poolSize(), stats.queued(), stats.queueCapacity(),
+                stats.completed(), stats.rejected());
+    }
+
+    /**
+     * Hasht ein Passwort mit dem konfigurierten Verfahren und wartet auf das Ergebnis.
+     *
+     * @throws ServiceUnavailableException wenn der Pool ausgelastet ist oder das Timeout abläuft
+     */
+    public String hash(String rawPassword) {
+        return await(hashAsync(rawPassword));
+    }
+
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Prüft ein Passwort gegen einen gespeicherten Hash und wartet auf das Ergebnis.
+     *
+     * @throws ServiceUnavailableException wenn der Pool ausgelastet ist oder das Timeout abläuft
+     */
+    public boolean matches(String rawPassword, String passwordHash) {
+        if (passwordHash == null) {
+            return false;
+        }
+        return await(submit(() -> encoder.matches(rawPassword, passwordHash)));
+    }
+
+    /**
+     * {@code true}, wenn der Hash mit einem anderen Verfahren oder schwächeren Parametern als
+     * konfiguriert erzeugt wurde. Günstig, es wird nur der Hash-String ausgewertet.
+     */
+    public boolean needsRehash(String passwordHash) {
+        return passwordHash != null && encoder.upgradeEncoding(passwordHash);
+    }
+
+    /**
+     * Reiht eine Berechnung ein. Ist der Pool voll, ist das Ergebnis sofort mit
+     * {@link ServiceUnavailableException} fehlgeschlagen.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            long count = rejected.incrementAndGet();
+            log.warn("Password hashing saturated ({} queued), rejected {} requests so far",
+                    executor.getQueue().size(), count);
+            return CompletableFuture.failedFuture(
+                    new ServiceUnavailableException("Too many concurrent logins, please retry shortly", e));
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new ServiceUnavailableException("Password hashing timed out, please retry shortly", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
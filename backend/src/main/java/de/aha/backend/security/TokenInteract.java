@@ -1,12 +1,14 @@
 package de.aha.backend.security;
 
 import de.aha.backend.exception.ExecutionConflictException;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +19,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 
+import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -31,6 +34,11 @@ import java.util.UUID;
 public class TokenInteract {
 
     private static final String TOKEN_PREFIX = "Bearer ";
+    private static final String SESSION_ID_CLAIM = "sessionId";
+    // HS256 verlangt mindestens 256 Bit
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Value("${jwt.secret.key}")
     private String secretKey;
@@ -38,27 +46,65 @@ public class TokenInteract {
     @Value("${jwt.expiration.time}")
     private long expirationTime;
 
+    // einmal erzeugt, Key und Parser sind unveränderlich und threadsicher
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
     /**
-     * Extracts the user id from the JWT token.
-     * @param token JWT token string
-     * @return user id string
+     * Erzeugt Key und Parser beim Start.
+     * @throws IllegalStateException wenn {@code jwt.secret.key} kürzer als 32 Bytes ist
      */
-    public String getUserId(String token) {
-        JwtParser jwtParser = getJwtParser();
-        return jwtParser.parseSignedClaims(token).getPayload().getSubject();
+    @PostConstruct
+    public void init() {
+        byte[] secret = secretKey.getBytes();
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("jwt.secret.key must be at least " + MIN_SECRET_BYTES
+                    + " bytes (256 bits) for HMAC-SHA256, but has " + secret.length);
+        }
+        signingKey = Keys.hmacShaKeyFor(secret);
+        jwtParser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     /**
-     * Validates the JWT token.
+     * Prüft Signatur und Ablauf des Tokens genau einmal und liefert die enthaltenen Angaben.
+     * Ist der {@link VerifiedTokenCache} aktiv, kommen wiederholt gesendete Tokens aus dem Cache.
      * @param token JWT token string
-     * @return true if valid, false otherwise
+     * @return the verified token with user id
+     * @throws ExecutionConflictException if the token is invalid
      */
-    public boolean validateToken(String token) {
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        VerifiedToken verified = parse(token);
+        verifiedTokenCache.put(token, verified);
+        return verified;
+    }
+
+    /**
+     * Entfernt das Token des Requests beim Logout aus dem Cache geprüfter Tokens.
+     * @param request HTTP servlet request
+     */
+    public void logout(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(TOKEN_PREFIX)) {
+            return;
+        }
+        try {
+            verifiedTokenCache.invalidateSession(verify(header.substring(TOKEN_PREFIX.length())).sessionId());
+        } catch (ExecutionConflictException _) {
+            // ungültiges Token, nichts im Cache
+        }
+    }
+
+    private VerifiedToken parse(String token) {
         String result;
         try {
-            JwtParser jwtParser = getJwtParser();
-            jwtParser.parseSignedClaims(token);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            return new VerifiedToken(claims.getSubject(), claims.get(SESSION_ID_CLAIM, String.class),
+                    expiration != null ? expiration.toInstant() : null);
         } catch (MalformedJwtException _) {
             result = "Invalid JWT token";
         } catch (ExpiredJwtException _) {
@@ -71,6 +117,25 @@ public class TokenInteract {
         throw new ExecutionConflictException(result);
     }
 
+    /**
+     * Extracts the user id from the JWT token.
+     * @param token JWT token string
+     * @return user id string
+     */
+    public String getUserId(String token) {
+        return verify(token).userId();
+    }
+
+    /**
+     * Validates the JWT token.
+     * @param token JWT token string
+     * @return true if valid, false otherwise
+     */
+    public boolean validateToken(String token) {
+        verify(token);
+        return true;
+    }
+
     public String getToken(HttpServletRequest request) {
         String header = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (header != null && header.startsWith(TOKEN_PREFIX)) {
@@ -81,17 +146,13 @@ public class TokenInteract {
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("sessionId", UUID.randomUUID().toString());
+        claims.put(SESSION_ID_CLAIM, UUID.randomUUID().toString());
 
         return Jwts.builder()
                 .claims().empty().add(claims).and()
                 .subject(userDetails.getUsername())
                 .expiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(Keys.hmacShaKeyFor(secretKey.getBytes()))
+                .signWith(signingKey)
                 .compact();
     }
-
-    private JwtParser getJwtParser() {
-        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(secretKey.getBytes())).build();
-    }
-}
\ No newline at end of file
+}
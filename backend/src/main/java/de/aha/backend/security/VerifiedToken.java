@@ -0,0 +1,13 @@
+package de.aha.backend.security;
+
+import java.time.Instant;
+
+/**
+ * Ergebnis einer einmaligen Signatur- und Ablaufprüfung eines JWT.
+ *
+ * @param userId    Subject des Tokens
+ * @param sessionId Login-Session, für die das Token ausgestellt wurde
+ * @param expiresAt Ablaufzeitpunkt oder {@code null}
+ */
+public record VerifiedToken(String userId, String sessionId, Instant expiresAt) {
+}
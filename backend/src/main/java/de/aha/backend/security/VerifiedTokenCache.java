@@ -0,0 +1,198 @@
+package de.aha.backend.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Optionaler Cache bereits geprüfter JWTs, damit wiederholt gesendete Tokens nicht bei
+ * jedem Request erneut per HMAC geprüft und geparst werden.
+ * <p>
+ * Gespeichert wird nie das Token selbst, sondern sein SHA-256-Hash: die erste Hälfte als
+ * Schlüssel, der ganze Hash wird beim Treffer in konstanter Zeit verglichen. Ein Eintrag
+ * gilt genau bis zum {@code exp} des Tokens, Tokens ohne Ablauf werden nicht gespeichert.
+ * Beim Logout entfernt {@link #invalidateSession} den Eintrag über den {@code sessionId}-Claim.
+ * LRU, begrenzt auf {@code app.auth.token-cache.max-entries} Einträge.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private static final int KEY_BYTES = 16;
+
+    private final boolean enabled;
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, String> keysBySession = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long lastLoggedLookups;
+
+    public VerifiedTokenCache(@Value("${app.auth.token-cache.enabled:false}") boolean enabled,
+                              @Value("${app.auth.token-cache.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        // accessOrder = true: der am längsten nicht benutzte Eintrag fällt zuerst heraus
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= VerifiedTokenCache.this.maxEntries) {
+                    return false;
+                }
+                unindex(eldest.getKey(), eldest.getValue());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Das geprüfte Token aus dem Cache oder {@code null}, wenn es fehlt oder abgelaufen ist.
+     */
+    public VerifiedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        byte[] digest = digest(token);
+        String key = keyOf(digest);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null || !MessageDigest.isEqual(entry.digest(), digest)) {
+                misses++;
+                return null;
+            }
+            if (!Instant.now().isBefore(entry.token().expiresAt())) {
+                remove(key);
+                misses++;
+                return null;
+            }
+            hits++;
+            return entry.token();
+        }
+    }
+
+    /**
+     * Merkt sich ein gerade geprüftes Token bis zu seinem Ablauf.
+     */
+    public void put(String token, VerifiedToken verified) {
+        if (!enabled || verified.expiresAt() == null || !Instant.now().isBefore(verified.expiresAt())) {
+            return;
+        }
+        byte[] digest = digest(token);
+        String key = keyOf(digest);
+        synchronized (this) {
+            remove(key);
+            if (verified.sessionId() != null) {
+                // ein neues Token derselben Session ersetzt das alte
+                String previous = keysBySession.get(verified.sessionId());
+                if (previous != null) {
+                    remove(previous);
+                }
+                keysBySession.put(verified.sessionId(), key);
+            }
+            entries.put(key, new Entry(digest, verified));
+        }
+    }
+
+    /**
+     * Entfernt das Token einer Login-Session, z.B. beim Logout.
+     */
+    public synchronized void invalidateSession(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        String key = keysBySession.get(sessionId);
+        if (key != null) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Räumt abgelaufene Einträge weg und loggt die Trefferquote seit dem letzten Lauf.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.token-cache.cleanup-interval:PT5M}")
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        Stats stats;
+        long lookups;
+        synchronized (this) {
+            entries.entrySet().removeIf(entry -> {
+                boolean expired = !now.isBefore(entry.getValue().token().expiresAt());
+                if (expired) {
+                    unindex(entry.getKey(), entry.getValue());
+                }
+                return expired;
+            });
+            stats = stats();
+            lookups = hits + misses;
+            if (lookups == lastLoggedLookups) {
+                return;
+            }
+            lastLoggedLookups = lookups;
+        }
+        log.info("Token cache: {} entries, hit rate {}% ({} hits, {} misses, {} evictions)",
+                stats.size(), Math.round(stats.hitRate() * 100), stats.hits(), stats.misses(), stats.evictions());
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            unindex(key, removed);
+        }
+    }
+
+    private void unindex(String key, Entry entry) {
+        String sessionId = entry.token().sessionId();
+        if (sessionId != null) {
+            keysBySession.remove(sessionId, key);
+        }
+    }
+
+    private static String keyOf(byte[] digest) {
+        return HexFormat.of().formatHex(digest, 0, KEY_BYTES);
+    }
+
+    private static byte[] digest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // jede JVM muss SHA-256 anbieten
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(byte[] digest, VerifiedToken token) {
+    }
+}
@@ -0,0 +1,304 @@
+package de.aha.backend.service;
+
+import de.aha.backend.exception.NotFoundObjectException;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
+import de.aha.backend.model.appointment.Appointment;
+import de.aha.backend.model.appointment.AppointmentChangedEvent;
+import de.aha.backend.model.appointment.AppointmentStatus;
+import de.aha.backend.model.appointment.TimeSlot;
+import de.aha.backend.model.appointment.WorkingHours;
+import de.aha.backend.repository.AdvisorRepository;
+import de.aha.backend.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hält pro Berater und Tag die belegten Minuten als {@link BitSet} (1440 Bits pro Tag).
+ * <p>
+ * Ein Tag wird beim ersten Zugriff mit einer einzigen Bereichsabfrage geladen und danach
+ * über {@link AppointmentChangedEvent}s gepflegt; Arbeitszeiten kommen aus
+ * {@link AdvisorChangedEvent}s. Ob ein Slot frei ist, entscheidet ein einzelnes
+ * {@link BitSet#nextSetBit(int)}, die Slot-Liste eines Tages wird bis zur nächsten
+ * Änderung zwischengespeichert. Da Events nur lokal zugestellt werden, werden Tage und
+ * Arbeitszeiten nach {@code app.availability.max-age} neu geladen.
+ * <p>
+ * Je Berater gibt es genau ein {@link AdvisorEntry}; Tage und Arbeitszeiten ändern sich nur
+ * unter dessen Lock, Lesen inklusive Nachladen ebenso.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdvisorAvailabilityIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final AdvisorRepository advisorRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    @Value("${app.availability.max-age:PT5M}")
+    private Duration maxAge;
+
+    private final Map<String, AdvisorEntry> advisors = new ConcurrentHashMap<>();
+
+    /**
+     * Liefert die Arbeitszeiten des Beraters für den Wochentag des Datums.
+     *
+     * @throws NotFoundObjectException wenn der Berater nicht existiert
+     */
+    public Optional<WorkingHours> getWorkingHours(String advisorId, LocalDate date) {
+        return Optional.ofNullable(entry(advisorId).workingHours.get(date.getDayOfWeek().name()));
+    }
+
+    /**
+     * Liefert die freien Slots eines Tages.
+     *
+     * @throws NotFoundObjectException wenn der Berater nicht existiert
+     */
+    public List<TimeSlot> getAvailableSlots(String advisorId, LocalDate date, int slotMinutes) {
+        return getAvailableSlots(advisorId, date, date, slotMinutes).get(date);
+    }
+
+    /**
+     * Liefert die freien Slots für jeden Tag von {@code from} bis {@code to} (inklusive).
+     * Fehlende oder abgelaufene Tage werden gemeinsam mit einer Abfrage nachgeladen.
+     *
+     * @throws NotFoundObjectException wenn der Berater nicht existiert
+     */
+    public Map<LocalDate, List<TimeSlot>> getAvailableSlots(String advisorId, LocalDate from, LocalDate to, int slotMinutes) {
+        AdvisorEntry entry = entry(advisorId);
+        synchronized (entry) {
+            ensureLoaded(advisorId, entry, from, to);
+
+            Map<LocalDate, List<TimeSlot>> result = new HashMap<>();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                WorkingHours hours = entry.workingHours.get(date.getDayOfWeek().name());
+                result.put(date, entry.days.get(date).slots(date, hours, slotMinutes));
+            }
+            return result;
+        }
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        Appointment appointment = event.appointment();
+        if (appointment == null || appointment.getId() == null || appointment.getAdvisorId() == null) {
+            return;
+        }
+        AdvisorEntry entry = advisors.get(appointment.getAdvisorId());
+        if (entry == null) {
+            // noch nicht geladen, der erste Lesezugriff erledigt das
+            return;
+        }
+        synchronized (entry) {
+            // der Termin kann verschoben worden sein, daher aus allen geladenen Tagen entfernen
+            entry.days.values().forEach(day -> day.remove(appointment.getId()));
+            if (isBooked(appointment)) {
+                entry.days.forEach((date, day) -> day.put(appointment, date));
+            }
+        }
+    }
+
+    @EventListener
+    public void onAdvisorChanged(AdvisorChangedEvent event) {
+        Advisor advisor = event.advisor();
+        if (advisor == null || advisor.getId() == null) {
+            return;
+        }
+        AdvisorEntry entry = advisors.get(advisor.getId());
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            entry.setWorkingHours(advisor, LocalDateTime.now());
+            entry.version++;
+        }
+    }
+
+    private AdvisorEntry entry(String advisorId) {
+        AdvisorEntry entry = advisors.computeIfAbsent(advisorId, id -> new AdvisorEntry());
+        LocalDateTime now = LocalDateTime.now();
+        long version;
+        synchronized (entry) {
+            if (entry.loadedAt != null && !isExpired(entry.loadedAt, now)) {
+                return entry;
+            }
+            version = entry.version;
+        }
+        // ohne Lock laden; ein Event, das inzwischen ankam, ist neuer und bleibt stehen
+        Optional<Advisor> advisor = advisorRepository.findById(advisorId);
+        synchronized (entry) {
+            if (advisor.isEmpty()) {
+                advisors.remove(advisorId, entry);
+                throw new NotFoundObjectException("Advisor not found with id: " + advisorId);
+            }
+            // Änderungen auf anderen Knoten: Arbeitszeiten neu übernehmen, geladene Tage bleiben
+            if (entry.version == version) {
+                entry.setWorkingHours(advisor.get(), now);
+            }
+        }
+        return entry;
+    }
+
+    // nur unter dem Lock von entry aufrufen
+    private void ensureLoaded(String advisorId, AdvisorEntry entry, LocalDate from, LocalDate to) {
+        LocalDateTime now = LocalDateTime.now();
+        // vergangene Tage werden in der Regel nicht mehr abgefragt
+        LocalDate cutoff = from.isBefore(now.toLocalDate()) ? from : now.toLocalDate().minusDays(1);
+        entry.days.keySet().removeIf(date -> date.isBefore(cutoff));
+
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Day day = entry.days.get(date);
+            if (day == null || isExpired(day.loadedAt, now)) {
+                firstMissing = firstMissing == null ? date : firstMissing;
+                lastMissing = date;
+            }
+        }
+        if (firstMissing == null) {
+            return;
+        }
+
+        // ab dem Vortag laden, damit Termine über Mitternacht mitgezählt werden
+        List<Appointment> booked = appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(
+                advisorId, firstMissing.minusDays(1).atStartOfDay(), lastMissing.plusDays(1).atStartOfDay());
+
+        for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+            Day day = new Day(now);
+            for (Appointment appointment : booked) {
+                day.put(appointment, date);
+            }
+            entry.days.put(date, day);
+        }
+        log.debug("Loaded availability of advisor {} from {} to {}: {} bookings",
+                advisorId, firstMissing, lastMissing, booked.size());
+    }
+
+    private boolean isExpired(LocalDateTime loadedAt, LocalDateTime now) {
+        return maxAge != null && loadedAt.plus(maxAge).isBefore(now);
+    }
+
+    private static boolean isBooked(Appointment appointment) {
+        return appointment.getScheduledAt() != null && appointment.getStatus() != null
+                && appointment.getStatus().isBlocking();
+    }
+
+    /**
+     * Stand eines Beraters. Das Objekt bleibt für den Berater dasselbe und dient als Lock;
+     * alle Felder außer {@code workingHours} nur unter diesem Lock lesen und schreiben.
+     */
+    private static final class AdvisorEntry {
+
+        private final Map<LocalDate, Day> days = new HashMap<>();
+        private volatile Map<String, WorkingHours> workingHours = Map.of();
+        // null, solange die Arbeitszeiten noch nicht geladen sind
+        private LocalDateTime loadedAt;
+        // zählt übernommene AdvisorChangedEvents, damit ein älterer Ladevorgang sie nicht überschreibt
+        private long version;
+
+        void setWorkingHours(Advisor advisor, LocalDateTime loadedAt) {
+            Map<String, WorkingHours> hours = new HashMap<>();
+            if (advisor.getWorkingHours() != null) {
+                for (WorkingHours wh : advisor.getWorkingHours()) {
+                    if (wh.getDayOfWeek() != null) {
+                        hours.putIfAbsent(wh.getDayOfWeek().name(), wh);
+                    }
+                }
+            }
+            this.workingHours = Map.copyOf(hours);
+            this.loadedAt = loadedAt;
+            // gebuchte Minuten bleiben, nur die zwischengespeicherten Slot-Listen sind veraltet
+            days.values().forEach(Day::invalidate);
+        }
+    }
+
+    /**
+     * Belegte Minuten eines Tages. Die Buchungen werden pro Termin gehalten, damit
+     * Stornierungen überlappender Termine nicht die Minuten der anderen freigeben.
+     */
+    private static final class Day {
+
+        private final LocalDateTime loadedAt;
+        private final Map<String, int[]> bookings = new HashMap<>();
+        private final BitSet booked = new BitSet(MINUTES_PER_DAY);
+        private List<TimeSlot> slots;
+        private WorkingHours slotsFor;
+        private int slotsMinutes;
+
+        Day(LocalDateTime loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized void put(Appointment appointment, LocalDate date) {
+            LocalDateTime start = appointment.getScheduledAt();
+            int duration = appointment.getDurationMinutes() != null ? appointment.getDurationMinutes() : 0;
+            LocalDateTime end = start.plusMinutes(duration);
+            LocalDateTime dayStart = date.atStartOfDay();
+            LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+            if (!start.isBefore(dayEnd) || !end.isAfter(dayStart)) {
+                return;
+            }
+            int from = start.isBefore(dayStart) ? 0 : start.getHour() * 60 + start.getMinute();
+            int to = end.isAfter(dayEnd) || end.equals(dayEnd) ? MINUTES_PER_DAY : end.getHour() * 60 + end.getMinute();
+            bookings.put(appointment.getId(), new int[]{from, to});
+            booked.set(from, to);
+            slots = null;
+        }
+
+        synchronized void remove(String appointmentId) {
+            if (bookings.remove(appointmentId) == null) {
+                return;
+            }
+            booked.clear();
+            bookings.values().forEach(range -> booked.set(range[0], range[1]));
+            slots = null;
+        }
+
+        synchronized void invalidate() {
+            slots = null;
+        }
+
+        synchronized List<TimeSlot> slots(LocalDate date, WorkingHours hours, int slotMinutes) {
+            if (slots != null && slotsFor == hours && slotsMinutes == slotMinutes) {
+                return slots;
+            }
+            List<TimeSlot> computed = new ArrayList<>();
+            if (hours != null && hours.isAvailable()) {
+                LocalTime start = LocalTime.parse(hours.getStart());
+                LocalTime end = LocalTime.parse(hours.getEnd());
+                int endMinute = end.getHour() * 60 + end.getMinute();
+                for (int minute = start.getHour() * 60 + start.getMinute();
+                     minute + slotMinutes <= endMinute; minute += slotMinutes) {
+                    int next = booked.nextSetBit(minute);
+                    if (next < 0 || next >= minute + slotMinutes) {
+                        computed.add(TimeSlot.builder()
+                                .start(date.atStartOfDay().plusMinutes(minute))
+                                .end(date.atStartOfDay().plusMinutes(minute + slotMinutes))
+                                .available(true)
+                                .build());
+                    }
+                }
+            }
+            slots = List.copyOf(computed);
+            slotsFor = hours;
+            slotsMinutes = slotMinutes;
+            return slots;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package de.aha.backend.service;
+
+import de.aha.backend.dto.advisor.FacetCount;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
+import de.aha.backend.repository.AdvisorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Liefert die Such-Facetten (Spezialisierungen und Sprachen) mit Anzahl.
+ * <p>
+ * Die Werte werden per Aggregation in der Datenbank berechnet und zwischengespeichert.
+ * Der Cache wird verworfen, sobald sich {@code specialization} oder {@code languages}
+ * eines Beraters ändern, spätestens aber nach {@code app.search.facets.max-age}.
+ * Eine Berechnung, die vor einer solchen Änderung begonnen hat, wird nicht mehr gespeichert.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdvisorFacetService {
+
+    private final AdvisorRepository advisorRepository;
+
+    @Value("${app.search.facets.max-age:PT10M}")
+    private Duration maxAge;
+
+    // Zuletzt gesehene Facettenwerte je Berater, um irrelevante Änderungen zu erkennen
+    private final Map<String, FacetSignature> signatures = new ConcurrentHashMap<>();
+
+    private final FacetCache specializations = new FacetCache("specialization");
+    private final FacetCache languages = new FacetCache("language");
+
+    public List<FacetCount> getSpecializationCounts() {
+        return specializations.get(advisorRepository::countBySpecialization);
+    }
+
+    public List<FacetCount> getLanguageCounts() {
+        return languages.get(advisorRepository::countByLanguage);
+    }
+
+    public List<String> getSpecializations() {
+        return getSpecializationCounts().stream().map(FacetCount::value).toList();
+    }
+
+    public List<String> getLanguages() {
+        return getLanguageCounts().stream().map(FacetCount::value).toList();
+    }
+
+    @EventListener
+    public void onAdvisorChanged(AdvisorChangedEvent event) {
+        Advisor advisor = event.advisor();
+        if (advisor == null || advisor.getId() == null) {
+            return;
+        }
+
+        FacetSignature next = new FacetSignature(advisor.getSpecialization(), advisor.getLanguages());
+        FacetSignature previous = signatures.put(advisor.getId(), next);
+
+        // Unbekannte Berater können neu sein oder ihre Facetten geändert haben
+        if (previous == null || !Objects.equals(previous.specialization(), next.specialization())) {
+            specializations.invalidate();
+        }
+        if (previous == null || !Objects.equals(previous.languages(), next.languages())) {
+            languages.invalidate();
+        }
+    }
+
+    private boolean isExpired(CachedFacets cached) {
+        return maxAge != null && cached.computedAt().plus(maxAge).isBefore(LocalDateTime.now());
+    }
+
+    private record FacetSignature(String specialization, List<String> languages) {
+    }
+
+    private record CachedFacets(List<FacetCount> counts, LocalDateTime computedAt) {
+    }
+
+    /**
+     * Ein Facetten-Cache mit Generationszähler: jede Invalidierung erhöht die Generation,
+     * ein Ergebnis wird nur gespeichert, wenn sich die Generation während der Berechnung
+     * nicht geändert hat.
+     */
+    private final class FacetCache {
+
+        private final String name;
+        private CachedFacets cached;
+        private long generation;
+
+        private FacetCache(String name) {
+            this.name = name;
+        }
+
+        private List<FacetCount> get(Supplier<List<FacetCount>> aggregation) {
+            long started;
+            synchronized (this) {
+                if (cached != null && !isExpired(cached)) {
+                    return cached.counts();
+                }
+                started = generation;
+            }
+            // Aggregation außerhalb des Locks, Invalidierungen blockieren nicht auf Mongo
+            log.info("Computing {} facets", name);
+            CachedFacets computed = new CachedFacets(aggregation.get(), LocalDateTime.now());
+            synchronized (this) {
+                if (generation == started) {
+                    cached = computed;
+                }
+            }
+            return computed.counts();
+        }
+
+        private synchronized void invalidate() {
+            generation++;
+            cached = null;
+        }
+    }
+}
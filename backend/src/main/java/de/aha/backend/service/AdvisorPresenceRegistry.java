@@ -0,0 +1,437 @@
+package de.aha.backend.service;
+
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.dto.advisor.PresenceDelta;
+import de.aha.backend.exception.NotFoundObjectException;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
+import de.aha.backend.repository.AdvisorRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Hält im Speicher, welche Berater an diesem Knoten verbunden sind.
+ * <p>
+ * Ein Berater kann mehrere Sessions (Tabs, Geräte) haben und ist online, solange
+ * mindestens eine davon besteht. Sessions ohne Heartbeat innerhalb von
+ * {@code app.presence.heartbeat-timeout} gelten als verloren. Jeder Wechsel wird sofort
+ * an {@link #TOPIC} verteilt, in Mongo aber nur gesammelt per Bulk-Update geschrieben;
+ * {@code lastSeen} höchstens alle {@code app.presence.last-seen-debounce}.
+ * <p>
+ * Mit mehreren Knoten ({@code app.chat.cluster.bus} oder Relay-Broker) trägt jeder Knoten
+ * seine ID ({@code app.chat.cluster.node-id}) in {@code onlineNodes} des Beraters ein;
+ * offline wird er erst, wenn kein Knoten mehr eingetragen ist. Die Berater anderer Knoten
+ * liest jeder Knoten alle {@code app.presence.cluster-refresh-interval} aus Mongo und führt
+ * sie mit den eigenen zusammen, sie sind also bis zu Flush- plus Refresh-Intervall verzögert.
+ * <p>
+ * Status-Änderungen laufen je Berater unter dem Lock von {@link ConcurrentHashMap#compute},
+ * damit Zählerstand und ausstehender Schreibvorgang zusammenpassen. Das Delta wird erst
+ * nach {@code compute} verteilt.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdvisorPresenceRegistry {
+
+    public static final String TOPIC = "/topic/presence";
+
+    // Online-Status über REST gesetzt: eine Session ohne Heartbeat, die nicht abläuft
+    private static final String MANUAL_SESSION_PREFIX = "rest:";
+    // Knoten-ID, wenn keine konfiguriert ist (ein einzelner Knoten)
+    static final String DEFAULT_NODE_ID = "local";
+    static final String ONLINE_NODES = "onlineNodes";
+
+    private final AdvisorRepository advisorRepository;
+    private final MongoTemplate mongoTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.presence.heartbeat-timeout:PT90S}")
+    private Duration heartbeatTimeout;
+
+    @Value("${app.presence.last-seen-debounce:PT1M}")
+    private Duration lastSeenDebounce;
+
+    @Value("${app.chat.cluster.node-id:}")
+    private String nodeId;
+
+    @Value("${app.chat.cluster.bus:none}")
+    private String clusterBus;
+
+    @Value("${app.chat.broker.mode:simple}")
+    private String brokerMode;
+
+    private final Map<String, Presence> advisors = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionOwners = new ConcurrentHashMap<>();
+    // je Berater nur der letzte Stand, ältere Wechsel werden überschrieben
+    private final Map<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    // Berater, die an anderen Knoten verbunden sind, Stand des letzten refreshRemotePresence
+    private volatile Map<String, Advisor> remoteAdvisors = Map.of();
+
+    /**
+     * Entfernt Einträge dieses Knotens aus einem früheren Lauf, der ohne {@link #shutdown()}
+     * endete, und schreibt Berater ohne verbundenen Knoten offline.
+     */
+    @PostConstruct
+    public void releaseStaleNodeEntries() {
+        try {
+            mongoTemplate.updateMulti(Query.query(Criteria.where(ONLINE_NODES).is(nodeId())),
+                    new Update().pull(ONLINE_NODES, nodeId()), Advisor.class);
+            mongoTemplate.updateMulti(Query.query(Criteria.where("online").is(true).and(ONLINE_NODES + ".0").exists(false)),
+                    new Update().set("online", false), Advisor.class);
+        } catch (DataAccessException e) {
+            log.warn("Could not release presence entries of node {}: {}", nodeId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Registriert eine Session. Ist {@code advisorId} kein Berater, passiert nichts.
+     *
+     * @return {@code true}, wenn die Session einem Berater zugeordnet wurde
+     */
+    public boolean connect(String advisorId, String sessionId) {
+        return register(advisorId, sessionId, Instant.now()) != null;
+    }
+
+    /**
+     * Meldet eine Session ab; war es die letzte des Beraters, geht er offline.
+     */
+    public void disconnect(String sessionId) {
+        String advisorId = sessionOwners.remove(sessionId);
+        if (advisorId == null) {
+            return;
+        }
+        PresenceDelta[] delta = new PresenceDelta[1];
+        advisors.computeIfPresent(advisorId, (id, presence) -> {
+            presence.sessions.remove(sessionId);
+            if (!presence.sessions.isEmpty()) {
+                return presence;
+            }
+            delta[0] = changed(id, false, LocalDateTime.now());
+            return null;
+        });
+        publish(delta[0]);
+    }
+
+    /**
+     * Hält eine Session am Leben, aufgerufen für jede eingehende STOMP-Nachricht inkl. Heartbeats.
+     */
+    public void heartbeat(String sessionId) {
+        String advisorId = sessionOwners.get(sessionId);
+        if (advisorId == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        advisors.computeIfPresent(advisorId, (id, presence) -> {
+            presence.sessions.computeIfPresent(sessionId, (s, last) -> now);
+            if (presence.lastSeenWrittenAt.plus(lastSeenDebounce).isBefore(now)) {
+                LocalDateTime lastSeen = LocalDateTime.now();
+                presence.lastSeenWrittenAt = now;
+                presence.advisor.setLastSeen(lastSeen);
+                pendingWrites.put(id, new PendingWrite(true, lastSeen));
+            }
+            return presence;
+        });
+    }
+
+    /**
+     * Setzt den Status ohne WebSocket-Verbindung. Offline beendet alle Sessions des Beraters.
+     *
+     * @throws NotFoundObjectException wenn es den Berater nicht gibt
+     */
+    public Advisor setOnline(String advisorId, boolean online) {
+        if (online) {
+            // läuft nicht ab, bis der Berater sich wieder abmeldet
+            Advisor advisor = register(advisorId, MANUAL_SESSION_PREFIX + advisorId, Instant.MAX);
+            if (advisor == null) {
+                throw new NotFoundObjectException("Advisor not found with id: " + advisorId);
+            }
+            return advisor;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Presence[] removed = new Presence[1];
+        PresenceDelta[] delta = new PresenceDelta[1];
+        advisors.computeIfPresent(advisorId, (id, presence) -> {
+            removed[0] = presence;
+            delta[0] = changed(id, false, now);
+            return null;
+        });
+        publish(delta[0]);
+
+        Advisor advisor;
+        if (removed[0] != null) {
+            removed[0].sessions.keySet().forEach(sessionOwners::remove);
+            advisor = removed[0].advisor;
+        } else {
+            advisor = advisorRepository.findById(advisorId)
+                    .orElseThrow(() -> new NotFoundObjectException("Advisor not found with id: " + advisorId));
+            // auch ohne bekannte Session schreiben, der gespeicherte Stand kann veraltet sein
+            pendingWrites.put(advisorId, new PendingWrite(false, now));
+        }
+        advisor.setOnline(false);
+        advisor.setLastSeen(now);
+        return advisor;
+    }
+
+    public List<Advisor> getOnlineAdvisors() {
+        return onlineAdvisors().toList();
+    }
+
+    public List<AdvisorSummary> getOnlineAdvisorSummaries() {
+        return onlineAdvisors()
+                .map(AdvisorPresenceRegistry::toSummary)
+                .toList();
+    }
+
+    /**
+     * Ob der Berater an diesem oder, beim letzten Refresh, an einem anderen Knoten mindestens
+     * eine aktive Session hat, ohne Datenbankzugriff.
+     */
+    public boolean isOnline(String advisorId) {
+        return advisorId != null && (advisors.containsKey(advisorId) || remoteAdvisors.containsKey(advisorId));
+    }
+
+    // eigene Berater zuerst, von anderen Knoten nur die, die hier nicht verbunden sind
+    private Stream<Advisor> onlineAdvisors() {
+        Map<String, Advisor> remote = remoteAdvisors;
+        return Stream.concat(
+                advisors.values().stream().map(presence -> presence.advisor),
+                remote.values().stream().filter(advisor -> !advisors.containsKey(advisor.getId())));
+    }
+
+    /**
+     * Liest die Berater, die an anderen Knoten verbunden sind. Mit dem Simple Broker erreichen
+     * deren Deltas die Clients dieses Knotens nicht, deshalb werden Wechsel hier nachgereicht;
+     * im Relay-Modus verteilt der Broker sie selbst.
+     */
+    @Scheduled(fixedDelayString = "${app.presence.cluster-refresh-interval:PT5S}")
+    public void refreshRemotePresence() {
+        if (!clustered()) {
+            return;
+        }
+        Query otherNodes = Query.query(Criteria.where(ONLINE_NODES + ".0").exists(true)
+                .and(ONLINE_NODES).ne(List.of(nodeId())));
+        Map<String, Advisor> current = new HashMap<>();
+        try {
+            mongoTemplate.find(otherNodes, Advisor.class).forEach(advisor -> current.put(advisor.getId(), advisor));
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh presence of other nodes: {}", e.getMessage());
+            return;
+        }
+        Map<String, Advisor> previous = remoteAdvisors;
+        remoteAdvisors = current;
+        if ("relay".equals(brokerMode)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        current.forEach((id, advisor) -> {
+            if (!previous.containsKey(id) && !advisors.containsKey(id)) {
+                messagingTemplate.convertAndSend(TOPIC, new PresenceDelta(id, true, advisor.getLastSeen()));
+            }
+        });
+        previous.keySet().forEach(id -> {
+            if (!current.containsKey(id) && !advisors.containsKey(id)) {
+                messagingTemplate.convertAndSend(TOPIC, new PresenceDelta(id, false, now));
+            }
+        });
+    }
+
+    @EventListener
+    public void onAdvisorChanged(AdvisorChangedEvent event) {
+        Advisor changed = event.advisor();
+        if (changed == null || changed.getId() == null) {
+            return;
+        }
+        advisors.computeIfPresent(changed.getId(), (id, presence) -> {
+            changed.setOnline(true);
+            changed.setLastSeen(presence.advisor.getLastSeen());
+            presence.advisor = changed;
+            return presence;
+        });
+    }
+
+    /**
+     * Beendet Sessions, deren letzter Heartbeat länger als {@code app.presence.heartbeat-timeout}
+     * zurückliegt, z.B. nach einem Verbindungsabbruch ohne DISCONNECT.
+     */
+    @Scheduled(fixedDelayString = "${app.presence.sweep-interval:PT15S}")
+    public void expireStaleSessions() {
+        Instant cutoff = Instant.now().minus(heartbeatTimeout);
+        List<String> stale = new ArrayList<>();
+        advisors.values().forEach(presence -> presence.sessions.forEach((sessionId, lastHeartbeat) -> {
+            if (lastHeartbeat.isBefore(cutoff)) {
+                stale.add(sessionId);
+            }
+        }));
+        if (!stale.isEmpty()) {
+            log.info("Expiring {} advisor sessions without heartbeat", stale.size());
+            stale.forEach(this::disconnect);
+        }
+    }
+
+    /**
+     * Schreibt alle seit dem letzten Lauf angefallenen Wechsel mit einem Bulk-Update.
+     */
+    @Scheduled(fixedDelayString = "${app.presence.flush-interval:PT5S}")
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        // geordnet: das Offline-Update eines Beraters prüft das vorangehende $pull
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Advisor.class);
+        int count = 0;
+        for (String advisorId : pendingWrites.keySet()) {
+            PendingWrite write = pendingWrites.remove(advisorId);
+            if (write == null) {
+                continue;
+            }
+            Query advisor = Query.query(Criteria.where("_id").is(advisorId));
+            if (write.online()) {
+                bulk.updateOne(advisor, new Update()
+                        .set("online", true)
+                        .set("lastSeen", write.lastSeen())
+                        .addToSet(ONLINE_NODES, nodeId()));
+            } else {
+                bulk.updateOne(advisor, new Update()
+                        .set("lastSeen", write.lastSeen())
+                        .pull(ONLINE_NODES, nodeId()));
+                // offline erst, wenn kein anderer Knoten mehr eine Session des Beraters hält
+                bulk.updateOne(Query.query(Criteria.where("_id").is(advisorId).and(ONLINE_NODES + ".0").exists(false)),
+                        new Update().set("online", false));
+            }
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        try {
+            bulk.execute();
+            log.debug("Persisted presence of {} advisors", count);
+        } catch (DataAccessException e) {
+            // der Speicher bleibt maßgeblich, der nächste Wechsel schreibt erneut
+            log.warn("Could not persist presence of {} advisors: {}", count, e.getMessage());
+        }
+    }
+
+    /**
+     * Die Verbindungen dieses Knotens enden mit ihm, deshalb den Knoten bei allen seinen Beratern
+     * austragen. Offline werden nur die, die an keinem anderen Knoten verbunden sind.
+     */
+    @PreDestroy
+    public void shutdown() {
+        LocalDateTime now = LocalDateTime.now();
+        advisors.keySet().forEach(advisorId -> pendingWrites.put(advisorId, new PendingWrite(false, now)));
+        advisors.clear();
+        sessionOwners.clear();
+        flush();
+    }
+
+    private Advisor register(String advisorId, String sessionId, Instant heartbeat) {
+        Presence existing = advisors.get(advisorId);
+        // nur die erste Session eines Beraters liest aus Mongo
+        Advisor loaded = existing != null
+                ? existing.advisor
+                : advisorRepository.findById(advisorId).orElse(null);
+        if (loaded == null) {
+            return null;
+        }
+
+        sessionOwners.put(sessionId, advisorId);
+        PresenceDelta[] delta = new PresenceDelta[1];
+        Presence presence = advisors.compute(advisorId, (id, current) -> {
+            Presence next = current;
+            if (next == null) {
+                LocalDateTime now = LocalDateTime.now();
+                loaded.setOnline(true);
+                loaded.setLastSeen(now);
+                next = new Presence(loaded, Instant.now());
+                delta[0] = changed(id, true, now);
+            }
+            next.sessions.put(sessionId, heartbeat);
+            return next;
+        });
+        publish(delta[0]);
+        return presence.advisor;
+    }
+
+    // nur innerhalb von compute aufrufen; das Delta danach mit publish verteilen
+    private PresenceDelta changed(String advisorId, boolean online, LocalDateTime lastSeen) {
+        pendingWrites.put(advisorId, new PendingWrite(online, lastSeen));
+        log.info("Advisor {} is now {} on node {}", advisorId, online ? "online" : "offline", nodeId());
+        return new PresenceDelta(advisorId, online, lastSeen);
+    }
+
+    // außerhalb von compute, damit der Broker nicht unter dem Lock des Beraters aufgerufen wird
+    private void publish(PresenceDelta delta) {
+        if (delta == null || remoteAdvisors.containsKey(delta.advisorId())) {
+            // an einem anderen Knoten weiter verbunden: für die Clients ändert sich nichts
+            return;
+        }
+        messagingTemplate.convertAndSend(TOPIC, delta);
+    }
+
+    private String nodeId() {
+        return nodeId == null || nodeId.isBlank() ? DEFAULT_NODE_ID : nodeId;
+    }
+
+    private boolean clustered() {
+        return (clusterBus != null && !"none".equals(clusterBus)) || "relay".equals(brokerMode);
+    }
+
+    private static AdvisorSummary toSummary(Advisor advisor) {
+        return AdvisorSummary.builder()
+                .id(advisor.getId())
+                .name(advisor.getName())
+                .specialization(advisor.getSpecialization())
+                .rating(advisor.getRating())
+                .languages(advisor.getLanguages())
+                .imageUrl(advisor.getImageUrl())
+                .image(advisor.getImage())
+                .experience(advisor.getExperience())
+                .consultationFee(advisor.getConsultationFee())
+                .available(advisor.getAvailable())
+                .reviewCount(advisor.getReviewCount())
+                .online(true)
+                .build();
+    }
+
+    private static final class Presence {
+
+        // Session-ID -> letzter Heartbeat
+        private final Map<String, Instant> sessions = new ConcurrentHashMap<>();
+        private volatile Advisor advisor;
+        private volatile Instant lastSeenWrittenAt;
+
+        private Presence(Advisor advisor, Instant lastSeenWrittenAt) {
+            this.advisor = advisor;
+            this.lastSeenWrittenAt = lastSeenWrittenAt;
+        }
+    }
+
+    private record PendingWrite(boolean online, LocalDateTime lastSeen) {
+    }
+}
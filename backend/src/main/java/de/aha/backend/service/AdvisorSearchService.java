@@ -2,15 +2,24 @@ package de.aha.backend.service;
 
 import de.aha.backend.dto.advisor.AdvisorSearchRequest;
 import de.aha.backend.dto.advisor.AdvisorSearchResponse;
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.dto.advisor.FacetCount;
 import de.aha.backend.model.advisor.Advisor;
 import de.aha.backend.repository.AdvisorRepository;
 import de.aha.backend.repository.ReviewRepository;
+import de.aha.backend.util.KeysetCursor;
+import de.aha.backend.util.SpecializationCriteria;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -25,16 +34,104 @@ public class AdvisorSearchService {
     private final AdvisorRepository advisorRepository;
     private final ReviewRepository reviewRepository;
     private final MongoTemplate mongoTemplate;
+    private final AdvisorStatsService advisorStatsService;
+    private final AdvisorFacetService advisorFacetService;
 
-    public AdvisorSearchResponse searchAdvisors(AdvisorSearchRequest request) {
+    // true: Spezialisierung wie früher per unverankertem Regex filtern (ohne Index)
+    @Value("${app.search.specialization.legacy-regex:false}")
+    private boolean legacySpecializationRegex;
+
+    public AdvisorSearchResponse<Advisor> searchAdvisors(AdvisorSearchRequest request) {
         log.info("Searching advisors with filters: {}", request);
 
+        return search(request, Advisor.class);
+    }
+
+    /**
+     * Wie {@link #searchAdvisors(AdvisorSearchRequest)}, lädt aber nur die Felder
+     * von {@link AdvisorSummary} aus der Datenbank.
+     */
+    public AdvisorSearchResponse<AdvisorSummary> searchAdvisorSummaries(AdvisorSearchRequest request) {
+        log.info("Searching advisor summaries with filters: {}", request);
+
+        return search(request, AdvisorSummary.class);
+    }
+
+    private <T> AdvisorSearchResponse<T> search(AdvisorSearchRequest request, Class<T> resultType) {
+        if (request.isCursorMode()) {
+            if (!hasSearchQuery(request)) {
+                return searchWithCursor(request, resultType);
+            }
+            // Die Text-Suche sortiert nach Relevanz-Treffern, dafür bleibt es bei Offset-Pagination
+            log.info("Cursor pagination is not supported for text search, falling back to offset pagination");
+        }
+
         Pageable pageable = createPageable(request);
-        Page<Advisor> advisorPage = executeSearch(request, pageable);
+        Page<T> advisorPage = executeSearch(request, pageable, resultType);
 
-        System.out.println("searchAdvisors: " +  advisorPage.getContent());
+        return buildSearchResponse(advisorPage);
+    }
+
+    /**
+     * Keyset-Pagination: lädt {@code size + 1} Elemente nach dem Cursor, um ohne
+     * separaten Count zu erkennen, ob es eine weitere Seite gibt. Die Gesamtzahl
+     * wird nur mit {@code includeCount=true} ermittelt.
+     */
+    private <T> AdvisorSearchResponse<T> searchWithCursor(AdvisorSearchRequest request, Class<T> resultType) {
+        Sort.Order order = createSort(request).iterator().next();
+        int size = request.getSize();
+
+        List<Criteria> criteriaList = buildSearchCriteria(request);
+        Long total = Boolean.TRUE.equals(request.getIncludeCount())
+                ? mongoTemplate.count(toQuery(criteriaList), Advisor.class)
+                : null;
+
+        if (hasText(request.getCursor())) {
+            KeysetCursor cursor = KeysetCursor.decode(request.getCursor());
+            cursor.requireSort(order.getProperty(), order.getDirection());
+            criteriaList.add(cursor.toCriteria());
+        }
+
+        Query query = toQuery(criteriaList)
+                .with(KeysetCursor.sort(order.getProperty(), order.getDirection()))
+                .limit(size + 1);
+        if (resultType == AdvisorSummary.class) {
+            query.fields().include(AdvisorSummary.FIELDS);
+        }
 
-        return buildSearchResponse(advisorPage, request);
+        List<T> advisors = mongoTemplate.query(Advisor.class)
+                .as(resultType)
+                .matching(query)
+                .all();
+
+        boolean hasNext = advisors.size() > size;
+        if (hasNext) {
+            advisors = advisors.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            BeanWrapper last = PropertyAccessorFactory.forBeanPropertyAccess(advisors.get(advisors.size() - 1));
+            nextCursor = new KeysetCursor(order.getProperty(), order.getDirection(),
+                    last.getPropertyValue(order.getProperty()), (String) last.getPropertyValue("id")).encode();
+        }
+
+        return AdvisorSearchResponse.<T>builder()
+                .advisors(advisors)
+                .totalCount(total)
+                .hasNext(hasNext)
+                .hasPrevious(hasText(request.getCursor()))
+                .nextCursor(nextCursor)
+                .searchStats(calculateSearchStats())
+                .build();
+    }
+
+    private static boolean hasSearchQuery(AdvisorSearchRequest request) {
+        return hasText(request.getSearchQuery());
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
     }
 
     private Pageable createPageable(AdvisorSearchRequest request) {
@@ -67,35 +164,43 @@ public class AdvisorSearchService {
         }
     }
 
-    private Page<Advisor> executeSearch(AdvisorSearchRequest request, Pageable pageable) {
+    private <T> Page<T> executeSearch(AdvisorSearchRequest request, Pageable pageable, Class<T> resultType) {
         // Wenn ein Suchbegriff vorhanden ist, verwende die Text-Suche
-        if (request.getSearchQuery() != null && !request.getSearchQuery().trim().isEmpty()) {
-            return advisorRepository.fullTextSearch(request.getSearchQuery().trim(), pageable);
+        if (hasSearchQuery(request)) {
+            Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(request.getSearchQuery().trim()));
+            return findPage(query, pageable, resultType);
         }
 
         // Verwende die Criteria-basierte Suche für Filter
-        return searchAdvisorsWithCriteria(request, pageable);
+        return findPage(buildSearchQuery(request), pageable, resultType);
     }
 
-    private Page<Advisor> searchAdvisorsWithCriteria(AdvisorSearchRequest request, Pageable pageable) {
-        Query query = buildSearchQuery(request);
-
-        System.out.println("searchAdvisorsWithCriteria: " +  query);
-
+    private <T> Page<T> findPage(Query query, Pageable pageable, Class<T> resultType) {
         // Count total results
         long total = mongoTemplate.count(query, Advisor.class);
 
         // Apply pagination
         query.with(pageable);
 
+        // Für das schlanke Lesemodell nur die benötigten Felder laden
+        if (resultType == AdvisorSummary.class) {
+            query.fields().include(AdvisorSummary.FIELDS);
+        }
+
         // Execute query
-        List<Advisor> advisors = mongoTemplate.find(query, Advisor.class);
+        List<T> advisors = mongoTemplate.query(Advisor.class)
+                .as(resultType)
+                .matching(query)
+                .all();
 
         return new PageImpl<>(advisors, pageable, total);
     }
 
     private Query buildSearchQuery(AdvisorSearchRequest request) {
-        Query query = new Query();
+        return toQuery(buildSearchCriteria(request));
+    }
+
+    private List<Criteria> buildSearchCriteria(AdvisorSearchRequest request) {
         List<Criteria> criteriaList = new ArrayList<>();
 
         String specialization = request.getSpecialization();
@@ -106,7 +211,7 @@ public class AdvisorSearchService {
 
         // Specialization Filter (nur anwenden wenn nicht leer)
         if (specialization != null && !specialization.trim().isEmpty()) {
-            criteriaList.add(Criteria.where("specialization").regex(specialization, "i"));
+            criteriaList.add(SpecializationCriteria.matching(specialization, legacySpecializationRegex));
         }
 
         // Language Filter (nur anwenden wenn nicht leer)
@@ -129,6 +234,12 @@ public class AdvisorSearchService {
             criteriaList.add(Criteria.where("available").is(available));
         }
 
+        return criteriaList;
+    }
+
+    private static Query toQuery(List<Criteria> criteriaList) {
+        Query query = new Query();
+
         // Combine criteria
         if (!criteriaList.isEmpty()) {
             query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
@@ -137,44 +248,13 @@ public class AdvisorSearchService {
         return query;
     }
 
-
-    private Page<Advisor> executeSearch2(AdvisorSearchRequest request, Pageable pageable) {
-        // Wenn ein Suchbegriff vorhanden ist, verwende die Text-Suche
-        if (request.getSearchQuery() != null && !request.getSearchQuery().trim().isEmpty()) {
-            return advisorRepository.fullTextSearch(request.getSearchQuery().trim(), pageable);
-        }
-
-        // Ansonsten verwende die gefilterte Suche
-        String specialization = request.getSpecialization() != null && !request.getSpecialization().isEmpty()
-                ? request.getSpecialization()
-                : null;
-
-        String language = request.getLanguage() != null && !request.getLanguage().isEmpty()
-                ? request.getLanguage()
-                : null;
-
-        Double minRating = request.getMinRating() != null ? request.getMinRating() : 0.0;
-        Double maxFee = request.getMaxFee() != null ? request.getMaxFee() : Double.MAX_VALUE;
-        Boolean available = request.getAvailableToday() != null ? request.getAvailableToday() : null;
-
-        return advisorRepository.searchAdvisors(
-                null, // searchQuery
-                specialization,
-                language,
-                minRating,
-                maxFee,
-                available,
-                pageable
-        );
-    }
-
-    private AdvisorSearchResponse buildSearchResponse(Page<Advisor> advisorPage, AdvisorSearchRequest request) {
-        List<Advisor> advisors = advisorPage.getContent();
+    private <T> AdvisorSearchResponse<T> buildSearchResponse(Page<T> advisorPage) {
+        List<T> advisors = advisorPage.getContent();
 
         // Berater-Statistiken berechnen
-        AdvisorSearchResponse.SearchStats stats = calculateSearchStats(request);
+        AdvisorSearchResponse.SearchStats stats = calculateSearchStats();
 
-        return AdvisorSearchResponse.builder()
+        return AdvisorSearchResponse.<T>builder()
                 .advisors(advisors)
                 .totalCount(advisorPage.getTotalElements())
                 .currentPage(advisorPage.getNumber())
@@ -185,51 +265,34 @@ public class AdvisorSearchService {
                 .build();
     }
 
-    private AdvisorSearchResponse.SearchStats calculateSearchStats(AdvisorSearchRequest request) {
-        Long totalAdvisors = advisorRepository.count();
-
-        // Verfügbare Berater heute zählen
-        Long availableToday = advisorRepository.findAvailableAdvisors(
-                request.getMinRating() != null ? request.getMinRating() : 0.0,
-                request.getMaxFee() != null ? request.getMaxFee() : Double.MAX_VALUE
-        ).stream().count();
-
-        // Durchschnittliche Bewertung und Honorar berechnen
-        List<Advisor> allAdvisors = advisorRepository.findAll();
-        double averageRating = allAdvisors.stream()
-                .mapToDouble(Advisor::getRating)
-                .average()
-                .orElse(0.0);
-
-        double averageFee = allAdvisors.stream()
-                .mapToDouble(Advisor::getConsultationFee)
-                .average()
-                .orElse(0.0);
-
-        return AdvisorSearchResponse.SearchStats.builder()
-                .totalAdvisors(totalAdvisors)
-                .availableToday(availableToday)
-                .averageRating(Math.round(averageRating * 10.0) / 10.0) // Auf eine Dezimalstelle runden
-                .averageFee(Math.round(averageFee * 100.0) / 100.0) // Auf zwei Dezimalstellen runden
-                .build();
+    private AdvisorSearchResponse.SearchStats calculateSearchStats() {
+        // Statistiken über alle Berater aus dem gepflegten Snapshot, unabhängig von den Filtern der Anfrage
+        return advisorStatsService.getStats();
+    }
+
+    public AdvisorSearchResponse.SearchStats getSearchStats() {
+        log.info("getSearchStats");
+        return advisorStatsService.getStats();
     }
 
     public List<String> getAllSpecializations() {
         log.info("getAllSpecializations");
-        return advisorRepository.findAll().stream()
-                .map(Advisor::getSpecialization)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return advisorFacetService.getSpecializations();
     }
 
     public List<String> getAllLanguages() {
         log.info("getAllLanguages");
-        return advisorRepository.findAll().stream()
-                .flatMap(advisor -> advisor.getLanguages().stream())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return advisorFacetService.getLanguages();
+    }
+
+    public List<FacetCount> getSpecializationCounts() {
+        log.info("getSpecializationCounts");
+        return advisorFacetService.getSpecializationCounts();
+    }
+
+    public List<FacetCount> getLanguageCounts() {
+        log.info("getLanguageCounts");
+        return advisorFacetService.getLanguageCounts();
     }
 
     public List<Advisor> getFeaturedAdvisors() {
@@ -246,7 +309,7 @@ public class AdvisorSearchService {
 
     public List<Advisor> getSimilarAdvisors(String advisorId, String specialization) {
         log.info("getSimilarAdvisors: advisorId: {} ; specialization: {}", advisorId, specialization);
-        return advisorRepository.findBySpecializationContainingIgnoreCase(specialization).stream()
+        return advisorRepository.searchBySpecialization(specialization, null).stream()
                 .filter(advisor -> !advisor.getId().equals(advisorId))
                 .limit(4)
                 .collect(Collectors.toList());
@@ -1,14 +1,18 @@
 package de.aha.backend.service;
 
+import de.aha.backend.dto.advisor.AdvisorSummary;
 import de.aha.backend.exception.NotFoundObjectException;
 import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
 import de.aha.backend.model.appointment.WorkingHours;
 import de.aha.backend.repository.AdvisorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +23,8 @@ import static de.aha.backend.mapper.UserMapper.mapToUser;
 @RequiredArgsConstructor
 public class AdvisorService {
     private final AdvisorRepository advisorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AdvisorPresenceRegistry presenceRegistry;
 
     /**
      * Creates a new advisor.
@@ -27,7 +33,8 @@ public class AdvisorService {
      */
     public void save(Advisor advisor) {
         log.info("Creating advisor {}", advisor);
-        advisorRepository.save(advisor);
+        Advisor saved = advisorRepository.save(advisor);
+        eventPublisher.publishEvent(new AdvisorChangedEvent(saved));
     }
 
     public List<Advisor> getAllAdvisors() {
@@ -55,10 +62,9 @@ public class AdvisorService {
         log.info("searchAdvisors: specialization: {} ; language: {}", specialization, language);
 
         if (specialization != null && language != null) {
-            return advisorRepository.findBySpecializationContainingIgnoreCaseAndLanguagesContaining(
-                    specialization, language);
+            return advisorRepository.searchBySpecialization(specialization, language);
         } else if (specialization != null) {
-            return advisorRepository.findBySpecializationContainingIgnoreCase(specialization);
+            return advisorRepository.searchBySpecialization(specialization, null);
         } else if (language != null) {
             return advisorRepository.findByLanguagesContaining(language);
         } else {
@@ -66,10 +72,25 @@ public class AdvisorService {
         }
     }
 
+    /**
+     * Wie {@link #searchAdvisors(String, String)}, liefert aber das schlanke
+     * {@link AdvisorSummary} per Feldprojektion.
+     */
+    public List<AdvisorSummary> searchAdvisorSummaries(String specialization, String language) {
+        log.info("searchAdvisorSummaries: specialization: {} ; language: {}", specialization, language);
+
+        return advisorRepository.searchSummariesBySpecialization(specialization, language);
+    }
+
     public List<Advisor> getAvailableAdvisors() {
         return advisorRepository.findByAvailableTrue();
     }
 
+    public List<AdvisorSummary> getAvailableAdvisorSummaries() {
+        log.info("getAvailableAdvisorSummaries");
+        return advisorRepository.findSummaries(new Query(Criteria.where("available").is(true)));
+    }
+
     // TODO
     public List<Advisor> findAdvisorsByName(String name) {
         log.info("findAdvisorsByName: {}", name);
@@ -81,25 +102,33 @@ public class AdvisorService {
                 .orElseThrow(() -> new RuntimeException("Advisor not found"));
 
         advisor.setWorkingHours(workingHours);
-        return advisorRepository.save(advisor);
+        Advisor saved = advisorRepository.save(advisor);
+        eventPublisher.publishEvent(new AdvisorChangedEvent(saved));
+        return saved;
     }
 
+    // Online-Status kommt aus dem Speicher, siehe AdvisorPresenceRegistry
     public List<Advisor> getOnlineAdvisors() {
         log.info("getOnlineAdvisors");
-        return advisorRepository.findOnlineAdvisors();
+        return presenceRegistry.getOnlineAdvisors();
     }
 
+    public List<AdvisorSummary> getOnlineAdvisorSummaries() {
+        log.info("getOnlineAdvisorSummaries");
+        return presenceRegistry.getOnlineAdvisorSummaries();
+    }
+
+    public boolean isAdvisorOnline(String advisorId) {
+        return presenceRegistry.isOnline(advisorId);
+    }
+
+    /**
+     * Setzt den Online-Status ohne WebSocket-Verbindung. Gespeichert wird gebündelt
+     * durch die {@link AdvisorPresenceRegistry}.
+     */
     public Advisor updateAdvisorOnlineStatus(String advisorId, boolean online) {
         log.info("updateAdvisorOnlineStatus: advisorId: {} ; online: {}", advisorId, online);
-
-        Optional<Advisor> advisorOpt = advisorRepository.findById(advisorId);
-        if (advisorOpt.isPresent()) {
-            Advisor advisor = advisorOpt.get();
-            advisor.setOnline(online);
-            advisor.setLastSeen(LocalDateTime.now());
-            return advisorRepository.save(advisor);
-        }
-        throw new RuntimeException("Advisor not found with id: " + advisorId);
+        return presenceRegistry.setOnline(advisorId, online);
     }
 
     public Advisor updateAdvisorAvailability(String advisorId, boolean available) {
@@ -109,7 +138,9 @@ public class AdvisorService {
         if (advisorOpt.isPresent()) {
             Advisor advisor = advisorOpt.get();
             advisor.setAvailable(available);
-            return advisorRepository.save(advisor);
+            Advisor saved = advisorRepository.save(advisor);
+            eventPublisher.publishEvent(new AdvisorChangedEvent(saved));
+            return saved;
         }
         throw new RuntimeException("Advisor not found with id: " + advisorId);
     }
@@ -119,9 +150,9 @@ public class AdvisorService {
 
         if (specialization != null && languages != null && !languages.isEmpty()) {
             // Kombinierte Suche implementieren
-            return advisorRepository.findBySpecializationContainingIgnoreCase(specialization);
+            return advisorRepository.searchBySpecialization(specialization, null);
         } else if (specialization != null) {
-            return advisorRepository.findBySpecializationContainingIgnoreCase(specialization);
+            return advisorRepository.searchBySpecialization(specialization, null);
         } else if (languages != null && !languages.isEmpty()) {
             return advisorRepository.findByLanguages(languages);
         } else {
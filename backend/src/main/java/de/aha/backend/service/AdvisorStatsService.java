@@ -0,0 +1,157 @@
+package de.aha.backend.service;
+
+import de.aha.backend.dto.advisor.AdvisorSearchResponse;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Hält einen vorberechneten Snapshot der Suchstatistiken (Anzahl, verfügbare
+ * Berater, Durchschnittsbewertung und -honorar).
+ * <p>
+ * Der Snapshot wird beim ersten Zugriff einmalig aus einer schlanken Projektion
+ * aufgebaut und danach über {@link AdvisorChangedEvent}s inkrementell gepflegt.
+ * Da Events nur lokal zugestellt werden, wird er nach {@code app.search.stats.max-age}
+ * vollständig neu aufgebaut; so bleiben Änderungen anderer Instanzen und
+ * Rundungsfehler der Deltas begrenzt.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdvisorStatsService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.search.stats.max-age:PT10M}")
+    private Duration maxAge;
+
+    // Beitrag jedes Beraters zum Snapshot, damit Änderungen als Delta verrechnet werden können
+    private final Map<String, Contribution> contributions = new HashMap<>();
+
+    private volatile Snapshot snapshot;
+
+    public AdvisorSearchResponse.SearchStats getStats() {
+        Snapshot current = snapshot;
+        if (current == null || isExpired(current)) {
+            current = rebuild();
+        }
+        return current.toSearchStats();
+    }
+
+    /**
+     * Baut den Snapshot vollständig aus der Datenbank neu auf.
+     */
+    public synchronized Snapshot rebuild() {
+        Snapshot current = snapshot;
+        if (current != null && !isExpired(current)) {
+            // ein anderer Thread war schneller
+            return current;
+        }
+
+        Query query = new Query();
+        query.fields().include("rating", "consultationFee", "available");
+
+        contributions.clear();
+        Snapshot rebuilt = Snapshot.empty(LocalDateTime.now());
+        try (Stream<Advisor> advisors = mongoTemplate.stream(query, Advisor.class)) {
+            for (Advisor advisor : (Iterable<Advisor>) advisors::iterator) {
+                Contribution contribution = Contribution.of(advisor);
+                contributions.put(advisor.getId(), contribution);
+                rebuilt = rebuilt.plus(contribution);
+            }
+        }
+
+        snapshot = rebuilt;
+        log.info("Rebuilt advisor search stats: {} advisors", rebuilt.totalAdvisors());
+        return rebuilt;
+    }
+
+    @EventListener
+    public void onAdvisorChanged(AdvisorChangedEvent event) {
+        Advisor advisor = event.advisor();
+        if (advisor == null || advisor.getId() == null) {
+            return;
+        }
+        apply(advisor);
+    }
+
+    private synchronized void apply(Advisor advisor) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // noch nicht aufgebaut, der erste Lesezugriff erledigt das
+            return;
+        }
+
+        Contribution next = Contribution.of(advisor);
+        Contribution previous = contributions.put(advisor.getId(), next);
+
+        Snapshot updated = previous != null ? current.minus(previous) : current;
+        snapshot = updated.plus(next).touch(LocalDateTime.now());
+    }
+
+    private boolean isExpired(Snapshot current) {
+        return maxAge != null && current.rebuiltAt().plus(maxAge).isBefore(LocalDateTime.now());
+    }
+
+    private record Contribution(boolean available, double rating, double fee) {
+
+        static Contribution of(Advisor advisor) {
+            return new Contribution(
+                    Boolean.TRUE.equals(advisor.getAvailable()),
+                    advisor.getRating() != null ? advisor.getRating() : 0.0,
+                    advisor.getConsultationFee() != null ? advisor.getConsultationFee() : 0.0);
+        }
+    }
+
+    public record Snapshot(long totalAdvisors,
+                           long availableAdvisors,
+                           double ratingSum,
+                           double feeSum,
+                           LocalDateTime rebuiltAt,
+                           LocalDateTime updatedAt) {
+
+        static Snapshot empty(LocalDateTime now) {
+            return new Snapshot(0, 0, 0.0, 0.0, now, now);
+        }
+
+        Snapshot plus(Contribution c) {
+            return new Snapshot(totalAdvisors + 1, availableAdvisors + (c.available() ? 1 : 0),
+                    ratingSum + c.rating(), feeSum + c.fee(), rebuiltAt, updatedAt);
+        }
+
+        Snapshot minus(Contribution c) {
+            return new Snapshot(totalAdvisors - 1, availableAdvisors - (c.available() ? 1 : 0),
+                    ratingSum - c.rating(), feeSum - c.fee(), rebuiltAt, updatedAt);
+        }
+
+        Snapshot touch(LocalDateTime now) {
+            return new Snapshot(totalAdvisors, availableAdvisors, ratingSum, feeSum, rebuiltAt, now);
+        }
+
+        AdvisorSearchResponse.SearchStats toSearchStats() {
+            double averageRating = totalAdvisors > 0 ? ratingSum / totalAdvisors : 0.0;
+            double averageFee = totalAdvisors > 0 ? feeSum / totalAdvisors : 0.0;
+
+            return AdvisorSearchResponse.SearchStats.builder()
+                    .totalAdvisors(totalAdvisors)
+                    .availableToday(availableAdvisors)
+                    .averageRating(Math.round(averageRating * 10.0) / 10.0) // Auf eine Dezimalstelle runden
+                    .averageFee(Math.round(averageFee * 100.0) / 100.0) // Auf zwei Dezimalstellen runden
+                    .computedAt(rebuiltAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package de.aha.backend.service;
 
 import de.aha.backend.dto.appointment.*;
+import de.aha.backend.exception.BadRequestException;
+import de.aha.backend.exception.ExecutionConflictException;
 import de.aha.backend.exception.NotFoundObjectException;
 import de.aha.backend.mapper.AppointmentMapper;
 import de.aha.backend.model.advisor.Advisor;
 import de.aha.backend.model.appointment.Appointment;
+import de.aha.backend.model.appointment.AppointmentChangedEvent;
 import de.aha.backend.model.appointment.AppointmentStatus;
 import de.aha.backend.model.appointment.TimeSlot;
 import de.aha.backend.model.appointment.WorkingHours;
@@ -17,16 +20,19 @@ import de.aha.backend.security.TokenInteract;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static de.aha.backend.mapper.AppointmentMapper.mapToAppointmentResponse;
@@ -40,9 +46,12 @@ public class AppointmentService {
     private final UserRepository userRepository;
     private final AppointmentRepository appointmentRepository;
     private final AdvisorRepository advisorRepository;
+    private final AdvisorAvailabilityIndex availabilityIndex;
+    private final SlotReservationService slotReservationService;
+    private final ApplicationEventPublisher eventPublisher;
     private static final int DEFAULT_APPOINTMENT_DURATION = 60; // minutes
+    private static final int MAX_AVAILABILITY_DAYS = 31;
 
-    @Transactional
     public AppointmentResponse createAppointment(@Valid CreateAppointmentRequest request, String patientId) {
 
         log.info("Creating appointment for patient: {} with advisor: {}", patientId, request.advisorId());
@@ -51,11 +60,18 @@ public class AppointmentService {
         Advisor advisor = advisorRepository.findById(request.advisorId())
                 .orElseThrow(() -> new NotFoundObjectException("Advisor not found with id: " + request.advisorId()));
 
-        // Check if the requested time slot is available
+        // Slot claims cover exactly the appointment, so it has to lie on their grid
+        SlotReservationService.requireAligned(request.scheduledAt(), DEFAULT_APPOINTMENT_DURATION);
+
+        // Check if the requested time slot is available; same 409 as a lost claim below
         if (!isTimeSlotAvailable(request.advisorId(), request.scheduledAt(), DEFAULT_APPOINTMENT_DURATION)) {
-            throw new NotFoundObjectException("Requested time slot is not available");
+            throw new ExecutionConflictException("Requested time slot is not available");
         }
 
+        // Atomically claim the slot, concurrent bookings of the same slot fail here
+        String reservationId = slotReservationService.reserve(
+                request.advisorId(), request.scheduledAt(), DEFAULT_APPOINTMENT_DURATION);
+
         // Create appointment
         Appointment appointment = Appointment.builder()
                 .patientId(patientId)
@@ -69,7 +85,18 @@ public class AppointmentService {
                 .priority(request.priority())
                 .build();
 
-        Appointment savedAppointment = appointmentRepository.save(appointment);
+        // Release the claim right away if saving fails; if the node dies in between,
+        // the pending claim expires after app.appointments.reservation-ttl
+        Appointment savedAppointment;
+        try {
+            savedAppointment = appointmentRepository.save(appointment);
+        } catch (RuntimeException e) {
+            slotReservationService.cancel(reservationId);
+            throw e;
+        }
+        slotReservationService.confirm(reservationId, savedAppointment.getId(),
+                savedAppointment.getScheduledAt().plusMinutes(DEFAULT_APPOINTMENT_DURATION));
+        eventPublisher.publishEvent(new AppointmentChangedEvent(savedAppointment));
         log.info("Appointment created successfully with id: {}", savedAppointment.getId());
 
         return mapToAppointmentResponse(savedAppointment);
@@ -90,75 +117,75 @@ public class AppointmentService {
     }
 
     public List<AppointmentResponse> getAppointments(LocalDate date, String userId) {
+        return this.getAppointments(date, null, null, Pageable.unpaged(), userId);
+    }
+
+    /**
+     * Liefert die Termine des Benutzers mit optionalem Zeitfenster und Paginierung.
+     * Ohne Zeitfenster werden die neuesten Termine zuerst geliefert, mit Zeitfenster
+     * (Tag oder {@code from}/{@code to}) chronologisch aufsteigend.
+     */
+    public List<AppointmentResponse> getAppointments(LocalDate date, LocalDateTime from, LocalDateTime to,
+                                                     Pageable pageable, String userId) {
+        if (date != null && (from != null || to != null)) {
+            throw new BadRequestException("Use either date or from/to, not both");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        if (date != null) {
+            from = date.atStartOfDay();
+            to = date.plusDays(1).atStartOfDay();
+        }
+
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundObjectException("User not found with id: " + userId));
         if (user.getRole() == UserRole.ADVISOR) {
-            return this.getAdvisorAppointments(date, userId);
+            return this.getAdvisorAppointments(from, to, pageable, userId);
         }
-        return this.getUserAppointments(date, userId);
+        return this.getUserAppointments(from, to, pageable, userId);
     }
 
-    public List<AppointmentResponse> getUserAppointments(LocalDate date, String userId) {
-        log.info("Fetching appointments for user: {} on date: {}", userId, date);
+    public List<AppointmentResponse> getUserAppointments(LocalDateTime from, LocalDateTime to,
+                                                         Pageable pageable, String userId) {
+        log.info("Fetching appointments for user: {} from: {} to: {}", userId, from, to);
 
-        List<Appointment> appointments;
-
-        if (date != null) {
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-
-            // Get both patient and advisor appointments for the user
-            List<Appointment> patientAppointments = appointmentRepository
-                    .findByPatientIdAndScheduledAtBetweenOrderByScheduledAt(userId, startOfDay, endOfDay);
-            List<Appointment> advisorAppointments = appointmentRepository
-                    .findByAdvisorIdAndScheduledAtBetweenOrderByScheduledAt(userId, startOfDay, endOfDay);
-
-            appointments = new ArrayList<>();
-            appointments.addAll(patientAppointments);
-            appointments.addAll(advisorAppointments);
-        } else {
-            // Get all appointments for the user
-            List<Appointment> patientAppointments = appointmentRepository
-                    .findByPatientIdOrderByScheduledAtDesc(userId);
-            List<Appointment> advisorAppointments = appointmentRepository
-                    .findByAdvisorIdOrderByScheduledAtDesc(userId);
-
-            appointments = new ArrayList<>();
-            appointments.addAll(patientAppointments);
-            appointments.addAll(advisorAppointments);
-        }
+        // Patienten- und Beratertermine des Benutzers in einer Abfrage, bereits sortiert
+        List<Appointment> appointments = appointmentRepository
+                .findByParticipant(userId, userId, from, to, withDefaultSort(pageable, from, to));
 
         return appointments.stream()
                 .map(AppointmentMapper::mapToAppointmentResponse)
                 .collect(Collectors.toList());
     }
 
-    public List<AppointmentResponse> getAdvisorAppointments(LocalDate date, String userId) {
-        log.info("Fetching appointments for advisor: {} on date: {}", userId, date);
+    public List<AppointmentResponse> getAdvisorAppointments(LocalDateTime from, LocalDateTime to,
+                                                            Pageable pageable, String userId) {
+        log.info("Fetching appointments for advisor: {} from: {} to: {}", userId, from, to);
 
         Advisor advisor = advisorRepository.findByUserId(userId)
                 .orElseThrow(() -> new NotFoundObjectException("Advisor not found with user id: " + userId));
 
-        List<Appointment> appointments;
-
-        if (date != null) {
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-
-            // Get advisor appointments for the user
-            appointments = appointmentRepository
-                    .findByAdvisorIdAndScheduledAtBetweenOrderByScheduledAt(advisor.getId(), startOfDay, endOfDay);
-        } else {
-            // Get all appointments for the advisor
-            appointments = appointmentRepository
-                    .findByAdvisorIdOrderByScheduledAtDesc(advisor.getId());
-        }
+        List<Appointment> appointments = appointmentRepository
+                .findByParticipant(null, advisor.getId(), from, to, withDefaultSort(pageable, from, to));
 
         return appointments.stream()
                 .map(AppointmentMapper::mapToAppointmentResponse)
                 .collect(Collectors.toList());
     }
 
+    private static Pageable withDefaultSort(Pageable pageable, LocalDateTime from, LocalDateTime to) {
+        if (pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        Sort sort = (from != null || to != null)
+                ? Sort.by(Sort.Direction.ASC, "scheduledAt")
+                : Sort.by(Sort.Direction.DESC, "scheduledAt");
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
     @Transactional
     public AppointmentResponse updateAppointmentStatus(String appointmentId, @Valid UpdateAppointmentStatusRequest request, String userId) {
 
@@ -192,6 +219,10 @@ public class AppointmentService {
         appointment.setModifyDate(LocalDateTime.now());
 
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        if (!updatedAppointment.getStatus().isBlocking()) {
+            slotReservationService.release(updatedAppointment.getId());
+        }
+        eventPublisher.publishEvent(new AppointmentChangedEvent(updatedAppointment));
         log.info("Appointment status updated successfully");
 
         return mapToAppointmentResponse(updatedAppointment);
@@ -201,12 +232,36 @@ public class AppointmentService {
     public AvailabilityResponse checkAvailability(String advisorId, LocalDate date) {
         log.info("Checking availability for advisor: {} on date: {}", advisorId, date);
 
-        Advisor advisor = advisorRepository.findById(advisorId)
-                .orElseThrow(() -> new NotFoundObjectException("Advisor not found with id: " + advisorId));
+        List<TimeSlot> availableSlots = availabilityIndex.getAvailableSlots(advisorId, date, DEFAULT_APPOINTMENT_DURATION);
+        return toAvailabilityResponse(advisorId, date, availableSlots);
+    }
+
+    /**
+     * Liefert die Verfügbarkeit für jeden Tag von {@code from} bis {@code to} (inklusive),
+     * höchstens {@value #MAX_AVAILABILITY_DAYS} Tage.
+     */
+    public List<AvailabilityResponse> checkAvailability(String advisorId, LocalDate from, LocalDate to) {
+        log.info("Checking availability for advisor: {} from: {} to: {}", advisorId, from, to);
+
+        if (to.isBefore(from)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+            throw new BadRequestException("Availability range must not exceed " + MAX_AVAILABILITY_DAYS + " days");
+        }
+
+        Map<LocalDate, List<TimeSlot>> slotsByDay =
+                availabilityIndex.getAvailableSlots(advisorId, from, to, DEFAULT_APPOINTMENT_DURATION);
 
-        var advisorWorkingHoursOptional = this.getAdvisorWorkingHoursOptional(advisor, date);
-        List<TimeSlot> availableSlots = calculateAvailableSlots(advisor, date, advisorWorkingHoursOptional);
-        var workingHours = advisorWorkingHoursOptional.orElse(
+        List<AvailabilityResponse> responses = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            responses.add(toAvailabilityResponse(advisorId, date, slotsByDay.get(date)));
+        }
+        return responses;
+    }
+
+    private AvailabilityResponse toAvailabilityResponse(String advisorId, LocalDate date, List<TimeSlot> availableSlots) {
+        var workingHours = availabilityIndex.getWorkingHours(advisorId, date).orElse(
                 WorkingHours.builder()
                 .start("")
                 .end("")
@@ -245,79 +300,24 @@ public class AppointmentService {
         appointment.setStatus(AppointmentStatus.CANCELLED);
         appointment.setModifyDate(LocalDateTime.now());
 
-        appointmentRepository.save(appointment);
+        Appointment cancelledAppointment = appointmentRepository.save(appointment);
+        slotReservationService.release(cancelledAppointment.getId());
+        eventPublisher.publishEvent(new AppointmentChangedEvent(cancelledAppointment));
         log.info("Appointment cancelled successfully");
     }
 
     private boolean isTimeSlotAvailable(String advisorId, LocalDateTime startTime, int durationMinutes) {
         LocalDateTime endTime = startTime.plusMinutes(durationMinutes);
 
-        // Check if there are any overlapping appointments
-        return !appointmentRepository.existsByAdvisorIdAndScheduledAtBetweenAndStatusIn(
+        // Check if there are any overlapping appointments, including ones that started earlier and are still running
+        return !appointmentRepository.existsOverlappingAppointment(
                 advisorId,
                 startTime,
                 endTime,
-                List.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS)
+                AppointmentStatus.BLOCKING
         );
     }
 
-    private Optional<WorkingHours> getAdvisorWorkingHoursOptional(Advisor advisor, LocalDate date) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        return advisor.getWorkingHours().stream()
-                .filter(wh -> wh.getDayOfWeek().name().equals(dayOfWeek.name()))
-                .findFirst();
-    }
-
-    private List<TimeSlot> calculateAvailableSlots(Advisor advisor, LocalDate date, Optional<WorkingHours> advisorWorkingHoursOptional) {
-        List<TimeSlot> availableSlots = new ArrayList<>();
-
-        // Get advisor's working hours for the specific day
-//        var advisorWorkingHoursOptional = this.getAdvisorWorkingHoursOptional(advisor, date);
-
-        if (advisorWorkingHoursOptional.isEmpty() || !advisorWorkingHoursOptional.get().isAvailable()) {
-            return availableSlots; // No working hours for this day
-        }
-
-        WorkingHours workingHours = advisorWorkingHoursOptional.get();
-        LocalTime startTime = LocalTime.parse(workingHours.getStart());
-        LocalTime endTime = LocalTime.parse(workingHours.getEnd());
-
-        // Get booked appointments for the day
-        LocalDateTime dayStart = date.atStartOfDay();
-        LocalDateTime dayEnd = date.atTime(LocalTime.MAX);
-        List<Appointment> bookedAppointments = appointmentRepository
-                .findBookedAppointmentsForAdvisorInTimeRange(advisor.getId(), dayStart, dayEnd);
-
-        // Generate time slots (every 60 minutes)
-        LocalDateTime currentSlotStart = date.atTime(startTime);
-        LocalDateTime dayEndTime = date.atTime(endTime);
-
-        while (currentSlotStart.plusMinutes(DEFAULT_APPOINTMENT_DURATION).isBefore(dayEndTime.plusSeconds(1))) {
-            LocalDateTime currentSlotEnd = currentSlotStart.plusMinutes(DEFAULT_APPOINTMENT_DURATION);
-
-            // Check if this slot is available (no overlapping appointments)
-            LocalDateTime finalCurrentSlotStart = currentSlotStart;
-            boolean isAvailable = bookedAppointments.stream()
-                    .noneMatch(appointment -> {
-                        LocalDateTime appointmentStart = appointment.getScheduledAt();
-                        LocalDateTime appointmentEnd = appointmentStart.plusMinutes(appointment.getDurationMinutes());
-                        return finalCurrentSlotStart.isBefore(appointmentEnd) && currentSlotEnd.isAfter(appointmentStart);
-                    });
-
-            if (isAvailable) {
-                availableSlots.add(TimeSlot.builder()
-                                .start(currentSlotStart)
-                                .end(currentSlotEnd)
-                                .available(true)
-                        .build());
-            }
-
-            currentSlotStart = currentSlotStart.plusMinutes(DEFAULT_APPOINTMENT_DURATION);
-        }
-
-        return availableSlots;
-    }
-
     private void validateStatusTransition(
             AppointmentStatus currentStatus,
             AppointmentStatus newStatus,
@@ -4,12 +4,14 @@ import de.aha.backend.dto.advisor.ReviewRequest;
 import de.aha.backend.exception.ExecutionConflictException;
 import de.aha.backend.exception.NotFoundObjectException;
 import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
 import de.aha.backend.model.advisor.Review;
 import de.aha.backend.model.user.User;
 import de.aha.backend.repository.AdvisorRepository;
 import de.aha.backend.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final AdvisorRepository advisorRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Review addReview(String advisorId, ReviewRequest request, String userId) {
@@ -79,7 +82,8 @@ public class ReviewService {
         advisor.setRecentReviews(recentReviews);
         advisor.setLastActive(LocalDateTime.now());
 
-        advisorRepository.save(advisor);
+        Advisor saved = advisorRepository.save(advisor);
+        eventPublisher.publishEvent(new AdvisorChangedEvent(saved));
     }
 
     public List<Review> getAdvisorReviews(String advisorId) {
@@ -0,0 +1,141 @@
+package de.aha.backend.service;
+
+import com.mongodb.client.result.UpdateResult;
+import de.aha.backend.exception.BadRequestException;
+import de.aha.backend.exception.ExecutionConflictException;
+import de.aha.backend.model.appointment.SlotClaim;
+import de.aha.backend.repository.SlotClaimRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reserviert Zeitfenster eines Beraters atomar über {@link SlotClaim}s.
+ * <p>
+ * Beginn und Dauer eines Termins müssen auf dem Raster liegen, damit die Claims genau das
+ * Intervall abdecken und direkt aufeinanderfolgende Termine sich kein Raster teilen.
+ * Jedes Raster wird einzeln eingefügt;
+ * schlägt eines wegen eines bestehenden Claims fehl, werden die bereits eingefügten
+ * Raster dieser Reservierung wieder entfernt. Da Mongo ohne Transaction-Manager
+ * betrieben wird, ist der eindeutige {@code _id}-Index die einzige Synchronisation.
+ * <p>
+ * Bis zu {@link #confirm} laufen die Claims nach {@code app.appointments.reservation-ttl}
+ * ab. Stürzt der Knoten zwischen Reservierung und Speichern des Termins ab, bleibt das
+ * Zeitfenster also höchstens so lange (plus Laufintervall des TTL-Monitors, etwa eine
+ * Minute) blockiert. Bestätigte Claims laufen mit dem Ende des Termins ab.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SlotReservationService {
+
+    private final SlotClaimRepository slotClaimRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.appointments.reservation-ttl:PT2M}")
+    private Duration reservationTtl;
+
+    /**
+     * Belegt das Zeitfenster oder wirft eine Exception, wenn es ganz oder teilweise
+     * bereits vergeben ist.
+     *
+     * @return Kennung der Reservierung für {@link #confirm} bzw. {@link #cancel}
+     * @throws BadRequestException wenn Beginn oder Dauer nicht auf dem Raster liegen
+     * @throws ExecutionConflictException wenn das Zeitfenster bereits belegt ist
+     */
+    public String reserve(String advisorId, LocalDateTime start, int durationMinutes) {
+        requireAligned(start, durationMinutes);
+        String reservationId = UUID.randomUUID().toString();
+        LocalDateTime pendingUntil = LocalDateTime.now().plus(reservationTtl);
+        List<SlotClaim> claimed = new ArrayList<>();
+        try {
+            for (LocalDateTime slot : buckets(start, durationMinutes)) {
+                SlotClaim claim = SlotClaim.builder()
+                        .id(SlotClaim.idOf(advisorId, slot))
+                        .advisorId(advisorId)
+                        .slotStart(slot)
+                        .reservationId(reservationId)
+                        .expiresAt(pendingUntil)
+                        .build();
+                claimed.add(slotClaimRepository.insert(claim));
+            }
+        } catch (DuplicateKeyException e) {
+            if (!claimed.isEmpty()) {
+                slotClaimRepository.deleteByReservationId(reservationId);
+            }
+            log.info("Slot of advisor {} at {} already claimed", advisorId, start);
+            throw new ExecutionConflictException("Requested time slot is not available");
+        }
+        return reservationId;
+    }
+
+    /**
+     * Verknüpft die Reservierung mit dem gespeicherten Termin, damit sie beim
+     * Stornieren wieder freigegeben werden kann, und hält sie bis zum Terminende.
+     */
+    public void confirm(String reservationId, String appointmentId, LocalDateTime appointmentEnd) {
+        UpdateResult result = mongoTemplate.updateMulti(
+                new Query(Criteria.where("reservationId").is(reservationId)),
+                new Update().set("appointmentId", appointmentId).set("expiresAt", appointmentEnd),
+                SlotClaim.class);
+        if (result.getMatchedCount() == 0) {
+            // schon abgelaufen, die Überschneidungsprüfung schützt den Termin weiterhin
+            log.warn("Reservation {} of appointment {} expired before confirmation", reservationId, appointmentId);
+        }
+    }
+
+    /**
+     * Gibt eine Reservierung frei, deren Termin nicht gespeichert werden konnte.
+     */
+    public void cancel(String reservationId) {
+        slotClaimRepository.deleteByReservationId(reservationId);
+    }
+
+    /**
+     * Gibt die Raster eines stornierten Termins frei.
+     */
+    public void release(String appointmentId) {
+        long released = slotClaimRepository.deleteByAppointmentId(appointmentId);
+        log.debug("Released {} slot claims of appointment {}", released, appointmentId);
+    }
+
+    /**
+     * Prüft, dass ein Termin auf dem Raster von {@link SlotClaim#BUCKET_MINUTES} Minuten beginnt
+     * und endet.
+     *
+     * @throws BadRequestException sonst
+     */
+    public static void requireAligned(LocalDateTime start, int durationMinutes) {
+        if (!start.equals(start.truncatedTo(ChronoUnit.MINUTES))
+                || start.getMinute() % SlotClaim.BUCKET_MINUTES != 0
+                || durationMinutes <= 0 || durationMinutes % SlotClaim.BUCKET_MINUTES != 0) {
+            throw new BadRequestException("Appointments must start and end on a "
+                    + SlotClaim.BUCKET_MINUTES + "-minute boundary");
+        }
+    }
+
+    // setzt requireAligned voraus
+    static List<LocalDateTime> buckets(LocalDateTime start, int durationMinutes) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        LocalDateTime bucket = start;
+        List<LocalDateTime> buckets = new ArrayList<>();
+        while (bucket.isBefore(end)) {
+            buckets.add(bucket);
+            bucket = bucket.plusMinutes(SlotClaim.BUCKET_MINUTES);
+        }
+        return buckets;
+    }
+}
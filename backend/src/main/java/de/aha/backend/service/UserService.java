@@ -8,22 +8,28 @@ import de.aha.backend.model.appointment.WorkingHours;
 import de.aha.backend.model.user.User;
 import de.aha.backend.model.user.UserRole;
 import de.aha.backend.repository.UserRepository;
+import de.aha.backend.security.PasswordHashingService;
 import de.aha.backend.security.TokenInteract;
 import de.aha.backend.security.UserDetailsImpl;
-import de.aha.backend.util.PasswordUtil;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static de.aha.backend.mapper.UserMapper.*;
 
@@ -35,6 +41,11 @@ public class UserService implements UserDetailsService {
     private final TokenInteract tokenInteract;
     private final UserRepository userRepository;
     private final AdvisorService advisorService;
+    private final PasswordHashingService passwordHashingService;
+    private static final Duration REHASH_SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    // stores rehashed passwords so the hashing pool never waits on MongoDB
+    private final ExecutorService rehashWriter = Executors.newVirtualThreadPerTaskExecutor();
 
     /** Finds a user by ID and returns a UserResponse DTO.
      *
@@ -72,27 +83,32 @@ public class UserService implements UserDetailsService {
      */
 
 
-    /** Creates a new user after checking for unique email and hashing the password.
+    /** Creates a new user after hashing the password. The unique email index rejects duplicates.
      *
      * @param request request containing user creation details
      */
     public void create(UserCreateRequest request) {
         log.info("UserService.create with request: {}", request);
-        checkUniqueEmail(request.email());
-        userRepository.save(mapToUser(request, PasswordUtil.hash(request.password())));
+        insertUnique(mapToUser(request, passwordHashingService.hash(request.password())));
     }
 
+    /**
+     * Registers a new user and logs them in. One insert, no reads: the unique email index
+     * rejects duplicates and the token is issued from the inserted entity.
+     *
+     * @param request registration request
+     * @return login response containing JWT token and user info
+     */
     public UserLoginResponse registerUser(@Valid RegisterRequest request) {
         log.info("Registering new user with email: {}", request.getEmail());
 
-        checkUniqueEmail(request.getEmail());
-        User user = userRepository.save(mapToUser(request));
+        User user = insertUnique(mapToUser(request, passwordHashingService.hash(request.getPassword())));
         //cacheUser(user);
 
-        UserLoginRequest userLoginRequest = new UserLoginRequest(request.getEmail(), request.getPassword());
         log.info("User registered successfully: {}", user.getId());
 //        return mapToResponse(user);
-        return authenticateUser(userLoginRequest);
+        // the password has just been hashed, checking it again via authenticateUser would hash twice
+        return login(user);
     }
 
     public UserLoginResponse authenticateUser(@Valid UserLoginRequest request) {
@@ -100,10 +116,28 @@ public class UserService implements UserDetailsService {
         var user = userRepository.findByEmailIgnoreCase(request.email())
                 .orElseThrow(() -> new AppAuthenticationException("Invalid credentials"));
 
-        if (!PasswordUtil.matches(request.password(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.password(), user.getPassword())) {
             throw new AppAuthenticationException("Invalid credentials");
         }
+        rehashIfNeeded(user, request.password());
+
+        return login(user);
+    }
+
+    /**
+     * Lets rehash writes that are already queued finish, then stops the writer.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        rehashWriter.shutdown();
+        if (!rehashWriter.awaitTermination(REHASH_SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Rehash writer did not finish within {}, pending upgrades are retried on next login",
+                    REHASH_SHUTDOWN_TIMEOUT);
+            rehashWriter.shutdownNow();
+        }
+    }
 
+    private UserLoginResponse login(User user) {
         if (!user.isEnabled()) {
             throw new AppAuthenticationException("User account is not active");
         }
@@ -111,7 +145,7 @@ public class UserService implements UserDetailsService {
         //UserResponse response = mapper.toResponse(user);
         //return mapper.toLoginResponse(response, tokenInteract.generateToken(loadUserByUsername(user.getId())));
 
-        var token = tokenInteract.generateToken(loadUserByUsername(user.getId()));
+        var token = tokenInteract.generateToken(toUserDetails(user));
         var userResponse = mapToResponse(user);
 
         // Cache user session
@@ -133,8 +167,10 @@ public class UserService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String userId) throws UsernameNotFoundException {
         log.info("UserService.loadUserByUsername: {}", userId);
-        User user = userRepository.getOrThrow(userId);
+        return toUserDetails(userRepository.getOrThrow(userId));
+    }
 
+    private static UserDetails toUserDetails(User user) {
         return UserDetailsImpl.builder()
                 .email(user.getId())
                 .password(user.getPassword())
@@ -152,7 +188,7 @@ public class UserService implements UserDetailsService {
         log.info("UserService.updatePassword of userId: {} ; request: {}", userId, request);
         User user = userRepository.getOrThrow(userId);
         verifyPassword(request.oldPassword(), user.getPassword());
-        user.setPassword(PasswordUtil.hash(request.password()));
+        user.setPassword(passwordHashingService.hash(request.password()));
         return mapToResponse(userRepository.save(user));
     }
 
@@ -191,19 +227,21 @@ public class UserService implements UserDetailsService {
         return userRepository.getOrThrow(userId);
     }
     /**
-     * Checks if the email is unique in the database.
+     * Inserts a new user. The case-insensitive unique index on email decides about duplicates,
+     * so there is no check-then-insert race and no extra query.
      * Throws ExecutionConflictException if a user with the email already exists.
      *
-     * @param email user's email address
+     * @param user new user
+     * @return inserted user with ID and creation date
      */
-    private void checkUniqueEmail(String email) {
-        log.info("UserService.checkUniqueEmail: {}", email);
-        userRepository.findByEmailIgnoreCase(email)
-                .ifPresent(u -> {
-                    log.info("User with ID: '{}' and with email '{}' already exists", u.getId(), email);
-                    throw new ExecutionConflictException(
-                            "User with email '" + email + "' already exists");
-                });
+    private User insertUnique(User user) {
+        try {
+            return userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            log.info("User with email '{}' already exists", user.getEmail());
+            throw new ExecutionConflictException(
+                    "User with email '" + user.getEmail() + "' already exists");
+        }
     }
 
     /**
@@ -215,11 +253,37 @@ public class UserService implements UserDetailsService {
      */
     private void verifyPassword(String rawPassword, String passwordHash) {
         log.info("UserService.verifyPassword(rawPassword, passwordHash): {} , {}", rawPassword, passwordHash);
-        if (!PasswordUtil.matches(rawPassword, passwordHash)) {
+        if (!passwordHashingService.matches(rawPassword, passwordHash)) {
             throw new BadCredentialsException("Invalid password");
         }
     }
 
+    /**
+     * Writes a new hash in the background when the stored one was created with another algorithm or
+     * weaker parameters than configured. Login does not wait for it; a saturated pool or a concurrent
+     * password change just skips the upgrade until the next login. The database write runs on its own
+     * executor so the bounded hashing pool is only ever busy with hashing.
+     *
+     * @param user        user who has just been authenticated
+     * @param rawPassword verified plain text password
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        String currentHash = user.getPassword();
+        if (!passwordHashingService.needsRehash(currentHash)) {
+            return;
+        }
+        passwordHashingService.hashAsync(rawPassword)
+                .thenAcceptAsync(newHash -> {
+                    if (userRepository.updatePasswordIfUnchanged(user.getId(), currentHash, newHash) > 0) {
+                        log.info("Password hash of user {} upgraded", user.getId());
+                    }
+                }, rehashWriter)
+                .exceptionally(ex -> {
+                    log.warn("Password rehash of user {} skipped: {}", user.getId(), ex.getMessage());
+                    return null;
+                });
+    }
+
     /**
      * Authenticates a user by ID or email and returns a login response with JWT token.
      *
@@ -230,6 +294,7 @@ public class UserService implements UserDetailsService {
         log.info("UserService.getToken(request): {}", request);
         User user = findByEmail(request.email());
         verifyPassword(request.password(), user.getPassword());
+        rehashIfNeeded(user, request.password());
         UserResponse response = mapToResponse(user);
         return mapToLoginResponse(response, tokenInteract.generateToken(loadUserByUsername(user.getId())));
     }
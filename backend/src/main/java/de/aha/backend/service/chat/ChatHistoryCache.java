@@ -0,0 +1,255 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.SenderType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Hält die letzten Nachrichten kürzlich aktiver Sessions im Speicher, damit die erste Seite
+ * der Historie ohne Mongo-Abfrage ausgeliefert werden kann.
+ * <p>
+ * LRU über alle Sessions, begrenzt durch den geschätzten Speicherbedarf
+ * ({@code app.chat.hot-cache.max-bytes}) statt durch die Anzahl der Einträge. Ein Eintrag
+ * entsteht beim ersten Lesen der Historie und wird von {@code saveMessage} fortgeschrieben.
+ * Nachrichten, die ein anderer Knoten gespeichert hat, erkennt {@link #latest} am
+ * {@code lastMessageTime} der Session, auf einem anderen Knoten gelesene Nachrichten an den
+ * Lese-Wasserzeichen {@code userReadUpTo}/{@code advisorReadUpTo}; der Eintrag wird dann
+ * verworfen. Trefferquote und Belegung werden periodisch geloggt.
+ */
+@Slf4j
+@Component
+public class ChatHistoryCache {
+
+    // Objekt-Header, Felder, LocalDateTime, Enum-Referenzen
+    private static final long MESSAGE_OVERHEAD_BYTES = 200;
+    private static final long ENTRY_OVERHEAD_BYTES = 150;
+
+    private final long maxBytes;
+    private final int messagesPerSession;
+
+    // accessOrder = true: Iterationsreihenfolge von lange nicht benutzt zu zuletzt benutzt
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private long lastLoggedLookups;
+
+    public ChatHistoryCache(@Value("${app.chat.hot-cache.max-bytes:16777216}") long maxBytes,
+                            @Value("${app.chat.hot-cache.messages-per-session:50}") int messagesPerSession) {
+        this.maxBytes = maxBytes;
+        this.messagesPerSession = messagesPerSession;
+    }
+
+    public record Stats(long hits, long misses, long evictions, long invalidations, int sessions, long bytes) {
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, invalidations, entries.size(), totalBytes);
+    }
+
+    /**
+     * Loggt Trefferquote und Belegung, sofern seit dem letzten Lauf gelesen wurde.
+     */
+    @Scheduled(fixedDelayString = "${app.chat.hot-cache.stats-log-interval:PT5M}")
+    public void logStats() {
+        Stats stats;
+        long lookups;
+        synchronized (this) {
+            lookups = hits + misses;
+            if (lookups == lastLoggedLookups) {
+                return;
+            }
+            lastLoggedLookups = lookups;
+            stats = stats();
+        }
+        log.info("Chat history cache: {} sessions, {} KiB, hit rate {}% ({} hits, {} misses, {} evictions, {} invalidations)",
+                stats.sessions(), stats.bytes() / 1024, Math.round(100.0 * stats.hits() / lookups),
+                stats.hits(), stats.misses(), stats.evictions(), stats.invalidations());
+    }
+
+    /**
+     * Die neuesten {@code limit} Nachrichten aufsteigend, wenn der Eintrag sie vollständig und
+     * aktuell enthält. Veraltet ist ein Eintrag, wenn die Session eine neuere Nachricht hat
+     * ({@code lastMessageTime}) oder ein Lese-Wasserzeichen Nachrichten abdeckt, die im Eintrag
+     * noch ungelesen sind.
+     *
+     * @param session aktueller Stand der Session aus Mongo
+     */
+    public synchronized Optional<List<ChatMessage>> latest(ChatSession session, int limit) {
+        String sessionId = session.getId();
+        Entry entry = entries.get(sessionId);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (entry.isOlderThan(session.getLastMessageTime())
+                // der Benutzer liest die Nachrichten des Beraters und umgekehrt
+                || entry.hasUnreadUpTo(SenderType.ADVISOR, session.getUserReadUpTo())
+                || entry.hasUnreadUpTo(SenderType.USER, session.getAdvisorReadUpTo())) {
+            remove(sessionId);
+            invalidations++;
+            misses++;
+            return Optional.empty();
+        }
+        if (entry.messages.size() < limit && !entry.holdsAll) {
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        List<ChatMessage> all = entry.messages;
+        return Optional.of(new ArrayList<>(all.subList(Math.max(0, all.size() - limit), all.size())));
+    }
+
+    /**
+     * Übernimmt die erste Seite der Historie, wie sie aus Mongo gelesen wurde.
+     *
+     * @param page          aufsteigend sortierte Seite
+     * @param requestedLimit angefragte Seitengröße; ist die Seite kleiner, enthält sie die ganze Session
+     */
+    public synchronized void put(String sessionId, List<ChatMessage> page, int requestedLimit) {
+        if (maxBytes <= 0) {
+            return;
+        }
+        remove(sessionId);
+        Entry entry = new Entry(page.size() < requestedLimit);
+        page.forEach(entry::add);
+        entry.trim(messagesPerSession);
+        entries.put(sessionId, entry);
+        totalBytes += entry.bytes;
+        evictIfNeeded();
+    }
+
+    /**
+     * Schreibt eine neu gespeicherte Nachricht fort, wenn die Session im Cache ist.
+     */
+    public synchronized void append(ChatMessage message) {
+        Entry entry = entries.get(message.getSessionId());
+        if (entry == null) {
+            return;
+        }
+        if (!entry.messages.isEmpty() && isBefore(message, entry.messages.getLast())) {
+            // überholt von einer neueren Nachricht, Einsortieren lohnt nicht
+            remove(message.getSessionId());
+            invalidations++;
+            return;
+        }
+        long before = entry.bytes;
+        entry.add(message);
+        entry.trim(messagesPerSession);
+        totalBytes += entry.bytes - before;
+        evictIfNeeded();
+    }
+
+    /**
+     * Übernimmt eine Änderung des Lesestatus: alle Nachrichten des Absenders gelten als gelesen.
+     */
+    public synchronized void markRead(String sessionId, SenderType senderType) {
+        Entry entry = entries.get(sessionId);
+        if (entry == null) {
+            return;
+        }
+        // Kopien, die ausgelieferten Listen bleiben unverändert
+        entry.messages.replaceAll(message -> message.getSenderType() == senderType && !message.isRead()
+                ? message.toBuilder().read(true).build()
+                : message);
+    }
+
+    private boolean remove(String sessionId) {
+        Entry removed = entries.remove(sessionId);
+        if (removed == null) {
+            return false;
+        }
+        totalBytes -= removed.bytes;
+        return true;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static boolean isBefore(ChatMessage message, ChatMessage other) {
+        return message.getTimestamp() != null && other.getTimestamp() != null
+                && message.getTimestamp().isBefore(other.getTimestamp());
+    }
+
+    static long estimateBytes(ChatMessage message) {
+        return MESSAGE_OVERHEAD_BYTES
+                + 2L * (length(message.getId()) + length(message.getSessionId()) + length(message.getContent())
+                + length(message.getSenderId()) + length(message.getSenderName()) + length(message.getAudioUrl()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static final class Entry {
+
+        private final LinkedList<ChatMessage> messages = new LinkedList<>();
+        // true, solange die Session keine älteren Nachrichten als die gespeicherten hat
+        private boolean holdsAll;
+        private long bytes = ENTRY_OVERHEAD_BYTES;
+
+        private Entry(boolean holdsAll) {
+            this.holdsAll = holdsAll;
+        }
+
+        private void add(ChatMessage message) {
+            messages.addLast(message);
+            bytes += estimateBytes(message);
+        }
+
+        private void trim(int capacity) {
+            while (messages.size() > capacity) {
+                bytes -= estimateBytes(messages.removeFirst());
+                holdsAll = false;
+            }
+        }
+
+        private boolean isOlderThan(LocalDateTime lastMessageTime) {
+            if (lastMessageTime == null) {
+                return false;
+            }
+            if (messages.isEmpty()) {
+                return true;
+            }
+            LocalDateTime newest = messages.getLast().getTimestamp();
+            // Mongo speichert Millisekunden, frisch gespeicherte Nachrichten haben mehr Stellen
+            return newest == null || lastMessageTime.truncatedTo(ChronoUnit.MILLIS)
+                    .isAfter(newest.truncatedTo(ChronoUnit.MILLIS));
+        }
+
+        // true, wenn eine ungelesene Nachricht des Absenders nicht nach dem Wasserzeichen liegt
+        private boolean hasUnreadUpTo(SenderType senderType, LocalDateTime readUpTo) {
+            if (readUpTo == null) {
+                return false;
+            }
+            LocalDateTime watermark = readUpTo.truncatedTo(ChronoUnit.MILLIS);
+            return messages.stream().anyMatch(message -> message.getSenderType() == senderType
+                    && !message.isRead()
+                    && message.getTimestamp() != null
+                    && !message.getTimestamp().truncatedTo(ChronoUnit.MILLIS).isAfter(watermark));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.service.chat.cluster.ClusterEnvelope;
+import de.aha.backend.service.chat.cluster.ClusterMessageBus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stellt Chat-Nachrichten an Benutzer zu, egal an welchem Knoten sie verbunden sind.
+ * Im Relay-Modus verteilt der externe Broker selbst, der {@link ClusterMessageBus}
+ * ist dann der lokale No-Op. Mit dem Simple Broker wird zusätzlich über den Bus
+ * verteilt und jeder Knoten stellt an seine eigenen Verbindungen zu.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatMessageDispatcher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final ClusterMessageBus clusterMessageBus;
+
+    @PostConstruct
+    void subscribeToCluster() {
+        clusterMessageBus.subscribe(this::deliverFromCluster);
+    }
+
+    public void sendToUser(String user, String destination, Object payload) {
+        messagingTemplate.convertAndSendToUser(user, destination, payload);
+        // der Empfänger kann zusätzlich (oder nur) an anderen Knoten verbunden sein
+        clusterMessageBus.publish(new ClusterEnvelope(user, destination, payload));
+    }
+
+    void deliverFromCluster(ClusterEnvelope envelope) {
+        if (userRegistry.getUser(envelope.user()) == null) {
+            // an diesem Knoten nicht verbunden
+            return;
+        }
+        messagingTemplate.convertAndSendToUser(envelope.user(), envelope.destination(), envelope.payload());
+        log.debug("Delivered cluster message to user {}", envelope.user());
+    }
+}
@@ -1,14 +1,20 @@
 package de.aha.backend.service.chat;
 
+import de.aha.backend.exception.BadRequestException;
 import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
 import de.aha.backend.model.chat.SenderType;
 import de.aha.backend.repository.chat.ChatMessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -16,39 +22,94 @@ import java.util.List;
 public class ChatMessageService {
 
     private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatHistoryCache chatHistoryCache;
 
+    /**
+     * Speichert eine Nachricht. Mit aktivem Write-Behind bekommt sie hier ihre ID und wird
+     * asynchron geschrieben; der Aufrufer kann sie sofort zustellen.
+     */
     public ChatMessage saveMessage(ChatMessage message) {
         if (message.getTimestamp() == null) {
             message.setTimestamp(LocalDateTime.now());
         }
+        if (chatMessageWriter.isEnabled() && message.getId() == null) {
+            // ObjectIds steigen je Prozess monoton, passend zur Sortierung (timestamp, _id) der Historie
+            message.setId(new ObjectId().toHexString());
+            if (chatMessageWriter.enqueue(message)) {
+                log.debug("Message queued: {} from {}", message.getId(), message.getSenderType());
+                chatHistoryCache.append(message);
+                return message;
+            }
+        }
         ChatMessage savedMessage = chatMessageRepository.save(message);
+        chatHistoryCache.append(savedMessage);
         log.info("Message saved: {} from {}", savedMessage.getId(), savedMessage.getSenderType());
         return savedMessage;
     }
 
+    /**
+     * Vollständige Historie einer Session, z.B. für den Export.
+     */
     public List<ChatMessage> getChatHistory(String sessionId) {
+        chatMessageWriter.awaitPersisted(sessionId);
         return chatMessageRepository.findBySessionIdOrderByTimestampAsc(sessionId);
     }
 
-    public void markMessagesAsRead(String sessionId, SenderType senderType) {
-        List<ChatMessage> unreadMessages = chatMessageRepository
-                .findUnreadMessagesBySessionAndSenderType(sessionId, senderType);
-
-        if (!unreadMessages.isEmpty()) {
-            unreadMessages.forEach(msg -> msg.setRead(true));
-            chatMessageRepository.saveAll(unreadMessages);
-            log.info("Marked {} messages as read in session {}", unreadMessages.size(), sessionId);
+    /**
+     * Wie {@link #getChatHistoryPage(String, String, int)}; die erste Seite kommt aus dem
+     * {@link ChatHistoryCache}, solange er zu {@code lastMessageTime} und den Lese-Wasserzeichen
+     * der Session passt.
+     */
+    public List<ChatMessage> getChatHistoryPage(ChatSession session, String beforeMessageId, int limit) {
+        if (beforeMessageId != null) {
+            return getChatHistoryPage(session.getId(), beforeMessageId, limit);
+        }
+        Optional<List<ChatMessage>> cached = chatHistoryCache.latest(session, limit);
+        if (cached.isPresent()) {
+            return cached.get();
         }
+        List<ChatMessage> page = getChatHistoryPage(session.getId(), null, limit);
+        chatHistoryCache.put(session.getId(), page, limit);
+        return page;
     }
 
-    public long getUnreadCountForUser(String sessionId) {
-        return chatMessageRepository.countUnreadMessagesBySessionAndSenderType(
-                sessionId, SenderType.ADVISOR);
+    /**
+     * Eine Seite der Historie zum Zurückblättern: die {@code limit} neuesten Nachrichten vor
+     * {@code beforeMessageId}, bzw. die neuesten überhaupt, wenn kein Cursor angegeben ist.
+     * Die Seite ist aufsteigend sortiert; die älteste Nachricht ist der Cursor für die nächste Seite.
+     *
+     * @throws BadRequestException wenn die Cursor-Nachricht nicht zu dieser Session gehört
+     */
+    public List<ChatMessage> getChatHistoryPage(String sessionId, String beforeMessageId, int limit) {
+        chatMessageWriter.awaitPersisted(sessionId);
+        ChatMessage before = null;
+        if (beforeMessageId != null) {
+            before = chatMessageRepository.findById(beforeMessageId)
+                    .filter(message -> sessionId.equals(message.getSessionId()))
+                    .orElseThrow(() -> new BadRequestException("Unknown message cursor: " + beforeMessageId));
+        }
+
+        List<ChatMessage> page = new ArrayList<>(chatMessageRepository.findLatestBefore(sessionId, before, limit));
+        Collections.reverse(page);
+        return page;
     }
 
-    public long getUnreadCountForAdvisor(String sessionId) {
-        return chatMessageRepository.countUnreadMessagesBySessionAndSenderType(
-                sessionId, SenderType.USER);
+    /**
+     * Markiert alle ungelesenen Nachrichten eines Absenders mit einem einzigen updateMany,
+     * ohne die Nachrichten zu laden.
+     *
+     * @return Anzahl der als gelesen markierten Nachrichten
+     */
+    public long markMessagesAsRead(String sessionId, SenderType senderType) {
+        // sonst würden noch nicht geschriebene Nachrichten danach ungelesen eingefügt
+        chatMessageWriter.awaitPersisted(sessionId);
+        long modified = chatMessageRepository.markReadBySessionAndSenderType(sessionId, senderType);
+        if (modified > 0) {
+            chatHistoryCache.markRead(sessionId, senderType);
+            log.info("Marked {} messages as read in session {}", modified, sessionId);
+        }
+        return modified;
     }
 
     public List<ChatMessage> getUnreadAdvisorMessages(String sessionId) {
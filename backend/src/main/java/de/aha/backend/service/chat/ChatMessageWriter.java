@@ -0,0 +1,282 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.model.chat.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Write-Behind für Chat-Nachrichten: {@link #enqueue} kehrt sofort zurück, ein einzelner
+ * Writer-Thread schreibt die Nachrichten gesammelt per {@code insertMany}.
+ * <p>
+ * Ein Thread und eine FIFO-Queue halten die Reihenfolge je Session ein. Schlägt ein
+ * Batch fehl, wird er mit steigender Wartezeit bis zu {@code max-retries} Mal wiederholt;
+ * die Wiederholung ersetzt per Upsert nach {@code _id} und ist damit idempotent. Danach
+ * wird jede Nachricht des Batches einzeln geschrieben, damit eine fehlerhafte Nachricht
+ * nicht alle folgenden aufhält; was auch einzeln scheitert, wird verworfen, als Fehler
+ * geloggt und in {@link Stats#failed()} gezählt. Ist die Queue voll, schreibt der
+ * Aufrufer synchron. Beim Herunterfahren wird die Queue geleert.
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration enqueueTimeout;
+    private final Duration shutdownTimeout;
+    private final int maxRetries;
+    private final BlockingQueue<ChatMessage> queue;
+
+    // je Session eingestellte und erledigte Nachrichten, siehe awaitPersisted
+    private final Map<String, SessionBarrier> barriers = new ConcurrentHashMap<>();
+
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong messagesWritten = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ChatMessageWriter(MongoTemplate mongoTemplate,
+                             @Value("${app.chat.write-behind.enabled:false}") boolean enabled,
+                             @Value("${app.chat.write-behind.queue-capacity:10000}") int queueCapacity,
+                             @Value("${app.chat.write-behind.batch-size:500}") int batchSize,
+                             @Value("${app.chat.write-behind.flush-interval:PT0.1S}") Duration flushInterval,
+                             @Value("${app.chat.write-behind.enqueue-timeout:PT1S}") Duration enqueueTimeout,
+                             @Value("${app.chat.write-behind.shutdown-timeout:PT10S}") Duration shutdownTimeout,
+                             @Value("${app.chat.write-behind.max-retries:10}") int maxRetries) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.enqueueTimeout = enqueueTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        this.maxRetries = maxRetries;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public record Stats(long batchesWritten, long messagesWritten, long retries, long failed, int queued) {
+    }
+
+    public Stats stats() {
+        return new Stats(batchesWritten.get(), messagesWritten.get(), retries.get(), failed.get(), queue.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("chat-message-writer").start(this::run);
+        log.info("Chat write-behind started: batch size {}, flush interval {}, max retries {}",
+                batchSize, flushInterval, maxRetries);
+    }
+
+    /**
+     * Stellt eine Nachricht mit bereits vergebener ID zum Schreiben ein.
+     *
+     * @return {@code false}, wenn die Queue innerhalb von {@code enqueue-timeout} nicht frei wurde
+     * oder der Writer nicht läuft; der Aufrufer muss dann selbst speichern
+     */
+    public boolean enqueue(ChatMessage message) {
+        if (!running) {
+            return false;
+        }
+        String sessionId = message.getSessionId();
+        // vor dem Einreihen zählen, damit awaitPersisted eine eingereihte Nachricht nie übersieht;
+        // das Warten auf einen freien Platz läuft ohne Lock
+        barriers.compute(sessionId, (id, barrier) -> {
+            SessionBarrier next = barrier != null ? barrier : new SessionBarrier();
+            synchronized (next) {
+                next.enqueued++;
+            }
+            return next;
+        });
+        boolean queued;
+        try {
+            queued = queue.offer(message, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!queued) {
+                log.warn("Chat write-behind queue full, saving message {} synchronously", message.getId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            settle(sessionId, -1, 0);
+        }
+        return queued;
+    }
+
+    /**
+     * Wartet, bis alle beim Aufruf eingestellten Nachrichten der Session geschrieben (oder
+     * verworfen) sind, damit Lesen und Markieren als gelesen sie sehen. Kostet nichts, wenn für
+     * die Session nichts aussteht.
+     */
+    public void awaitPersisted(String sessionId) {
+        SessionBarrier barrier = barriers.get(sessionId);
+        if (barrier == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        synchronized (barrier) {
+            // später eingestellte Nachrichten muss der Aufrufer nicht abwarten
+            long target = barrier.enqueued;
+            while (barrier.settled < Math.min(target, barrier.enqueued)) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    log.warn("Timed out waiting for pending messages of session {}", sessionId);
+                    return;
+                }
+                try {
+                    barrier.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        // neue Nachrichten gehen ab jetzt synchron, der Writer leert die Queue und endet
+        running = false;
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive() || !queue.isEmpty()) {
+            writer.interrupt();
+            log.error("Chat write-behind stopped with at least {} unwritten messages", queue.size());
+        }
+    }
+
+    private void run() {
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatMessage first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<ChatMessage> batch) throws InterruptedException {
+        long backoff = 100;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (attempt == 0) {
+                    mongoTemplate.insert(batch, ChatMessage.class);
+                } else {
+                    replaceAll(batch);
+                }
+                batchesWritten.incrementAndGet();
+                messagesWritten.addAndGet(batch.size());
+                break;
+            } catch (DataAccessException e) {
+                if (attempt >= maxRetries) {
+                    writeIndividually(batch, e);
+                    break;
+                }
+                // ein Teil kann bereits geschrieben sein, die Wiederholung ist deshalb ein Upsert
+                retries.incrementAndGet();
+                log.warn("Writing {} chat messages failed, retrying in {} ms: {}", batch.size(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+
+        batch.stream()
+                .collect(Collectors.groupingBy(ChatMessage::getSessionId, Collectors.counting()))
+                .forEach((sessionId, count) -> settle(sessionId, 0, count));
+    }
+
+    // letzter Versuch je Nachricht; was hier scheitert, hält die Queue nicht länger auf
+    private void writeIndividually(List<ChatMessage> batch, DataAccessException cause) {
+        List<String> failedIds = new ArrayList<>();
+        for (ChatMessage message : batch) {
+            try {
+                mongoTemplate.save(message);
+                messagesWritten.incrementAndGet();
+            } catch (DataAccessException e) {
+                failedIds.add(message.getId());
+            }
+        }
+        if (!failedIds.isEmpty()) {
+            failed.addAndGet(failedIds.size());
+            log.error("Dropped {} of {} chat messages after {} retries ({}): {}",
+                    failedIds.size(), batch.size(), maxRetries, cause.getMessage(), failedIds);
+        }
+    }
+
+    private void replaceAll(List<ChatMessage> messages) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ChatMessage.class);
+        for (ChatMessage message : messages) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(message.getId())), message,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    // Zähler anpassen, Wartende wecken und erledigte Sessions entfernen
+    private void settle(String sessionId, long enqueuedDelta, long settledDelta) {
+        barriers.computeIfPresent(sessionId, (id, barrier) -> {
+            synchronized (barrier) {
+                barrier.enqueued += enqueuedDelta;
+                barrier.settled += settledDelta;
+                barrier.notifyAll();
+                return barrier.settled >= barrier.enqueued ? null : barrier;
+            }
+        });
+    }
+
+    private static final class SessionBarrier {
+
+        private long enqueued;
+        private long settled;
+    }
+}
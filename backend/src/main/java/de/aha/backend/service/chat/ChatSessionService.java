@@ -1,9 +1,18 @@
 package de.aha.backend.service.chat;
 
+import de.aha.backend.dto.chat.InboxEntry;
 import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.SenderType;
 import de.aha.backend.repository.chat.ChatSessionRepository;
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -16,65 +25,99 @@ import java.util.Optional;
 public class ChatSessionService {
 
     private final ChatSessionRepository chatSessionRepository;
-    private final ChatMessageService chatMessageService;
-
-    public ChatSession createOrUpdateSession(ChatSession session) {
-        Optional<ChatSession> existingSession = chatSessionRepository
-                .findByUserIdAndAdvisorId(session.getUserId(), session.getAdvisorId());
-
-        if (existingSession.isPresent()) {
-            ChatSession updatedSession = existingSession.get();
-            updatedSession.setLastMessage(session.getLastMessage());
-            updatedSession.setLastMessageTime(LocalDateTime.now());
-            updatedSession.setUnreadCount(session.getUnreadCount());
-            updatedSession.setModifyDate(LocalDateTime.now());
-            updatedSession.setIsActive(true);
-
-            ChatSession savedSession = chatSessionRepository.save(updatedSession);
-            log.info("Updated existing session: {}", savedSession.getId());
-            return savedSession;
-        } else {
-            session.setCreationDate(LocalDateTime.now());
-            session.setModifyDate(LocalDateTime.now());
-            session.setIsActive(true);
-            session.setUnreadCount(0);
-
-            ChatSession savedSession = chatSessionRepository.save(session);
-            log.info("Created new session: {}", savedSession.getId());
-            return savedSession;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Hält die Session für eine neue Nachricht in einem einzigen atomaren {@code findAndModify}
+     * aktuell: letzte Nachricht samt Absender setzen und den Zähler des Empfängers erhöhen. Existiert die
+     * Session noch nicht, wird sie dabei angelegt (Upsert über den eindeutigen Index
+     * {@code userId/advisorId}).
+     *
+     * @param sender wer die Nachricht geschrieben hat; der Zähler der Gegenseite wird erhöht
+     * @return die Session nach der Änderung
+     */
+    public ChatSession recordMessage(String userId, String advisorId, String advisorName,
+                                     SenderType sender, String content, LocalDateTime timestamp) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("advisorId").is(advisorId));
+        Update update = new Update()
+                .set("lastMessage", content)
+                .set("lastMessageTime", timestamp)
+                .set("lastMessageSenderType", sender)
+                .set("modifyDate", timestamp)
+                .set("isActive", true)
+                .inc(unreadCounterOf(recipientOf(sender)), 1)
+                .setOnInsert("advisorName", advisorName)
+                .setOnInsert("creationDate", timestamp)
+                .setOnInsert(unreadCounterOf(sender), 0);
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+        try {
+            return mongoTemplate.findAndModify(query, update, options, ChatSession.class);
+        } catch (DuplicateKeyException e) {
+            // zwei gleichzeitige Upserts für eine neue Session: der zweite trifft jetzt die bestehende
+            return mongoTemplate.findAndModify(query, update, options, ChatSession.class);
         }
     }
 
+    /**
+     * Setzt den Zähler ungelesener Nachrichten des Lesers atomar zurück und schiebt
+     * sein Lese-Wasserzeichen auf jetzt. Das Gegenüber kann daran Lesebestätigungen
+     * ablesen, ohne einzelne Nachrichten abzufragen.
+     *
+     * @param reader wer die Nachrichten gelesen hat
+     */
+    public void resetUnreadCount(String sessionId, SenderType reader) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(sessionId)),
+                new Update()
+                        .set(unreadCounterOf(reader), 0)
+                        .max(readWatermarkOf(reader), LocalDateTime.now()),
+                ChatSession.class);
+    }
+
+    private static SenderType recipientOf(SenderType sender) {
+        return sender == SenderType.USER ? SenderType.ADVISOR : SenderType.USER;
+    }
+
+    private static String unreadCounterOf(SenderType participant) {
+        return participant == SenderType.USER ? "userUnreadCount" : "advisorUnreadCount";
+    }
+
+    private static String readWatermarkOf(SenderType participant) {
+        return participant == SenderType.USER ? "userReadUpTo" : "advisorReadUpTo";
+    }
+
     public List<ChatSession> getUserSessions(String userId) {
         List<ChatSession> sessions = chatSessionRepository.findByUserIdOrderByLastMessageTimeDesc(userId);
 
-        // Aktualisiere unread Count für jede Session
-        sessions.forEach(session -> {
-            long unreadCount = chatMessageService.getUnreadCountForUser(session.getId());
-            if (session.getUnreadCount() != unreadCount) {
-                session.setUnreadCount((int) unreadCount);
-                chatSessionRepository.save(session);
-            }
-        });
-
+        // Zähler aus recordMessage/resetUnreadCount, keine weitere Abfrage
+        sessions.forEach(session -> session.setUnreadCount(countOf(session.getUserUnreadCount())));
         return sessions;
     }
 
     public List<ChatSession> getAdvisorSessions(String advisorId) {
         List<ChatSession> sessions = chatSessionRepository.findByAdvisorIdOrderByLastMessageTimeDesc(advisorId);
 
-        // Aktualisiere unread Count für jede Session
-        sessions.forEach(session -> {
-            long unreadCount = chatMessageService.getUnreadCountForAdvisor(session.getId());
-            if (session.getUnreadCount() != unreadCount) {
-                session.setUnreadCount((int) unreadCount);
-                chatSessionRepository.save(session);
-            }
-        });
-
+        // Zähler aus recordMessage/resetUnreadCount, keine weitere Abfrage
+        sessions.forEach(session -> session.setUnreadCount(countOf(session.getAdvisorUnreadCount())));
         return sessions;
     }
 
+    /**
+     * Posteingang des Benutzers seitenweise, mit letzter Nachricht und dem Zähler ungelesener
+     * Nachrichten je Session aus einer einzigen Aggregation.
+     *
+     * @param updatedSince nur Sessions mit neuen Nachrichten seit diesem Zeitpunkt, {@code null} für alle
+     */
+    public List<InboxEntry> getUserInbox(String userId, LocalDateTime updatedSince, int page, int size) {
+        return chatSessionRepository.findUserInbox(userId, updatedSince, (long) page * size, size);
+    }
+
+    // Sessions aus der Zeit vor den Zählern haben das Feld nicht
+    private static int countOf(Integer counter) {
+        return counter != null ? counter : 0;
+    }
+
     public Optional<ChatSession> getSession(String sessionId) {
         return chatSessionRepository.findById(sessionId);
     }
@@ -83,13 +126,20 @@ public class ChatSessionService {
         return chatSessionRepository.findByUserIdAndAdvisorId(userId, advisorId);
     }
 
+    /**
+     * Deaktiviert die Session mit einem gezielten {@code $set}. Ein Laden und Zurückschreiben
+     * der ganzen Session würde gleichzeitige Zählerinkremente aus {@link #recordMessage} überschreiben.
+     */
     public void deactivateSession(String sessionId) {
-        chatSessionRepository.findById(sessionId).ifPresent(session -> {
-            session.setIsActive(false);
-            session.setModifyDate(LocalDateTime.now());
-            chatSessionRepository.save(session);
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(sessionId)),
+                new Update()
+                        .set("isActive", false)
+                        .set("modifyDate", LocalDateTime.now()),
+                ChatSession.class);
+        if (result.getMatchedCount() > 0) {
             log.info("Deactivated session: {}", sessionId);
-        });
+        }
     }
 
     public boolean sessionExists(String userId, String advisorId) {
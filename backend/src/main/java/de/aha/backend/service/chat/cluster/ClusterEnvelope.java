@@ -0,0 +1,11 @@
+package de.aha.backend.service.chat.cluster;
+
+/**
+ * Eine an einen Benutzer adressierte WebSocket-Nachricht, die zwischen den Knoten verteilt wird.
+ *
+ * @param user Empfänger, wie bei {@code convertAndSendToUser}
+ * @param destination Ziel relativ zum Benutzer, z.B. {@code /queue/messages}
+ * @param payload die zu sendende Nachricht
+ */
+public record ClusterEnvelope(String user, String destination, Object payload) {
+}
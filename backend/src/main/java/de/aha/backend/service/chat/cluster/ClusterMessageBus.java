@@ -0,0 +1,21 @@
+package de.aha.backend.service.chat.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Verteilt Benutzer-Nachrichten an die anderen Knoten des Clusters, wenn der
+ * Simple Broker verwendet wird und Empfänger an einem anderen Knoten verbunden
+ * sein können. Eigene Nachrichten werden nicht an den Absender zurückgeliefert.
+ */
+public interface ClusterMessageBus {
+
+    /**
+     * Verteilt die Nachricht an alle anderen Knoten.
+     */
+    void publish(ClusterEnvelope envelope);
+
+    /**
+     * Registriert den Empfänger für Nachrichten, die andere Knoten veröffentlicht haben.
+     */
+    void subscribe(Consumer<ClusterEnvelope> receiver);
+}
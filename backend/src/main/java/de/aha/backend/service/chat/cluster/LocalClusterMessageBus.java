@@ -0,0 +1,25 @@
+package de.aha.backend.service.chat.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Standard für einen einzelnen Knoten oder den Relay-Modus, in dem der externe
+ * Broker die Verteilung übernimmt: es gibt keine anderen Knoten zu benachrichtigen.
+ */
+@Component
+@ConditionalOnProperty(name = "app.chat.cluster.bus", havingValue = "none", matchIfMissing = true)
+public class LocalClusterMessageBus implements ClusterMessageBus {
+
+    @Override
+    public void publish(ClusterEnvelope envelope) {
+        // kein anderer Knoten
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEnvelope> receiver) {
+        // es kommen keine Nachrichten anderer Knoten
+    }
+}
@@ -0,0 +1,202 @@
+package de.aha.backend.service.chat.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.CursorType;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Verteilt Benutzer-Nachrichten über eine Capped Collection, die jeder Knoten mit einem
+ * Tailable Cursor mitliest. Braucht keinen zusätzlichen Broker, nur die ohnehin
+ * vorhandene MongoDB (auch ohne Replica Set).
+ * <p>
+ * Die Position im Strom ist die {@code _id} des zuletzt gelesenen Dokuments, nicht dessen
+ * Zeitstempel: die Uhren der Knoten laufen nicht gleich, und ObjectIds verschiedener Knoten
+ * sind nicht monoton. Nach einem Abbruch liest der Cursor die Collection daher in
+ * Einfügereihenfolge ({@code $natural}) neu und überspringt alles bis zu dieser Position.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.chat.cluster.bus", havingValue = "mongo")
+public class MongoClusterMessageBus implements ClusterMessageBus {
+
+    static final String COLLECTION = "cluster_messages";
+    private static final String PAYLOAD_PACKAGE = "de.aha.backend.dto.";
+    private static final long RETRY_DELAY_MILLIS = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final long capacityBytes;
+    private final List<Consumer<ClusterEnvelope>> receivers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile Object lastSeenId;
+    private Thread tailer;
+
+    public MongoClusterMessageBus(MongoTemplate mongoTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.chat.cluster.node-id:}") String nodeId,
+                                  @Value("${app.chat.cluster.mongo.capacity-bytes:16777216}") long capacityBytes) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.capacityBytes = capacityBytes;
+    }
+
+    @PostConstruct
+    public void start() {
+        ensureCappedCollection();
+        // ein Tailable Cursor auf eine leere Capped Collection ist sofort tot; zugleich
+        // beginnt der Strom dieses Knotens hinter dem Marker, ältere Nachrichten interessieren nicht
+        Document marker = new Document("origin", nodeId)
+                .append("sentAt", new Date())
+                .append("marker", true);
+        mongoTemplate.getCollection(COLLECTION).insertOne(marker);
+        lastSeenId = marker.get("_id");
+
+        running = true;
+        tailer = Thread.ofPlatform().daemon().name("cluster-bus-" + nodeId).start(this::tail);
+        log.info("Cluster message bus started on node {}", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    @Override
+    public void publish(ClusterEnvelope envelope) {
+        try {
+            mongoTemplate.getCollection(COLLECTION).insertOne(new Document("origin", nodeId)
+                    .append("sentAt", new Date())
+                    .append("user", envelope.user())
+                    .append("destination", envelope.destination())
+                    .append("payloadType", envelope.payload().getClass().getName())
+                    .append("payload", objectMapper.writeValueAsString(envelope.payload())));
+        } catch (JsonProcessingException | MongoException e) {
+            // die lokale Zustellung ist bereits erfolgt, andere Knoten verpassen diese Nachricht
+            log.error("Could not publish message for user {} to cluster: {}", envelope.user(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEnvelope> receiver) {
+        receivers.add(receiver);
+    }
+
+    private void ensureCappedCollection() {
+        if (mongoTemplate.collectionExists(COLLECTION)) {
+            return;
+        }
+        try {
+            mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty().capped().size(capacityBytes));
+        } catch (DataAccessException | MongoException e) {
+            // ein anderer Knoten war schneller
+            log.debug("Collection {} already created: {}", COLLECTION, e.getMessage());
+        }
+    }
+
+    private void tail() {
+        while (running) {
+            // ist die letzte Position schon überschrieben, geht es am Anfang der Collection weiter
+            boolean resumed = !positionExists();
+            try (MongoCursor<Document> cursor = mongoTemplate.getCollection(COLLECTION)
+                    .find()
+                    .sort(new Document("$natural", 1))
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                while (running && cursor.getServerCursor() != null) {
+                    Document document = cursor.tryNext();
+                    if (document == null) {
+                        if (!resumed) {
+                            // Position während des Lesens überschrieben
+                            log.warn("Cluster bus on node {} lost its position, messages may have been missed", nodeId);
+                            resumed = true;
+                        }
+                        continue;
+                    }
+                    Object id = document.get("_id");
+                    if (!resumed) {
+                        resumed = id.equals(lastSeenId);
+                        continue;
+                    }
+                    lastSeenId = id;
+                    if (!nodeId.equals(document.getString("origin")) && !document.getBoolean("marker", false)) {
+                        deliver(document);
+                    }
+                }
+            } catch (MongoException e) {
+                if (running) {
+                    log.warn("Cluster bus cursor on node {} failed, reopening: {}", nodeId, e.getMessage());
+                }
+            }
+            pause();
+        }
+    }
+
+    private boolean positionExists() {
+        try {
+            return mongoTemplate.getCollection(COLLECTION).countDocuments(Filters.eq("_id", lastSeenId)) > 0;
+        } catch (MongoException e) {
+            // der Cursor scheitert gleich ebenso und wird neu geöffnet
+            return true;
+        }
+    }
+
+    // Fehler betreffen nur dieses Dokument, der Cursor und damit alle folgenden Nachrichten laufen weiter
+    private void deliver(Document document) {
+        String payloadType = document.getString("payloadType");
+        if (payloadType == null || !payloadType.startsWith(PAYLOAD_PACKAGE)) {
+            log.warn("Ignoring cluster message with unexpected payload type {}", payloadType);
+            return;
+        }
+        ClusterEnvelope envelope;
+        try {
+            Object payload = objectMapper.readValue(document.getString("payload"), Class.forName(payloadType));
+            envelope = new ClusterEnvelope(document.getString("user"), document.getString("destination"), payload);
+        } catch (JsonProcessingException | ClassNotFoundException | RuntimeException e) {
+            log.error("Could not read cluster message of type {}: {}", payloadType, e.getMessage());
+            return;
+        }
+        for (Consumer<ClusterEnvelope> receiver : receivers) {
+            try {
+                receiver.accept(envelope);
+            } catch (RuntimeException e) {
+                log.error("Could not deliver cluster message for user {} to {}", envelope.user(), envelope.destination(), e);
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
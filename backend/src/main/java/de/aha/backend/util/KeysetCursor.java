@@ -0,0 +1,85 @@
+package de.aha.backend.util;
+
+import de.aha.backend.exception.BadRequestException;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaker Cursor für Keyset-Pagination: enthält Sortierfeld, Richtung, den
+ * Sortierwert und die {@code _id} des letzten Elements einer Seite.
+ * <p>
+ * Die nächste Seite wird über "alles nach (Wert, _id)" gefiltert statt über
+ * {@code skip}. Dadurch bleibt jede Seite gleich schnell, und neu eingefügte
+ * Dokumente verschieben keine bereits ausgelieferten Ergebnisse.
+ * Als Tie-Break wird immer aufsteigend nach {@code _id} sortiert, siehe {@link #sort(String, Sort.Direction)}.
+ */
+public record KeysetCursor(String sortField, Sort.Direction direction, Object value, String id) {
+
+    private static final String ID_FIELD = "id";
+
+    /**
+     * Sortierung, die zu einem Cursor auf {@code sortField} passt (inkl. Tie-Break auf {@code _id}).
+     */
+    public static Sort sort(String sortField, Sort.Direction direction) {
+        return Sort.by(direction, sortField).and(Sort.by(Sort.Direction.ASC, ID_FIELD));
+    }
+
+    public String encode() {
+        Document document = new Document("f", sortField)
+                .append("d", direction.name())
+                .append("v", value)
+                .append("id", id);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            Document document = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+            String sortField = document.getString("f");
+            String id = document.getString("id");
+            if (sortField == null || id == null) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new KeysetCursor(sortField, Sort.Direction.valueOf(document.getString("d")), document.get("v"), id);
+        } catch (IllegalArgumentException | NullPointerException | JsonParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Prüft, ob der Cursor zur aktuell angefragten Sortierung gehört.
+     */
+    public void requireSort(String expectedField, Sort.Direction expectedDirection) {
+        if (!sortField.equals(expectedField) || direction != expectedDirection) {
+            throw new BadRequestException("Cursor does not match the requested sort order");
+        }
+    }
+
+    /**
+     * Filter für alle Dokumente, die in der Sortierung nach diesem Cursor kommen.
+     * Fehlende Werte ({@code null}) sortiert Mongo vor allen anderen ein.
+     */
+    public Criteria toCriteria() {
+        Criteria sameValueAfterId = Criteria.where(sortField).is(value).and(ID_FIELD).gt(id);
+
+        if (value == null) {
+            return direction.isAscending()
+                    ? new Criteria().orOperator(sameValueAfterId, Criteria.where(sortField).ne(null))
+                    : sameValueAfterId;
+        }
+
+        if (direction.isAscending()) {
+            return new Criteria().orOperator(Criteria.where(sortField).gt(value), sameValueAfterId);
+        }
+        return new Criteria().orOperator(
+                Criteria.where(sortField).lt(value),
+                sameValueAfterId,
+                Criteria.where(sortField).is(null));
+    }
+}
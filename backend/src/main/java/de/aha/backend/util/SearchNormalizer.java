@@ -0,0 +1,42 @@
+package de.aha.backend.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisiert Suchbegriffe für indexierbare Vergleiche: Kleinschreibung,
+ * Akzente entfernt ("Ernährungsberatung" -> "ernahrungsberatung") und alle
+ * Nicht-Buchstaben/-Ziffern zu einem Leerzeichen zusammengefasst.
+ * <p>
+ * Das Ergebnis enthält keine Regex-Metazeichen und kann daher direkt als
+ * verankerter Präfix-Regex ({@code ^...}) verwendet werden, den Mongo über einen Index auflöst.
+ */
+public final class SearchNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchNormalizer() {
+        // Utility class
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        String withoutAccents = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(withoutAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public static List<String> tokens(String value) {
+        String normalized = normalize(value);
+        if (normalized == null || normalized.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(normalized.split(" ")).distinct().toList();
+    }
+}
@@ -0,0 +1,38 @@
+package de.aha.backend.util;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.regex.Pattern;
+
+/**
+ * Baut den Filter auf die Spezialisierung eines Beraters.
+ * <p>
+ * Standardmäßig wird auf den normalisierten Feldern {@code specializationKey} und
+ * {@code specializationTokens} mit einem verankerten Präfix gesucht, was über die
+ * Indizes auf beiden Feldern läuft. Dokumente ohne {@code specializationKey}
+ * (noch nicht migriert) werden weiterhin über den alten Regex gefunden.
+ * Mit {@code legacyRegex} wird ausschließlich der alte, nicht indexierbare Regex genutzt.
+ */
+public final class SpecializationCriteria {
+
+    public static final String KEY_FIELD = "specializationKey";
+    public static final String TOKENS_FIELD = "specializationTokens";
+
+    private SpecializationCriteria() {
+        // Utility class
+    }
+
+    public static Criteria matching(String specialization, boolean legacyRegex) {
+        String legacyPattern = Pattern.quote(specialization.trim());
+        String key = SearchNormalizer.normalize(specialization);
+        if (legacyRegex || key.isEmpty()) {
+            return Criteria.where("specialization").regex(legacyPattern, "i");
+        }
+
+        String prefix = "^" + key;
+        return new Criteria().orOperator(
+                Criteria.where(KEY_FIELD).regex(prefix),
+                Criteria.where(TOKENS_FIELD).regex(prefix),
+                Criteria.where(KEY_FIELD).exists(false).and("specialization").regex(legacyPattern, "i"));
+    }
+}
@@ -0,0 +1,92 @@
+package de.aha.backend.config;
+
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.SenderType;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@Import(ChatSessionUnreadCountInitializer.class)
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class ChatSessionUnreadCountInitializerTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ChatSessionUnreadCountInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(ChatSession.class);
+        mongoTemplate.dropCollection(ChatMessage.class);
+    }
+
+    private void message(String sessionId, SenderType senderType, boolean read) {
+        mongoTemplate.insert(ChatMessage.builder()
+                .sessionId(sessionId)
+                .senderType(senderType)
+                .content("Hallo")
+                .timestamp(LocalDateTime.now())
+                .read(read)
+                .build());
+    }
+
+    private Document session(String id) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("_id").is(id)), Document.class, "chat_sessions");
+    }
+
+    @Test
+    void backfill_legacySession_countsUnreadMessagesPerSide() {
+        // Arrange - Session aus der Zeit vor den Zählern, nur mit dem alten Feld
+        mongoTemplate.insert(new Document("_id", "legacy")
+                .append("userId", "user1")
+                .append("advisorId", "advisor1")
+                .append(ChatSessionUnreadCountInitializer.LEGACY_FIELD, 7), "chat_sessions");
+        message("legacy", SenderType.ADVISOR, false);
+        message("legacy", SenderType.ADVISOR, false);
+        message("legacy", SenderType.ADVISOR, true);
+        message("legacy", SenderType.USER, false);
+
+        // Act
+        initializer.backfill();
+
+        // Assert
+        Document migrated = session("legacy");
+        assertEquals(2, migrated.getInteger("userUnreadCount"));
+        assertEquals(1, migrated.getInteger("advisorUnreadCount"));
+        assertFalse(migrated.containsKey(ChatSessionUnreadCountInitializer.LEGACY_FIELD));
+    }
+
+    @Test
+    void backfill_sessionWithCounters_isLeftUntouched() {
+        // Arrange
+        mongoTemplate.insert(new Document("_id", "current")
+                .append("userId", "user1")
+                .append("advisorId", "advisor1")
+                .append("userUnreadCount", 5)
+                .append("advisorUnreadCount", 0), "chat_sessions");
+        message("current", SenderType.ADVISOR, false);
+
+        // Act
+        initializer.backfill();
+
+        // Assert - die gepflegten Zähler sind maßgeblich, nicht die Nachrichten
+        Document session = session("current");
+        assertEquals(5, session.getInteger("userUnreadCount"));
+        assertEquals(0, session.getInteger("advisorUnreadCount"));
+    }
+}
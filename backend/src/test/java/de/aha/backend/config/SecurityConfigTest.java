@@ -11,6 +11,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,15 +21,17 @@ import static org.mockito.Mockito.*;
 class SecurityConfigTest {
     @Mock
     private OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
+    @Mock
+    private TokenInteract tokenInteract;
 
     @Test
     void canInstantiate() {
-        assertDoesNotThrow(() -> new SecurityConfig(oAuth2AuthenticationSuccessHandler));
+        assertDoesNotThrow(() -> new SecurityConfig(oAuth2AuthenticationSuccessHandler, tokenInteract));
     }
 
     @Test
     void passwordEncoder_returnsBCryptPasswordEncoder() {
-        SecurityConfig config = new SecurityConfig(oAuth2AuthenticationSuccessHandler);
+        SecurityConfig config = new SecurityConfig(oAuth2AuthenticationSuccessHandler, tokenInteract);
         PasswordEncoder encoder = config.passwordEncoder();
         assertNotNull(encoder);
         String raw = "pass";
@@ -38,7 +41,7 @@ class SecurityConfigTest {
 
     @Test
     void logoutSuccessHandler_setsStatusOk() throws Exception {
-        SecurityConfig config = new SecurityConfig(oAuth2AuthenticationSuccessHandler);
+        SecurityConfig config = new SecurityConfig(oAuth2AuthenticationSuccessHandler, tokenInteract);
         LogoutSuccessHandler handler = config.logoutSuccessHandler();
         var request = mock(HttpServletRequest.class);
         var response = mock(HttpServletResponse.class);
@@ -46,9 +49,19 @@ class SecurityConfigTest {
         verify(response).setStatus(HttpStatus.OK.value());
     }
 
+    @Test
+    void tokenLogoutHandler_evictsTokenOfRequest() {
+        SecurityConfig config = new SecurityConfig(oAuth2AuthenticationSuccessHandler, tokenInteract);
+        LogoutHandler handler = config.tokenLogoutHandler();
+        var request = mock(HttpServletRequest.class);
+        var response = mock(HttpServletResponse.class);
+        handler.logout(request, response, null);
+        verify(tokenInteract).logout(request);
+    }
+
     @Test
     void filterChain_buildsSecurityFilterChain() throws Exception {
-        SecurityConfig config = new SecurityConfig(oAuth2AuthenticationSuccessHandler);
+        SecurityConfig config = new SecurityConfig(oAuth2AuthenticationSuccessHandler, tokenInteract);
         HttpSecurity http = mock(HttpSecurity.class, RETURNS_DEEP_STUBS);
         assertNotNull(config.filterChain(http));
     }
@@ -0,0 +1,118 @@
+package de.aha.backend.config.chat;
+
+import de.aha.backend.security.TokenInteract;
+import de.aha.backend.security.VerifiedToken;
+import de.aha.backend.service.AdvisorPresenceRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StompPresenceInterceptorTest {
+
+    @Mock
+    private TokenInteract tokenInteract;
+
+    @Mock
+    private ObjectProvider<AdvisorPresenceRegistry> presenceRegistryProvider;
+
+    @Mock
+    private AdvisorPresenceRegistry presenceRegistry;
+
+    @Mock
+    private MessageChannel channel;
+
+    @InjectMocks
+    private StompPresenceInterceptor interceptor;
+
+    private static Message<byte[]> stompMessage(StompCommand command, String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session1");
+        if (authorization != null) {
+            accessor.setNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void preSend_connectWithBearerToken_setsUser() {
+        // Arrange
+        Message<byte[]> message = stompMessage(StompCommand.CONNECT, "Bearer token123");
+        when(tokenInteract.verify("token123")).thenReturn(new VerifiedToken("advisor123", "login1", null));
+
+        // Act
+        interceptor.preSend(message, channel);
+
+        // Assert
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        assertEquals("advisor123", accessor.getUser().getName());
+        verifyNoInteractions(presenceRegistryProvider);
+    }
+
+    @Test
+    void preSend_connectWithoutToken_staysAnonymous() {
+        // Arrange
+        Message<byte[]> message = stompMessage(StompCommand.CONNECT, null);
+
+        // Act
+        interceptor.preSend(message, channel);
+
+        // Assert
+        assertNull(StompHeaderAccessor.wrap(message).getUser());
+        verifyNoInteractions(tokenInteract);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void preSend_otherFrames_countAsHeartbeat() {
+        // Arrange
+        Message<byte[]> message = stompMessage(StompCommand.SEND, null);
+        doAnswer(invocation -> {
+            ((Consumer<AdvisorPresenceRegistry>) invocation.getArgument(0)).accept(presenceRegistry);
+            return null;
+        }).when(presenceRegistryProvider).ifAvailable(any());
+
+        // Act
+        interceptor.preSend(message, channel);
+
+        // Assert
+        verify(presenceRegistry).heartbeat("session1");
+        verifyNoInteractions(tokenInteract);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void preSend_heartbeatFrame_countsAsHeartbeat() {
+        // Arrange - Heartbeat ohne STOMP-Kommando, wie ihn ein untätiger Client sendet
+        StompHeaderAccessor accessor = StompHeaderAccessor.createForHeartbeat();
+        accessor.setSessionId("session1");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        doAnswer(invocation -> {
+            ((Consumer<AdvisorPresenceRegistry>) invocation.getArgument(0)).accept(presenceRegistry);
+            return null;
+        }).when(presenceRegistryProvider).ifAvailable(any());
+
+        // Act
+        interceptor.preSend(message, channel);
+
+        // Assert
+        verify(presenceRegistry).heartbeat("session1");
+        verifyNoInteractions(tokenInteract);
+    }
+}
@@ -1,5 +1,6 @@
 package de.aha.backend.config.chat;
 
+import de.aha.backend.service.AdvisorPresenceRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -12,6 +13,7 @@ import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.messaging.support.GenericMessage;
 
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,6 +34,9 @@ class WebSocketEventListenerTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private AdvisorPresenceRegistry presenceRegistry;
+
     @Test
     void handleWebSocketConnectListener_shouldLogSessionId() {
         // Arrange
@@ -71,7 +76,7 @@ class WebSocketEventListenerTest {
     }
 
     @Test
-    void handleWebSocketDisconnectListener_shouldUpdateAdvisorStatusWhenImplemented() {
+    void handleWebSocketDisconnectListener_shouldUpdateAdvisorStatus() {
         // Arrange
         String sessionId = "test-session-789";
         Map<String, Object> headers = new HashMap<>();
@@ -79,16 +84,43 @@ class WebSocketEventListenerTest {
 
         Message<byte[]> message = new GenericMessage<>(new byte[0], headers);
 
-        // Act - publish the actual event
-        eventPublisher.publishEvent(new SessionDisconnectEvent(this, message, sessionId, CloseStatus.NORMAL));
+        // Act
+        webSocketEventListener.handleWebSocketDisconnectListener(
+                new SessionDisconnectEvent(this, message, sessionId, CloseStatus.NORMAL));
+
+        // Assert
+        verify(presenceRegistry, times(1)).disconnect(sessionId);
+    }
+
+    @Test
+    void handleWebSocketConnectListener_shouldRegisterAuthenticatedSession() {
+        // Arrange
+        String sessionId = "test-session-321";
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("simpSessionId", sessionId);
+
+        Message<byte[]> message = new GenericMessage<>(new byte[0], headers);
+        Principal advisor = () -> "advisor123";
 
         // Act
-        webSocketEventListener.handleWebSocketDisconnectListener(disconnectEvent);
+        webSocketEventListener.handleWebSocketConnectListener(new SessionConnectedEvent(this, message, advisor));
 
         // Assert
-        verify(disconnectEvent, times(1)).getMessage();
+        verify(presenceRegistry, times(1)).connect("advisor123", sessionId);
+    }
 
-        // Wenn AdvisorService implementiert ist, sollte hier der Service-Call verifiziert werden:
-        // verify(advisorService, times(1)).updateAdvisorOnlineStatus(anyString(), eq(false));
+    @Test
+    void handleWebSocketConnectListener_shouldIgnoreAnonymousSession() {
+        // Arrange
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("simpSessionId", "anonymous-session");
+
+        Message<byte[]> message = new GenericMessage<>(new byte[0], headers);
+
+        // Act
+        webSocketEventListener.handleWebSocketConnectListener(new SessionConnectedEvent(this, message));
+
+        // Assert
+        verifyNoInteractions(presenceRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,271 @@
+package de.aha.backend.config.chat;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simuliert tausende STOMP-Clients direkt am WebSocket-Handler (ohne Netzwerk), darunter
+ * einige langsame, die jede Nachricht verzögert annehmen. Misst die Zustelllatenz der
+ * schnellen Clients und prüft, dass langsame Clients getrennt werden, statt den Rest aufzuhalten.
+ * Ausführen mit {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "app.chat.websocket.send-time-limit=PT0.5S",
+        "app.chat.websocket.send-buffer-size-limit=65536",
+        "app.chat.channel.outbound.pool-size=32",
+        "app.chat.channel.queue-capacity=1000000"
+})
+class WebSocketLoadBenchmarkTest {
+
+    private static final String DESTINATION = "/topic/load";
+    private static final int FAST_CLIENTS = 2_000;
+    private static final int SLOW_CLIENTS = 20;
+    private static final int MESSAGES = 200;
+    private static final long SLOW_CLIENT_DELAY_MILLIS = 100;
+
+    @Autowired
+    @Qualifier("subProtocolWebSocketHandler")
+    private WebSocketHandler webSocketHandler;
+
+    // im simple-Modus ein SimpleBrokerMessageHandler, deklariert ist aber nur der Basistyp
+    @Autowired
+    @Qualifier("simpleBrokerMessageHandler")
+    private AbstractBrokerMessageHandler brokerMessageHandler;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private WebSocketSessionMetrics metrics;
+
+    private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void slowClients_areClosedWhileFastClientsReceiveEverything() throws Exception {
+        long slowClosedBefore = metrics.snapshot().slowSessionsClosed();
+
+        List<SimulatedClient> fastClients = new ArrayList<>();
+        List<SimulatedClient> slowClients = new ArrayList<>();
+        for (int i = 0; i < FAST_CLIENTS; i++) {
+            fastClients.add(connect("fast-" + i, 0));
+        }
+        for (int i = 0; i < SLOW_CLIENTS; i++) {
+            slowClients.add(connect("slow-" + i, SLOW_CLIENT_DELAY_MILLIS));
+        }
+        awaitSubscriptions(FAST_CLIENTS + SLOW_CLIENTS);
+
+        for (int i = 0; i < MESSAGES; i++) {
+            messagingTemplate.convertAndSend(DESTINATION, i + ":" + System.nanoTime());
+            TimeUnit.MILLISECONDS.sleep(2);
+        }
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline
+                && fastClients.stream().anyMatch(client -> client.received.get() < MESSAGES)) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+
+        long[] nanos = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        long slowClosed = metrics.snapshot().slowSessionsClosed() - slowClosedBefore;
+        System.out.printf("%,d clients (%d slow), %d messages: p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, slow sessions closed %d%n",
+                FAST_CLIENTS + SLOW_CLIENTS, SLOW_CLIENTS, MESSAGES,
+                percentile(nanos, 0.50), percentile(nanos, 0.95), percentile(nanos, 0.99), slowClosed);
+
+        assertTrue(fastClients.stream().allMatch(client -> client.received.get() == MESSAGES),
+                "every fast client should receive every message");
+        assertTrue(fastClients.stream().allMatch(client -> client.open.get()));
+        assertEquals(SLOW_CLIENTS, slowClients.stream().filter(client -> !client.open.get()).count());
+        assertEquals(SLOW_CLIENTS, slowClosed);
+    }
+
+    private SimulatedClient connect(String id, long delayMillis) throws Exception {
+        SimulatedClient client = new SimulatedClient(id, delayMillis);
+        webSocketHandler.afterConnectionEstablished(client);
+        webSocketHandler.handleMessage(client, new TextMessage("CONNECT\naccept-version:1.2\nheart-beat:0,0\n\n\0"));
+        webSocketHandler.handleMessage(client, new TextMessage(
+                "SUBSCRIBE\nid:sub-0\ndestination:" + DESTINATION + "\n\n\0"));
+        return client;
+    }
+
+    private void awaitSubscriptions(int expected) throws InterruptedException {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(DESTINATION);
+        Message<byte[]> probe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        SimpleBrokerMessageHandler simpleBroker = (SimpleBrokerMessageHandler) brokerMessageHandler;
+        while (simpleBroker.getSubscriptionRegistry().findSubscriptions(probe).size() < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "clients did not subscribe in time");
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * Eine WebSocket-Session ohne Netzwerk. Der Container würde beim Schließen
+     * afterConnectionClosed aufrufen, das übernimmt hier {@link #close(CloseStatus)}.
+     */
+    private class SimulatedClient implements WebSocketSession {
+
+        private final String id;
+        private final long delayMillis;
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private final AtomicInteger received = new AtomicInteger();
+
+        SimulatedClient(String id, long delayMillis) {
+            this.id = id;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (!open.get()) {
+                throw new IOException("Session " + id + " is closed");
+            }
+            String frame = (String) message.getPayload();
+            if (!frame.startsWith("MESSAGE")) {
+                return;
+            }
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            String body = frame.substring(frame.indexOf("\n\n") + 2, frame.length() - 1);
+            long sentAt = Long.parseLong(body.substring(body.indexOf(':') + 1));
+            if (delayMillis == 0) {
+                latencies.add(System.nanoTime() - sentAt);
+            }
+            received.incrementAndGet();
+        }
+
+        @Override
+        public void close(CloseStatus status) throws IOException {
+            if (open.compareAndSet(true, false)) {
+                try {
+                    webSocketHandler.afterConnectionClosed(this, status);
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open.get();
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/ws-chat");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 64 * 1024;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 64 * 1024;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+    }
+}
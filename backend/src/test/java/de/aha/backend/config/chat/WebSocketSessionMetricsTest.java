@@ -0,0 +1,101 @@
+package de.aha.backend.config.chat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketSessionMetricsTest {
+
+    @Mock
+    private WebSocketHandler delegate;
+
+    @Mock
+    private WebSocketSession session;
+
+    private final WebSocketSessionMetrics metrics = new WebSocketSessionMetrics();
+
+    @Test
+    void decorate_countsOpenAndClosedSessions() throws Exception {
+        // Arrange
+        WebSocketHandler handler = metrics.decorate(delegate);
+
+        // Act
+        handler.afterConnectionEstablished(session);
+        handler.afterConnectionEstablished(session);
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        // Assert
+        WebSocketSessionMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.activeSessions());
+        assertEquals(2, snapshot.openedSessions());
+        assertEquals(0, snapshot.slowSessionsClosed());
+        verify(delegate).afterConnectionClosed(session, CloseStatus.NORMAL);
+    }
+
+    @Test
+    void decorate_countsSessionsClosedForExceedingLimits() throws Exception {
+        // Arrange
+        WebSocketHandler handler = metrics.decorate(delegate);
+        handler.afterConnectionEstablished(session);
+
+        // Act - so schließt der SubProtocolWebSocketHandler bei überschrittenem Puffer oder Zeitlimit
+        handler.afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE.withReason("Send time limit exceeded"));
+
+        // Assert
+        WebSocketSessionMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(0, snapshot.activeSessions());
+        assertEquals(1, snapshot.slowSessionsClosed());
+    }
+
+    @Test
+    void decorate_countsTransportErrors() throws Exception {
+        // Arrange
+        WebSocketHandler handler = metrics.decorate(delegate);
+        IOException error = new IOException("Broken pipe");
+
+        // Act
+        handler.handleTransportError(session, error);
+
+        // Assert
+        assertEquals(1, metrics.snapshot().transportErrors());
+        verify(delegate).handleTransportError(session, error);
+    }
+
+    @Test
+    void rejectionHandlers_countPerChannelAndStillReject() {
+        // Arrange
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        Runnable frame = () -> {
+        };
+
+        // Act & Assert
+        try {
+            assertThrows(RejectedExecutionException.class,
+                    () -> metrics.outboundRejections().rejectedExecution(frame, executor));
+            assertThrows(RejectedExecutionException.class,
+                    () -> metrics.outboundRejections().rejectedExecution(frame, executor));
+            assertThrows(RejectedExecutionException.class,
+                    () -> metrics.inboundRejections().rejectedExecution(frame, executor));
+        } finally {
+            executor.shutdownNow();
+        }
+        WebSocketSessionMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.inboundRejected());
+        assertEquals(2, snapshot.outboundRejected());
+    }
+}
@@ -1,5 +1,6 @@
 package de.aha.backend.controller;
 
+import de.aha.backend.dto.advisor.AdvisorSummary;
 import de.aha.backend.dto.chat.ApiResponse;
 import de.aha.backend.exception.AppAuthenticationException;
 import de.aha.backend.model.advisor.Advisor;
@@ -219,6 +220,24 @@ class AdvisorControllerTest {
         verify(advisorService).getAvailableAdvisors();
     }
 
+    @Test
+    void getAvailableAdvisorSummaries_success() {
+        // Arrange
+        List<AdvisorSummary> summaries = List.of(
+                AdvisorSummary.builder().id(advisorId).name("Test Advisor").available(true).build());
+        when(advisorService.getAvailableAdvisorSummaries()).thenReturn(summaries);
+
+        // Act
+        ResponseEntity<ApiResponse<List<AdvisorSummary>>> result = advisorController.getAvailableAdvisorSummaries();
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertTrue(result.getBody().isSuccess());
+        assertEquals(1, result.getBody().getData().size());
+        verify(advisorService).getAvailableAdvisorSummaries();
+        verify(advisorService, never()).getAvailableAdvisors();
+    }
+
     @Test
     void getAvailableAdvisors_error() {
         // Arrange
@@ -251,6 +270,22 @@ class AdvisorControllerTest {
         verify(advisorService).getOnlineAdvisors();
     }
 
+    @Test
+    void getOnlineAdvisorSummaries_success() {
+        // Arrange
+        List<AdvisorSummary> summaries = List.of(
+                AdvisorSummary.builder().id(advisorId).name("Test Advisor").online(true).build());
+        when(advisorService.getOnlineAdvisorSummaries()).thenReturn(summaries);
+
+        // Act
+        ResponseEntity<ApiResponse<List<AdvisorSummary>>> result = advisorController.getOnlineAdvisorSummaries();
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertTrue(result.getBody().getData().get(0).getOnline());
+        verify(advisorService).getOnlineAdvisorSummaries();
+    }
+
     @Test
     void getOnlineAdvisors_error() {
         // Arrange
@@ -11,9 +11,9 @@ import de.aha.backend.model.chat.ChatSession;
 import de.aha.backend.model.chat.MessageType;
 import de.aha.backend.model.chat.SenderType;
 import de.aha.backend.model.user.User;
-import de.aha.backend.security.AuthInterceptor;
 import de.aha.backend.service.AdvisorService;
 import de.aha.backend.service.UserService;
+import de.aha.backend.service.chat.ChatMessageDispatcher;
 import de.aha.backend.service.chat.ChatMessageService;
 import de.aha.backend.service.chat.ChatSessionService;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,7 +23,6 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -31,6 +30,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
@@ -44,10 +44,7 @@ class AdvisorChatControllerTest {
     private ChatSessionService chatSessionService;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
-
-    @Mock
-    private AuthInterceptor authInterceptor;
+    private ChatMessageDispatcher chatMessageDispatcher;
 
     @Mock
     private UserService userService;
@@ -96,21 +93,19 @@ class AdvisorChatControllerTest {
                 .read(false)
                 .build();
 
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(userService.findById(userId)).thenReturn(user);
         when(advisorService.getAdvisorById(advisorId)).thenReturn(Optional.of(advisor));
-        when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.empty());
-        when(chatSessionService.createOrUpdateSession(any(ChatSession.class))).thenReturn(session);
+        when(chatSessionService.recordMessage(eq(userId), eq(advisorId), eq(advisor.getName()),
+                eq(SenderType.ADVISOR), eq(request.getContent()), any(LocalDateTime.class))).thenReturn(session);
         when(chatMessageService.saveMessage(any(ChatMessage.class))).thenReturn(message);
-        when(chatMessageService.getUnreadCountForUser(session.getId())).thenReturn(1L);
 
         // Act
-        ResponseEntity<ApiResponse<ChatMessageDTO>> result = advisorChatController.sendMessageToUser(userId, request);
+        ResponseEntity<ApiResponse<ChatMessageDTO>> result = advisorChatController.sendMessageToUser(userId, request, advisorId);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals("msg123", result.getBody().getData().getId());
-        verify(messagingTemplate).convertAndSendToUser(
+        verify(chatMessageDispatcher).sendToUser(
                 eq(userId),
                 eq("/queue/messages"),
                 any(ChatMessageDTO.class)
@@ -122,13 +117,12 @@ class AdvisorChatControllerTest {
         // Arrange
         SendMessageRequest request = new SendMessageRequest();
         request.setContent("Test message");
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(userService.findById(userId)).thenReturn(new User());
         when(advisorService.getAdvisorById(advisorId)).thenReturn(Optional.empty());
 
         // Act & Assert
         try {
-            advisorChatController.sendMessageToUser(userId, request);
+            advisorChatController.sendMessageToUser(userId, request, advisorId);
         } catch (NotFoundObjectException e) {
             assertEquals("Advisor not found with advisor id: " + advisorId, e.getMessage());
         }
@@ -161,21 +155,19 @@ class AdvisorChatControllerTest {
                 .read(false)
                 .build();
 
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(userService.findById(userId)).thenReturn(user);
         when(advisorService.getAdvisorById(advisorId)).thenReturn(Optional.of(advisor));
-        when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.of(existingSession));
-        when(chatSessionService.createOrUpdateSession(any(ChatSession.class))).thenReturn(existingSession);
+        when(chatSessionService.recordMessage(eq(userId), eq(advisorId), eq(advisor.getName()),
+                eq(SenderType.ADVISOR), eq(request.getContent()), any(LocalDateTime.class))).thenReturn(existingSession);
         when(chatMessageService.saveMessage(any(ChatMessage.class))).thenReturn(message);
-        when(chatMessageService.getUnreadCountForUser(existingSession.getId())).thenReturn(1L);
 
         // Act
-        ResponseEntity<ApiResponse<ChatMessageDTO>> result = advisorChatController.sendMessageToUser(userId, request);
+        ResponseEntity<ApiResponse<ChatMessageDTO>> result = advisorChatController.sendMessageToUser(userId, request, advisorId);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals("msg123", result.getBody().getData().getId());
-        verify(chatSessionService).getSessionByUserAndAdvisor(userId, advisorId);
+        verify(chatMessageService).saveMessage(argThat(saved -> existingSession.getId().equals(saved.getSessionId())));
     }
 
     @Test
@@ -199,29 +191,28 @@ class AdvisorChatControllerTest {
                 .build();
         List<ChatMessage> messages = List.of(message1, message2);
 
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.of(session));
-        when(chatMessageService.getChatHistory(session.getId())).thenReturn(messages);
+        when(chatMessageService.getChatHistoryPage(session, null, ChatController.DEFAULT_HISTORY_LIMIT)).thenReturn(messages);
 
         // Act
         ResponseEntity<ApiResponse<List<ChatMessageDTO>>> result =
-                advisorChatController.getChatHistoryForAdvisor(userId, advisorId);
+                advisorChatController.getChatHistoryForAdvisor(userId, null, ChatController.DEFAULT_HISTORY_LIMIT, advisorId);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(2, result.getBody().getData().size());
         verify(chatMessageService).markMessagesAsRead(session.getId(), SenderType.USER);
+        verify(chatSessionService).resetUnreadCount(session.getId(), SenderType.ADVISOR);
     }
 
     @Test
     void getChatHistoryForAdvisor_sessionNotFound() {
         // Arrange
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.empty());
 
         // Act
         ResponseEntity<ApiResponse<List<ChatMessageDTO>>> result =
-                advisorChatController.getChatHistoryForAdvisor(userId, advisorId);
+                advisorChatController.getChatHistoryForAdvisor(userId, null, ChatController.DEFAULT_HISTORY_LIMIT, advisorId);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
@@ -234,18 +225,17 @@ class AdvisorChatControllerTest {
         ChatSession session1 = ChatSession.builder()
                 .userId("user1")
                 .advisorId(advisorId)
-                .unreadCount(2)
+                .advisorUnreadCount(2)
+                .userUnreadCount(5)
                 .build();
         session1.setId("session1");
         ChatSession session2 = ChatSession.builder()
                 .userId("user2")
                 .advisorId(advisorId)
-                .unreadCount(0)
                 .build();
         session2.setId("session2");
         List<ChatSession> sessions = List.of(session1, session2);
 
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(chatSessionService.getAdvisorSessions(advisorId)).thenReturn(sessions);
 
         // Act
@@ -255,12 +245,13 @@ class AdvisorChatControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(2, result.getBody().getData().size());
+        assertEquals(2, result.getBody().getData().get(0).getUnreadCount());
+        assertEquals(0, result.getBody().getData().get(1).getUnreadCount());
     }
 
     @Test
     void getAdvisorChatSessions_error() {
         // Arrange
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(chatSessionService.getAdvisorSessions(advisorId)).thenThrow(new RuntimeException("Database error"));
 
         // Act
@@ -281,7 +272,6 @@ class AdvisorChatControllerTest {
                 .build();
         session.setId("session123");
 
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.of(session));
 
         // Act
@@ -291,12 +281,12 @@ class AdvisorChatControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         verify(chatMessageService).markMessagesAsRead(session.getId(), SenderType.USER);
+        verify(chatSessionService).resetUnreadCount(session.getId(), SenderType.ADVISOR);
     }
 
     @Test
     void markMessagesAsReadByAdvisor_sessionNotFound() {
         // Arrange
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.empty());
 
         // Act
@@ -342,16 +332,14 @@ class AdvisorChatControllerTest {
                 .audioUrl(audioUrl)
                 .build();
 
-        when(authInterceptor.getUserId()).thenReturn(advisorId);
         when(userService.findById(userId)).thenReturn(user);
         when(advisorService.getAdvisorById(advisorId)).thenReturn(Optional.of(advisor));
-        when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.of(session));
-        when(chatSessionService.createOrUpdateSession(any(ChatSession.class))).thenReturn(session);
+        when(chatSessionService.recordMessage(eq(userId), eq(advisorId), eq(advisor.getName()),
+                eq(SenderType.ADVISOR), eq(request.getContent()), any(LocalDateTime.class))).thenReturn(session);
         when(chatMessageService.saveMessage(any(ChatMessage.class))).thenReturn(message);
-        when(chatMessageService.getUnreadCountForUser(session.getId())).thenReturn(1L);
 
         // Act
-        ResponseEntity<ApiResponse<ChatMessageDTO>> result = advisorChatController.sendMessageToUser(userId, request);
+        ResponseEntity<ApiResponse<ChatMessageDTO>> result = advisorChatController.sendMessageToUser(userId, request, advisorId);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
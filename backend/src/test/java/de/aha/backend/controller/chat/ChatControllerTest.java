@@ -1,8 +1,10 @@
 package de.aha.backend.controller.chat;
 
 import de.aha.backend.dto.chat.ApiResponse;
+import de.aha.backend.dto.chat.ChatInboxEntryDTO;
 import de.aha.backend.dto.chat.ChatMessageDTO;
 import de.aha.backend.dto.chat.ChatSessionDTO;
+import de.aha.backend.dto.chat.InboxEntry;
 import de.aha.backend.dto.chat.SendMessageRequest;
 import de.aha.backend.exception.NotFoundObjectException;
 import de.aha.backend.model.advisor.Advisor;
@@ -11,9 +13,9 @@ import de.aha.backend.model.chat.ChatSession;
 import de.aha.backend.model.chat.MessageType;
 import de.aha.backend.model.chat.SenderType;
 import de.aha.backend.model.user.User;
-import de.aha.backend.security.AuthInterceptor;
 import de.aha.backend.service.AdvisorService;
 import de.aha.backend.service.UserService;
+import de.aha.backend.service.chat.ChatMessageDispatcher;
 import de.aha.backend.service.chat.ChatMessageService;
 import de.aha.backend.service.chat.ChatSessionService;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,16 +25,21 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 class ChatControllerTest {
@@ -44,10 +51,7 @@ class ChatControllerTest {
     private ChatSessionService chatSessionService;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
-
-    @Mock
-    private AuthInterceptor authInterceptor;
+    private ChatMessageDispatcher chatMessageDispatcher;
 
     @Mock
     private UserService userService;
@@ -96,21 +100,19 @@ class ChatControllerTest {
                 .read(false)
                 .build();
 
-        when(authInterceptor.getUserId()).thenReturn(userId);
         when(userService.findById(userId)).thenReturn(user);
         when(advisorService.getAdvisorById(advisorId)).thenReturn(Optional.of(advisor));
-        when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.empty());
-        when(chatSessionService.createOrUpdateSession(any(ChatSession.class))).thenReturn(session);
+        when(chatSessionService.recordMessage(eq(userId), eq(advisorId), eq(advisor.getName()),
+                eq(SenderType.USER), eq(request.getContent()), any(LocalDateTime.class))).thenReturn(session);
         when(chatMessageService.saveMessage(any(ChatMessage.class))).thenReturn(message);
-        when(chatMessageService.getUnreadCountForAdvisor(session.getId())).thenReturn(0L);
 
         // Act
-        ResponseEntity<ApiResponse<ChatMessageDTO>> result = chatController.sendMessage(advisorId, request);
+        ResponseEntity<ApiResponse<ChatMessageDTO>> result = chatController.sendMessage(advisorId, request, userId);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals("msg123", result.getBody().getData().getId());
-        verify(messagingTemplate).convertAndSendToUser(
+        verify(chatMessageDispatcher).sendToUser(
                 eq(advisorId),
                 eq("/queue/messages"),
                 any(ChatMessageDTO.class)
@@ -122,13 +124,12 @@ class ChatControllerTest {
         // Arrange
         SendMessageRequest request = new SendMessageRequest();
         request.setContent("Test message");
-        when(authInterceptor.getUserId()).thenReturn(userId);
         when(userService.findById(userId)).thenReturn(new User());
         when(advisorService.getAdvisorById(advisorId)).thenReturn(Optional.empty());
 
         // Act & Assert
         try {
-            chatController.sendMessage(advisorId, request);
+            chatController.sendMessage(advisorId, request, userId);
         } catch (NotFoundObjectException e) {
             assertEquals("Advisor not found with advisor id: " + advisorId, e.getMessage());
         }
@@ -149,34 +150,109 @@ class ChatControllerTest {
                 .build();
         List<ChatMessage> messages = List.of(message);
 
-        when(authInterceptor.getUserId()).thenReturn(userId);
         when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.of(session));
-        when(chatMessageService.getChatHistory(session.getId())).thenReturn(messages);
+        when(chatMessageService.getChatHistoryPage(session, null, ChatController.DEFAULT_HISTORY_LIMIT)).thenReturn(messages);
 
         // Act
-        ResponseEntity<ApiResponse<List<ChatMessageDTO>>> result = chatController.getChatHistory(advisorId, userId);
+        ResponseEntity<ApiResponse<List<ChatMessageDTO>>> result = chatController.getChatHistory(advisorId, null, ChatController.DEFAULT_HISTORY_LIMIT, userId);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(1, result.getBody().getData().size());
         verify(chatMessageService).markMessagesAsRead(session.getId(), SenderType.ADVISOR);
-        verify(chatSessionService).createOrUpdateSession(session);
+        verify(chatSessionService).resetUnreadCount(session.getId(), SenderType.USER);
     }
 
     @Test
     void getChatHistory_sessionNotFound() {
         // Arrange
-        when(authInterceptor.getUserId()).thenReturn(userId);
         when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<ApiResponse<List<ChatMessageDTO>>> result = chatController.getChatHistory(advisorId, userId);
+        ResponseEntity<ApiResponse<List<ChatMessageDTO>>> result = chatController.getChatHistory(advisorId, null, ChatController.DEFAULT_HISTORY_LIMIT, userId);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
 //        assertEquals("Failed to fetch chat history: Chat session not found", result.getBody().getError());
     }
 
+    @Test
+    void getChatHistory_olderPage_doesNotMarkAsRead() {
+        // Arrange
+        ChatSession session = ChatSession.builder().build();
+        session.setId("session123");
+        ChatMessage older = ChatMessage.builder()
+                .id("msg100")
+                .content("Older message")
+                .timestamp(LocalDateTime.now().minusDays(1))
+                .senderType(SenderType.ADVISOR)
+                .type(MessageType.TEXT)
+                .build();
+
+        when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.of(session));
+        when(chatMessageService.getChatHistoryPage(session, "msg123", ChatController.MAX_HISTORY_LIMIT))
+                .thenReturn(List.of(older));
+
+        // Act - zu großes Limit wird auf das Maximum begrenzt
+        ResponseEntity<ApiResponse<List<ChatMessageDTO>>> result =
+                chatController.getChatHistory(advisorId, "msg123", 10_000, userId);
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("msg100", result.getBody().getData().getFirst().getId());
+        verify(chatMessageService, never()).markMessagesAsRead(any(), any());
+        verify(chatSessionService, never()).resetUnreadCount(any(), any());
+    }
+
+    @Test
+    void exportChatHistory_returnsFullHistory() {
+        // Arrange
+        ChatSession session = ChatSession.builder().build();
+        session.setId("session123");
+        List<ChatMessage> messages = List.of(
+                ChatMessage.builder().id("msg1").timestamp(LocalDateTime.now().minusMinutes(2))
+                        .senderType(SenderType.USER).type(MessageType.TEXT).build(),
+                ChatMessage.builder().id("msg2").timestamp(LocalDateTime.now().minusMinutes(1))
+                        .senderType(SenderType.ADVISOR).type(MessageType.TEXT).build());
+
+        when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.of(session));
+        when(chatMessageService.getChatHistory(session.getId())).thenReturn(messages);
+
+        // Act
+        ResponseEntity<ApiResponse<List<ChatMessageDTO>>> result = chatController.exportChatHistory(advisorId, userId);
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(2, result.getBody().getData().size());
+        verify(chatMessageService, never()).getChatHistoryPage(any(ChatSession.class), any(), anyInt());
+    }
+
+    @Test
+    void getInbox_addsAdvisorPresence() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        List<InboxEntry> inbox = List.of(
+                new InboxEntry("session123", advisorId, "Advisor", null, now, "Hallo", SenderType.ADVISOR, 2),
+                new InboxEntry("session456", "advisor789", "Other", null, now.minusHours(1), null, null, 0));
+        when(chatSessionService.getUserInbox(userId, null, 0, ChatController.MAX_INBOX_SIZE)).thenReturn(inbox);
+        when(advisorService.isAdvisorOnline(advisorId)).thenReturn(true);
+
+        // Act
+        ResponseEntity<ApiResponse<List<ChatInboxEntryDTO>>> result = chatController.getInbox(null, -1, 10_000, userId);
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        List<ChatInboxEntryDTO> entries = result.getBody().getData();
+        assertEquals(2, entries.size());
+        assertTrue(entries.get(0).isAdvisorOnline());
+        assertEquals(2, entries.get(0).getUnreadCount());
+        assertEquals("Hallo", entries.get(0).getLastMessage());
+        assertEquals("ADVISOR", entries.get(0).getLastMessageSenderType());
+        assertFalse(entries.get(1).isAdvisorOnline());
+        assertNull(entries.get(1).getLastMessage());
+        verify(chatSessionService, never()).getSessionByUserAndAdvisor(any(), any());
+    }
+
     @Test
     void getUserChatSessions_success() {
         // Arrange
@@ -187,7 +263,6 @@ class ChatControllerTest {
         session.setId("session123");
         List<ChatSession> sessions = List.of(session);
 
-        when(authInterceptor.getUserId()).thenReturn(userId);
         when(chatSessionService.getUserSessions(userId)).thenReturn(sessions);
 
         // Act
@@ -202,7 +277,6 @@ class ChatControllerTest {
     @Test
     void getUserChatSessions_error() {
         // Arrange
-        when(authInterceptor.getUserId()).thenReturn(userId);
         when(chatSessionService.getUserSessions(userId)).thenThrow(new RuntimeException("Database error"));
 
         // Act
@@ -221,7 +295,6 @@ class ChatControllerTest {
                 .build();
         session.setId("session123");
 
-        when(authInterceptor.getUserId()).thenReturn(userId);
         when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.of(session));
 
         // Act
@@ -230,13 +303,12 @@ class ChatControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         verify(chatMessageService).markMessagesAsRead(session.getId(), SenderType.ADVISOR);
-        verify(chatSessionService).createOrUpdateSession(session);
+        verify(chatSessionService).resetUnreadCount(session.getId(), SenderType.USER);
     }
 
     @Test
     void markMessagesAsRead_sessionNotFound() {
         // Arrange
-        when(authInterceptor.getUserId()).thenReturn(userId);
         when(chatSessionService.getSessionByUserAndAdvisor(userId, advisorId)).thenReturn(Optional.empty());
 
         // Act
@@ -246,4 +318,83 @@ class ChatControllerTest {
         assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
 //        assertEquals("Failed to mark messages as read: Chat session not found", result.getBody().getError());
     }
-}
\ No newline at end of file
+
+    private void stompSession() {
+        ChatSession session = ChatSession.builder()
+                .userId(userId)
+                .advisorId(advisorId)
+                .build();
+        session.setId("session123");
+        when(chatSessionService.getSession("session123")).thenReturn(Optional.of(session));
+        when(chatMessageService.saveMessage(any(ChatMessage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private ChatMessageDTO stompPayload(String senderId, SenderType senderType) {
+        return ChatMessageDTO.builder()
+                .sessionId("session123")
+                .content("Hallo")
+                .senderId(senderId)
+                .senderType(senderType.name())
+                .type(MessageType.TEXT.name())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void sendMessage_overStomp_usesSessionPrincipalAsSender() {
+        // Arrange - der Client gibt eine fremde senderId mit
+        stompSession();
+        ChatMessageDTO dto = stompPayload("someoneElse", SenderType.USER);
+
+        // Act
+        chatController.sendMessage(dto, userId);
+
+        // Assert
+        verify(chatMessageService).saveMessage(argThat(message -> userId.equals(message.getSenderId())));
+    }
+
+    @Test
+    void sendMessage_overStomp_payloadSenderDisagreesWithPrincipal_recipientFromSession() {
+        // Arrange - der Berater ist angemeldet, der Payload gibt sich als Benutzer aus
+        stompSession();
+        ChatMessageDTO dto = stompPayload("user", SenderType.USER);
+
+        // Act
+        chatController.sendMessage(dto, advisorId);
+
+        // Assert - Absender ist der Berater, zugestellt wird an den Benutzer der Session
+        verify(chatMessageService).saveMessage(argThat(message ->
+                advisorId.equals(message.getSenderId()) && message.getSenderType() == SenderType.ADVISOR));
+        verify(chatMessageDispatcher).sendToUser(eq(userId), eq("/queue/messages"), any(ChatMessageDTO.class));
+        verify(chatMessageDispatcher, never()).sendToUser(eq("session123"), any(), any());
+    }
+
+    @Test
+    void sendMessage_overStomp_userPrincipal_isDeliveredToAdvisorOfSession() {
+        // Arrange - senderId aus dem Payload würde sonst als Empfänger verwendet
+        stompSession();
+        ChatMessageDTO dto = stompPayload("attacker", SenderType.ADVISOR);
+
+        // Act
+        chatController.sendMessage(dto, userId);
+
+        // Assert
+        verify(chatMessageService).saveMessage(argThat(message -> message.getSenderType() == SenderType.USER));
+        verify(chatMessageDispatcher).sendToUser(eq(advisorId), eq("/queue/messages"), any(ChatMessageDTO.class));
+        verify(chatMessageDispatcher, never()).sendToUser(eq("attacker"), any(), any());
+    }
+
+    @Test
+    void sendMessage_overStomp_principalNotInSession_isDropped() {
+        // Arrange
+        stompSession();
+        ChatMessageDTO dto = stompPayload(userId, SenderType.USER);
+
+        // Act
+        chatController.sendMessage(dto, "intruder");
+
+        // Assert
+        verify(chatMessageService, never()).saveMessage(any(ChatMessage.class));
+        verify(chatMessageDispatcher, never()).sendToUser(any(), any(), any());
+    }
+}
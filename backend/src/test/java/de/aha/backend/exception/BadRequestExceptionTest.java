@@ -0,0 +1,24 @@
+package de.aha.backend.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BadRequestExceptionTest {
+    @Test
+    void constructor_setsFields() {
+        BadRequestException ex = new BadRequestException("bad");
+        assertEquals(ErrorType.BAD_REQUEST, ex.getErrorType());
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+        assertEquals("bad", ex.getMessage());
+    }
+    @Test
+    void constructorWithCause_setsCause() {
+        Throwable t = new IllegalArgumentException("err");
+        BadRequestException ex = new BadRequestException("msg", t);
+        assertEquals(ErrorType.BAD_REQUEST, ex.getErrorType());
+        assertEquals("msg", ex.getMessage());
+        assertEquals(t, ex.getCause());
+    }
+}
@@ -20,7 +20,8 @@ class ErrorTypeTest {
                 case UNDEFINED_ERROR, BAD_REQUEST, NOT_FOUND, AUTHORIZATION_ERROR,
                      REQUEST_MESSAGE_CONVERSION_ERROR, REQUEST_INVALID_MESSAGE,
                      REQUEST_TYPE_MISMATCH, REQUEST_MISSING_PARAMETER,
-                     UNSUPPORTED_OPERATION, FORBIDDEN, CONFLICT, REQUEST_ROUTE_ERROR ->
+                     UNSUPPORTED_OPERATION, FORBIDDEN, CONFLICT, REQUEST_ROUTE_ERROR,
+                     SERVICE_UNAVAILABLE ->
                     assertNotNull(type);
                 default -> fail("Unknown ErrorType: " + type);
             }
@@ -106,6 +106,34 @@ class RestExceptionHandlerTest {
         assertEquals(409, response.getBody().getStatus());
     }
 
+    @Test
+    void handleBadRequestException_ShouldReturnBadRequest() {
+        BadRequestException exception = new BadRequestException("Invalid cursor");
+
+        ResponseEntity<ResponseError> response = restExceptionHandler.handleBadRequestException(exception);
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(ErrorType.BAD_REQUEST.name(), response.getBody().getCode());
+        assertEquals("Invalid cursor", response.getBody().getMessage());
+        assertEquals(400, response.getBody().getStatus());
+    }
+
+    @Test
+    void handleServiceUnavailableException_ShouldReturnServiceUnavailable() {
+        ServiceUnavailableException exception = new ServiceUnavailableException("Password hashing is saturated");
+
+        ResponseEntity<ResponseError> response = restExceptionHandler.handleServiceUnavailableException(exception);
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(ErrorType.SERVICE_UNAVAILABLE.name(), response.getBody().getCode());
+        assertEquals("Password hashing is saturated", response.getBody().getMessage());
+        assertEquals(503, response.getBody().getStatus());
+    }
+
     @Test
     void handleNotFoundObjectException_ShouldReturnNotFound() {
         NotFoundObjectException exception = new NotFoundObjectException("Object not found");
@@ -1,5 +1,7 @@
 package de.aha.backend.repository;
 
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.dto.advisor.FacetCount;
 import de.aha.backend.model.advisor.Advisor;
 import de.aha.backend.model.appointment.DayOfWeek;
 import de.aha.backend.model.appointment.WorkingHours;
@@ -10,6 +12,9 @@ import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDateTime;
@@ -348,6 +353,54 @@ class AdvisorRepositoryTest {
         result.forEach(advisor -> assertNotNull(advisor.getLanguages()));
     }
 
+    @Test
+    void countBySpecialization_success() {
+        // Act
+        List<FacetCount> result = advisorRepository.countBySpecialization();
+
+        // Assert
+        assertEquals(List.of(
+                new FacetCount("Career Counseling", 1),
+                new FacetCount("Financial Advice", 1),
+                new FacetCount("Psychology", 2)), result);
+    }
+
+    @Test
+    void countByLanguage_success() {
+        // Act
+        List<FacetCount> result = advisorRepository.countByLanguage();
+
+        // Assert
+        assertEquals(List.of(
+                new FacetCount("Chinese", 1),
+                new FacetCount("English", 3),
+                new FacetCount("French", 1),
+                new FacetCount("German", 2),
+                new FacetCount("Spanish", 1)), result);
+    }
+
+    @Test
+    void findSummaries_loadsOnlyProjectedFields() {
+        // Arrange
+        Query query = new Query(Criteria.where("available").is(true))
+                .with(Sort.by(Sort.Direction.DESC, "rating"));
+
+        // Act
+        List<AdvisorSummary> result = advisorRepository.findSummaries(query);
+
+        // Assert
+        assertEquals(3, result.size());
+        AdvisorSummary first = result.get(0);
+        assertEquals(advisor1.getId(), first.getId());
+        assertEquals("John Psychology", first.getName());
+        assertEquals("Psychology", first.getSpecialization());
+        assertEquals(4.8, first.getRating());
+        assertEquals(List.of("English", "German"), first.getLanguages());
+        assertEquals(100.0, first.getConsultationFee());
+        assertEquals(150, first.getReviewCount());
+        assertTrue(first.getOnline());
+    }
+
     @Test
     void findAvailableAdvisors_withFilters() {
         // Arrange
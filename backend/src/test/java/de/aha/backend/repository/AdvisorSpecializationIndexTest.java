@@ -0,0 +1,166 @@
+package de.aha.backend.repository;
+
+import de.aha.backend.config.AdvisorSearchKeyCallback;
+import de.aha.backend.config.AdvisorSearchKeyInitializer;
+import de.aha.backend.config.MongoIndexBootstrap;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.util.SpecializationCriteria;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@Import({AdvisorSearchKeyCallback.class, AdvisorSearchKeyInitializer.class, MongoIndexBootstrap.class})
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class AdvisorSpecializationIndexTest {
+
+    @Autowired
+    private AdvisorRepository advisorRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AdvisorSearchKeyInitializer advisorSearchKeyInitializer;
+
+    @BeforeEach
+    void setUp() {
+        advisorRepository.deleteAll();
+
+        List<Advisor> advisors = new ArrayList<>();
+        advisors.add(advisor("user1", "Psychology"));
+        advisors.add(advisor("user2", "Child Psychology"));
+        advisors.add(advisor("user3", "Ernährungsberatung"));
+        advisors.add(advisor("user4", "Career Counseling"));
+        // genug Dokumente, damit ein Collection-Scan für den Planner nicht "gleich gut" ist
+        for (int i = 0; i < 200; i++) {
+            advisors.add(advisor("filler" + i, "Financial Advice " + i));
+        }
+        advisorRepository.saveAll(advisors);
+    }
+
+    private static Advisor advisor(String userId, String specialization) {
+        return Advisor.builder()
+                .userId(userId)
+                .name("Advisor " + userId)
+                .specialization(specialization)
+                .languages(List.of("German"))
+                .build();
+    }
+
+    @Test
+    void save_maintainsNormalizedKeyAndTokens() {
+        // Act
+        Advisor saved = advisorRepository.findByUserId("user3").orElseThrow();
+
+        // Assert
+        assertEquals("ernahrungsberatung", saved.getSpecializationKey());
+        assertEquals(List.of("ernahrungsberatung"), saved.getSpecializationTokens());
+    }
+
+    @Test
+    void searchBySpecialization_matchesPrefixOfKeyOrWord() {
+        // Act
+        List<String> psych = userIds(advisorRepository.searchBySpecialization("PSYCH", null));
+        List<String> nutrition = userIds(advisorRepository.searchBySpecialization("ernahrung", null));
+        List<String> exact = userIds(advisorRepository.searchBySpecialization("Child Psychology", "German"));
+
+        // Assert
+        assertEquals(List.of("user1", "user2"), psych.stream().sorted().toList());
+        assertEquals(List.of("user3"), nutrition);
+        assertEquals(List.of("user2"), exact);
+    }
+
+    @Test
+    void searchBySpecialization_findsLegacyDocumentsUntilBackfilled() {
+        // Arrange - Bestandsdokument ohne normalisierte Felder
+        mongoTemplate.getCollection("advisors").insertOne(new Document("user_id", "legacy")
+                .append("name", "Legacy Advisor")
+                .append("specialization", "Sportpsychologie"));
+
+        // Act
+        List<String> beforeBackfill = userIds(advisorRepository.searchBySpecialization("psychologie", null));
+        advisorSearchKeyInitializer.backfill();
+        Advisor migrated = advisorRepository.findByUserId("legacy").orElseThrow();
+
+        // Assert
+        assertEquals(List.of("legacy"), beforeBackfill);
+        assertEquals("sportpsychologie", migrated.getSpecializationKey());
+    }
+
+    @Test
+    void specializationCriteria_usesIndexScan() {
+        // Act
+        List<String> prefixStages = winningPlanStages(new Query(SpecializationCriteria.matching("psych", false)));
+        List<String> exactStages = winningPlanStages(new Query(SpecializationCriteria.matching("Psychology", false)));
+
+        // Assert
+        assertTrue(prefixStages.contains("IXSCAN"), "expected IXSCAN, got " + prefixStages);
+        assertFalse(prefixStages.contains("COLLSCAN"), "unexpected COLLSCAN: " + prefixStages);
+        assertTrue(exactStages.contains("IXSCAN"), "expected IXSCAN, got " + exactStages);
+        assertFalse(exactStages.contains("COLLSCAN"), "unexpected COLLSCAN: " + exactStages);
+    }
+
+    @Test
+    void legacyRegex_isCollectionScan() {
+        // Act
+        List<String> stages = winningPlanStages(new Query(SpecializationCriteria.matching("psych", true)));
+
+        // Assert - dokumentiert, warum der Regex nur noch Fallback ist
+        assertTrue(stages.contains("COLLSCAN"), "expected COLLSCAN, got " + stages);
+    }
+
+    @Test
+    void specializationAndLanguage_usesIndexScan() {
+        // Arrange
+        Query query = new Query(SpecializationCriteria.matching("psych", false))
+                .addCriteria(Criteria.where("languages").is("German"));
+
+        // Act
+        List<String> stages = winningPlanStages(query);
+
+        // Assert
+        assertFalse(stages.contains("COLLSCAN"), "unexpected COLLSCAN: " + stages);
+    }
+
+    private List<String> winningPlanStages(Query query) {
+        Document explain = mongoTemplate.getCollection("advisors")
+                .find(query.getQueryObject())
+                .explain();
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+        return stages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectStages(Document plan, List<String> stages) {
+        if (plan == null) {
+            return;
+        }
+        if (plan.getString("stage") != null) {
+            stages.add(plan.getString("stage"));
+        }
+        collectStages(plan.get("inputStage", Document.class), stages);
+        List<Document> inputStages = (List<Document>) plan.get("inputStages");
+        if (inputStages != null) {
+            inputStages.forEach(stage -> collectStages(stage, stages));
+        }
+    }
+
+    private static List<String> userIds(List<Advisor> advisors) {
+        return advisors.stream().map(Advisor::getUserId).toList();
+    }
+}
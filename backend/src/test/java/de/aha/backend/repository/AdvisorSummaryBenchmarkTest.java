@@ -0,0 +1,137 @@
+package de.aha.backend.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.Review;
+import de.aha.backend.model.appointment.DayOfWeek;
+import de.aha.backend.model.appointment.WorkingHours;
+import de.aha.backend.model.user.Address;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vergleicht Payload-Größe und p99-Latenz der Berater-Liste als vollständiges
+ * {@link Advisor} und als projiziertes {@link AdvisorSummary}.
+ * Ausführen mit {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataMongoTest
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class AdvisorSummaryBenchmarkTest {
+
+    private static final int ADVISORS = 2_000;
+    private static final int PAGE_SIZE = 12;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 500;
+
+    @Autowired
+    private AdvisorRepository advisorRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setUp() {
+        advisorRepository.deleteAll();
+
+        List<Advisor> advisors = new ArrayList<>();
+        for (int i = 0; i < ADVISORS; i++) {
+            List<Review> reviews = new ArrayList<>();
+            for (int r = 0; r < 5; r++) {
+                reviews.add(Review.builder()
+                        .advisorId("advisor" + i)
+                        .patientId("patient" + r)
+                        .patientName("Patient " + r)
+                        .rating(4)
+                        .comment("Sehr hilfreiche Beratung, ausführlich und verständlich erklärt. ".repeat(3))
+                        .build());
+            }
+            List<WorkingHours> workingHours = Arrays.stream(DayOfWeek.values())
+                    .map(day -> new WorkingHours(day, "09:00", "17:00", true))
+                    .toList();
+
+            advisors.add(Advisor.builder()
+                    .userId("user" + i)
+                    .name("Advisor " + i)
+                    .email("advisor" + i + "@example.com")
+                    .specialization(i % 2 == 0 ? "Psychology" : "Nutrition")
+                    .languages(List.of("German", "English"))
+                    .bio("Langjährige Erfahrung in der Beratung von Patientinnen und Patienten. ".repeat(10))
+                    .qualifications(List.of("Diplom", "Zertifizierung A", "Zertifizierung B"))
+                    .address(new Address("Hauptstraße", "Berlin", "10115", "Germany", String.valueOf(i)))
+                    .rating(3.0 + (i % 20) / 10.0)
+                    .reviewCount(i % 300)
+                    .consultationFee(50.0 + i % 100)
+                    .available(i % 3 != 0)
+                    .recentReviews(reviews)
+                    .workingHours(workingHours)
+                    .build());
+        }
+        advisorRepository.saveAll(advisors);
+    }
+
+    @Test
+    void summaryProjection_isSmallerAndFasterThanFullDocuments() throws Exception {
+        Random random = new Random(42);
+        int pages = ADVISORS / PAGE_SIZE;
+
+        Supplier<Query> pageQuery = () -> new Query(Criteria.where("available").is(true))
+                .with(PageRequest.of(random.nextInt(pages / 2), PAGE_SIZE, Sort.by(Sort.Direction.DESC, "rating")));
+
+        Result full = measure(() -> mongoTemplate.find(pageQuery.get(), Advisor.class));
+        Result summary = measure(() -> advisorRepository.findSummaries(pageQuery.get()));
+
+        System.out.printf("full:    payload %,d bytes/page, p50 %.2f ms, p99 %.2f ms%n",
+                full.payloadBytes(), full.p50Millis(), full.p99Millis());
+        System.out.printf("summary: payload %,d bytes/page, p50 %.2f ms, p99 %.2f ms%n",
+                summary.payloadBytes(), summary.p50Millis(), summary.p99Millis());
+
+        assertTrue(summary.payloadBytes() * 3 < full.payloadBytes(),
+                "summary payload should be a fraction of the full document payload");
+    }
+
+    private Result measure(Supplier<List<?>> page) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            objectMapper.writeValueAsBytes(page.get());
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        long payload = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            byte[] json = objectMapper.writeValueAsBytes(page.get());
+            nanos[i] = System.nanoTime() - start;
+            payload += json.length;
+        }
+        Arrays.sort(nanos);
+        return new Result(payload / ITERATIONS, percentile(nanos, 0.50), percentile(nanos, 0.99));
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private record Result(long payloadBytes, double p50Millis, double p99Millis) {
+    }
+}
@@ -0,0 +1,235 @@
+package de.aha.backend.repository;
+
+import de.aha.backend.config.AppointmentEndsAtCallback;
+import de.aha.backend.model.appointment.Appointment;
+import de.aha.backend.model.appointment.AppointmentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@Import(AppointmentEndsAtCallback.class)
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class AppointmentRepositoryTest {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+
+        // user1 ist abwechselnd Patient und Berater, damit die Sortierung über beide Rollen greift
+        appointmentRepository.saveAll(List.of(
+                appointment("p1", "user1", "advisor1", base),
+                appointment("a1", "patient1", "user1", base.plusHours(1)),
+                appointment("p2", "user1", "advisor2", base.plusDays(1)),
+                appointment("a2", "patient2", "user1", base.plusDays(2)),
+                appointment("other", "patient3", "advisor3", base.plusHours(2))
+        ));
+    }
+
+    @Test
+    void findByParticipant_ShouldMergeBothRolesNewestFirst() {
+        // Act
+        List<Appointment> result = appointmentRepository.findByParticipant(
+                "user1", "user1", null, null, Pageable.unpaged());
+
+        // Assert
+        assertEquals(List.of("a2", "p2", "a1", "p1"), notes(result));
+    }
+
+    @Test
+    void findByParticipant_ShouldRestrictToWindowAndHonourSort() {
+        // Act
+        List<Appointment> result = appointmentRepository.findByParticipant(
+                "user1", "user1", base, base.plusDays(1),
+                Pageable.unpaged(Sort.by(Sort.Direction.ASC, "scheduledAt")));
+
+        // Assert
+        assertEquals(List.of("p1", "a1"), notes(result));
+    }
+
+    @Test
+    void findByParticipant_ShouldPage() {
+        // Act
+        List<Appointment> firstPage = appointmentRepository.findByParticipant(
+                "user1", "user1", null, null, PageRequest.of(0, 3));
+        List<Appointment> secondPage = appointmentRepository.findByParticipant(
+                "user1", "user1", null, null, PageRequest.of(1, 3));
+
+        // Assert
+        assertEquals(List.of("a2", "p2", "a1"), notes(firstPage));
+        assertEquals(List.of("p1"), notes(secondPage));
+    }
+
+    @Test
+    void findByParticipant_WithSingleRole_ShouldOnlyMatchThatRole() {
+        // Act
+        List<Appointment> result = appointmentRepository.findByParticipant(
+                null, "user1", null, null, Pageable.unpaged());
+
+        // Assert
+        assertEquals(List.of("a2", "a1"), notes(result));
+    }
+
+    @Test
+    void findByParticipant_WithoutParticipant_ShouldReturnEmpty() {
+        // Act
+        List<Appointment> result = appointmentRepository.findByParticipant(
+                null, null, null, null, Pageable.unpaged());
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void save_ShouldStoreEndsAt() {
+        // Act
+        Appointment saved = appointmentRepository.save(appointment("x", "patient9", "advisor9", base, 45));
+
+        // Assert
+        assertEquals(base.plusMinutes(45), appointmentRepository.findById(saved.getId()).orElseThrow().getEndsAt());
+    }
+
+    @Test
+    void existsOverlappingAppointment_ShouldCatchBookingStillRunning() {
+        // Arrange - läuft von 09:30 bis 10:30
+        appointmentRepository.save(appointment("running", "patient9", "advisor9", base.plusMinutes(30), 60));
+
+        // Act & Assert
+        assertTrue(appointmentRepository.existsOverlappingAppointment(
+                "advisor9", base.plusHours(1), base.plusHours(2), BOOKED));
+        assertTrue(appointmentRepository.existsOverlappingAppointment(
+                "advisor9", base.plusMinutes(45), base.plusMinutes(50), BOOKED));
+    }
+
+    @Test
+    void existsOverlappingAppointment_ShouldAllowBackToBack() {
+        // Arrange
+        appointmentRepository.save(appointment("first", "patient9", "advisor9", base, 60));
+
+        // Act & Assert
+        assertFalse(appointmentRepository.existsOverlappingAppointment(
+                "advisor9", base.plusHours(1), base.plusHours(2), BOOKED));
+        assertFalse(appointmentRepository.existsOverlappingAppointment(
+                "advisor9", base.minusHours(1), base, BOOKED));
+    }
+
+    @Test
+    void existsOverlappingAppointment_ShouldIgnoreOtherStatusesAndAdvisors() {
+        // Arrange
+        Appointment cancelled = appointment("cancelled", "patient9", "advisor9", base, 60);
+        cancelled.setStatus(AppointmentStatus.CANCELLED);
+        appointmentRepository.save(cancelled);
+        appointmentRepository.save(appointment("other", "patient9", "advisor8", base, 60));
+
+        // Act & Assert
+        assertFalse(appointmentRepository.existsOverlappingAppointment(
+                "advisor9", base, base.plusHours(1), BOOKED));
+    }
+
+    @Test
+    void existsOverlappingAppointment_ShouldMatchIntervalSemanticsForRandomIntervals() {
+        // Eigenschaft: die Abfrage meldet genau dann eine Überschneidung, wenn ein gebuchtes
+        // Intervall [s, e) das angefragte Intervall [start, end) schneidet
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            // Arrange
+            appointmentRepository.deleteAll();
+            List<Appointment> booked = new ArrayList<>();
+            int count = random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                Appointment a = appointment("r" + i, "patient9", "advisor9",
+                        base.plusMinutes(5L * random.nextInt(96)), 5 * (1 + random.nextInt(36)));
+                booked.add(a);
+            }
+            appointmentRepository.saveAll(booked);
+
+            for (int probe = 0; probe < 25; probe++) {
+                LocalDateTime start = base.plusMinutes(5L * random.nextInt(120) - 60);
+                LocalDateTime end = start.plusMinutes(5 * (1 + random.nextInt(36)));
+                boolean expected = booked.stream().anyMatch(a ->
+                        a.getScheduledAt().isBefore(end)
+                                && start.isBefore(a.getScheduledAt().plusMinutes(a.getDurationMinutes())));
+
+                // Act
+                boolean actual = appointmentRepository.existsOverlappingAppointment("advisor9", start, end, BOOKED);
+
+                // Assert
+                assertEquals(expected, actual, "round " + round + ", probe [" + start + ", " + end + ") against " +
+                        booked.stream().map(a -> "[" + a.getScheduledAt() + " +" + a.getDurationMinutes() + "m]").toList());
+            }
+        }
+    }
+
+    @Test
+    void findBookedAppointmentsForAdvisorInTimeRange_ShouldReturnExactlyBlockingStatuses() {
+        // Arrange - ein Termin pro Status
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            Appointment a = appointment(status.name(), "patient9", "advisor9", base);
+            a.setStatus(status);
+            appointmentRepository.save(a);
+        }
+
+        // Act
+        List<Appointment> result = appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(
+                "advisor9", base, base.plusHours(1));
+
+        // Assert
+        assertEquals(AppointmentStatus.BLOCKING.stream().map(Enum::name).sorted().toList(),
+                notes(result).stream().sorted().toList());
+    }
+
+    @Test
+    void existsOverlappingAppointment_ShouldBlockRequestedAppointment() {
+        // Arrange
+        Appointment requested = appointment("requested", "patient9", "advisor9", base, 60);
+        requested.setStatus(AppointmentStatus.REQUESTED);
+        appointmentRepository.save(requested);
+
+        // Act & Assert
+        assertTrue(appointmentRepository.existsOverlappingAppointment(
+                "advisor9", base.plusMinutes(30), base.plusMinutes(90), AppointmentStatus.BLOCKING));
+    }
+
+    private static final List<AppointmentStatus> BOOKED =
+            List.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS);
+
+    private static Appointment appointment(String notes, String patientId, String advisorId,
+                                           LocalDateTime scheduledAt, int durationMinutes) {
+        Appointment appointment = appointment(notes, patientId, advisorId, scheduledAt);
+        appointment.setDurationMinutes(durationMinutes);
+        return appointment;
+    }
+
+    private static Appointment appointment(String notes, String patientId, String advisorId, LocalDateTime scheduledAt) {
+        return Appointment.builder()
+                .notes(notes)
+                .patientId(patientId)
+                .advisorId(advisorId)
+                .status(AppointmentStatus.SCHEDULED)
+                .scheduledAt(scheduledAt)
+                .durationMinutes(60)
+                .build();
+    }
+
+    private static List<String> notes(List<Appointment> appointments) {
+        return appointments.stream().map(Appointment::getNotes).toList();
+    }
+}
@@ -0,0 +1,353 @@
+package de.aha.backend.repository;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import de.aha.backend.config.MongoConfig;
+import de.aha.backend.config.MongoIndexBootstrap;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.Review;
+import de.aha.backend.model.appointment.Appointment;
+import de.aha.backend.model.appointment.AppointmentStatus;
+import de.aha.backend.model.appointment.SlotClaim;
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.SenderType;
+import de.aha.backend.model.user.User;
+import de.aha.backend.model.user.UserRole;
+import de.aha.backend.repository.chat.ChatMessageRepository;
+import de.aha.backend.repository.chat.ChatMessageRepositoryCustom;
+import de.aha.backend.repository.chat.ChatSessionRepository;
+import de.aha.backend.repository.chat.ChatSessionRepositoryCustom;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stellt sicher, dass jede deklarierte Repository-Abfrage über einen Index läuft.
+ * <p>
+ * Jede Methode wird gegen Embedded Mongo mit aktiviertem Profiler ausgeführt; der
+ * {@code planSummary} jeder dabei ausgeführten Operation darf kein {@code COLLSCAN}
+ * sein. Neue Repository-Methoden müssen in {@link #queries()} aufgenommen werden
+ * (und in {@code MongoIndexes} einen Index bekommen) oder mit Begründung in
+ * {@link #EXEMPT} stehen, sonst schlägt der Test fehl.
+ */
+@DataMongoTest
+@Import({MongoConfig.class, MongoIndexBootstrap.class})
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class RepositoryIndexCoverageTest {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            AdvisorRepository.class,
+            AdvisorRepositoryCustom.class,
+            AppointmentRepository.class,
+            AppointmentRepositoryCustom.class,
+            SlotClaimRepository.class,
+            ReviewRepository.class,
+            UserRepository.class,
+            ChatMessageRepository.class,
+            ChatMessageRepositoryCustom.class,
+            ChatSessionRepository.class,
+            ChatSessionRepositoryCustom.class);
+
+    // Abfragen, die bewusst die ganze Collection lesen (oder lesen dürfen)
+    private static final Map<String, String> EXEMPT = Map.of(
+            "AdvisorRepository.findBySpecializationContainingIgnoreCase/1",
+            "unanchored regex, superseded by searchBySpecialization",
+            "AdvisorRepository.findBySpecializationContainingIgnoreCase/2",
+            "unanchored regex, superseded by searchBySpecialization",
+            "AdvisorRepository.findByNameContainingIgnoreCase/1",
+            "unanchored regex on name, not used by the application",
+            "AdvisorRepository.findAllSpecializations/0",
+            "reads every advisor by design, replaced by countBySpecialization",
+            "AdvisorRepository.findAllLanguages/0",
+            "reads every advisor by design, replaced by countByLanguage",
+            "AdvisorRepository.countBySpecialization/0",
+            "facet aggregation over all advisors, cached in AdvisorFacetService",
+            "AdvisorRepository.countByLanguage/0",
+            "facet aggregation over all advisors, cached in AdvisorFacetService");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AdvisorRepository advisorRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SlotClaimRepository slotClaimRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        // Je ein Dokument pro Collection, sonst meldet der Planner EOF statt eines echten Plans
+        advisorRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        slotClaimRepository.deleteAll();
+        reviewRepository.deleteAll();
+        userRepository.deleteAll();
+        chatMessageRepository.deleteAll();
+        chatSessionRepository.deleteAll();
+
+        advisorRepository.save(Advisor.builder()
+                .userId("user1").name("John").email("john@example.com").specialization("Psychology")
+                .languages(List.of("German")).qualifications(List.of("PhD")).build());
+        appointmentRepository.save(Appointment.builder()
+                .patientId("patient1").advisorId("advisor1").status(AppointmentStatus.SCHEDULED)
+                .scheduledAt(now).build());
+        slotClaimRepository.save(SlotClaim.builder()
+                .id(SlotClaim.idOf("advisor1", now)).advisorId("advisor1").slotStart(now)
+                .reservationId("reservation1").appointmentId("appointment1").expiresAt(now.plusDays(1)).build());
+        reviewRepository.save(Review.builder().advisorId("advisor1").patientId("patient1").rating(5).build());
+        User user = new User();
+        user.setEmail("user@example.com");
+        user.setUsername("user");
+        user.setRole(UserRole.USER);
+        userRepository.save(user);
+        chatMessageRepository.save(ChatMessage.builder()
+                .sessionId("session1").senderType(SenderType.USER).timestamp(now).build());
+        chatSessionRepository.save(ChatSession.builder()
+                .userId("user1").advisorId("advisor1").lastMessageTime(now).build());
+
+        enableProfiler();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.getDb().runCommand(new Document("profile", 0));
+    }
+
+    private Map<String, Runnable> queries() {
+        PageRequest page = PageRequest.of(0, 10);
+        LocalDateTime from = now.minusDays(1);
+        LocalDateTime to = now.plusDays(1);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("AdvisorRepository.findByLanguagesContaining/1", () -> advisorRepository.findByLanguagesContaining("German"));
+        queries.put("AdvisorRepository.findByLanguagesContaining/2", () -> advisorRepository.findByLanguagesContaining("German", page));
+        queries.put("AdvisorRepository.findBySpecializationContainingIgnoreCaseAndLanguagesContaining/2",
+                () -> advisorRepository.findBySpecializationContainingIgnoreCaseAndLanguagesContaining("psych", "German"));
+        queries.put("AdvisorRepository.findByRatingGreaterThanEqual/2", () -> advisorRepository.findByRatingGreaterThanEqual(4.0, page));
+        queries.put("AdvisorRepository.findByConsultationFeeLessThanEqual/2", () -> advisorRepository.findByConsultationFeeLessThanEqual(100.0, page));
+        queries.put("AdvisorRepository.findByAvailableTrue/1", () -> advisorRepository.findByAvailableTrue(page));
+        queries.put("AdvisorRepository.findByAvailableTrue/0", () -> advisorRepository.findByAvailableTrue());
+        queries.put("AdvisorRepository.searchAdvisors/7",
+                () -> advisorRepository.searchAdvisors("experience", "Psychology", "German", 4.5, 150.0, true, page));
+        queries.put("AdvisorRepository.fullTextSearch/2", () -> advisorRepository.fullTextSearch("psychology", page));
+        queries.put("AdvisorRepository.findAvailableAdvisors/2", () -> advisorRepository.findAvailableAdvisors(4.0, 100.0));
+        queries.put("AdvisorRepository.findTop5ByOrderByRatingDesc/0", () -> advisorRepository.findTop5ByOrderByRatingDesc());
+        queries.put("AdvisorRepository.findTop5ByOrderByReviewCountDesc/0", () -> advisorRepository.findTop5ByOrderByReviewCountDesc());
+        queries.put("AdvisorRepository.findByQualificationsIn/1", () -> advisorRepository.findByQualificationsIn(List.of("PhD")));
+        queries.put("AdvisorRepository.findByLanguages/1", () -> advisorRepository.findByLanguages(List.of("German")));
+        queries.put("AdvisorRepository.findByUserId/1", () -> advisorRepository.findByUserId("user1"));
+        queries.put("AdvisorRepository.findByEmail/1", () -> advisorRepository.findByEmail("john@example.com"));
+        queries.put("AdvisorRepository.findOnlineAdvisors/0", () -> advisorRepository.findOnlineAdvisors());
+
+        queries.put("AdvisorRepositoryCustom.findSummaries/1",
+                () -> advisorRepository.findSummaries(new Query(Criteria.where("available").is(true))));
+        queries.put("AdvisorRepositoryCustom.searchBySpecialization/2", () -> advisorRepository.searchBySpecialization("psych", "German"));
+        queries.put("AdvisorRepositoryCustom.searchSummariesBySpecialization/2",
+                () -> advisorRepository.searchSummariesBySpecialization("psych", null));
+
+        queries.put("AppointmentRepository.findByPatientIdOrderByScheduledAtDesc/1",
+                () -> appointmentRepository.findByPatientIdOrderByScheduledAtDesc("patient1"));
+        queries.put("AppointmentRepository.findByAdvisorIdOrderByScheduledAtDesc/1",
+                () -> appointmentRepository.findByAdvisorIdOrderByScheduledAtDesc("advisor1"));
+        queries.put("AppointmentRepository.findByPatientIdAndScheduledAtBetweenOrderByScheduledAt/3",
+                () -> appointmentRepository.findByPatientIdAndScheduledAtBetweenOrderByScheduledAt("patient1", from, to));
+        queries.put("AppointmentRepository.findByAdvisorIdAndScheduledAtBetweenOrderByScheduledAt/3",
+                () -> appointmentRepository.findByAdvisorIdAndScheduledAtBetweenOrderByScheduledAt("advisor1", from, to));
+        queries.put("AppointmentRepository.findByPatientIdAndStatusOrderByScheduledAt/2",
+                () -> appointmentRepository.findByPatientIdAndStatusOrderByScheduledAt("patient1", AppointmentStatus.SCHEDULED));
+        queries.put("AppointmentRepository.findByAdvisorIdAndStatusOrderByScheduledAt/2",
+                () -> appointmentRepository.findByAdvisorIdAndStatusOrderByScheduledAt("advisor1", AppointmentStatus.SCHEDULED));
+        queries.put("AppointmentRepository.findBookedAppointmentsForAdvisorInTimeRange/3",
+                () -> appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange("advisor1", from, to));
+        queries.put("AppointmentRepository.findByIdAndPatientId/2",
+                () -> appointmentRepository.findByIdAndPatientId("000000000000000000000001", "patient1"));
+        queries.put("AppointmentRepository.findByIdAndAdvisorId/2",
+                () -> appointmentRepository.findByIdAndAdvisorId("000000000000000000000001", "advisor1"));
+        queries.put("AppointmentRepository.existsOverlappingAppointment/4",
+                () -> appointmentRepository.existsOverlappingAppointment("advisor1", from, to,
+                        List.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED)));
+        queries.put("AppointmentRepositoryCustom.findByParticipant/5",
+                () -> appointmentRepository.findByParticipant("patient1", "patient1", from, to, page));
+
+        queries.put("SlotClaimRepository.deleteByReservationId/1", () -> slotClaimRepository.deleteByReservationId("none"));
+        queries.put("SlotClaimRepository.deleteByAppointmentId/1", () -> slotClaimRepository.deleteByAppointmentId("none"));
+
+        queries.put("ReviewRepository.findByAdvisorIdOrderByCreationDateDesc/1",
+                () -> reviewRepository.findByAdvisorIdOrderByCreationDateDesc("advisor1"));
+        queries.put("ReviewRepository.findByAdvisorIdAndRatingGreaterThanEqual/2",
+                () -> reviewRepository.findByAdvisorIdAndRatingGreaterThanEqual("advisor1", 3));
+        queries.put("ReviewRepository.countByAdvisorId/1", () -> reviewRepository.countByAdvisorId("advisor1"));
+        queries.put("ReviewRepository.findAverageRatingByAdvisorId/1", () -> reviewRepository.findAverageRatingByAdvisorId("advisor1"));
+        queries.put("ReviewRepository.existsByAdvisorIdAndPatientId/2",
+                () -> reviewRepository.existsByAdvisorIdAndPatientId("advisor1", "patient1"));
+
+        queries.put("UserRepository.findByEmailIgnoreCase/1", () -> userRepository.findByEmailIgnoreCase("USER@example.com"));
+        queries.put("UserRepository.findByUsername/1", () -> userRepository.findByUsername("user"));
+        queries.put("UserRepository.findByEmail/1", () -> userRepository.findByEmail("user@example.com"));
+        queries.put("UserRepository.findByProviderAndProviderId/2", () -> userRepository.findByProviderAndProviderId("github", "42"));
+        queries.put("UserRepository.existsByUsername/1", () -> userRepository.existsByUsername("user"));
+        queries.put("UserRepository.existsByEmail/1", () -> userRepository.existsByEmail("user@example.com"));
+        queries.put("UserRepository.findByRoleAndProfileLanguagesContainingAndProfileSpecializationIgnoreCase/3",
+                () -> userRepository.findByRoleAndProfileLanguagesContainingAndProfileSpecializationIgnoreCase(
+                        UserRole.ADVISOR, "German", "Psychology"));
+        queries.put("UserRepository.findByRole/1", () -> userRepository.findByRole(UserRole.ADVISOR));
+        queries.put("UserRepository.updatePasswordIfUnchanged/3",
+                () -> userRepository.updatePasswordIfUnchanged("64b7f0c2a1b2c3d4e5f60718", "{bcrypt}old", "{bcrypt}new"));
+
+        queries.put("ChatMessageRepository.findBySessionIdOrderByTimestampAsc/1",
+                () -> chatMessageRepository.findBySessionIdOrderByTimestampAsc("session1"));
+        queries.put("ChatMessageRepository.markReadBySessionAndSenderType/2",
+                () -> chatMessageRepository.markReadBySessionAndSenderType("session1", SenderType.ADVISOR));
+        queries.put("ChatMessageRepositoryCustom.findLatestBefore/3", () -> {
+            chatMessageRepository.findLatestBefore("session1", null, 50);
+            chatMessageRepository.findLatestBefore("session1", ChatMessage.builder()
+                    .id(new ObjectId().toHexString()).timestamp(LocalDateTime.now()).build(), 50);
+        });
+        queries.put("ChatMessageRepository.findUnreadAdvisorMessages/1", () -> chatMessageRepository.findUnreadAdvisorMessages("session1"));
+        queries.put("ChatMessageRepository.findUnreadUserMessages/1", () -> chatMessageRepository.findUnreadUserMessages("session1"));
+
+        queries.put("ChatSessionRepository.findByUserIdOrderByLastMessageTimeDesc/1",
+                () -> chatSessionRepository.findByUserIdOrderByLastMessageTimeDesc("user1"));
+        queries.put("ChatSessionRepository.findByAdvisorIdOrderByLastMessageTimeDesc/1",
+                () -> chatSessionRepository.findByAdvisorIdOrderByLastMessageTimeDesc("advisor1"));
+        queries.put("ChatSessionRepository.findByUserIdAndAdvisorId/2", () -> chatSessionRepository.findByUserIdAndAdvisorId("user1", "advisor1"));
+        queries.put("ChatSessionRepository.findActiveSessionsByUserId/1", () -> chatSessionRepository.findActiveSessionsByUserId("user1"));
+        queries.put("ChatSessionRepository.findActiveSessionsByAdvisorId/1", () -> chatSessionRepository.findActiveSessionsByAdvisorId("advisor1"));
+        queries.put("ChatSessionRepository.existsByUserIdAndAdvisorId/2", () -> chatSessionRepository.existsByUserIdAndAdvisorId("user1", "advisor1"));
+        queries.put("ChatSessionRepositoryCustom.findUserInbox/4", () -> {
+            chatSessionRepository.findUserInbox("user1", null, 0, 20);
+            chatSessionRepository.findUserInbox("user1", from, 0, 20);
+        });
+        return queries;
+    }
+
+    @Test
+    void everyRepositoryMethodIsCoveredOrExempt() {
+        // Arrange
+        Map<String, Runnable> queries = queries();
+        List<String> uncovered = new ArrayList<>();
+
+        // Act
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (method.isDefault() || method.isSynthetic()) {
+                    continue;
+                }
+                String signature = signature(repository, method);
+                if (!queries.containsKey(signature) && !EXEMPT.containsKey(signature)) {
+                    uncovered.add(signature);
+                }
+            }
+        }
+
+        // Assert
+        assertTrue(uncovered.isEmpty(), "Repository methods without index coverage check: " + uncovered
+                + " - add them to RepositoryIndexCoverageTest#queries() and declare an index in MongoIndexes");
+    }
+
+    @Test
+    void everyRepositoryQueryUsesAnIndex() {
+        // Arrange
+        List<String> failures = new ArrayList<>();
+
+        // Act
+        for (Map.Entry<String, Runnable> query : queries().entrySet()) {
+            long before = profileCount();
+            query.getValue().run();
+            List<Document> operations = profiledOperationsSince(before);
+
+            if (operations.isEmpty()) {
+                failures.add(query.getKey() + ": no profiled operation");
+            }
+            operations.stream()
+                    .map(operation -> operation.getString("planSummary"))
+                    .filter(plan -> plan.startsWith("COLLSCAN"))
+                    .forEach(plan -> failures.add(query.getKey() + ": " + plan));
+        }
+
+        // Assert
+        assertTrue(failures.isEmpty(), "Queries without index: " + failures);
+    }
+
+    private void enableProfiler() {
+        MongoDatabase db = mongoTemplate.getDb();
+        db.runCommand(new Document("profile", 0));
+        db.getCollection("system.profile").drop();
+        // groß genug, damit die Capped Collection während des Tests nicht überläuft
+        db.createCollection("system.profile", new CreateCollectionOptions().capped(true).sizeInBytes(16 * 1024 * 1024));
+        db.runCommand(new Document("profile", 2));
+    }
+
+    private long profileCount() {
+        return mongoTemplate.getDb().getCollection("system.profile").countDocuments();
+    }
+
+    private List<Document> profiledOperationsSince(long skip) {
+        String database = mongoTemplate.getDb().getName();
+        List<Document> operations = new ArrayList<>();
+        mongoTemplate.getDb().getCollection("system.profile")
+                .find()
+                .skip((int) skip)
+                .forEach(entry -> {
+                    String ns = entry.getString("ns");
+                    if (ns != null && ns.startsWith(database + ".") && !ns.contains(".system.")
+                            && entry.getString("planSummary") != null) {
+                        operations.add(entry);
+                    }
+                });
+        return operations;
+    }
+
+    private static String signature(Class<?> repository, Method method) {
+        return repository.getSimpleName() + "." + method.getName() + "/" + method.getParameterCount();
+    }
+
+    @Test
+    void exemptionsReferToExistingMethods() {
+        // Assert - veraltete Ausnahmen sollen nicht liegen bleiben
+        List<String> declared = REPOSITORIES.stream()
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .map(method -> signature(repository, method)))
+                .toList();
+        EXEMPT.keySet().forEach(signature ->
+                assertTrue(declared.contains(signature), "stale exemption: " + signature));
+    }
+}
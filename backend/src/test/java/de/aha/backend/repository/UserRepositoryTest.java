@@ -1,11 +1,14 @@
 package de.aha.backend.repository;
 
+import de.aha.backend.config.MongoIndexBootstrap;
 import de.aha.backend.model.user.User;
 import de.aha.backend.model.user.UserRole;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +16,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataMongoTest
+@Import(MongoIndexBootstrap.class)
 class UserRepositoryTest {
 
     @Autowired
@@ -58,6 +62,16 @@ class UserRepositoryTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void insert_WithSameEmailInDifferentCase_ShouldBeRejectedByUniqueIndex() {
+        User duplicate = new User();
+        duplicate.setEmail("Test@Example.COM");
+        duplicate.setPassword("otherHash");
+
+        assertThrows(DuplicateKeyException.class, () -> userRepository.insert(duplicate));
+        assertEquals(1, userRepository.count());
+    }
+
     @Test
     void saveAndFindById_ShouldWork() {
         User newUser = new User();
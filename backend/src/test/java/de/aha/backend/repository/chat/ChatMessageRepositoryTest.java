@@ -10,6 +10,8 @@ import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -141,103 +143,29 @@ class ChatMessageRepositoryTest {
     }
 
     @Test
-    void findUnreadMessagesBySessionAndSenderType_userMessages() {
+    void markReadBySessionAndSenderType_updatesOnlyMatchingMessages() {
         // Act
-        List<ChatMessage> result = chatMessageRepository
-                .findUnreadMessagesBySessionAndSenderType(sessionId1, SenderType.USER);
+        long modified = chatMessageRepository.markReadBySessionAndSenderType(sessionId1, SenderType.USER);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(SenderType.USER, result.get(0).getSenderType());
-        assertFalse(result.get(0).isRead());
-        assertEquals("User message unread", result.get(0).getContent());
-    }
-
-    @Test
-    void findUnreadMessagesBySessionAndSenderType_advisorMessages() {
-        // Act
-        List<ChatMessage> result = chatMessageRepository
-                .findUnreadMessagesBySessionAndSenderType(sessionId1, SenderType.ADVISOR);
-
-        // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(SenderType.ADVISOR, result.get(0).getSenderType());
-        assertFalse(result.get(0).isRead());
-        assertEquals("Advisor message unread", result.get(0).getContent());
-    }
-
-    @Test
-    void findUnreadMessagesBySessionAndSenderType_noUnreadMessages() {
-        // Arrange - Erstelle eine Session ohne ungelesene Nachrichten
-        String emptySessionId = "emptySession";
-        ChatMessage readUserMessage = ChatMessage.builder()
-                .sessionId(emptySessionId)
-                .content("Read message")
-                .senderType(SenderType.USER)
-                .timestamp(LocalDateTime.now())
-                .read(true)
-                .build();
-        chatMessageRepository.save(readUserMessage);
-
-        // Act
-        List<ChatMessage> result = chatMessageRepository
-                .findUnreadMessagesBySessionAndSenderType(emptySessionId, SenderType.USER);
-
-        // Assert
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-    }
-
-    @Test
-    void countUnreadMessagesBySessionAndSenderType_userMessages() {
-        // Act
-        long result = chatMessageRepository
-                .countUnreadMessagesBySessionAndSenderType(sessionId1, SenderType.USER);
-
-        // Assert
-        assertEquals(1L, result);
-    }
-
-    @Test
-    void countUnreadMessagesBySessionAndSenderType_advisorMessages() {
-        // Act
-        long result = chatMessageRepository
-                .countUnreadMessagesBySessionAndSenderType(sessionId1, SenderType.ADVISOR);
-
-        // Assert
-        assertEquals(1L, result);
+        assertEquals(1, modified);
+        assertTrue(chatMessageRepository.findById(userMessageUnread.getId()).orElseThrow().isRead());
+        assertFalse(chatMessageRepository.findById(advisorMessageUnread.getId()).orElseThrow().isRead());
+        assertTrue(chatMessageRepository.findUnreadUserMessages(sessionId1).isEmpty());
+        // andere Sessions bleiben unverändert
+        assertEquals(1, chatMessageRepository.findUnreadUserMessages(sessionId2).size());
     }
 
     @Test
-    void countUnreadMessagesBySessionAndSenderType_multipleUnread() {
-        // Arrange - Füge weitere ungelesene User-Nachrichten hinzu
-        ChatMessage additionalUnreadUserMessage = ChatMessage.builder()
-                .sessionId(sessionId1)
-                .content("Additional unread user message")
-                .senderType(SenderType.USER)
-                .timestamp(LocalDateTime.now())
-                .read(false)
-                .build();
-        chatMessageRepository.save(additionalUnreadUserMessage);
-
-        // Act
-        long result = chatMessageRepository
-                .countUnreadMessagesBySessionAndSenderType(sessionId1, SenderType.USER);
-
-        // Assert
-        assertEquals(2L, result);
-    }
+    void markReadBySessionAndSenderType_secondCallModifiesNothing() {
+        // Arrange
+        chatMessageRepository.markReadBySessionAndSenderType(sessionId1, SenderType.ADVISOR);
 
-    @Test
-    void countUnreadMessagesBySessionAndSenderType_noUnreadMessages() {
         // Act
-        long result = chatMessageRepository
-                .countUnreadMessagesBySessionAndSenderType("nonexistent", SenderType.USER);
+        long modified = chatMessageRepository.markReadBySessionAndSenderType(sessionId1, SenderType.ADVISOR);
 
         // Assert
-        assertEquals(0L, result);
+        assertEquals(0, modified);
     }
 
     @Test
@@ -404,60 +332,54 @@ class ChatMessageRepositoryTest {
     }
 
     @Test
-    void findUnreadMessagesBySessionAndSenderType_withAudioMessages() {
-        // Arrange - Erstelle eine ungelesene Nachricht mit Audio-URL
-        ChatMessage audioMessage = ChatMessage.builder()
-                .sessionId(sessionId1)
-                .content("Audio message")
-                .senderType(SenderType.USER)
-                .timestamp(LocalDateTime.now())
-                .read(false)
-                .audioUrl("https://example.com/audio.mp3")
-                .build();
-        chatMessageRepository.save(audioMessage);
-
+    void findLatestBefore_withoutCursor_returnsNewestFirst() {
         // Act
-        List<ChatMessage> result = chatMessageRepository
-                .findUnreadMessagesBySessionAndSenderType(sessionId1, SenderType.USER);
+        List<ChatMessage> result = chatMessageRepository.findLatestBefore(sessionId1, null, 2);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size()); // Ursprüngliche + neue Audio-Nachricht
-
-        // Überprüfe, dass die Audio-Nachricht enthalten ist
-        boolean audioMessageFound = result.stream()
-                .anyMatch(msg -> msg.getAudioUrl() != null && msg.getAudioUrl().equals("https://example.com/audio.mp3"));
-        assertTrue(audioMessageFound);
+        assertEquals(List.of(advisorMessageUnread.getId(), advisorMessageRead.getId()),
+                result.stream().map(ChatMessage::getId).toList());
     }
 
     @Test
-    void countUnreadMessagesBySessionAndSenderType_differentMessageTypes() {
-        // Arrange - Erstelle verschiedene Nachrichtentypen
-        ChatMessage textMessage = ChatMessage.builder()
-                .sessionId(sessionId1)
-                .content("Text message")
-                .senderType(SenderType.USER)
-                .type(MessageType.TEXT)
-                .timestamp(LocalDateTime.now())
-                .read(false)
-                .build();
-
-        ChatMessage imageMessage = ChatMessage.builder()
-                .sessionId(sessionId1)
-                .content("Image message")
-                .senderType(SenderType.USER)
-                .type(MessageType.AUDIO)
-                .timestamp(LocalDateTime.now())
-                .read(false)
-                .build();
+    void findLatestBefore_pagesThroughEqualTimestampsWithoutGapsOrDuplicates() {
+        // Arrange - viele Nachrichten mit identischem Zeitstempel, nur die ID ordnet sie
+        chatMessageRepository.deleteAll();
+        LocalDateTime sameInstant = LocalDateTime.of(2030, 1, 1, 12, 0);
+        List<ChatMessage> stored = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            stored.add(chatMessageRepository.save(ChatMessage.builder()
+                    .sessionId(sessionId1)
+                    .content("message " + i)
+                    .senderType(i % 2 == 0 ? SenderType.USER : SenderType.ADVISOR)
+                    .timestamp(i < 10 ? sameInstant.minusMinutes(10 - i) : sameInstant)
+                    .type(MessageType.TEXT)
+                    .build()));
+        }
 
-        chatMessageRepository.saveAll(List.of(textMessage, imageMessage));
+        // Act - in Seiten zu 7 rückwärts blättern
+        List<String> seen = new ArrayList<>();
+        ChatMessage cursor = null;
+        List<ChatMessage> page;
+        do {
+            page = chatMessageRepository.findLatestBefore(sessionId1, cursor, 7);
+            page.forEach(message -> seen.add(message.getId()));
+            cursor = page.isEmpty() ? null : page.getLast();
+        } while (page.size() == 7);
+
+        // Assert - jede Nachricht genau einmal, von neu nach alt
+        List<String> expected = new ArrayList<>(stored.stream().map(ChatMessage::getId).toList());
+        Collections.reverse(expected);
+        assertEquals(expected, seen);
+    }
 
+    @Test
+    void findLatestBefore_ignoresOtherSessions() {
         // Act
-        long result = chatMessageRepository
-                .countUnreadMessagesBySessionAndSenderType(sessionId1, SenderType.USER);
+        List<ChatMessage> result = chatMessageRepository.findLatestBefore(sessionId2, null, 50);
 
-        // Assert - Sollte alle Nachrichtentypen zählen
-        assertEquals(3L, result); // Ursprüngliche + 2 neue
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(message -> sessionId2.equals(message.getSessionId())));
     }
-}
\ No newline at end of file
+}
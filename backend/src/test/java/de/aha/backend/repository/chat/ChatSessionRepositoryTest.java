@@ -1,6 +1,10 @@
 package de.aha.backend.repository.chat;
 
+import de.aha.backend.dto.chat.InboxEntry;
+import de.aha.backend.model.chat.ChatMessage;
 import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.MessageType;
+import de.aha.backend.model.chat.SenderType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +24,9 @@ class ChatSessionRepositoryTest {
     @Autowired
     private ChatSessionRepository chatSessionRepository;
 
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
     private ChatSession activeSession1;
     private ChatSession activeSession2;
     private ChatSession inactiveSession;
@@ -31,6 +38,7 @@ class ChatSessionRepositoryTest {
     @BeforeEach
     void setUp() {
         chatSessionRepository.deleteAll();
+        chatMessageRepository.deleteAll();
 
         LocalDateTime now = LocalDateTime.now();
 
@@ -356,4 +364,81 @@ class ChatSessionRepositoryTest {
         assertEquals("Message 3", result.get(1).getLastMessage());
         assertEquals("Message 1", result.get(2).getLastMessage()); // Älteste
     }
-}
\ No newline at end of file
+
+    private ChatMessage message(ChatSession session, SenderType senderType, String content, LocalDateTime timestamp, boolean read) {
+        return chatMessageRepository.save(ChatMessage.builder()
+                .sessionId(session.getId())
+                .content(content)
+                .senderType(senderType)
+                .type(MessageType.TEXT)
+                .timestamp(timestamp)
+                .read(read)
+                .build());
+    }
+
+    @Test
+    void findUserInbox_returnsSessionsWithLastMessageAndUnreadCount() {
+        // Arrange - Zähler und letzte Nachricht der Session sind maßgeblich, nicht die Nachrichten
+        activeSession1.setUserUnreadCount(2);
+        activeSession1.setAdvisorUnreadCount(1);
+        activeSession1.setLastMessage("ungelesen 2");
+        activeSession1.setLastMessageSenderType(SenderType.ADVISOR);
+        sessionForUser1.setLastMessage(null);
+        List<ChatSession> saved = chatSessionRepository.saveAll(List.of(activeSession1, sessionForUser1, activeSession2));
+        ChatSession newest = saved.get(0);
+        ChatSession older = saved.get(1);
+        LocalDateTime base = LocalDateTime.now().minusHours(5);
+        message(newest, SenderType.ADVISOR, "gelesen", base, true);
+        message(newest, SenderType.USER, "nicht die letzte", base.plusHours(4), false);
+        message(saved.get(2), SenderType.ADVISOR, "andere Session", base, false);
+
+        // Act
+        List<InboxEntry> result = chatSessionRepository.findUserInbox("user1", null, 0, 10);
+
+        // Assert
+        assertEquals(2, result.size());
+        InboxEntry first = result.get(0);
+        assertEquals(newest.getId(), first.sessionId());
+        assertEquals("advisor1", first.advisorId());
+        assertEquals("Advisor One", first.advisorName());
+        assertEquals(2, first.unreadCount());
+        assertEquals("ungelesen 2", first.lastMessage());
+        assertEquals(SenderType.ADVISOR, first.lastMessageSenderType());
+
+        InboxEntry second = result.get(1);
+        assertEquals(older.getId(), second.sessionId());
+        assertEquals(0, second.unreadCount());
+        assertNull(second.lastMessage());
+        assertNull(second.lastMessageSenderType());
+    }
+
+    @Test
+    void findUserInbox_paginatesByLastMessageTime() {
+        // Arrange
+        chatSessionRepository.saveAll(List.of(activeSession1, sessionForUser1));
+
+        // Act
+        List<InboxEntry> firstPage = chatSessionRepository.findUserInbox("user1", null, 0, 1);
+        List<InboxEntry> secondPage = chatSessionRepository.findUserInbox("user1", null, 1, 1);
+
+        // Assert
+        assertEquals(1, firstPage.size());
+        assertEquals("advisor1", firstPage.get(0).advisorId());
+        assertEquals(1, secondPage.size());
+        assertEquals("advisor2", secondPage.get(0).advisorId());
+    }
+
+    @Test
+    void findUserInbox_updatedSince_returnsOnlyNewerSessions() {
+        // Arrange
+        chatSessionRepository.saveAll(List.of(activeSession1, sessionForUser1));
+
+        // Act
+        List<InboxEntry> result = chatSessionRepository.findUserInbox(
+                "user1", activeSession1.getLastMessageTime().minusMinutes(30), 0, 10);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("advisor1", result.get(0).advisorId());
+    }
+}
@@ -1,15 +1,20 @@
 package de.aha.backend.security;
 
+import de.aha.backend.exception.ExecutionConflictException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -32,9 +37,9 @@ class AuthInterceptorTest {
 
     private Object handler = new Object();
 
-    @BeforeEach
-    void setUp() {
-        authInterceptor.postHandle(request, response, handler, null);
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
     }
 
     @Test
@@ -115,33 +120,29 @@ class AuthInterceptorTest {
 
         when(request.getRequestURI()).thenReturn("/api/v1/appointments");
         when(tokenInteract.getToken(request)).thenReturn(token);
-        when(tokenInteract.validateToken(token)).thenReturn(true);
-        when(tokenInteract.getUserId(token)).thenReturn(userId);
+        when(tokenInteract.verify(token)).thenReturn(new VerifiedToken(userId, "session1", null));
 
         boolean result = authInterceptor.preHandle(request, response, handler);
 
         assertTrue(result);
-        assertEquals(userId, authInterceptor.getUserId());
+        verify(request).setAttribute(AuthInterceptor.USER_ID_ATTRIBUTE, userId);
         verify(tokenInteract).getToken(request);
-        verify(tokenInteract).validateToken(token);
-        verify(tokenInteract).getUserId(token);
+        // genau eine Signaturprüfung pro Request
+        verify(tokenInteract, times(1)).verify(token);
+        verify(tokenInteract, never()).validateToken(token);
+        verify(tokenInteract, never()).getUserId(token);
     }
 
     @Test
-    void preHandle_WithInvalidToken_ShouldReturnFalse() throws Exception {
+    void preHandle_WithInvalidToken_ShouldThrowException() {
         String token = "invalidToken";
 
         when(request.getRequestURI()).thenReturn("/api/v1/appointments");
         when(tokenInteract.getToken(request)).thenReturn(token);
-        when(tokenInteract.validateToken(token)).thenReturn(false);
-
-        boolean result = authInterceptor.preHandle(request, response, handler);
+        when(tokenInteract.verify(token)).thenThrow(new ExecutionConflictException("Invalid JWT token"));
 
-        assertFalse(result);
-        verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
-        verify(tokenInteract).getToken(request);
-        verify(tokenInteract).validateToken(token);
-        verify(tokenInteract, never()).getUserId(token);
+        assertThrows(ExecutionConflictException.class, () -> authInterceptor.preHandle(request, response, handler));
+        verify(request, never()).setAttribute(eq(AuthInterceptor.USER_ID_ATTRIBUTE), any());
     }
 
     @Test
@@ -150,8 +151,7 @@ class AuthInterceptorTest {
 
         when(request.getRequestURI()).thenReturn("/api/v1/appointments");
         when(tokenInteract.getToken(request)).thenReturn(token);
-        when(tokenInteract.validateToken(token)).thenReturn(true);
-        when(tokenInteract.getUserId(token)).thenReturn("");
+        when(tokenInteract.verify(token)).thenReturn(new VerifiedToken("", "session1", null));
 
         boolean result = authInterceptor.preHandle(request, response, handler);
 
@@ -165,8 +165,7 @@ class AuthInterceptorTest {
 
         when(request.getRequestURI()).thenReturn("/api/v1/appointments");
         when(tokenInteract.getToken(request)).thenReturn(token);
-        when(tokenInteract.validateToken(token)).thenReturn(true);
-        when(tokenInteract.getUserId(token)).thenReturn(null);
+        when(tokenInteract.verify(token)).thenReturn(new VerifiedToken(null, "session1", null));
 
         boolean result = authInterceptor.preHandle(request, response, handler);
 
@@ -190,20 +189,30 @@ class AuthInterceptorTest {
     }
 
     @Test
-    void postHandle_ShouldClearThreadLocal() throws Exception {
-        String token = "validToken";
-        String userId = "user123";
-
-        when(request.getRequestURI()).thenReturn("/api/v1/appointments");
-        when(tokenInteract.getToken(request)).thenReturn(token);
-        when(tokenInteract.validateToken(token)).thenReturn(true);
-        when(tokenInteract.getUserId(token)).thenReturn(userId);
+    void getUserId_ShouldReadAttributeOfCurrentRequest() {
+        when(request.getAttribute(AuthInterceptor.USER_ID_ATTRIBUTE)).thenReturn("user123");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
 
-        authInterceptor.preHandle(request, response, handler);
-        assertEquals(userId, authInterceptor.getUserId());
+        assertEquals("user123", authInterceptor.getUserId());
+    }
 
-        authInterceptor.postHandle(request, response, handler, null);
+    @Test
+    void getUserId_AfterRequestWasReset_ShouldReturnNull() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        RequestContextHolder.resetRequestAttributes();
 
+        // kein Zustand am Thread, der in den nächsten Request durchsickern könnte
         assertNull(authInterceptor.getUserId());
+        verifyNoInteractions(request);
+    }
+
+    @Test
+    void preHandle_OnAsyncRedispatch_ShouldNotVerifyTokenAgain() throws Exception {
+        when(request.getAttribute(AuthInterceptor.USER_ID_ATTRIBUTE)).thenReturn("user123");
+
+        boolean result = authInterceptor.preHandle(request, response, handler);
+
+        assertTrue(result);
+        verifyNoInteractions(tokenInteract);
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package de.aha.backend.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JMH-Benchmark der Authentifizierung pro Request: bisher zwei Parser- und Key-Aufbauten
+ * und zwei Signaturprüfungen ({@code validateToken} + {@code getUserId}), jetzt eine
+ * Prüfung mit vorab gebautem Parser ({@code verify}), optional aus dem {@link VerifiedTokenCache}.
+ * Ausführen mit {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthTokenBenchmarkTest {
+
+    private static final String SECRET = "mySecretKeyForTestingPurposesOnlyAndShouldBeAtLeast256Bits";
+
+    private TokenInteract tokenInteract;
+    private TokenInteract cachingTokenInteract;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenInteract = newTokenInteract(new VerifiedTokenCache(false, 0));
+        cachingTokenInteract = newTokenInteract(new VerifiedTokenCache(true, 10_000));
+        token = tokenInteract.generateToken(User.withUsername("user123").password("secret").build());
+    }
+
+    private static TokenInteract newTokenInteract(VerifiedTokenCache cache) {
+        TokenInteract tokenInteract = new TokenInteract(cache);
+        ReflectionTestUtils.setField(tokenInteract, "secretKey", SECRET);
+        ReflectionTestUtils.setField(tokenInteract, "expirationTime", 3_600_000L);
+        tokenInteract.init();
+        return tokenInteract;
+    }
+
+    // bisheriger Ablauf in AuthInterceptor.preHandle
+    @Benchmark
+    public String legacyValidateThenGetUserId() {
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parseSignedClaims(token);
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String verifyOnce() {
+        return tokenInteract.verify(token).userId();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return cachingTokenInteract.verify(token).userId();
+    }
+
+    @Test
+    void verifyOnce_isCheaperThanLegacyAuthentication() throws RunnerException {
+        // forks(0): im Surefire-Prozess, ein Fork bekäme den Test-Classpath nicht zuverlässig mit
+        Options options = new OptionsBuilder()
+                .include(AuthTokenBenchmarkTest.class.getSimpleName())
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        Map<String, Double> scores = results.stream().collect(Collectors.toMap(
+                result -> result.getParams().getBenchmark().substring(
+                        result.getParams().getBenchmark().lastIndexOf('.') + 1),
+                result -> result.getPrimaryResult().getScore()));
+        scores.forEach((name, score) -> System.out.printf("%-28s %.2f us/request%n", name, score));
+
+        assertTrue(scores.get("verifyOnce") < scores.get("legacyValidateThenGetUserId"));
+        assertTrue(scores.get("verifyCached") < scores.get("verifyOnce"));
+    }
+}
@@ -0,0 +1,170 @@
+package de.aha.backend.security;
+
+import de.aha.backend.controller.AdvisorController;
+import de.aha.backend.controller.AdvisorSearchController;
+import de.aha.backend.controller.AppointmentController;
+import de.aha.backend.controller.ReviewController;
+import de.aha.backend.controller.UserController;
+import de.aha.backend.controller.chat.AdvisorChatController;
+import de.aha.backend.controller.chat.ChatController;
+import de.aha.backend.exception.AppAuthenticationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrentUserArgumentResolverTest {
+
+    private final CurrentUserArgumentResolver webResolver = new CurrentUserArgumentResolver();
+    private final CurrentUserMessageArgumentResolver messageResolver = new CurrentUserMessageArgumentResolver();
+
+    @SuppressWarnings("unused")
+    private static class Handlers {
+        void required(@CurrentUser String userId) {
+        }
+
+        void optional(@CurrentUser(required = false) String userId) {
+        }
+
+        void plain(String userId) {
+        }
+    }
+
+    private static MethodParameter parameter(String method) throws NoSuchMethodException {
+        return new MethodParameter(Handlers.class.getDeclaredMethod(method, String.class), 0);
+    }
+
+    // Parameter des Handlers, über den der Aufrufer aufgelöst wird
+    private static MethodParameter callerParameter(Class<?> controller, String method) {
+        Method handler = Arrays.stream(controller.getDeclaredMethods())
+                .filter(m -> m.getName().equals(method))
+                .findFirst()
+                .orElseThrow();
+        for (int i = 0; i < handler.getParameterCount(); i++) {
+            MethodParameter parameter = new MethodParameter(handler, i);
+            if (parameter.hasParameterAnnotation(CurrentUser.class)) {
+                return parameter;
+            }
+        }
+        throw new AssertionError(controller.getSimpleName() + "." + method + " does not resolve the caller via @CurrentUser");
+    }
+
+    private static Object resolveCaller(CurrentUserArgumentResolver resolver, MethodParameter parameter, String userId)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(AuthInterceptor.USER_ID_ATTRIBUTE, userId);
+        return resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+    }
+
+    private static Message<byte[]> message(String userId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        if (userId != null) {
+            accessor.setUser(UsernamePasswordAuthenticationToken.authenticated(userId, null, List.of()));
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void supportsParameter_onlyAnnotatedStrings() throws Exception {
+        assertTrue(webResolver.supportsParameter(parameter("required")));
+        assertFalse(webResolver.supportsParameter(parameter("plain")));
+        assertTrue(messageResolver.supportsParameter(parameter("optional")));
+        assertFalse(messageResolver.supportsParameter(parameter("plain")));
+    }
+
+    @Test
+    void resolveArgument_restHandler_readsRequestAttribute() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(AuthInterceptor.USER_ID_ATTRIBUTE, "user123");
+
+        // Act
+        Object result = webResolver.resolveArgument(parameter("required"), null, new ServletWebRequest(request), null);
+
+        // Assert
+        assertEquals("user123", result);
+    }
+
+    @Test
+    void resolveArgument_restHandlerWithoutUser_requiredThrowsOptionalIsNull() throws Exception {
+        // Arrange
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        // Act & Assert
+        assertThrows(AppAuthenticationException.class,
+                () -> webResolver.resolveArgument(parameter("required"), null, request, null));
+        assertNull(webResolver.resolveArgument(parameter("optional"), null, request, null));
+    }
+
+    @Test
+    void exportEndpoints_resolveCallerFromAuthInterceptor() throws Exception {
+        // Arrange
+        MethodParameter userExport = callerParameter(ChatController.class, "exportChatHistory");
+        MethodParameter advisorExport = callerParameter(AdvisorChatController.class, "exportChatHistoryForAdvisor");
+
+        // Act & Assert
+        assertTrue(webResolver.supportsParameter(userExport));
+        assertTrue(webResolver.supportsParameter(advisorExport));
+        assertEquals("user123", resolveCaller(webResolver, userExport, "user123"));
+        assertEquals("advisor456", resolveCaller(webResolver, advisorExport, "advisor456"));
+    }
+
+    @Test
+    void inboxEndpoint_resolvesCallerFromAuthInterceptor() throws Exception {
+        // Arrange
+        MethodParameter inbox = callerParameter(ChatController.class, "getInbox");
+
+        // Act & Assert
+        assertTrue(webResolver.supportsParameter(inbox));
+        assertEquals("user123", resolveCaller(webResolver, inbox, "user123"));
+        assertThrows(AppAuthenticationException.class,
+                () -> webResolver.resolveArgument(inbox, null, new ServletWebRequest(new MockHttpServletRequest()), null));
+    }
+
+    @Test
+    void controllers_doNotTakeUserIdFromAuthenticationPrincipal() {
+        // AuthInterceptor füllt keinen SecurityContext, ein solcher Parameter wäre immer null
+        for (Class<?> controller : List.of(ChatController.class, AdvisorChatController.class, AdvisorController.class,
+                AdvisorSearchController.class, AppointmentController.class, ReviewController.class, UserController.class)) {
+            for (Method method : controller.getDeclaredMethods()) {
+                for (int i = 0; i < method.getParameterCount(); i++) {
+                    MethodParameter parameter = new MethodParameter(method, i);
+                    assertFalse(parameter.getParameterType() == String.class
+                                    && parameter.hasParameterAnnotation(AuthenticationPrincipal.class),
+                            controller.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void resolveArgument_stompHandler_readsSessionPrincipal() throws Exception {
+        // Act
+        Object result = messageResolver.resolveArgument(parameter("required"), message("user123"));
+
+        // Assert
+        assertEquals("user123", result);
+    }
+
+    @Test
+    void resolveArgument_anonymousStompSession_requiredThrowsOptionalIsNull() throws Exception {
+        // Arrange
+        Message<byte[]> anonymous = message(null);
+
+        // Act & Assert
+        assertThrows(AppAuthenticationException.class,
+                () -> messageResolver.resolveArgument(parameter("required"), anonymous));
+        assertNull(messageResolver.resolveArgument(parameter("optional"), anonymous));
+    }
+}
@@ -0,0 +1,157 @@
+package de.aha.backend.security;
+
+import de.aha.backend.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    // niedrige Kosten, damit die Tests schnell bleiben
+    private static PasswordHashingService service(String algorithm, int bcryptStrength) {
+        return new PasswordHashingService(algorithm, bcryptStrength, 1024, 1, 1, 2, 16, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void hash_bcrypt_isPrefixedAndMatches() {
+        // Arrange
+        PasswordHashingService service = service(PasswordHashingService.BCRYPT, 4);
+
+        // Act
+        String hash = service.hash("secret123");
+
+        // Assert
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(service.matches("secret123", hash));
+        assertFalse(service.matches("wrong", hash));
+        assertFalse(service.needsRehash(hash));
+    }
+
+    @Test
+    void hash_argon2_isPrefixedAndMatches() {
+        // Arrange
+        PasswordHashingService service = service(PasswordHashingService.ARGON2, 4);
+
+        // Act
+        String hash = service.hash("secret123");
+
+        // Assert
+        assertTrue(hash.startsWith("{argon2}$argon2id$"));
+        assertTrue(service.matches("secret123", hash));
+        assertFalse(service.matches("wrong", hash));
+        assertFalse(service.needsRehash(hash));
+    }
+
+    @Test
+    void matches_legacyHashWithoutPrefix_isBcryptAndNeedsRehash() {
+        // Arrange - so wurden Passwörter vor diesem Service gespeichert
+        PasswordHashingService service = service(PasswordHashingService.BCRYPT, 4);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret123");
+
+        // Act & Assert
+        assertTrue(service.matches("secret123", legacy));
+        assertTrue(service.needsRehash(legacy));
+    }
+
+    @Test
+    void needsRehash_afterRaisingBcryptStrength() {
+        // Arrange
+        String weak = service(PasswordHashingService.BCRYPT, 4).hash("secret123");
+        PasswordHashingService stronger = service(PasswordHashingService.BCRYPT, 5);
+
+        // Act & Assert
+        assertTrue(stronger.matches("secret123", weak));
+        assertTrue(stronger.needsRehash(weak));
+        assertFalse(stronger.needsRehash(stronger.hash("secret123")));
+    }
+
+    @Test
+    void needsRehash_afterSwitchingToArgon2_oldHashStillMatches() {
+        // Arrange
+        String bcrypt = service(PasswordHashingService.BCRYPT, 4).hash("secret123");
+        PasswordHashingService argon2 = service(PasswordHashingService.ARGON2, 4);
+
+        // Act & Assert
+        assertTrue(argon2.matches("secret123", bcrypt));
+        assertTrue(argon2.needsRehash(bcrypt));
+    }
+
+    @Test
+    void matches_nullHash_isFalse() {
+        // Arrange
+        PasswordHashingService service = service(PasswordHashingService.BCRYPT, 4);
+
+        // Act & Assert
+        assertFalse(service.matches("secret123", null));
+        assertFalse(service.needsRehash(null));
+    }
+
+    @Test
+    void constructor_unknownAlgorithm_throws() {
+        assertThrows(IllegalArgumentException.class, () -> service("md5", 4));
+    }
+
+    @Test
+    void hash_saturatedPool_failsFastAndIsCounted() throws Exception {
+        // Arrange - ein Thread, ein Platz in der Warteschlange, beide belegt
+        PasswordHashingService service = new PasswordHashingService(PasswordHashingService.BCRYPT, 4,
+                1024, 1, 1, 1, 1, Duration.ofSeconds(10));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Boolean> running = service.submit(() -> {
+                started.countDown();
+                return awaitQuietly(release);
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = service.submit(() -> awaitQuietly(release));
+
+            // Act & Assert
+            assertThrows(ServiceUnavailableException.class, () -> service.hash("secret123"));
+            PasswordHashingService.Stats stats = service.stats();
+            assertEquals(1, stats.active());
+            assertEquals(1, stats.queued());
+            assertEquals(1, stats.rejected());
+
+            release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+            assertTrue(service.matches("secret123", service.hash("secret123")));
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void hash_timeout_isServiceUnavailable() throws Exception {
+        // Arrange
+        PasswordHashingService service = new PasswordHashingService(PasswordHashingService.BCRYPT, 4,
+                1024, 1, 1, 1, 4, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            service.submit(() -> awaitQuietly(release));
+
+            // Act & Assert
+            assertThrows(ServiceUnavailableException.class, () -> service.hash("secret123"));
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -5,7 +5,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
@@ -13,13 +12,14 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.time.Instant;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TokenInteractTest {
 
-    @InjectMocks
     private TokenInteract tokenInteract;
 
     @Mock
@@ -33,8 +33,26 @@ class TokenInteractTest {
 
     @BeforeEach
     void setUp() {
+        tokenInteract = newTokenInteract(new VerifiedTokenCache(false, 100));
+    }
+
+    private TokenInteract newTokenInteract(VerifiedTokenCache cache) {
+        TokenInteract tokenInteract = new TokenInteract(cache);
         ReflectionTestUtils.setField(tokenInteract, "secretKey", secretKey);
         ReflectionTestUtils.setField(tokenInteract, "expirationTime", expirationTime);
+        tokenInteract.init();
+        return tokenInteract;
+    }
+
+    @Test
+    void init_withWeakSecret_ShouldFailWithConfigurationError() {
+        TokenInteract weak = new TokenInteract(new VerifiedTokenCache(false, 100));
+        ReflectionTestUtils.setField(weak, "secretKey", "testsecret");
+        ReflectionTestUtils.setField(weak, "expirationTime", expirationTime);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, weak::init);
+
+        assertTrue(exception.getMessage().contains("jwt.secret.key"));
     }
 
     @Test
@@ -93,6 +111,58 @@ class TokenInteractTest {
         assertEquals(expectedUserId, actualUserId);
     }
 
+    @Test
+    void verify_WithValidToken_ShouldReturnClaims() {
+        when(userDetails.getUsername()).thenReturn("testUser123");
+        String token = tokenInteract.generateToken(userDetails);
+
+        VerifiedToken verified = tokenInteract.verify(token);
+
+        assertEquals("testUser123", verified.userId());
+        assertNotNull(verified.sessionId());
+        assertTrue(verified.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void verify_WithExpiredToken_ShouldThrowException() {
+        ReflectionTestUtils.setField(tokenInteract, "expirationTime", -1000L);
+        when(userDetails.getUsername()).thenReturn("testUser");
+        String token = tokenInteract.generateToken(userDetails);
+
+        ExecutionConflictException exception = assertThrows(ExecutionConflictException.class, () ->
+            tokenInteract.verify(token));
+        assertEquals("Expired JWT token", exception.getMessage());
+    }
+
+    @Test
+    void verify_WithCacheEnabled_ShouldParseRepeatedTokenOnce() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        TokenInteract cachingTokenInteract = newTokenInteract(cache);
+        when(userDetails.getUsername()).thenReturn("testUser");
+        String token = cachingTokenInteract.generateToken(userDetails);
+
+        VerifiedToken first = cachingTokenInteract.verify(token);
+        VerifiedToken second = cachingTokenInteract.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void logout_ShouldEvictCachedToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        TokenInteract cachingTokenInteract = newTokenInteract(cache);
+        when(userDetails.getUsername()).thenReturn("testUser");
+        String token = cachingTokenInteract.generateToken(userDetails);
+        cachingTokenInteract.verify(token);
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
+
+        cachingTokenInteract.logout(request);
+
+        assertEquals(0, cache.stats().size());
+    }
+
     @Test
     void getToken_WithValidBearerToken_ShouldReturnToken() {
         String token = "validTokenString";
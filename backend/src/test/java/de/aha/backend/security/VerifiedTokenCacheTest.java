@@ -0,0 +1,123 @@
+package de.aha.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static VerifiedToken verified(String sessionId, Instant expiresAt) {
+        return new VerifiedToken("user1", sessionId, expiresAt);
+    }
+
+    @Test
+    void get_afterPut_returnsVerifiedTokenAndCountsHit() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        VerifiedToken token = verified("s1", Instant.now().plusSeconds(60));
+        cache.put("token1", token);
+
+        // Act
+        VerifiedToken result = cache.get("token1");
+
+        // Assert
+        assertSame(token, result);
+        assertNull(cache.get("token2"));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    void get_disabled_neverCaches() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 100);
+        cache.put("token1", verified("s1", Instant.now().plusSeconds(60)));
+
+        // Act & Assert
+        assertNull(cache.get("token1"));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void get_atTokenExpiry_isMiss() throws InterruptedException {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        cache.put("token1", verified("s1", Instant.now().plusMillis(50)));
+
+        // Act
+        Thread.sleep(60);
+
+        // Assert
+        assertNull(cache.get("token1"));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void put_withoutExpiryOrAlreadyExpired_isNotCached() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+
+        // Act
+        cache.put("token1", verified("s1", null));
+        cache.put("token2", verified("s2", Instant.now().minusSeconds(1)));
+
+        // Assert
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void invalidateSession_removesEntry() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        cache.put("token1", verified("s1", Instant.now().plusSeconds(60)));
+        cache.put("token2", verified("s2", Instant.now().plusSeconds(60)));
+
+        // Act
+        cache.invalidateSession("s1");
+
+        // Assert
+        assertNull(cache.get("token1"));
+        assertNotNull(cache.get("token2"));
+    }
+
+    @Test
+    void put_overCapacity_evictsLeastRecentlyUsed() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 2);
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        cache.put("token1", verified("s1", expiresAt));
+        cache.put("token2", verified("s2", expiresAt));
+        cache.get("token1");
+
+        // Act
+        cache.put("token3", verified("s3", expiresAt));
+
+        // Assert
+        assertEquals(2, cache.stats().size());
+        assertEquals(1, cache.stats().evictions());
+        assertNotNull(cache.get("token1"));
+        assertNull(cache.get("token2"));
+        // der Session-Index des verdrängten Eintrags ist mit entfernt
+        cache.invalidateSession("s2");
+        assertEquals(2, cache.stats().size());
+    }
+
+    @Test
+    void evictExpired_removesOnlyExpiredEntries() throws InterruptedException {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        cache.put("token1", verified("s1", Instant.now().plusMillis(20)));
+        cache.put("token2", verified("s2", Instant.now().plusSeconds(60)));
+        Thread.sleep(30);
+
+        // Act
+        cache.evictExpired();
+
+        // Assert
+        assertEquals(1, cache.stats().size());
+        assertNotNull(cache.get("token2"));
+    }
+}
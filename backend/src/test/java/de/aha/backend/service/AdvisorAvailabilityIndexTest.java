@@ -0,0 +1,297 @@
+package de.aha.backend.service;
+
+import de.aha.backend.exception.NotFoundObjectException;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
+import de.aha.backend.model.appointment.Appointment;
+import de.aha.backend.model.appointment.AppointmentChangedEvent;
+import de.aha.backend.model.appointment.AppointmentStatus;
+import de.aha.backend.model.appointment.DayOfWeek;
+import de.aha.backend.model.appointment.TimeSlot;
+import de.aha.backend.model.appointment.WorkingHours;
+import de.aha.backend.repository.AdvisorRepository;
+import de.aha.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisorAvailabilityIndexTest {
+
+    // ein Montag
+    private static final LocalDate MONDAY = LocalDate.of(2030, 3, 4);
+
+    @Mock
+    private AdvisorRepository advisorRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private AdvisorAvailabilityIndex availabilityIndex;
+
+    private Advisor advisor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(availabilityIndex, "maxAge", Duration.ofMinutes(5));
+
+        advisor = Advisor.builder()
+                .workingHours(new ArrayList<>(List.of(
+                        new WorkingHours(DayOfWeek.MONDAY, "09:00", "12:00", true),
+                        new WorkingHours(DayOfWeek.TUESDAY, "09:00", "11:00", true))))
+                .build();
+        advisor.setId("advisor1");
+    }
+
+    private static Appointment appointment(String id, LocalDateTime scheduledAt, int duration, AppointmentStatus status) {
+        Appointment appointment = Appointment.builder()
+                .advisorId("advisor1")
+                .scheduledAt(scheduledAt)
+                .durationMinutes(duration)
+                .status(status)
+                .build();
+        appointment.setId(id);
+        return appointment;
+    }
+
+    private static List<LocalDateTime> starts(List<TimeSlot> slots) {
+        return slots.stream().map(TimeSlot::getStart).toList();
+    }
+
+    @Test
+    void getAvailableSlots_excludesOverlappingBookings() {
+        // Arrange
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor));
+        when(appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any()))
+                .thenReturn(List.of(appointment("a1", MONDAY.atTime(10, 30), 30, AppointmentStatus.CONFIRMED)));
+
+        // Act
+        List<TimeSlot> slots = availabilityIndex.getAvailableSlots("advisor1", MONDAY, 60);
+
+        // Assert
+        assertEquals(List.of(MONDAY.atTime(9, 0), MONDAY.atTime(11, 0)), starts(slots));
+    }
+
+    @Test
+    void getAvailableSlots_loadsRangeWithOneQueryAndServesFromMemory() {
+        // Arrange
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor));
+        when(appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any()))
+                .thenReturn(List.of());
+
+        // Act
+        Map<LocalDate, List<TimeSlot>> week = availabilityIndex.getAvailableSlots("advisor1", MONDAY, MONDAY.plusDays(6), 60);
+        List<TimeSlot> tuesday = availabilityIndex.getAvailableSlots("advisor1", MONDAY.plusDays(1), 60);
+
+        // Assert
+        assertEquals(7, week.size());
+        assertEquals(3, week.get(MONDAY).size());
+        assertEquals(2, tuesday.size());
+        assertTrue(week.get(MONDAY.plusDays(2)).isEmpty());
+        verify(advisorRepository, times(1)).findById("advisor1");
+        verify(appointmentRepository, times(1)).findBookedAppointmentsForAdvisorInTimeRange(
+                "advisor1", MONDAY.minusDays(1).atStartOfDay(), MONDAY.plusDays(7).atStartOfDay());
+    }
+
+    @Test
+    void onAppointmentChanged_updatesLoadedDaysWithoutQuery() {
+        // Arrange
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor));
+        when(appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any()))
+                .thenReturn(List.of(appointment("a1", MONDAY.atTime(9, 0), 60, AppointmentStatus.SCHEDULED)));
+        availabilityIndex.getAvailableSlots("advisor1", MONDAY, 60);
+
+        // Act
+        availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(
+                appointment("a2", MONDAY.atTime(9, 0), 60, AppointmentStatus.CONFIRMED)));
+        availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(
+                appointment("a1", MONDAY.atTime(9, 0), 60, AppointmentStatus.CANCELLED)));
+        availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(
+                appointment("a3", MONDAY.atTime(11, 0), 60, AppointmentStatus.SCHEDULED)));
+        List<TimeSlot> slots = availabilityIndex.getAvailableSlots("advisor1", MONDAY, 60);
+
+        // Assert - a2 belegt 09:00 weiterhin, obwohl a1 zur gleichen Zeit storniert wurde
+        assertEquals(List.of(MONDAY.atTime(10, 0)), starts(slots));
+        verify(appointmentRepository, times(1)).findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any());
+    }
+
+    @Test
+    void onAppointmentChanged_requestedAppointmentBlocksSlot() {
+        // Arrange
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor));
+        when(appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any()))
+                .thenReturn(List.of());
+        availabilityIndex.getAvailableSlots("advisor1", MONDAY, 60);
+
+        // Act
+        availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(
+                appointment("a1", MONDAY.atTime(10, 0), 60, AppointmentStatus.REQUESTED)));
+        List<TimeSlot> slots = availabilityIndex.getAvailableSlots("advisor1", MONDAY, 60);
+
+        // Assert
+        assertEquals(List.of(MONDAY.atTime(9, 0), MONDAY.atTime(11, 0)), starts(slots));
+    }
+
+    @Test
+    void onAppointmentChanged_movesRescheduledAppointment() {
+        // Arrange
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor));
+        when(appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any()))
+                .thenReturn(List.of(appointment("a1", MONDAY.atTime(9, 0), 60, AppointmentStatus.SCHEDULED)));
+        availabilityIndex.getAvailableSlots("advisor1", MONDAY, MONDAY.plusDays(1), 60);
+
+        // Act
+        availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(
+                appointment("a1", MONDAY.plusDays(1).atTime(10, 0), 60, AppointmentStatus.SCHEDULED)));
+        Map<LocalDate, List<TimeSlot>> slots = availabilityIndex.getAvailableSlots("advisor1", MONDAY, MONDAY.plusDays(1), 60);
+
+        // Assert
+        assertEquals(3, slots.get(MONDAY).size());
+        assertEquals(List.of(MONDAY.plusDays(1).atTime(9, 0)), starts(slots.get(MONDAY.plusDays(1))));
+    }
+
+    @Test
+    void getAvailableSlots_countsBookingsAcrossMidnight() {
+        // Arrange
+        advisor.getWorkingHours().add(new WorkingHours(DayOfWeek.SUNDAY, "00:00", "02:00", true));
+        LocalDate sunday = MONDAY.minusDays(1);
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor));
+        when(appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any()))
+                .thenReturn(List.of(appointment("a1", sunday.minusDays(1).atTime(23, 30), 60, AppointmentStatus.SCHEDULED)));
+
+        // Act
+        List<TimeSlot> slots = availabilityIndex.getAvailableSlots("advisor1", sunday, 60);
+
+        // Assert
+        assertEquals(List.of(sunday.atTime(1, 0)), starts(slots));
+    }
+
+    @Test
+    void onAdvisorChanged_appliesNewWorkingHours() {
+        // Arrange
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor));
+        when(appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any()))
+                .thenReturn(List.of());
+        availabilityIndex.getAvailableSlots("advisor1", MONDAY, 60);
+
+        Advisor changed = Advisor.builder()
+                .workingHours(List.of(new WorkingHours(DayOfWeek.MONDAY, "14:00", "15:00", true)))
+                .build();
+        changed.setId("advisor1");
+
+        // Act
+        availabilityIndex.onAdvisorChanged(new AdvisorChangedEvent(changed));
+        List<TimeSlot> slots = availabilityIndex.getAvailableSlots("advisor1", MONDAY, 60);
+
+        // Assert
+        assertEquals(List.of(MONDAY.atTime(14, 0)), starts(slots));
+        assertEquals("14:00", availabilityIndex.getWorkingHours("advisor1", MONDAY).orElseThrow().getStart());
+        verify(advisorRepository, times(1)).findById("advisor1");
+    }
+
+    @Test
+    void getWorkingHours_afterMaxAge_reloadsAdvisorChangedElsewhere() throws Exception {
+        // Arrange - Änderung auf einem anderen Knoten, hier kommt kein Event an
+        ReflectionTestUtils.setField(availabilityIndex, "maxAge", Duration.ofMillis(1));
+        Advisor changed = Advisor.builder()
+                .workingHours(List.of(new WorkingHours(DayOfWeek.MONDAY, "14:00", "15:00", true)))
+                .build();
+        changed.setId("advisor1");
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor), Optional.of(changed));
+        assertEquals("09:00", availabilityIndex.getWorkingHours("advisor1", MONDAY).orElseThrow().getStart());
+        Thread.sleep(10);
+
+        // Act
+        WorkingHours hours = availabilityIndex.getWorkingHours("advisor1", MONDAY).orElseThrow();
+
+        // Assert
+        assertEquals("14:00", hours.getStart());
+        verify(advisorRepository, times(2)).findById("advisor1");
+    }
+
+    @Test
+    void onAdvisorChanged_duringLoad_isNotOverwrittenByOlderRead() {
+        // Arrange - das Event kommt, während der erste Zugriff den Berater noch liest
+        Advisor changed = Advisor.builder()
+                .workingHours(List.of(new WorkingHours(DayOfWeek.MONDAY, "14:00", "15:00", true)))
+                .build();
+        changed.setId("advisor1");
+        when(advisorRepository.findById("advisor1")).thenAnswer(invocation -> {
+            availabilityIndex.onAdvisorChanged(new AdvisorChangedEvent(changed));
+            return Optional.of(advisor);
+        });
+
+        // Act
+        WorkingHours hours = availabilityIndex.getWorkingHours("advisor1", MONDAY).orElseThrow();
+
+        // Assert
+        assertEquals("14:00", hours.getStart());
+    }
+
+    @Test
+    void getAvailableSlots_concurrentReadsAndEvents_areConsistent() throws Exception {
+        // Arrange - Tage vor dem Stichtag werden beim Lesen verworfen, während andere lesen
+        LocalDate today = LocalDate.now();
+        when(advisorRepository.findById("advisor1")).thenReturn(Optional.of(advisor));
+        when(appointmentRepository.findBookedAppointmentsForAdvisorInTimeRange(eq("advisor1"), any(), any()))
+                .thenReturn(List.of());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    switch (n % 4) {
+                        case 0 -> availabilityIndex.getAvailableSlots("advisor1", today.minusDays(3), today.plusDays(3), 30);
+                        case 1 -> availabilityIndex.getAvailableSlots("advisor1", today, today.plusDays(6), 30);
+                        case 2 -> availabilityIndex.onAdvisorChanged(new AdvisorChangedEvent(advisor));
+                        default -> availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(appointment(
+                                "a" + n, today.plusDays(n % 5).atTime(9, 0), 30, AppointmentStatus.SCHEDULED)));
+                    }
+                }));
+            }
+
+            // Assert - keine Exception, z.B. NPE durch gleichzeitig verworfene Tage
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertNotNull(availabilityIndex.getAvailableSlots("advisor1", today, today.plusDays(6), 30).get(today.plusDays(6)));
+    }
+
+    @Test
+    void getAvailableSlots_unknownAdvisor_throwsNotFound() {
+        // Arrange
+        when(advisorRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NotFoundObjectException.class,
+                () -> availabilityIndex.getAvailableSlots("missing", MONDAY, 60));
+    }
+}
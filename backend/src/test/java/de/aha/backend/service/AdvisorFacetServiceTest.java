@@ -0,0 +1,136 @@
+package de.aha.backend.service;
+
+import de.aha.backend.dto.advisor.FacetCount;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
+import de.aha.backend.repository.AdvisorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisorFacetServiceTest {
+
+    @Mock
+    private AdvisorRepository advisorRepository;
+
+    @InjectMocks
+    private AdvisorFacetService advisorFacetService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(advisorFacetService, "maxAge", Duration.ofMinutes(10));
+    }
+
+    private static Advisor advisor(String id, String specialization, List<String> languages) {
+        Advisor advisor = Advisor.builder()
+                .specialization(specialization)
+                .languages(languages)
+                .build();
+        advisor.setId(id);
+        return advisor;
+    }
+
+    @Test
+    void getSpecializations_cachesAggregationResult() {
+        // Arrange
+        when(advisorRepository.countBySpecialization()).thenReturn(List.of(
+                new FacetCount("Career Counseling", 1),
+                new FacetCount("Psychology", 2)));
+
+        // Act
+        List<String> first = advisorFacetService.getSpecializations();
+        List<FacetCount> second = advisorFacetService.getSpecializationCounts();
+
+        // Assert
+        assertEquals(List.of("Career Counseling", "Psychology"), first);
+        assertEquals(2, second.size());
+        verify(advisorRepository, times(1)).countBySpecialization();
+        verify(advisorRepository, never()).findAll();
+    }
+
+    @Test
+    void onAdvisorChanged_unchangedFacetsKeepCache() {
+        // Arrange
+        when(advisorRepository.countBySpecialization()).thenReturn(List.of(new FacetCount("Psychology", 1)));
+        when(advisorRepository.countByLanguage()).thenReturn(List.of(new FacetCount("German", 1)));
+        advisorFacetService.onAdvisorChanged(new AdvisorChangedEvent(advisor("a1", "Psychology", List.of("German"))));
+        advisorFacetService.getSpecializationCounts();
+        advisorFacetService.getLanguageCounts();
+
+        // Act - z.B. nur die Verfügbarkeit hat sich geändert
+        advisorFacetService.onAdvisorChanged(new AdvisorChangedEvent(advisor("a1", "Psychology", List.of("German"))));
+        advisorFacetService.getSpecializationCounts();
+        advisorFacetService.getLanguageCounts();
+
+        // Assert
+        verify(advisorRepository, times(1)).countBySpecialization();
+        verify(advisorRepository, times(1)).countByLanguage();
+    }
+
+    @Test
+    void onAdvisorChanged_changedLanguagesInvalidatesOnlyLanguages() {
+        // Arrange
+        when(advisorRepository.countBySpecialization()).thenReturn(List.of(new FacetCount("Psychology", 1)));
+        when(advisorRepository.countByLanguage()).thenReturn(List.of(new FacetCount("German", 1)));
+        advisorFacetService.onAdvisorChanged(new AdvisorChangedEvent(advisor("a1", "Psychology", List.of("German"))));
+        advisorFacetService.getSpecializationCounts();
+        advisorFacetService.getLanguageCounts();
+
+        // Act
+        advisorFacetService.onAdvisorChanged(new AdvisorChangedEvent(
+                advisor("a1", "Psychology", List.of("German", "English"))));
+        advisorFacetService.getSpecializationCounts();
+        advisorFacetService.getLanguageCounts();
+
+        // Assert
+        verify(advisorRepository, times(1)).countBySpecialization();
+        verify(advisorRepository, times(2)).countByLanguage();
+    }
+
+    @Test
+    void onAdvisorChanged_unknownAdvisorInvalidatesBoth() {
+        // Arrange
+        when(advisorRepository.countBySpecialization()).thenReturn(List.of());
+        when(advisorRepository.countByLanguage()).thenReturn(List.of());
+        advisorFacetService.getSpecializationCounts();
+        advisorFacetService.getLanguageCounts();
+
+        // Act
+        advisorFacetService.onAdvisorChanged(new AdvisorChangedEvent(advisor("new", "Psychology", List.of("German"))));
+        advisorFacetService.getSpecializationCounts();
+        advisorFacetService.getLanguageCounts();
+
+        // Assert
+        verify(advisorRepository, times(2)).countBySpecialization();
+        verify(advisorRepository, times(2)).countByLanguage();
+    }
+
+    @Test
+    void onAdvisorChanged_duringComputation_discardsStaleResult() {
+        // Arrange - die Änderung trifft ein, während die Aggregation noch läuft
+        when(advisorRepository.countByLanguage()).thenAnswer(invocation -> {
+            advisorFacetService.onAdvisorChanged(new AdvisorChangedEvent(advisor("a1", "Psychology", List.of("French"))));
+            return List.of(new FacetCount("German", 1));
+        }).thenReturn(List.of(new FacetCount("French", 1)));
+
+        // Act
+        List<FacetCount> first = advisorFacetService.getLanguageCounts();
+        List<FacetCount> second = advisorFacetService.getLanguageCounts();
+
+        // Assert - das veraltete Ergebnis wurde ausgeliefert, aber nicht gespeichert
+        assertEquals("German", first.getFirst().value());
+        assertEquals("French", second.getFirst().value());
+        verify(advisorRepository, times(2)).countByLanguage();
+    }
+}
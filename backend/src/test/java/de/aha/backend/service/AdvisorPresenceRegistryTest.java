@@ -0,0 +1,365 @@
+package de.aha.backend.service;
+
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.dto.advisor.PresenceDelta;
+import de.aha.backend.exception.NotFoundObjectException;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.repository.AdvisorRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisorPresenceRegistryTest {
+
+    @Mock
+    private AdvisorRepository advisorRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private AdvisorPresenceRegistry presenceRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(presenceRegistry, "heartbeatTimeout", Duration.ofSeconds(90));
+        ReflectionTestUtils.setField(presenceRegistry, "lastSeenDebounce", Duration.ofMinutes(1));
+    }
+
+    private static Advisor advisor(String id) {
+        Advisor advisor = Advisor.builder()
+                .name("Advisor " + id)
+                .specialization("Psychology")
+                .online(false)
+                .build();
+        advisor.setId(id);
+        return advisor;
+    }
+
+    private List<PresenceDelta> publishedDeltas(int expected) {
+        ArgumentCaptor<PresenceDelta> captor = ArgumentCaptor.forClass(PresenceDelta.class);
+        verify(messagingTemplate, times(expected)).convertAndSend(eq(AdvisorPresenceRegistry.TOPIC), captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void connect_countsTabsAndGoesOfflineWithLastSession() {
+        // Arrange
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+
+        // Act - zwei Tabs, dann nacheinander geschlossen
+        presenceRegistry.connect("a1", "tab1");
+        presenceRegistry.connect("a1", "tab2");
+        presenceRegistry.disconnect("tab1");
+        List<Advisor> whileSecondTabOpen = presenceRegistry.getOnlineAdvisors();
+        presenceRegistry.disconnect("tab2");
+
+        // Assert
+        assertEquals(1, whileSecondTabOpen.size());
+        assertTrue(whileSecondTabOpen.getFirst().getOnline());
+        assertTrue(presenceRegistry.getOnlineAdvisors().isEmpty());
+
+        List<PresenceDelta> deltas = publishedDeltas(2);
+        assertTrue(deltas.get(0).online());
+        assertFalse(deltas.get(1).online());
+        // nur die erste Session liest den Berater aus Mongo
+        verify(advisorRepository, times(1)).findById("a1");
+    }
+
+    @Test
+    void connect_ignoresUsersWhoAreNoAdvisors() {
+        // Arrange
+        when(advisorRepository.findById("user1")).thenReturn(Optional.empty());
+
+        // Act
+        boolean registered = presenceRegistry.connect("user1", "session1");
+        presenceRegistry.disconnect("session1");
+
+        // Assert
+        assertFalse(registered);
+        assertTrue(presenceRegistry.getOnlineAdvisors().isEmpty());
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void isOnline_followsSessions() {
+        // Arrange
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+
+        // Act
+        presenceRegistry.connect("a1", "tab1");
+        boolean whileConnected = presenceRegistry.isOnline("a1");
+        presenceRegistry.disconnect("tab1");
+
+        // Assert
+        assertTrue(whileConnected);
+        assertFalse(presenceRegistry.isOnline("a1"));
+        assertFalse(presenceRegistry.isOnline(null));
+    }
+
+    @Test
+    void getOnlineAdvisorSummaries_servedFromMemory() {
+        // Arrange
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        presenceRegistry.connect("a1", "tab1");
+
+        // Act
+        List<AdvisorSummary> first = presenceRegistry.getOnlineAdvisorSummaries();
+        List<AdvisorSummary> second = presenceRegistry.getOnlineAdvisorSummaries();
+
+        // Assert
+        assertEquals(1, first.size());
+        assertEquals("a1", first.getFirst().getId());
+        assertTrue(first.getFirst().getOnline());
+        assertEquals(first, second);
+        verify(advisorRepository, times(1)).findById("a1");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void expireStaleSessions_dropsSessionsWithoutHeartbeatButKeepsManualStatus() {
+        // Arrange
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        when(advisorRepository.findById("a2")).thenReturn(Optional.of(advisor("a2")));
+        presenceRegistry.connect("a1", "tab1");
+        presenceRegistry.setOnline("a2", true);
+        // negatives Timeout: jeder bisherige Heartbeat ist zu alt
+        ReflectionTestUtils.setField(presenceRegistry, "heartbeatTimeout", Duration.ofSeconds(-1));
+
+        // Act
+        presenceRegistry.expireStaleSessions();
+
+        // Assert
+        List<Advisor> online = presenceRegistry.getOnlineAdvisors();
+        assertEquals(1, online.size());
+        assertEquals("a2", online.getFirst().getId());
+    }
+
+    @Test
+    void expireStaleSessions_idleAdvisorWithBrokerHeartbeats_staysOnlinePastTimeout() throws InterruptedException {
+        // Arrange - der Berater sendet nichts, nur die ausgehandelten STOMP-Heartbeats kommen an
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        ReflectionTestUtils.setField(presenceRegistry, "heartbeatTimeout", Duration.ofMillis(200));
+        presenceRegistry.connect("a1", "tab1");
+
+        // Act - deutlich länger als das Timeout, Heartbeat in kürzerem Abstand
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(80);
+            presenceRegistry.heartbeat("tab1");
+            presenceRegistry.expireStaleSessions();
+        }
+
+        // Assert
+        assertTrue(presenceRegistry.isOnline("a1"));
+
+        // ohne Heartbeat läuft die Session dagegen ab
+        Thread.sleep(300);
+        presenceRegistry.expireStaleSessions();
+        assertFalse(presenceRegistry.isOnline("a1"));
+    }
+
+    @Test
+    void flush_coalescesFlipsIntoOneBulkUpdatePerAdvisor() {
+        // Arrange
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Advisor.class)).thenReturn(bulkOperations);
+        presenceRegistry.connect("a1", "tab1");
+        presenceRegistry.disconnect("tab1");
+        presenceRegistry.connect("a1", "tab2");
+
+        // Act
+        presenceRegistry.flush();
+        presenceRegistry.flush();
+
+        // Assert - drei Wechsel, ein Schreibvorgang mit dem letzten Stand
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), update.capture());
+        verify(bulkOperations, times(1)).execute();
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.ORDERED, Advisor.class);
+
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(true, set.get("online"));
+        assertNotNull(set.get("lastSeen"));
+        Document addToSet = (Document) update.getValue().getUpdateObject().get("$addToSet");
+        assertEquals(AdvisorPresenceRegistry.DEFAULT_NODE_ID, addToSet.get(AdvisorPresenceRegistry.ONLINE_NODES));
+    }
+
+    @Test
+    void shutdown_removesOnlyThisNodeAndGoesOfflineWithoutOtherNodes() {
+        // Arrange
+        ReflectionTestUtils.setField(presenceRegistry, "nodeId", "node1");
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Advisor.class)).thenReturn(bulkOperations);
+        presenceRegistry.connect("a1", "tab1");
+
+        // Act
+        presenceRegistry.shutdown();
+
+        // Assert - erst den Knoten austragen, dann offline nur ohne weitere Knoten
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(query.capture(), update.capture());
+        Document pull = (Document) update.getAllValues().get(0).getUpdateObject().get("$pull");
+        assertEquals("node1", pull.get(AdvisorPresenceRegistry.ONLINE_NODES));
+        assertFalse(((Document) update.getAllValues().get(0).getUpdateObject().get("$set")).containsKey("online"));
+        assertEquals(new Document("$exists", false),
+                query.getAllValues().get(1).getQueryObject().get(AdvisorPresenceRegistry.ONLINE_NODES + ".0"));
+        assertEquals(false, ((Document) update.getAllValues().get(1).getUpdateObject().get("$set")).get("online"));
+        assertTrue(presenceRegistry.getOnlineAdvisors().isEmpty());
+    }
+
+    @Test
+    void connect_publishesDeltaOutsideTheAdvisorLock() throws Exception {
+        // Arrange - der Broker ruft zurück in die Registry, von einem anderen Thread
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> presenceRegistry.heartbeat("tab1")).get(5, TimeUnit.SECONDS);
+            return null;
+        }).when(messagingTemplate).convertAndSend(eq(AdvisorPresenceRegistry.TOPIC), any(PresenceDelta.class));
+
+        // Act - unter dem Lock von compute würde der Heartbeat bis zum Timeout blockieren
+        presenceRegistry.connect("a1", "tab1");
+        presenceRegistry.disconnect("tab1");
+
+        // Assert
+        List<PresenceDelta> deltas = publishedDeltas(2);
+        assertTrue(deltas.get(0).online());
+        assertFalse(deltas.get(1).online());
+    }
+
+    @Test
+    void refreshRemotePresence_mergesAdvisorsOfOtherNodes() {
+        // Arrange
+        ReflectionTestUtils.setField(presenceRegistry, "nodeId", "node1");
+        ReflectionTestUtils.setField(presenceRegistry, "clusterBus", "mongo");
+        ReflectionTestUtils.setField(presenceRegistry, "brokerMode", "simple");
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        Advisor remote = advisor("a2");
+        remote.setOnline(true);
+        when(mongoTemplate.find(any(Query.class), eq(Advisor.class))).thenReturn(List.of(remote));
+        presenceRegistry.connect("a1", "tab1");
+
+        // Act
+        presenceRegistry.refreshRemotePresence();
+
+        // Assert - eigene und fremde Berater, das Online-Delta von a2 wird hier nachgereicht
+        assertTrue(presenceRegistry.isOnline("a1"));
+        assertTrue(presenceRegistry.isOnline("a2"));
+        assertEquals(List.of("a1", "a2"), presenceRegistry.getOnlineAdvisors().stream().map(Advisor::getId).toList());
+        List<PresenceDelta> deltas = publishedDeltas(2);
+        assertEquals("a2", deltas.get(1).advisorId());
+        assertTrue(deltas.get(1).online());
+    }
+
+    @Test
+    void disconnect_advisorStillOnlineOnOtherNode_publishesNoOfflineDelta() {
+        // Arrange - a1 ist hier und an einem anderen Knoten verbunden
+        ReflectionTestUtils.setField(presenceRegistry, "nodeId", "node1");
+        ReflectionTestUtils.setField(presenceRegistry, "clusterBus", "mongo");
+        ReflectionTestUtils.setField(presenceRegistry, "brokerMode", "simple");
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        when(mongoTemplate.find(any(Query.class), eq(Advisor.class))).thenReturn(List.of(advisor("a1")));
+        presenceRegistry.connect("a1", "tab1");
+        presenceRegistry.refreshRemotePresence();
+
+        // Act
+        presenceRegistry.disconnect("tab1");
+
+        // Assert - nur das Online-Delta beim Verbinden
+        assertTrue(presenceRegistry.isOnline("a1"));
+        List<PresenceDelta> deltas = publishedDeltas(1);
+        assertTrue(deltas.getFirst().online());
+    }
+
+    @Test
+    void refreshRemotePresence_singleNode_doesNotQueryMongo() {
+        // Act
+        presenceRegistry.refreshRemotePresence();
+
+        // Assert
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void heartbeat_writesLastSeenOnlyAfterDebounce() {
+        // Arrange
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Advisor.class)).thenReturn(bulkOperations);
+        presenceRegistry.connect("a1", "tab1");
+        presenceRegistry.flush();
+
+        // Act - innerhalb des Debounce-Intervalls
+        presenceRegistry.heartbeat("tab1");
+        presenceRegistry.heartbeat("tab1");
+        presenceRegistry.flush();
+
+        // Assert
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.ORDERED, Advisor.class);
+
+        // Act - Debounce abgelaufen
+        ReflectionTestUtils.setField(presenceRegistry, "lastSeenDebounce", Duration.ofSeconds(-1));
+        presenceRegistry.heartbeat("tab1");
+        presenceRegistry.flush();
+
+        // Assert
+        verify(mongoTemplate, times(2)).bulkOps(BulkOperations.BulkMode.ORDERED, Advisor.class);
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void setOnline_offlineEndsAllSessions() {
+        // Arrange
+        when(advisorRepository.findById("a1")).thenReturn(Optional.of(advisor("a1")));
+        presenceRegistry.connect("a1", "tab1");
+        presenceRegistry.connect("a1", "tab2");
+
+        // Act
+        Advisor result = presenceRegistry.setOnline("a1", false);
+        presenceRegistry.disconnect("tab2");
+
+        // Assert
+        assertFalse(result.getOnline());
+        assertTrue(presenceRegistry.getOnlineAdvisors().isEmpty());
+        List<PresenceDelta> deltas = publishedDeltas(2);
+        assertFalse(deltas.get(1).online());
+    }
+
+    @Test
+    void setOnline_unknownAdvisor_throwsNotFound() {
+        // Arrange
+        when(advisorRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NotFoundObjectException.class, () -> presenceRegistry.setOnline("missing", true));
+        assertThrows(NotFoundObjectException.class, () -> presenceRegistry.setOnline("missing", false));
+    }
+}
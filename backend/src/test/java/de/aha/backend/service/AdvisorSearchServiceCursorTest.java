@@ -0,0 +1,150 @@
+package de.aha.backend.service;
+
+import de.aha.backend.dto.advisor.AdvisorSearchRequest;
+import de.aha.backend.dto.advisor.AdvisorSearchResponse;
+import de.aha.backend.dto.advisor.AdvisorSummary;
+import de.aha.backend.exception.BadRequestException;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.repository.AdvisorRepository;
+import de.aha.backend.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class AdvisorSearchServiceCursorTest {
+
+    @Autowired
+    private AdvisorRepository advisorRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private AdvisorSearchService advisorSearchService;
+
+    @BeforeEach
+    void setUp() {
+        advisorRepository.deleteAll();
+        advisorSearchService = new AdvisorSearchService(advisorRepository, null, mongoTemplate,
+                mock(AdvisorStatsService.class), mock(AdvisorFacetService.class));
+
+        List<Advisor> advisors = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            // viele gleiche Bewertungen, damit der Tie-Break auf _id greift
+            advisors.add(advisor("user" + i, 3.0 + (i % 4) * 0.5, i % 5 == 0 ? null : 50.0 + i));
+        }
+        advisorRepository.saveAll(advisors);
+    }
+
+    private static Advisor advisor(String userId, double rating, Double fee) {
+        return Advisor.builder()
+                .userId(userId)
+                .name("Advisor " + userId)
+                .specialization("Psychology")
+                .rating(rating)
+                .consultationFee(fee)
+                .available(true)
+                .build();
+    }
+
+    private AdvisorSearchRequest request(String sortBy, Sort.Direction direction, String cursor) {
+        return AdvisorSearchRequest.builder()
+                .sortBy(sortBy)
+                .sortDirection(direction)
+                .pagination("cursor")
+                .cursor(cursor)
+                .size(7)
+                .build();
+    }
+
+    @Test
+    void cursorPagination_visitsEveryAdvisorOnceDespiteConcurrentInserts() {
+        // Arrange
+        Set<String> seen = new HashSet<>();
+        List<Double> ratings = new ArrayList<>();
+        String cursor = null;
+        int page = 0;
+
+        // Act
+        do {
+            AdvisorSearchResponse<AdvisorSummary> response =
+                    advisorSearchService.searchAdvisorSummaries(request("rating", Sort.Direction.DESC, cursor));
+            response.getAdvisors().forEach(advisor -> {
+                assertTrue(seen.add(advisor.getId()), "duplicate advisor " + advisor.getId());
+                ratings.add(advisor.getRating());
+            });
+            cursor = response.getNextCursor();
+
+            // neue Berater zwischen den Seiten, vor und nach der aktuellen Position
+            advisorRepository.save(advisor("new-high" + page, 5.0, 80.0));
+            advisorRepository.save(advisor("new-low" + page, 1.0, 80.0));
+            page++;
+        } while (cursor != null);
+
+        // Assert
+        List<Double> sorted = new ArrayList<>(ratings);
+        sorted.sort((a, b) -> Double.compare(b, a));
+        assertEquals(sorted, ratings);
+        assertTrue(seen.containsAll(advisorRepository.findAll().stream()
+                .filter(advisor -> advisor.getUserId().startsWith("user"))
+                .map(Advisor::getId)
+                .toList()));
+    }
+
+    @Test
+    void cursorPagination_ascendingWithMissingValues() {
+        // Arrange
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+
+        // Act
+        do {
+            AdvisorSearchResponse<Advisor> response =
+                    advisorSearchService.searchAdvisors(request("fee", Sort.Direction.ASC, cursor));
+            response.getAdvisors().forEach(advisor -> assertTrue(seen.add(advisor.getId())));
+            cursor = response.getNextCursor();
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(30, seen.size());
+    }
+
+    @Test
+    void cursorPagination_countOnlyWhenRequested() {
+        // Act
+        AdvisorSearchResponse<Advisor> withoutCount =
+                advisorSearchService.searchAdvisors(request("rating", Sort.Direction.DESC, null));
+        AdvisorSearchRequest countRequest = request("rating", Sort.Direction.DESC, null);
+        countRequest.setIncludeCount(true);
+        AdvisorSearchResponse<Advisor> withCount = advisorSearchService.searchAdvisors(countRequest);
+
+        // Assert
+        assertNull(withoutCount.getTotalCount());
+        assertEquals(30L, withCount.getTotalCount());
+        assertEquals(7, withCount.getAdvisors().size());
+        assertTrue(withCount.getHasNext());
+    }
+
+    @Test
+    void cursorPagination_cursorForOtherSortIsRejected() {
+        // Arrange
+        String cursor = new KeysetCursor("name", Sort.Direction.ASC, "Advisor user1", "65f1c0ffee0000000000abcd").encode();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () ->
+                advisorSearchService.searchAdvisors(request("rating", Sort.Direction.DESC, cursor)));
+    }
+}
@@ -1,16 +1,21 @@
 package de.aha.backend.service;
 
+import de.aha.backend.dto.advisor.AdvisorSummary;
 import de.aha.backend.exception.NotFoundObjectException;
 import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
 import de.aha.backend.model.appointment.DayOfWeek;
 import de.aha.backend.model.appointment.WorkingHours;
 import de.aha.backend.repository.AdvisorRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.query.Query;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,6 +32,12 @@ class AdvisorServiceTest {
     @Mock
     private AdvisorRepository advisorRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AdvisorPresenceRegistry presenceRegistry;
+
     @InjectMocks
     private AdvisorService advisorService;
 
@@ -93,6 +104,7 @@ class AdvisorServiceTest {
 
         // Assert
         verify(advisorRepository).save(testAdvisor);
+        verify(eventPublisher).publishEvent(new AdvisorChangedEvent(testAdvisor));
     }
 
     @Test
@@ -199,7 +211,7 @@ class AdvisorServiceTest {
         String specialization = "Psychology";
         String language = "English";
         List<Advisor> expectedAdvisors = List.of(testAdvisor);
-        when(advisorRepository.findBySpecializationContainingIgnoreCaseAndLanguagesContaining(specialization, language))
+        when(advisorRepository.searchBySpecialization(specialization, language))
                 .thenReturn(expectedAdvisors);
 
         // Act
@@ -208,7 +220,7 @@ class AdvisorServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(advisorRepository).findBySpecializationContainingIgnoreCaseAndLanguagesContaining(specialization, language);
+        verify(advisorRepository).searchBySpecialization(specialization, language);
     }
 
     @Test
@@ -217,7 +229,7 @@ class AdvisorServiceTest {
         String language = null;
         String specialization = "Psychology";
         List<Advisor> expectedAdvisors = List.of(testAdvisor, testAdvisors.get(2));
-        when(advisorRepository.findBySpecializationContainingIgnoreCase(specialization))
+        when(advisorRepository.searchBySpecialization(specialization, null))
                 .thenReturn(expectedAdvisors);
 
         // Act
@@ -226,7 +238,7 @@ class AdvisorServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(advisorRepository).findBySpecializationContainingIgnoreCase(specialization);
+        verify(advisorRepository).searchBySpecialization(specialization, null);
     }
 
     @Test
@@ -276,6 +288,23 @@ class AdvisorServiceTest {
         verify(advisorRepository).findByAvailableTrue();
     }
 
+    @Test
+    void getAvailableAdvisorSummaries_usesProjection() {
+        // Arrange
+        List<AdvisorSummary> summaries = List.of(AdvisorSummary.builder().id("advisor123").available(true).build());
+        when(advisorRepository.findSummaries(any(Query.class))).thenReturn(summaries);
+
+        // Act
+        List<AdvisorSummary> result = advisorService.getAvailableAdvisorSummaries();
+
+        // Assert
+        assertEquals(summaries, result);
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(advisorRepository).findSummaries(captor.capture());
+        assertEquals(true, captor.getValue().getQueryObject().get("available"));
+        verify(advisorRepository, never()).findByAvailableTrue();
+    }
+
     @Test
     void findAdvisorsByName_success() {
         // Act
@@ -306,6 +335,7 @@ class AdvisorServiceTest {
         assertEquals(newWorkingHours, result.getWorkingHours());
         verify(advisorRepository).findById(advisorId);
         verify(advisorRepository).save(testAdvisor);
+        verify(eventPublisher).publishEvent(new AdvisorChangedEvent(testAdvisor));
     }
 
     @Test
@@ -322,51 +352,46 @@ class AdvisorServiceTest {
     }
 
     @Test
-    void getOnlineAdvisors_success() {
+    void getOnlineAdvisors_servedFromPresenceRegistry() {
         // Arrange
         List<Advisor> onlineAdvisors = List.of(testAdvisors.get(0), testAdvisors.get(2));
-        when(advisorRepository.findOnlineAdvisors()).thenReturn(onlineAdvisors);
+        when(presenceRegistry.getOnlineAdvisors()).thenReturn(onlineAdvisors);
 
         // Act
         List<Advisor> result = advisorService.getOnlineAdvisors();
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        result.forEach(advisor -> assertTrue(advisor.getOnline()));
-        verify(advisorRepository).findOnlineAdvisors();
+        assertEquals(onlineAdvisors, result);
+        verify(presenceRegistry).getOnlineAdvisors();
+        verifyNoInteractions(advisorRepository);
     }
 
     @Test
-    void updateAdvisorOnlineStatus_success() {
+    void updateAdvisorOnlineStatus_delegatesToPresenceRegistry() {
         // Arrange
         String advisorId = "advisor123";
-        boolean newOnlineStatus = false;
-
-        when(advisorRepository.findById(advisorId)).thenReturn(Optional.of(testAdvisor));
-        when(advisorRepository.save(any(Advisor.class))).thenReturn(testAdvisor);
+        testAdvisor.setOnline(false);
+        when(presenceRegistry.setOnline(advisorId, false)).thenReturn(testAdvisor);
 
         // Act
-        Advisor result = advisorService.updateAdvisorOnlineStatus(advisorId, newOnlineStatus);
+        Advisor result = advisorService.updateAdvisorOnlineStatus(advisorId, false);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(newOnlineStatus, result.getOnline());
-        assertNotNull(result.getLastSeen());
-        verify(advisorRepository).findById(advisorId);
-        verify(advisorRepository).save(testAdvisor);
+        assertSame(testAdvisor, result);
+        verify(presenceRegistry).setOnline(advisorId, false);
+        verify(advisorRepository, never()).save(any(Advisor.class));
     }
 
     @Test
     void updateAdvisorOnlineStatus_advisorNotFound() {
         // Arrange
         String advisorId = "nonexistent";
-        when(advisorRepository.findById(advisorId)).thenReturn(Optional.empty());
+        when(presenceRegistry.setOnline(advisorId, true))
+                .thenThrow(new NotFoundObjectException("Advisor not found with id: " + advisorId));
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () ->
+        assertThrows(NotFoundObjectException.class, () ->
                 advisorService.updateAdvisorOnlineStatus(advisorId, true));
-        verify(advisorRepository).findById(advisorId);
         verify(advisorRepository, never()).save(any(Advisor.class));
     }
 
@@ -387,6 +412,7 @@ class AdvisorServiceTest {
         assertEquals(newAvailability, result.getAvailable());
         verify(advisorRepository).findById(advisorId);
         verify(advisorRepository).save(testAdvisor);
+        verify(eventPublisher).publishEvent(new AdvisorChangedEvent(testAdvisor));
     }
 
     @Test
@@ -400,6 +426,7 @@ class AdvisorServiceTest {
                 advisorService.updateAdvisorAvailability(advisorId, true));
         verify(advisorRepository).findById(advisorId);
         verify(advisorRepository, never()).save(any(Advisor.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -409,7 +436,7 @@ class AdvisorServiceTest {
         List<String> languages = List.of("English", "German");
         List<Advisor> expectedAdvisors = List.of(testAdvisor);
 
-        when(advisorRepository.findBySpecializationContainingIgnoreCase(specialization))
+        when(advisorRepository.searchBySpecialization(specialization, null))
                 .thenReturn(expectedAdvisors);
 
         // Act
@@ -418,7 +445,7 @@ class AdvisorServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(advisorRepository).findBySpecializationContainingIgnoreCase(specialization);
+        verify(advisorRepository).searchBySpecialization(specialization, null);
     }
 
     @Test
@@ -428,7 +455,7 @@ class AdvisorServiceTest {
         String specialization = "Career Counseling";
         List<Advisor> expectedAdvisors = List.of(testAdvisors.get(1));
 
-        when(advisorRepository.findBySpecializationContainingIgnoreCase(specialization))
+        when(advisorRepository.searchBySpecialization(specialization, null))
                 .thenReturn(expectedAdvisors);
 
         // Act
@@ -438,7 +465,7 @@ class AdvisorServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Career Counseling", result.get(0).getSpecialization());
-        verify(advisorRepository).findBySpecializationContainingIgnoreCase(specialization);
+        verify(advisorRepository).searchBySpecialization(specialization, null);
     }
 
     @Test
@@ -489,28 +516,6 @@ class AdvisorServiceTest {
         verify(advisorRepository).findAll();
     }
 
-    @Test
-    void updateAdvisorOnlineStatus_updatesLastSeen() {
-        // Arrange
-        String advisorId = "advisor123";
-        LocalDateTime beforeUpdate = LocalDateTime.now().minusSeconds(1);
-
-        when(advisorRepository.findById(advisorId)).thenReturn(Optional.of(testAdvisor));
-        when(advisorRepository.save(any(Advisor.class))).thenAnswer(invocation -> {
-            Advisor savedAdvisor = invocation.getArgument(0);
-            return savedAdvisor;
-        });
-
-        // Act
-        Advisor result = advisorService.updateAdvisorOnlineStatus(advisorId, true);
-
-        // Assert
-        assertNotNull(result);
-        assertNotNull(result.getLastSeen());
-        assertTrue(result.getLastSeen().isAfter(beforeUpdate));
-        verify(advisorRepository).save(testAdvisor);
-    }
-
     @Test
     void updateWorkingHours_preservesOtherFields() {
         // Arrange
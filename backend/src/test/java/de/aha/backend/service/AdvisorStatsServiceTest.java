@@ -0,0 +1,132 @@
+package de.aha.backend.service;
+
+import de.aha.backend.dto.advisor.AdvisorSearchResponse;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.advisor.AdvisorChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisorStatsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private AdvisorStatsService advisorStatsService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(advisorStatsService, "maxAge", Duration.ofMinutes(10));
+    }
+
+    private static Advisor advisor(String id, boolean available, double rating, double fee) {
+        Advisor advisor = Advisor.builder()
+                .available(available)
+                .rating(rating)
+                .consultationFee(fee)
+                .build();
+        advisor.setId(id);
+        return advisor;
+    }
+
+    @Test
+    void getStats_buildsSnapshotOnceAndServesFromMemory() {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(Advisor.class))).thenReturn(Stream.of(
+                advisor("a1", true, 4.0, 80.0),
+                advisor("a2", false, 5.0, 120.0)));
+
+        // Act
+        AdvisorSearchResponse.SearchStats first = advisorStatsService.getStats();
+        AdvisorSearchResponse.SearchStats second = advisorStatsService.getStats();
+
+        // Assert
+        assertEquals(2L, first.getTotalAdvisors());
+        assertEquals(1L, first.getAvailableToday());
+        assertEquals(4.5, first.getAverageRating());
+        assertEquals(100.0, first.getAverageFee());
+        assertNotNull(first.getComputedAt());
+        assertEquals(first, second);
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Advisor.class));
+    }
+
+    @Test
+    void onAdvisorChanged_appliesDeltaForExistingAdvisor() {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(Advisor.class))).thenReturn(Stream.of(
+                advisor("a1", true, 4.0, 80.0),
+                advisor("a2", false, 5.0, 120.0)));
+        advisorStatsService.getStats();
+
+        // Act
+        advisorStatsService.onAdvisorChanged(new AdvisorChangedEvent(advisor("a2", true, 3.0, 120.0)));
+        AdvisorSearchResponse.SearchStats stats = advisorStatsService.getStats();
+
+        // Assert
+        assertEquals(2L, stats.getTotalAdvisors());
+        assertEquals(2L, stats.getAvailableToday());
+        assertEquals(3.5, stats.getAverageRating());
+        assertFalse(stats.getUpdatedAt().isBefore(stats.getComputedAt()));
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Advisor.class));
+    }
+
+    @Test
+    void onAdvisorChanged_addsNewAdvisor() {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(Advisor.class))).thenReturn(Stream.of(
+                advisor("a1", true, 4.0, 80.0)));
+        advisorStatsService.getStats();
+
+        // Act
+        advisorStatsService.onAdvisorChanged(new AdvisorChangedEvent(advisor("a3", false, 2.0, 40.0)));
+        AdvisorSearchResponse.SearchStats stats = advisorStatsService.getStats();
+
+        // Assert
+        assertEquals(2L, stats.getTotalAdvisors());
+        assertEquals(1L, stats.getAvailableToday());
+        assertEquals(3.0, stats.getAverageRating());
+        assertEquals(60.0, stats.getAverageFee());
+    }
+
+    @Test
+    void onAdvisorChanged_beforeFirstReadDoesNotQueryDatabase() {
+        // Act
+        advisorStatsService.onAdvisorChanged(new AdvisorChangedEvent(advisor("a1", true, 4.0, 80.0)));
+
+        // Assert
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void getStats_rebuildsWhenSnapshotExpired() {
+        // Arrange
+        ReflectionTestUtils.setField(advisorStatsService, "maxAge", Duration.ofMillis(-1));
+        when(mongoTemplate.stream(any(Query.class), eq(Advisor.class)))
+                .thenReturn(Stream.of(advisor("a1", true, 4.0, 80.0)))
+                .thenReturn(Stream.of(advisor("a1", true, 4.0, 80.0), advisor("a2", true, 4.0, 80.0)));
+
+        // Act
+        advisorStatsService.getStats();
+        AdvisorSearchResponse.SearchStats stats = advisorStatsService.getStats();
+
+        // Assert
+        assertEquals(2L, stats.getTotalAdvisors());
+        verify(mongoTemplate, times(2)).stream(any(Query.class), eq(Advisor.class));
+    }
+}
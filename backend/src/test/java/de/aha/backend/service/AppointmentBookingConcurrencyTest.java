@@ -0,0 +1,151 @@
+package de.aha.backend.service;
+
+import de.aha.backend.config.AppointmentEndsAtCallback;
+import de.aha.backend.dto.appointment.CreateAppointmentRequest;
+import de.aha.backend.exception.ExecutionConflictException;
+import de.aha.backend.model.advisor.Advisor;
+import de.aha.backend.model.appointment.Appointment;
+import de.aha.backend.model.appointment.AppointmentType;
+import de.aha.backend.repository.AdvisorRepository;
+import de.aha.backend.repository.AppointmentRepository;
+import de.aha.backend.repository.SlotClaimRepository;
+import de.aha.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bucht parallel über den echten Ablauf von {@link AppointmentService#createAppointment}
+ * (Überschneidungsprüfung, Reservierung, Speichern, Bestätigung) und prüft, dass kein
+ * Termin doppelt vergeben wird und jede Ablehnung ein Konflikt (409) ist.
+ */
+@DataMongoTest
+@Import({SlotReservationService.class, AppointmentEndsAtCallback.class})
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class AppointmentBookingConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 300;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AdvisorRepository advisorRepository;
+
+    @Autowired
+    private SlotClaimRepository slotClaimRepository;
+
+    @Autowired
+    private SlotReservationService slotReservationService;
+
+    private AppointmentService appointmentService;
+    private String advisorId;
+
+    private final LocalDateTime nineOClock = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        slotClaimRepository.deleteAll();
+        advisorRepository.deleteAll();
+        Advisor advisor = advisorRepository.save(Advisor.builder().name("Advisor").build());
+        advisorId = advisor.getId();
+        appointmentService = new AppointmentService(null, userRepository, appointmentRepository, advisorRepository,
+                new AdvisorAvailabilityIndex(advisorRepository, appointmentRepository), slotReservationService,
+                event -> {
+                });
+    }
+
+    private CreateAppointmentRequest request(LocalDateTime scheduledAt) {
+        return new CreateAppointmentRequest(advisorId, scheduledAt, AppointmentType.VIDEO_CALL, null, List.of(), null);
+    }
+
+    @Test
+    void createAppointment_overlappingRequestsInParallel_neverDoubleBooks() throws Exception {
+        // Arrange - Beginn im 15-Minuten-Raster zwischen 09:00 und 11:45, Dauer jeweils 60 Minuten
+        Random random = new Random(42);
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            starts.add(nineOClock.plusMinutes(15L * random.nextInt(12)));
+        }
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+
+        // Act
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ATTEMPTS; i++) {
+                LocalDateTime start = starts.get(i);
+                String patientId = "patient" + i;
+                Callable<Void> task = () -> {
+                    startSignal.await();
+                    try {
+                        appointmentService.createAppointment(request(start), patientId);
+                        accepted.incrementAndGet();
+                    } catch (ExecutionConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(ATTEMPTS, accepted.get() + conflicts.get());
+        List<Appointment> booked = appointmentRepository.findAll();
+        assertEquals(accepted.get(), booked.size());
+        for (int i = 0; i < booked.size(); i++) {
+            for (int j = i + 1; j < booked.size(); j++) {
+                Appointment a = booked.get(i);
+                Appointment b = booked.get(j);
+                assertFalse(a.getScheduledAt().isBefore(b.getScheduledAt().plusMinutes(60))
+                                && b.getScheduledAt().isBefore(a.getScheduledAt().plusMinutes(60)),
+                        "double booking: " + a.getScheduledAt() + " / " + b.getScheduledAt());
+            }
+        }
+        // jeder Termin hält genau seine Raster, abgelehnte Buchungen hinterlassen keine
+        assertEquals(booked.size() * 4L, slotClaimRepository.count());
+    }
+
+    @Test
+    void createAppointment_backToBack_bothAccepted_takenSlotIsConflict() {
+        // Act
+        appointmentService.createAppointment(request(nineOClock), "patient1");
+        appointmentService.createAppointment(request(nineOClock.plusMinutes(60)), "patient2");
+
+        // Assert - die Überschneidungsprüfung meldet denselben Konflikt wie ein verlorener Claim
+        assertThrows(ExecutionConflictException.class,
+                () -> appointmentService.createAppointment(request(nineOClock.plusMinutes(30)), "patient3"));
+        assertEquals(2, appointmentRepository.count());
+    }
+}
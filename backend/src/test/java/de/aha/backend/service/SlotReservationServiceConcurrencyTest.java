@@ -0,0 +1,201 @@
+package de.aha.backend.service;
+
+import de.aha.backend.exception.BadRequestException;
+import de.aha.backend.exception.ExecutionConflictException;
+import de.aha.backend.model.appointment.SlotClaim;
+import de.aha.backend.repository.SlotClaimRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Feuert hunderte parallele Reservierungen gegen Embedded Mongo und prüft,
+ * dass kein Zeitfenster doppelt vergeben wird.
+ */
+@DataMongoTest
+@Import(SlotReservationService.class)
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class SlotReservationServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 400;
+
+    @Autowired
+    private SlotReservationService slotReservationService;
+
+    @Autowired
+    private SlotClaimRepository slotClaimRepository;
+
+    private final LocalDateTime nineOClock = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        slotClaimRepository.deleteAll();
+    }
+
+    private record Booking(LocalDateTime start, int durationMinutes) {
+
+        LocalDateTime end() {
+            return start.plusMinutes(durationMinutes);
+        }
+
+        boolean overlaps(Booking other) {
+            return start.isBefore(other.end()) && other.start().isBefore(end());
+        }
+    }
+
+    private List<Booking> runConcurrently(List<Booking> attempts, AtomicInteger conflicts) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Booking> accepted = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Booking booking : attempts) {
+                Callable<Void> task = () -> {
+                    startSignal.await();
+                    try {
+                        slotReservationService.reserve("advisor1", booking.start(), booking.durationMinutes());
+                        accepted.add(booking);
+                    } catch (ExecutionConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return accepted;
+    }
+
+    @Test
+    void reserve_sameSlotInParallel_acceptsExactlyOne() throws Exception {
+        // Arrange
+        List<Booking> attempts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            attempts.add(new Booking(nineOClock, 60));
+        }
+        AtomicInteger conflicts = new AtomicInteger();
+
+        // Act
+        List<Booking> accepted = runConcurrently(attempts, conflicts);
+
+        // Assert
+        assertEquals(1, accepted.size());
+        assertEquals(ATTEMPTS - 1, conflicts.get());
+        assertEquals(60 / SlotClaim.BUCKET_MINUTES, slotClaimRepository.count());
+    }
+
+    @Test
+    void reserve_overlappingSlotsInParallel_neverDoubleBooks() throws Exception {
+        // Arrange - Beginn im 15-Minuten-Raster zwischen 09:00 und 12:45, Dauer 15 bis 90 Minuten
+        Random random = new Random(42);
+        List<Booking> attempts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            attempts.add(new Booking(
+                    nineOClock.plusMinutes(15L * random.nextInt(16)),
+                    15 * (1 + random.nextInt(6))));
+        }
+        AtomicInteger conflicts = new AtomicInteger();
+
+        // Act
+        List<Booking> accepted = runConcurrently(attempts, conflicts);
+
+        // Assert
+        assertFalse(accepted.isEmpty());
+        assertEquals(ATTEMPTS, accepted.size() + conflicts.get());
+        for (int i = 0; i < accepted.size(); i++) {
+            for (int j = i + 1; j < accepted.size(); j++) {
+                assertFalse(accepted.get(i).overlaps(accepted.get(j)),
+                        "double booking: " + accepted.get(i) + " / " + accepted.get(j));
+            }
+        }
+        // abgelehnte Reservierungen hinterlassen keine Claims
+        long claimedBuckets = accepted.stream().mapToLong(b -> b.durationMinutes() / SlotClaim.BUCKET_MINUTES).sum();
+        assertEquals(claimedBuckets, slotClaimRepository.count());
+    }
+
+    @Test
+    void release_freesSlotForNextBooking() {
+        // Arrange
+        String reservationId = slotReservationService.reserve("advisor1", nineOClock, 60);
+        slotReservationService.confirm(reservationId, "appointment1", nineOClock.plusMinutes(60));
+
+        // Act
+        slotReservationService.release("appointment1");
+        String next = slotReservationService.reserve("advisor1", nineOClock.plusMinutes(30), 60);
+
+        // Assert
+        assertNotNull(next);
+        assertThrows(ExecutionConflictException.class,
+                () -> slotReservationService.reserve("advisor1", nineOClock.plusMinutes(45), 15));
+    }
+
+    @Test
+    void reserve_pendingClaimsExpireSoon_confirmKeepsThemUntilAppointmentEnd() {
+        // Arrange
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        String reservationId = slotReservationService.reserve("advisor1", nineOClock, 30);
+        List<SlotClaim> pending = slotClaimRepository.findAll();
+        slotReservationService.confirm(reservationId, "appointment1", nineOClock.plusMinutes(30));
+        List<SlotClaim> confirmed = slotClaimRepository.findAll();
+
+        // Assert - unbestätigt: Ablauf nach reservation-ttl, nicht erst nach dem Termin
+        assertEquals(2, pending.size());
+        for (SlotClaim claim : pending) {
+            assertNull(claim.getAppointmentId());
+            assertTrue(claim.getExpiresAt().isAfter(before));
+            assertFalse(claim.getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(2)));
+        }
+        for (SlotClaim claim : confirmed) {
+            assertEquals("appointment1", claim.getAppointmentId());
+            assertEquals(nineOClock.plusMinutes(30), claim.getExpiresAt());
+        }
+    }
+
+    @Test
+    void reserve_backToBackAppointments_doNotConflict() {
+        // Act
+        String first = slotReservationService.reserve("advisor1", nineOClock, 30);
+        String second = slotReservationService.reserve("advisor1", nineOClock.plusMinutes(30), 45);
+
+        // Assert
+        assertNotEquals(first, second);
+        assertEquals(5, slotClaimRepository.count());
+    }
+
+    @Test
+    void reserve_unalignedStartOrDuration_isRejectedWithoutClaims() {
+        // Act & Assert - 10:00-10:20 und 10:20-10:40 würden sich sonst das Raster 10:15 teilen
+        assertThrows(BadRequestException.class,
+                () -> slotReservationService.reserve("advisor1", nineOClock.plusMinutes(20), 30));
+        assertThrows(BadRequestException.class,
+                () -> slotReservationService.reserve("advisor1", nineOClock, 20));
+        assertEquals(0, slotClaimRepository.count());
+    }
+}
@@ -0,0 +1,117 @@
+package de.aha.backend.service;
+
+import de.aha.backend.config.MongoIndexBootstrap;
+import de.aha.backend.dto.user.RegisterRequest;
+import de.aha.backend.model.user.User;
+import de.aha.backend.model.user.UserRole;
+import de.aha.backend.repository.UserRepository;
+import de.aha.backend.security.PasswordHashingService;
+import de.aha.backend.security.TokenInteract;
+import de.aha.backend.security.UserDetailsImpl;
+import de.aha.backend.security.VerifiedTokenCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static de.aha.backend.mapper.UserMapper.mapToUser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Durchsatz bei einem Registrierungs-Ansturm: bisheriger Ablauf (Vorab-Abfrage, save,
+ * authenticateUser mit erneutem Lesen, bcrypt-Prüfung und loadUserByUsername) gegen
+ * Insert mit Unique-Index und Token direkt aus der eingefügten Entität.
+ * Ausführen mit {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataMongoTest
+@Import(MongoIndexBootstrap.class)
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class UserRegistrationBenchmarkTest {
+
+    private static final int CLIENTS = 32;
+    private static final int REGISTRATIONS = 1_000;
+    // niedriger als in Produktion, damit der Lauf überschaubar bleibt; das Verhältnis bleibt gleich
+    private static final int BCRYPT_STRENGTH = 8;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private PasswordHashingService passwordHashingService;
+    private TokenInteract tokenInteract;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        passwordHashingService = new PasswordHashingService(PasswordHashingService.BCRYPT, BCRYPT_STRENGTH,
+                1024, 1, 1, 0, REGISTRATIONS, Duration.ofMinutes(1));
+        tokenInteract = new TokenInteract(new VerifiedTokenCache(false, 0));
+        ReflectionTestUtils.setField(tokenInteract, "secretKey", "mySecretKeyForTestingPurposesOnlyAndShouldBeAtLeast256Bits");
+        ReflectionTestUtils.setField(tokenInteract, "expirationTime", 3_600_000L);
+        tokenInteract.init();
+        userService = new UserService(tokenInteract, userRepository, null, passwordHashingService);
+    }
+
+    @Test
+    void insertWithUniqueIndex_registersMorePerSecond() throws Exception {
+        double legacy = run("legacy", this::legacyRegister);
+        double insert = run("insert", request -> userService.registerUser(request));
+
+        System.out.printf("%-7s %,.0f registrations/s%n", "legacy", legacy);
+        System.out.printf("%-7s %,.0f registrations/s%n", "insert", insert);
+
+        assertEquals(2L * REGISTRATIONS, userRepository.count());
+        assertTrue(insert > legacy);
+        passwordHashingService.shutdown();
+    }
+
+    private double run(String prefix, Consumer<RegisterRequest> register) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                RegisterRequest request = new RegisterRequest(prefix + i, prefix + i + "@example.com",
+                        "password" + i, UserRole.USER);
+                futures.add(clients.submit(() -> register.accept(request)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return REGISTRATIONS / ((System.nanoTime() - start) / 1_000_000_000.0);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    // Ablauf von registerUser vor der Umstellung
+    private void legacyRegister(RegisterRequest request) {
+        if (userRepository.findByEmailIgnoreCase(request.getEmail()).isPresent()) {
+            throw new IllegalStateException("duplicate " + request.getEmail());
+        }
+        userRepository.save(mapToUser(request, passwordHashingService.hash(request.getPassword())));
+        User user = userRepository.findByEmailIgnoreCase(request.getEmail()).orElseThrow();
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            throw new IllegalStateException("invalid credentials");
+        }
+        User loaded = userRepository.getOrThrow(user.getId());
+        tokenInteract.generateToken(UserDetailsImpl.builder()
+                .email(loaded.getId())
+                .password(loaded.getPassword())
+                .build());
+    }
+}
@@ -7,23 +7,27 @@ import de.aha.backend.model.user.ContactInfo;
 import de.aha.backend.model.user.User;
 import de.aha.backend.model.user.UserProfile;
 import de.aha.backend.repository.UserRepository;
+import de.aha.backend.exception.ExecutionConflictException;
+import de.aha.backend.exception.ServiceUnavailableException;
+import de.aha.backend.model.user.UserRole;
+import de.aha.backend.security.PasswordHashingService;
 import de.aha.backend.security.TokenInteract;
 import de.aha.backend.security.UserDetailsImpl;
-import de.aha.backend.util.PasswordUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,6 +50,9 @@ class UserServiceTest {
     @Mock
     private AdvisorService  advisorService;
 
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
     @InjectMocks
     private UserService userService;
 
@@ -73,36 +80,166 @@ class UserServiceTest {
     void getToken_withId_shouldReturnToken() {
         when(repository.getOrThrow("1")).thenReturn(user);
         when(repository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
-        try (MockedStatic<PasswordUtil> passwordUtil = mockStatic(PasswordUtil.class)) {
-            passwordUtil.when(() -> PasswordUtil.matches("password", "hashedPassword")).thenReturn(true);
-            when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
-
-            UserLoginResponse result = userService.getToken(loginRequest);
-
-            assertEquals(loginResponse.token(), result.token());
-            verify(repository).getOrThrow("1");
-            verify(repository, atLeastOnce()).findByEmailIgnoreCase("test@example.com");
-            passwordUtil.verify(() -> PasswordUtil.matches("password", "hashedPassword"));
-            verify(tokenInteract).generateToken(any(UserDetailsImpl.class));
-        }
+        when(passwordHashingService.matches("password", "hashedPassword")).thenReturn(true);
+        when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
+
+        UserLoginResponse result = userService.getToken(loginRequest);
+
+        assertEquals(loginResponse.token(), result.token());
+        verify(repository).getOrThrow("1");
+        verify(repository, atLeastOnce()).findByEmailIgnoreCase("test@example.com");
+        verify(passwordHashingService).matches("password", "hashedPassword");
+        verify(tokenInteract).generateToken(any(UserDetailsImpl.class));
     }
 
     @Test
     void getToken_withoutId_shouldFindByEmailAndReturnToken() {
         when(repository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
         when(repository.getOrThrow("1")).thenReturn(user);
-        try (MockedStatic<PasswordUtil> passwordUtil = mockStatic(PasswordUtil.class)) {
-            passwordUtil.when(() -> PasswordUtil.matches("password", "hashedPassword")).thenReturn(true);
-            when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
-
-            UserLoginResponse result = userService.getToken(loginRequest);
-
-            assertEquals(loginResponse.token(), result.token());
-            verify(repository).findByEmailIgnoreCase("test@example.com");
-            verify(repository).getOrThrow("1");
-            passwordUtil.verify(() -> PasswordUtil.matches("password", "hashedPassword"));
-            verify(tokenInteract).generateToken(any(UserDetailsImpl.class));
-        }
+        when(passwordHashingService.matches("password", "hashedPassword")).thenReturn(true);
+        when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
+
+        UserLoginResponse result = userService.getToken(loginRequest);
+
+        assertEquals(loginResponse.token(), result.token());
+        verify(repository).findByEmailIgnoreCase("test@example.com");
+        verify(repository).getOrThrow("1");
+        verify(passwordHashingService).matches("password", "hashedPassword");
+        verify(tokenInteract).generateToken(any(UserDetailsImpl.class));
+    }
+
+    @Test
+    void authenticateUser_outdatedHash_shouldRehashInBackground() {
+        // Arrange
+        when(repository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("password", "hashedPassword")).thenReturn(true);
+        when(passwordHashingService.needsRehash("hashedPassword")).thenReturn(true);
+        when(passwordHashingService.hashAsync("password")).thenReturn(CompletableFuture.completedFuture("{bcrypt}newHash"));
+        when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
+
+        // Act
+        UserLoginResponse result = userService.authenticateUser(loginRequest);
+
+        // Assert
+        assertEquals("token", result.token());
+        // geschrieben wird auf einem eigenen Executor, nicht im Hashing-Pool
+        verify(repository, timeout(5_000)).updatePasswordIfUnchanged("1", "hashedPassword", "{bcrypt}newHash");
+    }
+
+    @Test
+    void shutdown_finishesQueuedRehashWrites() throws InterruptedException {
+        // Arrange - der Hash ist erst nach dem Login fertig
+        CompletableFuture<String> newHash = new CompletableFuture<>();
+        when(repository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("password", "hashedPassword")).thenReturn(true);
+        when(passwordHashingService.needsRehash("hashedPassword")).thenReturn(true);
+        when(passwordHashingService.hashAsync("password")).thenReturn(newHash);
+        when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
+        userService.authenticateUser(loginRequest);
+        newHash.complete("{bcrypt}newHash");
+
+        // Act
+        userService.shutdown();
+
+        // Assert - der bereits eingereihte Schreibvorgang läuft noch zu Ende
+        verify(repository).updatePasswordIfUnchanged("1", "hashedPassword", "{bcrypt}newHash");
+    }
+
+    @Test
+    void authenticateUser_rehashRejected_shouldStillLogin() {
+        // Arrange
+        when(repository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("password", "hashedPassword")).thenReturn(true);
+        when(passwordHashingService.needsRehash("hashedPassword")).thenReturn(true);
+        when(passwordHashingService.hashAsync("password"))
+                .thenReturn(CompletableFuture.failedFuture(new ServiceUnavailableException("saturated")));
+        when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
+
+        // Act
+        UserLoginResponse result = userService.authenticateUser(loginRequest);
+
+        // Assert
+        assertEquals("token", result.token());
+        verify(repository, never()).updatePasswordIfUnchanged(any(), any(), any());
+    }
+
+    @Test
+    void authenticateUser_currentHash_shouldNotRehash() {
+        // Arrange
+        when(repository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("password", "hashedPassword")).thenReturn(true);
+        when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
+
+        // Act
+        userService.authenticateUser(loginRequest);
+
+        // Assert
+        verify(passwordHashingService, never()).hashAsync(any());
+        verify(repository, never()).updatePasswordIfUnchanged(any(), any(), any());
+    }
+
+    @Test
+    void authenticateUser_saturatedPool_shouldPropagateServiceUnavailable() {
+        // Arrange
+        when(repository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("password", "hashedPassword"))
+                .thenThrow(new ServiceUnavailableException("saturated"));
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> userService.authenticateUser(loginRequest));
+        verify(tokenInteract, never()).generateToken(any());
+    }
+
+    @Test
+    void registerUser_shouldInsertOnceAndIssueTokenWithoutReads() {
+        // Arrange
+        RegisterRequest request = new RegisterRequest("test", "test@example.com", "password", UserRole.USER);
+        when(passwordHashingService.hash("password")).thenReturn("{bcrypt}hash");
+        when(repository.insert(any(User.class))).thenAnswer(invocation -> {
+            User inserted = invocation.getArgument(0);
+            inserted.setId("1");
+            inserted.setCreationDate(LocalDateTime.now());
+            return inserted;
+        });
+        when(tokenInteract.generateToken(any(UserDetailsImpl.class))).thenReturn("token");
+
+        // Act
+        UserLoginResponse result = userService.registerUser(request);
+
+        // Assert
+        assertEquals("token", result.token());
+        assertEquals("test@example.com", result.user().getEmail());
+        verify(passwordHashingService).hash("password");
+        verify(passwordHashingService, never()).matches(any(), any());
+        verify(repository).insert(argThat((User inserted) -> "{bcrypt}hash".equals(inserted.getPassword())));
+        verify(tokenInteract).generateToken(argThat(details -> "1".equals(details.getUsername())));
+        verify(repository, never()).findByEmailIgnoreCase(any());
+        verify(repository, never()).getOrThrow(any());
+    }
+
+    @Test
+    void registerUser_duplicateEmail_shouldThrowConflict() {
+        // Arrange
+        RegisterRequest request = new RegisterRequest("test", "Test@Example.com", "password", UserRole.USER);
+        when(passwordHashingService.hash("password")).thenReturn("{bcrypt}hash");
+        when(repository.insert(any(User.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        // Act & Assert
+        ExecutionConflictException exception =
+                assertThrows(ExecutionConflictException.class, () -> userService.registerUser(request));
+        assertTrue(exception.getMessage().contains("Test@Example.com"));
+        verify(tokenInteract, never()).generateToken(any());
+    }
+
+    @Test
+    void create_duplicateEmail_shouldThrowConflict() {
+        // Arrange
+        UserCreateRequest request = new UserCreateRequest("test@example.com", "password");
+        when(passwordHashingService.hash("password")).thenReturn("{bcrypt}hash");
+        when(repository.insert(any(User.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        // Act & Assert
+        assertThrows(ExecutionConflictException.class, () -> userService.create(request));
     }
 
     @Test
@@ -163,15 +300,13 @@ class UserServiceTest {
     @Test
     void getToken_invalidPassword_shouldThrowBadCredentialsException() {
         when(repository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
-        try (MockedStatic<PasswordUtil> passwordUtil = mockStatic(PasswordUtil.class)) {
-            passwordUtil.when(() -> PasswordUtil.matches("wrongpassword", "hashedPassword")).thenReturn(false);
+        when(passwordHashingService.matches("wrongpassword", "hashedPassword")).thenReturn(false);
 
-            UserLoginRequest invalidRequest = new UserLoginRequest("test@example.com", "wrongpassword");
+        UserLoginRequest invalidRequest = new UserLoginRequest("test@example.com", "wrongpassword");
 
-            assertThrows(BadCredentialsException.class, () -> userService.getToken(invalidRequest));
-            verify(repository).findByEmailIgnoreCase("test@example.com");
-            passwordUtil.verify(() -> PasswordUtil.matches("wrongpassword", "hashedPassword"));
-        }
+        assertThrows(BadCredentialsException.class, () -> userService.getToken(invalidRequest));
+        verify(repository).findByEmailIgnoreCase("test@example.com");
+        verify(passwordHashingService).matches("wrongpassword", "hashedPassword");
     }
 
     @Test
@@ -0,0 +1,228 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.MessageType;
+import de.aha.backend.model.chat.SenderType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatHistoryCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private static ChatMessage message(String sessionId, int i) {
+        return ChatMessage.builder()
+                .id("msg" + i)
+                .sessionId(sessionId)
+                .content("Nachricht " + i)
+                .senderType(i % 2 == 0 ? SenderType.USER : SenderType.ADVISOR)
+                .timestamp(START.plusSeconds(i))
+                .type(MessageType.TEXT)
+                .build();
+    }
+
+    private static ChatSession session(String sessionId, LocalDateTime lastMessageTime) {
+        ChatSession session = ChatSession.builder().lastMessageTime(lastMessageTime).build();
+        session.setId(sessionId);
+        return session;
+    }
+
+    private static List<ChatMessage> messages(String sessionId, int count) {
+        List<ChatMessage> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(message(sessionId, i));
+        }
+        return result;
+    }
+
+    @Test
+    void latest_afterPut_servesPageFromMemory() {
+        // Arrange
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+        List<ChatMessage> page = messages("session1", 20);
+        cache.put("session1", page, 20);
+
+        // Act
+        Optional<List<ChatMessage>> result = cache.latest(session("session1", START.plusSeconds(19)), 10);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(page.subList(10, 20), result.get());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void latest_unknownSession_isMiss() {
+        // Arrange
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+
+        // Act
+        Optional<List<ChatMessage>> result = cache.latest(session("session1", null), 10);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void latest_largerLimitThanCached_isMissUnlessSessionIsComplete() {
+        // Arrange
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+        cache.put("full", messages("full", 20), 20);
+        cache.put("short", messages("short", 5), 20);
+
+        // Act & Assert - "full" kann ältere Nachrichten haben, "short" enthält die ganze Session
+        assertTrue(cache.latest(session("full", null), 30).isEmpty());
+        assertEquals(5, cache.latest(session("short", null), 30).orElseThrow().size());
+    }
+
+    @Test
+    void latest_newerMessageOnOtherNode_invalidatesEntry() {
+        // Arrange
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+        cache.put("session1", messages("session1", 5), 50);
+
+        // Act
+        Optional<List<ChatMessage>> result = cache.latest(session("session1", START.plusSeconds(10)), 50);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(1, cache.stats().invalidations());
+        assertEquals(0, cache.stats().sessions());
+    }
+
+    @Test
+    void latest_ignoresSubMillisecondDifferenceToStoredTimestamp() {
+        // Arrange - Mongo kürzt lastMessageTime auf Millisekunden
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+        ChatMessage message = message("session1", 0).toBuilder().timestamp(START.plusNanos(1_234_567)).build();
+        cache.put("session1", List.of(message), 50);
+
+        // Act
+        Optional<List<ChatMessage>> result = cache.latest(session("session1", START.plusNanos(1_000_000)), 50);
+
+        // Assert
+        assertTrue(result.isPresent());
+    }
+
+    @Test
+    void append_extendsEntryAndDropsOldestBeyondCapacity() {
+        // Arrange
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 5);
+        cache.put("session1", messages("session1", 5), 50);
+
+        // Act
+        cache.append(message("session1", 5));
+
+        // Assert
+        List<ChatMessage> result = cache.latest(session("session1", START.plusSeconds(5)), 5).orElseThrow();
+        assertEquals("msg1", result.getFirst().getId());
+        assertEquals("msg5", result.getLast().getId());
+        // die älteste Nachricht fehlt jetzt, größere Seiten müssen aus Mongo kommen
+        assertTrue(cache.latest(session("session1", START.plusSeconds(5)), 6).isEmpty());
+    }
+
+    @Test
+    void append_unknownSession_doesNotCreateEntry() {
+        // Arrange
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+
+        // Act
+        cache.append(message("session1", 0));
+
+        // Assert
+        assertEquals(0, cache.stats().sessions());
+    }
+
+    @Test
+    void put_overMemoryLimit_evictsLeastRecentlyUsedSession() {
+        // Arrange
+        List<ChatMessage> page = messages("a", 10);
+        long entryBytes = page.stream().mapToLong(ChatHistoryCache::estimateBytes).sum() + 200;
+        ChatHistoryCache cache = new ChatHistoryCache(entryBytes * 2, 50);
+        cache.put("a", messages("a", 10), 50);
+        cache.put("b", messages("b", 10), 50);
+        cache.latest(session("a", null), 10);
+
+        // Act
+        cache.put("c", messages("c", 10), 50);
+
+        // Assert - "b" wurde am längsten nicht benutzt
+        ChatHistoryCache.Stats stats = cache.stats();
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.sessions());
+        assertTrue(stats.bytes() <= entryBytes * 2);
+        assertTrue(cache.latest(session("a", null), 10).isPresent());
+        assertTrue(cache.latest(session("b", null), 10).isEmpty());
+    }
+
+    @Test
+    void markRead_replacesCachedMessagesWithReadCopies() {
+        // Arrange
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+        List<ChatMessage> page = messages("session1", 4);
+        cache.put("session1", page, 50);
+        List<ChatMessage> delivered = cache.latest(session("session1", null), 4).orElseThrow();
+
+        // Act
+        cache.markRead("session1", SenderType.ADVISOR);
+
+        // Assert
+        List<ChatMessage> result = cache.latest(session("session1", null), 4).orElseThrow();
+        assertTrue(result.stream().filter(m -> m.getSenderType() == SenderType.ADVISOR).allMatch(ChatMessage::isRead));
+        assertTrue(result.stream().filter(m -> m.getSenderType() == SenderType.USER).noneMatch(ChatMessage::isRead));
+        assertTrue(delivered.stream().noneMatch(ChatMessage::isRead));
+    }
+
+    @Test
+    void latest_readOnOtherNode_invalidatesEntryViaWatermark() {
+        // Arrange - msg1 und msg3 sind Beraternachrichten, im Cache noch ungelesen
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+        cache.put("session1", messages("session1", 4), 50);
+        ChatSession session = session("session1", START.plusSeconds(3));
+        session.setUserReadUpTo(START.plusSeconds(3));
+
+        // Act
+        Optional<List<ChatMessage>> result = cache.latest(session, 50);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(1, cache.stats().invalidations());
+        assertEquals(0, cache.stats().sessions());
+    }
+
+    @Test
+    void latest_watermarkAfterLocalMarkRead_keepsEntry() {
+        // Arrange - auf diesem Knoten gelesen, der Cache ist schon aktuell
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+        cache.put("session1", messages("session1", 4), 50);
+        cache.markRead("session1", SenderType.USER);
+        ChatSession session = session("session1", START.plusSeconds(3));
+        session.setAdvisorReadUpTo(START.plusSeconds(5));
+
+        // Act & Assert
+        assertTrue(cache.latest(session, 50).isPresent());
+        assertEquals(0, cache.stats().invalidations());
+    }
+
+    @Test
+    void latest_watermarkBeforeUnreadMessages_keepsEntry() {
+        // Arrange - nur msg1 wurde gelesen, msg3 ist später gekommen
+        ChatHistoryCache cache = new ChatHistoryCache(1_000_000, 50);
+        List<ChatMessage> page = new ArrayList<>(messages("session1", 4));
+        page.set(1, page.get(1).toBuilder().read(true).build());
+        cache.put("session1", page, 50);
+        ChatSession session = session("session1", START.plusSeconds(3));
+        session.setUserReadUpTo(START.plusSeconds(2));
+
+        // Act & Assert
+        assertTrue(cache.latest(session, 50).isPresent());
+    }
+}
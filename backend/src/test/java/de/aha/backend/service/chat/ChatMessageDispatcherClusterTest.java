@@ -0,0 +1,94 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.dto.chat.ChatMessageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Simuliert zwei App-Instanzen im selben Prozess, jede mit eigenem Messaging-Template
+ * und eigenen WebSocket-Verbindungen, und prüft die Zustellung über Knotengrenzen.
+ */
+class ChatMessageDispatcherClusterTest {
+
+    private Node nodeA;
+    private Node nodeB;
+
+    /** Ein Knoten: fängt alles ab, was sein Template an den (lokalen) Broker schickt. */
+    private static class Node {
+        final List<Message<?>> brokerMessages = new CopyOnWriteArrayList<>();
+        final SimpUserRegistry userRegistry = mock(SimpUserRegistry.class);
+        final ChatMessageDispatcher dispatcher;
+
+        Node(InMemoryClusterHub hub, Set<String> connectedUsers) {
+            SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> brokerMessages.add(message));
+            when(userRegistry.getUser(anyString())).thenAnswer(invocation ->
+                    connectedUsers.contains(invocation.<String>getArgument(0)) ? mock(SimpUser.class) : null);
+            dispatcher = new ChatMessageDispatcher(template, userRegistry, hub.join());
+            dispatcher.subscribeToCluster();
+        }
+
+        List<String> destinations() {
+            return brokerMessages.stream()
+                    .map(message -> SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                    .toList();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        InMemoryClusterHub hub = new InMemoryClusterHub();
+        nodeA = new Node(hub, Set.of("user1"));
+        nodeB = new Node(hub, Set.of("advisor1"));
+    }
+
+    private ChatMessageDTO message(String content) {
+        return ChatMessageDTO.builder().id("msg1").content(content).senderType("USER").type("TEXT").build();
+    }
+
+    @Test
+    void sendToUser_recipientOnOtherNode_isDeliveredThere() {
+        // Act - user1 an Knoten A schreibt advisor1, der an Knoten B verbunden ist
+        nodeA.dispatcher.sendToUser("advisor1", "/queue/messages", message("Hallo"));
+
+        // Assert
+        assertEquals(List.of("/user/advisor1/queue/messages"), nodeB.destinations());
+        assertEquals("Hallo", ((ChatMessageDTO) nodeB.brokerMessages.getFirst().getPayload()).getContent());
+    }
+
+    @Test
+    void sendToUser_bothDirections() {
+        // Act
+        nodeA.dispatcher.sendToUser("advisor1", "/queue/messages", message("Frage"));
+        nodeB.dispatcher.sendToUser("user1", "/queue/messages", message("Antwort"));
+
+        // Assert - jeder Knoten hat genau einmal lokal zugestellt und einmal für die Gegenseite
+        assertTrue(nodeA.destinations().contains("/user/user1/queue/messages"));
+        assertTrue(nodeB.destinations().contains("/user/advisor1/queue/messages"));
+        assertEquals(1, nodeA.destinations().stream().filter("/user/user1/queue/messages"::equals).count());
+        assertEquals(1, nodeB.destinations().stream().filter("/user/advisor1/queue/messages"::equals).count());
+    }
+
+    @Test
+    void sendToUser_recipientNotConnectedAnywhere_isOnlyTriedLocally() {
+        // Act
+        nodeA.dispatcher.sendToUser("offline", "/queue/messages", message("Hallo"));
+
+        // Assert - der lokale Broker verwirft sie, Knoten B stellt nichts zu
+        assertEquals(List.of("/user/offline/queue/messages"), nodeA.destinations());
+        assertTrue(nodeB.destinations().isEmpty());
+    }
+}
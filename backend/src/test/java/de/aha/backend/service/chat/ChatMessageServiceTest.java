@@ -1,12 +1,16 @@
 package de.aha.backend.service.chat;
 
+import de.aha.backend.exception.BadRequestException;
 import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
 import de.aha.backend.model.chat.MessageType;
 import de.aha.backend.model.chat.SenderType;
 import de.aha.backend.repository.chat.ChatMessageRepository;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -14,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,6 +30,12 @@ class ChatMessageServiceTest {
     @Mock
     private ChatMessageRepository chatMessageRepository;
 
+    @Mock
+    private ChatMessageWriter chatMessageWriter;
+
+    @Mock
+    private ChatHistoryCache chatHistoryCache;
+
     @InjectMocks
     private ChatMessageService chatMessageService;
 
@@ -119,6 +130,53 @@ class ChatMessageServiceTest {
         verify(chatMessageRepository).save(testMessage);
     }
 
+    @Test
+    void saveMessage_writeBehind_assignsIdAndQueuesWithoutBlockingOnMongo() {
+        // Arrange
+        testMessage.setId(null);
+        when(chatMessageWriter.isEnabled()).thenReturn(true);
+        when(chatMessageWriter.enqueue(testMessage)).thenReturn(true);
+
+        // Act
+        ChatMessage result = chatMessageService.saveMessage(testMessage);
+
+        // Assert
+        assertNotNull(result.getId());
+        assertTrue(ObjectId.isValid(result.getId()));
+        verify(chatMessageWriter).enqueue(testMessage);
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    void saveMessage_writeBehindQueueFull_savesSynchronously() {
+        // Arrange
+        testMessage.setId(null);
+        when(chatMessageWriter.isEnabled()).thenReturn(true);
+        when(chatMessageWriter.enqueue(testMessage)).thenReturn(false);
+        when(chatMessageRepository.save(testMessage)).thenReturn(testMessage);
+
+        // Act
+        ChatMessage result = chatMessageService.saveMessage(testMessage);
+
+        // Assert
+        assertNotNull(result.getId());
+        verify(chatMessageRepository).save(testMessage);
+    }
+
+    @Test
+    void markMessagesAsRead_waitsForPendingWritesOfSession() {
+        // Arrange
+        when(chatMessageRepository.markReadBySessionAndSenderType(sessionId, SenderType.USER)).thenReturn(1L);
+
+        // Act
+        chatMessageService.markMessagesAsRead(sessionId, SenderType.USER);
+
+        // Assert
+        InOrder inOrder = inOrder(chatMessageWriter, chatMessageRepository);
+        inOrder.verify(chatMessageWriter).awaitPersisted(sessionId);
+        inOrder.verify(chatMessageRepository).markReadBySessionAndSenderType(sessionId, SenderType.USER);
+    }
+
     @Test
     void getChatHistory_success() {
         // Arrange
@@ -153,65 +211,31 @@ class ChatMessageServiceTest {
     @Test
     void markMessagesAsRead_success() {
         // Arrange
-        List<ChatMessage> unreadMessages = Arrays.asList(advisorMessage, userMessage);
-        when(chatMessageRepository.findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.ADVISOR))
-                .thenReturn(unreadMessages);
-        when(chatMessageRepository.saveAll(any())).thenReturn(unreadMessages);
+        when(chatMessageRepository.markReadBySessionAndSenderType(sessionId, SenderType.ADVISOR)).thenReturn(2L);
 
         // Act
-        chatMessageService.markMessagesAsRead(sessionId, SenderType.ADVISOR);
+        long result = chatMessageService.markMessagesAsRead(sessionId, SenderType.ADVISOR);
 
         // Assert
-        assertTrue(advisorMessage.isRead());
-        assertTrue(userMessage.isRead());
-        verify(chatMessageRepository).findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.ADVISOR);
-        verify(chatMessageRepository).saveAll(unreadMessages);
+        assertEquals(2L, result);
+        verify(chatMessageRepository).markReadBySessionAndSenderType(sessionId, SenderType.ADVISOR);
+        verify(chatMessageRepository, never()).saveAll(any());
     }
 
     @Test
     void markMessagesAsRead_noUnreadMessages() {
         // Arrange
-        when(chatMessageRepository.findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER))
-                .thenReturn(Arrays.asList());
+        when(chatMessageRepository.markReadBySessionAndSenderType(sessionId, SenderType.USER)).thenReturn(0L);
 
         // Act
-        chatMessageService.markMessagesAsRead(sessionId, SenderType.USER);
+        long result = chatMessageService.markMessagesAsRead(sessionId, SenderType.USER);
 
         // Assert
-        verify(chatMessageRepository).findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER);
+        assertEquals(0L, result);
+        verify(chatMessageRepository).markReadBySessionAndSenderType(sessionId, SenderType.USER);
         verify(chatMessageRepository, never()).saveAll(any());
     }
 
-    @Test
-    void getUnreadCountForUser_success() {
-        // Arrange
-        long expectedCount = 3L;
-        when(chatMessageRepository.countUnreadMessagesBySessionAndSenderType(sessionId, SenderType.ADVISOR))
-                .thenReturn(expectedCount);
-
-        // Act
-        long result = chatMessageService.getUnreadCountForUser(sessionId);
-
-        // Assert
-        assertEquals(expectedCount, result);
-        verify(chatMessageRepository).countUnreadMessagesBySessionAndSenderType(sessionId, SenderType.ADVISOR);
-    }
-
-    @Test
-    void getUnreadCountForAdvisor_success() {
-        // Arrange
-        long expectedCount = 5L;
-        when(chatMessageRepository.countUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER))
-                .thenReturn(expectedCount);
-
-        // Act
-        long result = chatMessageService.getUnreadCountForAdvisor(sessionId);
-
-        // Assert
-        assertEquals(expectedCount, result);
-        verify(chatMessageRepository).countUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER);
-    }
-
     @Test
     void getUnreadAdvisorMessages_success() {
         // Arrange
@@ -247,110 +271,166 @@ class ChatMessageServiceTest {
     }
 
     @Test
-    void markMessagesAsRead_verifiesReadStatusChange() {
+    void saveMessage_withAudioUrl() {
         // Arrange
-        advisorMessage.setRead(false);
-        userMessage.setRead(false);
-        List<ChatMessage> unreadMessages = Arrays.asList(advisorMessage, userMessage);
+        String audioUrl = "https://example.com/audio.mp3";
+        testMessage.setAudioUrl(audioUrl);
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
+
+        // Act
+        ChatMessage result = chatMessageService.saveMessage(testMessage);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(audioUrl, result.getAudioUrl());
+        verify(chatMessageRepository).save(testMessage);
+    }
 
-        when(chatMessageRepository.findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER))
-                .thenReturn(unreadMessages);
-        when(chatMessageRepository.saveAll(any())).thenReturn(unreadMessages);
+    @Test
+    void markMessagesAsRead_differentSenderTypes() {
+        // Arrange
+        when(chatMessageRepository.markReadBySessionAndSenderType(sessionId, SenderType.USER)).thenReturn(1L);
+        when(chatMessageRepository.markReadBySessionAndSenderType(sessionId, SenderType.ADVISOR)).thenReturn(3L);
 
         // Act
-        chatMessageService.markMessagesAsRead(sessionId, SenderType.USER);
+        long userMessagesRead = chatMessageService.markMessagesAsRead(sessionId, SenderType.USER);
+        long advisorMessagesRead = chatMessageService.markMessagesAsRead(sessionId, SenderType.ADVISOR);
 
         // Assert
-        unreadMessages.forEach(message -> assertTrue(message.isRead()));
-        verify(chatMessageRepository).saveAll(unreadMessages);
+        assertEquals(1L, userMessagesRead);
+        assertEquals(3L, advisorMessagesRead);
+        verify(chatMessageRepository).markReadBySessionAndSenderType(sessionId, SenderType.USER);
+        verify(chatMessageRepository).markReadBySessionAndSenderType(sessionId, SenderType.ADVISOR);
     }
 
     @Test
-    void getUnreadCountForUser_zeroCount() {
+    void getUnreadMessages_emptyLists() {
         // Arrange
-        when(chatMessageRepository.countUnreadMessagesBySessionAndSenderType(sessionId, SenderType.ADVISOR))
-                .thenReturn(0L);
+        when(chatMessageRepository.findUnreadAdvisorMessages(sessionId))
+                .thenReturn(Arrays.asList());
+        when(chatMessageRepository.findUnreadUserMessages(sessionId))
+                .thenReturn(Arrays.asList());
 
         // Act
-        long result = chatMessageService.getUnreadCountForUser(sessionId);
+        List<ChatMessage> advisorResult = chatMessageService.getUnreadAdvisorMessages(sessionId);
+        List<ChatMessage> userResult = chatMessageService.getUnreadUserMessages(sessionId);
 
         // Assert
-        assertEquals(0L, result);
-        verify(chatMessageRepository).countUnreadMessagesBySessionAndSenderType(sessionId, SenderType.ADVISOR);
+        assertTrue(advisorResult.isEmpty());
+        assertTrue(userResult.isEmpty());
+
+        verify(chatMessageRepository).findUnreadAdvisorMessages(sessionId);
+        verify(chatMessageRepository).findUnreadUserMessages(sessionId);
+    }
+
+    @Test
+    void getChatHistoryPage_withoutCursor_returnsLatestInAscendingOrder() {
+        // Arrange - Repository liefert neueste zuerst
+        when(chatMessageRepository.findLatestBefore(sessionId, null, 2))
+                .thenReturn(List.of(advisorMessage, testMessage));
+
+        // Act
+        List<ChatMessage> result = chatMessageService.getChatHistoryPage(sessionId, null, 2);
+
+        // Assert
+        assertEquals(List.of(testMessage, advisorMessage), result);
+        verify(chatMessageRepository, never()).findById(anyString());
+        verify(chatMessageRepository, never()).findBySessionIdOrderByTimestampAsc(anyString());
     }
 
     @Test
-    void getUnreadCountForAdvisor_zeroCount() {
+    void getChatHistoryPage_withCursor_loadsOlderMessages() {
         // Arrange
-        when(chatMessageRepository.countUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER))
-                .thenReturn(0L);
+        when(chatMessageRepository.findById("msg456")).thenReturn(Optional.of(advisorMessage));
+        when(chatMessageRepository.findLatestBefore(sessionId, advisorMessage, 50)).thenReturn(List.of(testMessage));
 
         // Act
-        long result = chatMessageService.getUnreadCountForAdvisor(sessionId);
+        List<ChatMessage> result = chatMessageService.getChatHistoryPage(sessionId, "msg456", 50);
 
         // Assert
-        assertEquals(0L, result);
-        verify(chatMessageRepository).countUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER);
+        assertEquals(List.of(testMessage), result);
     }
 
     @Test
-    void saveMessage_withAudioUrl() {
+    void getChatHistoryPage_cursorFromOtherSession_throwsBadRequest() {
         // Arrange
-        String audioUrl = "https://example.com/audio.mp3";
-        testMessage.setAudioUrl(audioUrl);
-        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
+        advisorMessage.setSessionId("otherSession");
+        when(chatMessageRepository.findById("msg456")).thenReturn(Optional.of(advisorMessage));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> chatMessageService.getChatHistoryPage(sessionId, "msg456", 50));
+        verify(chatMessageRepository, never()).findLatestBefore(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void getChatHistoryPage_firstPageFromCache_skipsMongo() {
+        // Arrange
+        ChatSession session = ChatSession.builder().lastMessageTime(LocalDateTime.now()).build();
+        session.setId(sessionId);
+        when(chatHistoryCache.latest(session, 50))
+                .thenReturn(Optional.of(List.of(testMessage, advisorMessage)));
 
         // Act
-        ChatMessage result = chatMessageService.saveMessage(testMessage);
+        List<ChatMessage> result = chatMessageService.getChatHistoryPage(session, null, 50);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(audioUrl, result.getAudioUrl());
-        verify(chatMessageRepository).save(testMessage);
+        assertEquals(List.of(testMessage, advisorMessage), result);
+        verifyNoInteractions(chatMessageRepository);
     }
 
     @Test
-    void markMessagesAsRead_differentSenderTypes() {
-        // Test for USER sender type
-        List<ChatMessage> userMessages = Arrays.asList(userMessage);
-        when(chatMessageRepository.findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER))
-                .thenReturn(userMessages);
-        when(chatMessageRepository.saveAll(any())).thenReturn(userMessages);
+    void getChatHistoryPage_cacheMiss_loadsFromMongoAndFillsCache() {
+        // Arrange
+        ChatSession session = ChatSession.builder().lastMessageTime(LocalDateTime.now()).build();
+        session.setId(sessionId);
+        when(chatHistoryCache.latest(session, 50)).thenReturn(Optional.empty());
+        when(chatMessageRepository.findLatestBefore(sessionId, null, 50)).thenReturn(List.of(advisorMessage, testMessage));
 
-        chatMessageService.markMessagesAsRead(sessionId, SenderType.USER);
+        // Act
+        List<ChatMessage> result = chatMessageService.getChatHistoryPage(session, null, 50);
 
-        verify(chatMessageRepository).findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.USER);
-        verify(chatMessageRepository).saveAll(userMessages);
+        // Assert
+        assertEquals(List.of(testMessage, advisorMessage), result);
+        verify(chatHistoryCache).put(sessionId, result, 50);
+    }
 
-        // Test for ADVISOR sender type
-        List<ChatMessage> advisorMessages = Arrays.asList(advisorMessage);
-        when(chatMessageRepository.findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.ADVISOR))
-                .thenReturn(advisorMessages);
-        when(chatMessageRepository.saveAll(any())).thenReturn(advisorMessages);
+    @Test
+    void getChatHistoryPage_withCursor_bypassesCache() {
+        // Arrange
+        ChatSession session = ChatSession.builder().build();
+        session.setId(sessionId);
+        when(chatMessageRepository.findById("msg456")).thenReturn(Optional.of(advisorMessage));
+        when(chatMessageRepository.findLatestBefore(sessionId, advisorMessage, 50)).thenReturn(List.of(testMessage));
 
-        chatMessageService.markMessagesAsRead(sessionId, SenderType.ADVISOR);
+        // Act
+        chatMessageService.getChatHistoryPage(session, "msg456", 50);
 
-        verify(chatMessageRepository).findUnreadMessagesBySessionAndSenderType(sessionId, SenderType.ADVISOR);
-        verify(chatMessageRepository).saveAll(advisorMessages);
+        // Assert
+        verifyNoInteractions(chatHistoryCache);
     }
 
     @Test
-    void getUnreadMessages_emptyLists() {
+    void saveMessage_appendsToHistoryCache() {
         // Arrange
-        when(chatMessageRepository.findUnreadAdvisorMessages(sessionId))
-                .thenReturn(Arrays.asList());
-        when(chatMessageRepository.findUnreadUserMessages(sessionId))
-                .thenReturn(Arrays.asList());
+        when(chatMessageRepository.save(testMessage)).thenReturn(testMessage);
 
         // Act
-        List<ChatMessage> advisorResult = chatMessageService.getUnreadAdvisorMessages(sessionId);
-        List<ChatMessage> userResult = chatMessageService.getUnreadUserMessages(sessionId);
+        chatMessageService.saveMessage(testMessage);
 
         // Assert
-        assertTrue(advisorResult.isEmpty());
-        assertTrue(userResult.isEmpty());
+        verify(chatHistoryCache).append(testMessage);
+    }
 
-        verify(chatMessageRepository).findUnreadAdvisorMessages(sessionId);
-        verify(chatMessageRepository).findUnreadUserMessages(sessionId);
+    @Test
+    void markMessagesAsRead_updatesCachedReadState() {
+        // Arrange
+        when(chatMessageRepository.markReadBySessionAndSenderType(sessionId, SenderType.ADVISOR)).thenReturn(2L);
+
+        // Act
+        chatMessageService.markMessagesAsRead(sessionId, SenderType.ADVISOR);
+
+        // Assert
+        verify(chatHistoryCache).markRead(sessionId, SenderType.ADVISOR);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.MessageType;
+import de.aha.backend.model.chat.SenderType;
+import de.aha.backend.repository.chat.ChatMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vergleicht Sende-Latenz (bis saveMessage zurückkehrt) und Datenbank-Operationen pro Sekunde
+ * für synchrones Speichern und Write-Behind.
+ * Ausführen mit {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataMongoTest
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class ChatMessageWriteBehindBenchmarkTest {
+
+    private static final int SESSIONS = 50;
+    private static final int MESSAGES = 10_000;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        chatMessageRepository.deleteAll();
+    }
+
+    @Test
+    void writeBehind_lowersSendLatencyAndDatabaseOperations() {
+        ChatMessageWriter disabled = new ChatMessageWriter(mongoTemplate, false, 1, 1,
+                Duration.ofMillis(100), Duration.ofSeconds(1), Duration.ofSeconds(10), 10);
+        Result sync = run(new ChatMessageService(chatMessageRepository, disabled, new ChatHistoryCache(0, 50)), disabled);
+        chatMessageRepository.deleteAll();
+
+        ChatMessageWriter writer = new ChatMessageWriter(mongoTemplate, true, 20_000, 500,
+                Duration.ofMillis(100), Duration.ofSeconds(1), Duration.ofSeconds(30), 10);
+        writer.start();
+        Result writeBehind;
+        try {
+            writeBehind = run(new ChatMessageService(chatMessageRepository, writer, new ChatHistoryCache(0, 50)), writer);
+        } finally {
+            writer.stop();
+        }
+
+        print("sync", sync);
+        print("write-behind", writeBehind);
+
+        assertEquals(MESSAGES, chatMessageRepository.count());
+        assertTrue(writeBehind.databaseOps() < sync.databaseOps());
+    }
+
+    private Result run(ChatMessageService service, ChatMessageWriter writer) {
+        long[] nanos = new long[MESSAGES];
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            ChatMessage message = ChatMessage.builder()
+                    .sessionId("session" + (i % SESSIONS))
+                    .content("Nachricht " + i)
+                    .senderType(i % 2 == 0 ? SenderType.USER : SenderType.ADVISOR)
+                    .type(MessageType.TEXT)
+                    .build();
+            long sendStart = System.nanoTime();
+            service.saveMessage(message);
+            nanos[i] = System.nanoTime() - sendStart;
+        }
+        // bis alles in Mongo liegt, sonst wäre der Vergleich geschönt
+        for (int s = 0; s < SESSIONS; s++) {
+            writer.awaitPersisted("session" + s);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long ops = writer.isEnabled() ? writer.stats().batchesWritten() : MESSAGES;
+        Arrays.sort(nanos);
+        return new Result(percentile(nanos, 0.50), percentile(nanos, 0.99), ops, elapsed / 1_000_000_000.0);
+    }
+
+    private static void print(String label, Result result) {
+        System.out.printf("%-13s send p50 %.3f ms, p99 %.3f ms, %,d db ops in %.2f s (%,.0f ops/s, %,.0f messages/s)%n",
+                label, result.p50Millis(), result.p99Millis(), result.databaseOps(), result.seconds(),
+                result.databaseOps() / result.seconds(), MESSAGES / result.seconds());
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private record Result(double p50Millis, double p99Millis, long databaseOps, double seconds) {
+    }
+}
@@ -0,0 +1,231 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.MessageType;
+import de.aha.backend.model.chat.SenderType;
+import de.aha.backend.repository.chat.ChatMessageRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DataMongoTest
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class ChatMessageWriterTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    private ChatMessageWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        chatMessageRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    private ChatMessageWriter startWriter(int queueCapacity, int batchSize) {
+        return startWriter(mongoTemplate, queueCapacity, batchSize, Duration.ofMillis(100), 10);
+    }
+
+    private ChatMessageWriter startWriter(MongoTemplate template, int queueCapacity, int batchSize,
+                                          Duration enqueueTimeout, int maxRetries) {
+        writer = new ChatMessageWriter(template, true, queueCapacity, batchSize,
+                Duration.ofMillis(20), enqueueTimeout, Duration.ofSeconds(10), maxRetries);
+        writer.start();
+        return writer;
+    }
+
+    private static ChatMessage message(String sessionId, int i) {
+        return ChatMessage.builder()
+                .id(new ObjectId().toHexString())
+                .sessionId(sessionId)
+                .content("Nachricht " + i)
+                .senderType(i % 2 == 0 ? SenderType.USER : SenderType.ADVISOR)
+                .timestamp(LocalDateTime.of(2030, 1, 1, 12, 0).plusSeconds(i))
+                .type(MessageType.TEXT)
+                .build();
+    }
+
+    @Test
+    void enqueue_writesInBatchesAndKeepsOrderPerSession() {
+        // Arrange
+        ChatMessageWriter writer = startWriter(10_000, 100);
+        List<String> expectedIds = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            ChatMessage message = message("session" + (i % 3), i);
+            if (i % 3 == 0) {
+                expectedIds.add(message.getId());
+            }
+            assertTrue(writer.enqueue(message));
+        }
+        writer.awaitPersisted("session0");
+        writer.awaitPersisted("session1");
+        writer.awaitPersisted("session2");
+
+        // Assert
+        assertEquals(1_000, chatMessageRepository.count());
+        List<String> persistedIds = chatMessageRepository.findBySessionIdOrderByTimestampAsc("session0").stream()
+                .map(ChatMessage::getId)
+                .toList();
+        assertEquals(expectedIds, persistedIds);
+
+        ChatMessageWriter.Stats stats = writer.stats();
+        assertEquals(1_000, stats.messagesWritten());
+        assertTrue(stats.batchesWritten() < 1_000, "messages should be written in batches");
+    }
+
+    @Test
+    void awaitPersisted_makesQueuedMessagesVisibleToReads() {
+        // Arrange
+        ChatMessageWriter writer = startWriter(100, 10);
+        ChatMessage message = message("session1", 1);
+
+        // Act
+        writer.enqueue(message);
+        writer.awaitPersisted("session1");
+
+        // Assert
+        assertTrue(chatMessageRepository.findById(message.getId()).isPresent());
+    }
+
+    @Test
+    void stop_flushesQueueAndRejectsFurtherMessages() {
+        // Arrange
+        ChatMessageWriter writer = startWriter(10_000, 50);
+        for (int i = 0; i < 500; i++) {
+            writer.enqueue(message("session1", i));
+        }
+
+        // Act
+        writer.stop();
+
+        // Assert
+        assertEquals(500, chatMessageRepository.count());
+        assertFalse(writer.enqueue(message("session1", 500)));
+    }
+
+    @Test
+    void retry_isIdempotentForAlreadyWrittenMessages() {
+        // Arrange - ein Teil des Batches ist schon geschrieben, z.B. nach einem Timeout
+        ChatMessageWriter writer = startWriter(100, 10);
+        ChatMessage alreadyWritten = message("session1", 1);
+        chatMessageRepository.save(alreadyWritten);
+
+        // Act
+        writer.enqueue(alreadyWritten);
+        writer.enqueue(message("session1", 2));
+        writer.awaitPersisted("session1");
+
+        // Assert - der doppelte Schlüssel führt zur Wiederholung per Upsert statt zu Verlust
+        assertEquals(2, chatMessageRepository.count());
+        assertTrue(writer.stats().retries() >= 1);
+    }
+
+    @Test
+    void enqueue_fullQueue_producersTimeOutConcurrently() throws Exception {
+        // Arrange - der Writer hängt im ersten insert, die Queue (ein Platz) ist danach voll
+        MongoTemplate template = spy(mongoTemplate);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inserting.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(template).insert(anyCollection(), eq(ChatMessage.class));
+        ChatMessageWriter writer = startWriter(template, 1, 1, Duration.ofMillis(300), 10);
+        assertTrue(writer.enqueue(message("session0", 0)));
+        assertTrue(inserting.await(5, TimeUnit.SECONDS));
+        assertTrue(writer.enqueue(message("session0", 1)));
+
+        // Act - wartet ein Aufrufer auf einen Platz, blockiert er die anderen nicht
+        ExecutorService producers = Executors.newFixedThreadPool(5);
+        List<Future<Boolean>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < 5; i++) {
+                ChatMessage message = message("session" + (i + 1), i + 2);
+                results.add(producers.submit(() -> writer.enqueue(message)));
+            }
+            for (Future<Boolean> result : results) {
+                assertFalse(result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            producers.shutdownNow();
+            release.countDown();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert - nacheinander wären es mindestens 5 x 300 ms
+        assertTrue(elapsedMillis < 1_200, "enqueue took " + elapsedMillis + " ms");
+        writer.awaitPersisted("session0");
+        assertEquals(2, chatMessageRepository.count());
+    }
+
+    @Test
+    void write_failingBatch_givesUpAfterMaxRetriesAndWritesTheRestIndividually() {
+        // Arrange - Batch-Schreiben scheitert immer, einzeln nur die fehlerhafte Nachricht
+        MongoTemplate template = spy(mongoTemplate);
+        ChatMessage good = message("session1", 1);
+        ChatMessage poison = message("session1", 2);
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("write failed");
+        doThrow(failure).when(template).insert(anyCollection(), eq(ChatMessage.class));
+        doThrow(failure).when(template).bulkOps(any(BulkOperations.BulkMode.class), eq(ChatMessage.class));
+        doThrow(failure).when(template).save(argThat((ChatMessage m) -> m != null && poison.getId().equals(m.getId())));
+        ChatMessageWriter writer = startWriter(template, 100, 10, Duration.ofMillis(100), 2);
+
+        // Act
+        writer.enqueue(good);
+        writer.enqueue(poison);
+        writer.awaitPersisted("session1");
+
+        // Assert - die gute Nachricht ist geschrieben, die fehlerhafte gezählt statt endlos wiederholt
+        assertTrue(chatMessageRepository.findById(good.getId()).isPresent());
+        assertFalse(chatMessageRepository.findById(poison.getId()).isPresent());
+        ChatMessageWriter.Stats stats = writer.stats();
+        assertEquals(2, stats.retries());
+        assertEquals(1, stats.failed());
+        assertEquals(1, stats.messagesWritten());
+
+        // nachfolgende Nachrichten werden wieder normal geschrieben
+        doCallRealMethod().when(template).insert(anyCollection(), eq(ChatMessage.class));
+        ChatMessage next = message("session1", 3);
+        writer.enqueue(next);
+        writer.awaitPersisted("session1");
+        assertTrue(chatMessageRepository.findById(next.getId()).isPresent());
+    }
+}
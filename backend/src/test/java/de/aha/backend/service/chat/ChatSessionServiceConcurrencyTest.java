@@ -0,0 +1,116 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.config.MongoIndexBootstrap;
+import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.SenderType;
+import de.aha.backend.repository.chat.ChatSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lässt User und Berater parallel in eine noch nicht existierende Session schreiben und
+ * prüft, dass genau eine Session entsteht und kein Zählerinkrement verloren geht.
+ */
+@DataMongoTest
+@Import({ChatSessionService.class, ChatMessageService.class, ChatMessageWriter.class, ChatHistoryCache.class, MongoIndexBootstrap.class})
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class ChatSessionServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int USER_MESSAGES = 200;
+    private static final int ADVISOR_MESSAGES = 150;
+
+    @Autowired
+    private ChatSessionService chatSessionService;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @BeforeEach
+    void setUp() {
+        chatSessionRepository.deleteAll();
+    }
+
+    private void sendConcurrently(List<SenderType> senders) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < senders.size(); i++) {
+                SenderType sender = senders.get(i);
+                String content = sender + " message " + i;
+                Callable<Void> task = () -> {
+                    startSignal.await();
+                    chatSessionService.recordMessage("user1", "advisor1", "Dr. Test", sender, content, LocalDateTime.now());
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void recordMessage_parallelSendersOnNewSession_loseNoIncrements() throws Exception {
+        // Arrange - User- und Berater-Nachrichten gemischt, damit beide Seiten um das Insert konkurrieren
+        List<SenderType> senders = new ArrayList<>();
+        senders.addAll(Collections.nCopies(USER_MESSAGES, SenderType.USER));
+        senders.addAll(Collections.nCopies(ADVISOR_MESSAGES, SenderType.ADVISOR));
+        Collections.shuffle(senders, new Random(42));
+
+        // Act
+        sendConcurrently(senders);
+
+        // Assert
+        List<ChatSession> sessions = chatSessionRepository.findAll();
+        assertEquals(1, sessions.size());
+        ChatSession session = sessions.getFirst();
+        assertEquals(USER_MESSAGES, session.getAdvisorUnreadCount());
+        assertEquals(ADVISOR_MESSAGES, session.getUserUnreadCount());
+        assertEquals("Dr. Test", session.getAdvisorName());
+        assertNotNull(session.getCreationDate());
+        assertTrue(session.getIsActive());
+    }
+
+    @Test
+    void resetUnreadCount_clearsOnlyReadersCounterAndSetsWatermark() {
+        // Arrange
+        chatSessionService.recordMessage("user1", "advisor1", "Dr. Test", SenderType.USER, "Hallo", LocalDateTime.now());
+        ChatSession session = chatSessionService.recordMessage(
+                "user1", "advisor1", "Dr. Test", SenderType.ADVISOR, "Guten Tag", LocalDateTime.now());
+
+        // Act
+        chatSessionService.resetUnreadCount(session.getId(), SenderType.USER);
+
+        // Assert
+        ChatSession stored = chatSessionRepository.findById(session.getId()).orElseThrow();
+        assertEquals(0, stored.getUserUnreadCount());
+        assertEquals(1, stored.getAdvisorUnreadCount());
+        assertEquals("Guten Tag", stored.getLastMessage());
+        assertNotNull(stored.getUserReadUpTo());
+        assertNull(stored.getAdvisorReadUpTo());
+    }
+}
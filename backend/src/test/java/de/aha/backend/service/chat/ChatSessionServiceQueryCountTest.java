@@ -0,0 +1,131 @@
+package de.aha.backend.service.chat;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Filters;
+import de.aha.backend.model.chat.ChatMessage;
+import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.MessageType;
+import de.aha.backend.model.chat.SenderType;
+import de.aha.backend.repository.chat.ChatMessageRepository;
+import de.aha.backend.repository.chat.ChatSessionRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prüft mit dem Mongo-Profiler, dass die Session-Liste unabhängig von der Anzahl der
+ * Sessions mit einer festen Anzahl Datenbankoperationen auskommt und nichts schreibt.
+ */
+@DataMongoTest
+@Import(ChatSessionService.class)
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class ChatSessionServiceQueryCountTest {
+
+    @Autowired
+    private ChatSessionService chatSessionService;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        chatSessionRepository.deleteAll();
+        chatMessageRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.getDb().runCommand(new Document("profile", 0));
+    }
+
+    private void seed(String advisorId, int sessionCount) {
+        List<ChatSession> sessions = new ArrayList<>();
+        for (int i = 0; i < sessionCount; i++) {
+            sessions.add(ChatSession.builder()
+                    .userId(advisorId + "-user" + i)
+                    .advisorId(advisorId)
+                    .lastMessageTime(LocalDateTime.now().minusMinutes(i))
+                    .advisorUnreadCount(1)
+                    .build());
+        }
+        List<ChatMessage> messages = new ArrayList<>();
+        for (ChatSession session : chatSessionRepository.saveAll(sessions)) {
+            messages.add(ChatMessage.builder()
+                    .sessionId(session.getId())
+                    .content("Hallo")
+                    .senderType(SenderType.USER)
+                    .timestamp(LocalDateTime.now())
+                    .type(MessageType.TEXT)
+                    .read(false)
+                    .build());
+        }
+        chatMessageRepository.saveAll(messages);
+    }
+
+    private void startProfiling() {
+        MongoDatabase db = mongoTemplate.getDb();
+        db.runCommand(new Document("profile", 0));
+        db.getCollection("system.profile").drop();
+        db.createCollection("system.profile", new CreateCollectionOptions().capped(true).sizeInBytes(4 * 1024 * 1024));
+        db.runCommand(new Document("profile", 2));
+    }
+
+    private long profiledOperations(String op) {
+        String database = mongoTemplate.getDb().getName();
+        return mongoTemplate.getDb().getCollection("system.profile").countDocuments(Filters.and(
+                Filters.in("ns", database + ".chat_sessions", database + ".chat_messages"),
+                Filters.eq("op", op)));
+    }
+
+    // getMore zählt nicht: das sind Folge-Batches derselben Abfrage, keine zusätzlichen Abfragen
+    private long readOperations() {
+        return profiledOperations("query") + profiledOperations("command");
+    }
+
+    private long writeOperations() {
+        return profiledOperations("update") + profiledOperations("insert") + profiledOperations("remove");
+    }
+
+    @Test
+    void getAdvisorSessions_queryCountIndependentOfSessionCount() {
+        // Arrange
+        seed("small", 3);
+        seed("large", 300);
+
+        // Act
+        startProfiling();
+        List<ChatSession> small = chatSessionService.getAdvisorSessions("small");
+        long smallReads = readOperations();
+
+        startProfiling();
+        List<ChatSession> large = chatSessionService.getAdvisorSessions("large");
+        long largeReads = readOperations();
+        long writes = writeOperations();
+
+        // Assert
+        assertEquals(3, small.size());
+        assertEquals(300, large.size());
+        assertTrue(large.stream().allMatch(session -> session.getUnreadCount() == 1));
+        assertEquals(smallReads, largeReads, "read operations must not grow with the number of sessions");
+        assertEquals(0, writes, "listing sessions must not write");
+    }
+}
@@ -1,20 +1,33 @@
 package de.aha.backend.service.chat;
 
+import de.aha.backend.dto.chat.InboxEntry;
 import de.aha.backend.model.chat.ChatSession;
+import de.aha.backend.model.chat.SenderType;
 import de.aha.backend.repository.chat.ChatSessionRepository;
+import com.mongodb.client.result.UpdateResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.bson.Document;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,7 +37,7 @@ class ChatSessionServiceTest {
     private ChatSessionRepository chatSessionRepository;
 
     @Mock
-    private ChatMessageService chatMessageService;
+    private MongoTemplate mongoTemplate;
 
     @InjectMocks
     private ChatSessionService chatSessionService;
@@ -59,64 +72,14 @@ class ChatSessionServiceTest {
         existingSession.setModifyDate(LocalDateTime.now().minusHours(1));
     }
 
-    @Test
-    void createOrUpdateSession_createNewSession() {
-        // Arrange
-        when(chatSessionRepository.findByUserIdAndAdvisorId(userId, advisorId))
-                .thenReturn(Optional.empty());
-        when(chatSessionRepository.save(any(ChatSession.class))).thenAnswer(invocation -> {
-            ChatSession session = invocation.getArgument(0);
-            session.setId(sessionId);
-            return session;
-        });
-
-        // Act
-        ChatSession result = chatSessionService.createOrUpdateSession(testSession);
-
-        // Assert
-        assertNotNull(result);
-        assertEquals(sessionId, result.getId());
-        assertEquals(userId, result.getUserId());
-        assertEquals(advisorId, result.getAdvisorId());
-        assertTrue(result.getIsActive());
-        assertEquals(0, result.getUnreadCount()); // Should be reset to 0 for new session
-        assertNotNull(result.getCreationDate());
-        assertNotNull(result.getModifyDate());
-
-        verify(chatSessionRepository).findByUserIdAndAdvisorId(userId, advisorId);
-        verify(chatSessionRepository).save(any(ChatSession.class));
-    }
-
-    @Test
-    void createOrUpdateSession_updateExistingSession() {
-        // Arrange
-        when(chatSessionRepository.findByUserIdAndAdvisorId(userId, advisorId))
-                .thenReturn(Optional.of(existingSession));
-        when(chatSessionRepository.save(any(ChatSession.class))).thenReturn(existingSession);
-
-        // Act
-        ChatSession result = chatSessionService.createOrUpdateSession(testSession);
-
-        // Assert
-        assertNotNull(result);
-        assertEquals(sessionId, result.getId());
-        assertEquals(testSession.getLastMessage(), result.getLastMessage());
-        assertEquals(testSession.getUnreadCount(), result.getUnreadCount());
-        assertTrue(result.getIsActive());
-        assertNotNull(result.getModifyDate());
-
-        verify(chatSessionRepository).findByUserIdAndAdvisorId(userId, advisorId);
-        verify(chatSessionRepository).save(existingSession);
-    }
-
     @Test
     void getUserSessions_success() {
         // Arrange
         List<ChatSession> sessions = List.of(existingSession);
+        existingSession.setUserUnreadCount(3);
+        existingSession.setAdvisorUnreadCount(7);
         when(chatSessionRepository.findByUserIdOrderByLastMessageTimeDesc(userId))
                 .thenReturn(sessions);
-        when(chatMessageService.getUnreadCountForUser(sessionId)).thenReturn(3L);
-        when(chatSessionRepository.save(any(ChatSession.class))).thenReturn(existingSession);
 
         // Act
         List<ChatSession> result = chatSessionService.getUserSessions(userId);
@@ -124,31 +87,39 @@ class ChatSessionServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(3, result.get(0).getUnreadCount()); // Updated unread count
+        assertEquals(3, result.get(0).getUnreadCount()); // counter of the user
 
         verify(chatSessionRepository).findByUserIdOrderByLastMessageTimeDesc(userId);
-        verify(chatMessageService).getUnreadCountForUser(sessionId);
-        verify(chatSessionRepository).save(existingSession);
+        verify(chatSessionRepository, never()).save(any(ChatSession.class)); // No write on the read path
     }
 
     @Test
-    void getUserSessions_noUpdateWhenUnreadCountSame() {
+    void getUserInbox_translatesPageToSkip() {
         // Arrange
+        LocalDateTime since = LocalDateTime.now().minusMinutes(5);
+        InboxEntry entry = new InboxEntry(sessionId, "advisor456", "Advisor", null, since.plusMinutes(1), null, null, 2);
+        when(chatSessionRepository.findUserInbox(userId, since, 40, 20)).thenReturn(List.of(entry));
+
+        // Act
+        List<InboxEntry> result = chatSessionService.getUserInbox(userId, since, 2, 20);
+
+        // Assert
+        assertEquals(List.of(entry), result);
+    }
+
+    @Test
+    void getUserSessions_sessionWithoutCounter_isZero() {
+        // Arrange - Session aus der Zeit vor den Zählern
+        existingSession.setUserUnreadCount(null);
         List<ChatSession> sessions = List.of(existingSession);
         when(chatSessionRepository.findByUserIdOrderByLastMessageTimeDesc(userId))
                 .thenReturn(sessions);
-        when(chatMessageService.getUnreadCountForUser(sessionId)).thenReturn(2L); // Same as existing
 
         // Act
         List<ChatSession> result = chatSessionService.getUserSessions(userId);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(2, result.get(0).getUnreadCount()); // Unchanged
-
-        verify(chatSessionRepository).findByUserIdOrderByLastMessageTimeDesc(userId);
-        verify(chatMessageService).getUnreadCountForUser(sessionId);
+        assertEquals(0, result.get(0).getUnreadCount());
         verify(chatSessionRepository, never()).save(any(ChatSession.class));
     }
 
@@ -156,10 +127,10 @@ class ChatSessionServiceTest {
     void getAdvisorSessions_success() {
         // Arrange
         List<ChatSession> sessions = List.of(existingSession);
+        existingSession.setUserUnreadCount(7);
+        existingSession.setAdvisorUnreadCount(4);
         when(chatSessionRepository.findByAdvisorIdOrderByLastMessageTimeDesc(advisorId))
                 .thenReturn(sessions);
-        when(chatMessageService.getUnreadCountForAdvisor(sessionId)).thenReturn(4L);
-        when(chatSessionRepository.save(any(ChatSession.class))).thenReturn(existingSession);
 
         // Act
         List<ChatSession> result = chatSessionService.getAdvisorSessions(advisorId);
@@ -167,32 +138,32 @@ class ChatSessionServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(4, result.get(0).getUnreadCount()); // Updated unread count
+        assertEquals(4, result.get(0).getUnreadCount()); // counter of the advisor
 
         verify(chatSessionRepository).findByAdvisorIdOrderByLastMessageTimeDesc(advisorId);
-        verify(chatMessageService).getUnreadCountForAdvisor(sessionId);
-        verify(chatSessionRepository).save(existingSession);
+        verify(chatSessionRepository, never()).save(any(ChatSession.class)); // No write on the read path
     }
 
     @Test
-    void getAdvisorSessions_noUpdateWhenUnreadCountSame() {
+    void getAdvisorSessions_manySessions_singleQuery() {
         // Arrange
-        List<ChatSession> sessions = List.of(existingSession);
-        when(chatSessionRepository.findByAdvisorIdOrderByLastMessageTimeDesc(advisorId))
-                .thenReturn(sessions);
-        when(chatMessageService.getUnreadCountForAdvisor(sessionId)).thenReturn(2L); // Same as existing
+        List<ChatSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ChatSession session = ChatSession.builder().userId("user" + i).advisorId(advisorId)
+                    .advisorUnreadCount(i == 7 ? 2 : 0).build();
+            session.setId("session" + i);
+            sessions.add(session);
+        }
+        when(chatSessionRepository.findByAdvisorIdOrderByLastMessageTimeDesc(advisorId)).thenReturn(sessions);
 
         // Act
         List<ChatSession> result = chatSessionService.getAdvisorSessions(advisorId);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(2, result.get(0).getUnreadCount()); // Unchanged
-
+        assertEquals(2, result.get(7).getUnreadCount());
+        assertEquals(0, result.get(8).getUnreadCount());
         verify(chatSessionRepository).findByAdvisorIdOrderByLastMessageTimeDesc(advisorId);
-        verify(chatMessageService).getUnreadCountForAdvisor(sessionId);
-        verify(chatSessionRepository, never()).save(any(ChatSession.class));
+        verifyNoMoreInteractions(chatSessionRepository, mongoTemplate);
     }
 
     @Test
@@ -254,29 +225,34 @@ class ChatSessionServiceTest {
     @Test
     void deactivateSession_success() {
         // Arrange
-        when(chatSessionRepository.findById(sessionId)).thenReturn(Optional.of(existingSession));
-        when(chatSessionRepository.save(any(ChatSession.class))).thenReturn(existingSession);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ChatSession.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Act
         chatSessionService.deactivateSession(sessionId);
 
-        // Assert
-        assertFalse(existingSession.getIsActive());
-        assertNotNull(existingSession.getModifyDate());
-        verify(chatSessionRepository).findById(sessionId);
-        verify(chatSessionRepository).save(existingSession);
+        // Assert - nur isActive/modifyDate, die Zähler bleiben unberührt
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(ChatSession.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(false, set.get("isActive"));
+        assertNotNull(set.get("modifyDate"));
+        assertEquals(2, set.size());
+        verify(chatSessionRepository, never()).findById(any());
+        verify(chatSessionRepository, never()).save(any(ChatSession.class));
     }
 
     @Test
     void deactivateSession_sessionNotFound() {
         // Arrange
-        when(chatSessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ChatSession.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
 
         // Act
         chatSessionService.deactivateSession(sessionId);
 
         // Assert
-        verify(chatSessionRepository).findById(sessionId);
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(ChatSession.class));
         verify(chatSessionRepository, never()).save(any(ChatSession.class));
     }
 
@@ -307,44 +283,70 @@ class ChatSessionServiceTest {
     }
 
     @Test
-    void createOrUpdateSession_verifyTimestampsForNewSession() {
+    void recordMessage_fromUser_incrementsAdvisorCounterInOneUpsert() {
         // Arrange
-        LocalDateTime beforeTest = LocalDateTime.now();
-        when(chatSessionRepository.findByUserIdAndAdvisorId(userId, advisorId))
-                .thenReturn(Optional.empty());
-        when(chatSessionRepository.save(any(ChatSession.class))).thenAnswer(invocation -> {
-            ChatSession session = invocation.getArgument(0);
-            session.setId(sessionId);
-            return session;
-        });
+        LocalDateTime now = LocalDateTime.now();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ChatSession.class)))
+                .thenReturn(testSession);
 
         // Act
-        ChatSession result = chatSessionService.createOrUpdateSession(testSession);
-        LocalDateTime afterTest = LocalDateTime.now();
+        ChatSession result = chatSessionService.recordMessage(userId, advisorId, "Advisor", SenderType.USER, "Hallo", now);
 
         // Assert
-        assertNotNull(result.getCreationDate());
-        assertNotNull(result.getModifyDate());
-        assertFalse(result.getCreationDate().isBefore(beforeTest));
-        assertFalse(result.getCreationDate().isAfter(afterTest));
-        assertFalse(result.getModifyDate().isBefore(beforeTest));
-        assertFalse(result.getModifyDate().isAfter(afterTest));
+        assertEquals(testSession, result);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), options.capture(), eq(ChatSession.class));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(1, updateObject.get("$inc", Document.class).get("advisorUnreadCount"));
+        assertEquals("Hallo", updateObject.get("$set", Document.class).get("lastMessage"));
+        assertEquals(SenderType.USER, updateObject.get("$set", Document.class).get("lastMessageSenderType"));
+        assertEquals(0, updateObject.get("$setOnInsert", Document.class).get("userUnreadCount"));
+        assertTrue(options.getValue().isUpsert());
+        assertTrue(options.getValue().isReturnNew());
+        verify(chatSessionRepository, never()).save(any(ChatSession.class));
     }
 
     @Test
-    void createOrUpdateSession_verifyTimestampsForUpdatedSession() {
+    void recordMessage_fromAdvisor_incrementsUserCounter() {
         // Arrange
-        LocalDateTime originalCreationDate = existingSession.getCreationDate();
-        when(chatSessionRepository.findByUserIdAndAdvisorId(userId, advisorId))
-                .thenReturn(Optional.of(existingSession));
-        when(chatSessionRepository.save(any(ChatSession.class))).thenReturn(existingSession);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ChatSession.class)))
+                .thenReturn(testSession);
+
+        // Act
+        chatSessionService.recordMessage(userId, advisorId, "Advisor", SenderType.ADVISOR, "Hallo", LocalDateTime.now());
 
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(ChatSession.class));
+        assertEquals(1, update.getValue().getUpdateObject().get("$inc", Document.class).get("userUnreadCount"));
+    }
+
+    @Test
+    void recordMessage_retriesOnceWhenConcurrentInsertWins() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ChatSession.class)))
+                .thenThrow(new DuplicateKeyException("user_advisor_idx"))
+                .thenReturn(existingSession);
+
+        // Act
+        ChatSession result = chatSessionService.recordMessage(userId, advisorId, "Advisor", SenderType.USER, "Hallo", LocalDateTime.now());
+
+        // Assert
+        assertEquals(existingSession, result);
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ChatSession.class));
+    }
+
+    @Test
+    void resetUnreadCount_setsOnlyReadersCounterAndWatermark() {
         // Act
-        ChatSession result = chatSessionService.createOrUpdateSession(testSession);
+        chatSessionService.resetUnreadCount(sessionId, SenderType.ADVISOR);
 
         // Assert
-        assertEquals(originalCreationDate, result.getCreationDate()); // Creation date should not change
-        assertNotNull(result.getModifyDate());
-        assertTrue(result.getModifyDate().isAfter(originalCreationDate)); // Modify date should be updated
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(ChatSession.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(Map.of("advisorUnreadCount", 0), Map.copyOf(set));
+        assertTrue(update.getValue().getUpdateObject().get("$max", Document.class).containsKey("advisorReadUpTo"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package de.aha.backend.service.chat;
+
+import de.aha.backend.service.chat.cluster.ClusterEnvelope;
+import de.aha.backend.service.chat.cluster.ClusterMessageBus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Verbindet mehrere simulierte Knoten im selben Prozess: jeder Knoten bekommt einen
+ * eigenen Bus, veröffentlichte Nachrichten erreichen synchron alle anderen Knoten.
+ */
+class InMemoryClusterHub {
+
+    private final List<NodeBus> nodes = new CopyOnWriteArrayList<>();
+
+    ClusterMessageBus join() {
+        NodeBus node = new NodeBus();
+        nodes.add(node);
+        return node;
+    }
+
+    private class NodeBus implements ClusterMessageBus {
+
+        private final List<Consumer<ClusterEnvelope>> receivers = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(ClusterEnvelope envelope) {
+            nodes.stream()
+                    .filter(node -> node != this)
+                    .forEach(node -> node.receivers.forEach(receiver -> receiver.accept(envelope)));
+        }
+
+        @Override
+        public void subscribe(Consumer<ClusterEnvelope> receiver) {
+            receivers.add(receiver);
+        }
+    }
+}
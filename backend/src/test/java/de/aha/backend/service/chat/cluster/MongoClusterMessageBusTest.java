@@ -0,0 +1,153 @@
+package de.aha.backend.service.chat.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.aha.backend.dto.chat.ChatMessageDTO;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Zwei Bus-Instanzen mit unterschiedlicher Knoten-ID auf derselben Embedded MongoDB
+ * stehen für zwei App-Instanzen, ganz ohne externen Broker.
+ */
+@DataMongoTest
+@TestPropertySource(properties = {"spring.mongodb.embedded.version=4.0.12"})
+class MongoClusterMessageBusTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private MongoClusterMessageBus nodeA;
+    private MongoClusterMessageBus nodeB;
+    private final BlockingQueue<ClusterEnvelope> receivedByA = new LinkedBlockingQueue<>();
+    private final BlockingQueue<ClusterEnvelope> receivedByB = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(MongoClusterMessageBus.COLLECTION);
+        nodeA = new MongoClusterMessageBus(mongoTemplate, objectMapper, "node-a", 1024 * 1024);
+        nodeB = new MongoClusterMessageBus(mongoTemplate, objectMapper, "node-b", 1024 * 1024);
+        nodeA.subscribe(receivedByA::add);
+        nodeB.subscribe(receivedByB::add);
+        nodeA.start();
+        nodeB.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void publish_reachesOtherNodeButNotItself() throws Exception {
+        // Arrange
+        ChatMessageDTO message = ChatMessageDTO.builder()
+                .id("msg1")
+                .content("Hallo")
+                .senderType("USER")
+                .timestamp(LocalDateTime.of(2030, 1, 1, 12, 0))
+                .type("TEXT")
+                .build();
+
+        // Act
+        nodeA.publish(new ClusterEnvelope("advisor1", "/queue/messages", message));
+
+        // Assert
+        ClusterEnvelope received = receivedByB.poll(10, TimeUnit.SECONDS);
+        assertNotNull(received, "node B did not receive the message");
+        assertEquals("advisor1", received.user());
+        assertEquals("/queue/messages", received.destination());
+        assertEquals(message, received.payload());
+        assertNull(receivedByA.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void publish_keepsOrderPerSender() throws Exception {
+        // Act
+        for (int i = 0; i < 20; i++) {
+            nodeB.publish(new ClusterEnvelope("user1", "/queue/messages",
+                    ChatMessageDTO.builder().id("msg" + i).type("TEXT").build()));
+        }
+
+        // Assert
+        for (int i = 0; i < 20; i++) {
+            ClusterEnvelope received = receivedByA.poll(10, TimeUnit.SECONDS);
+            assertNotNull(received, "missing message " + i);
+            assertEquals("msg" + i, ((ChatMessageDTO) received.payload()).getId());
+        }
+        assertTrue(receivedByB.isEmpty());
+    }
+
+    @Test
+    void foreignPayloadTypes_areIgnored() throws Exception {
+        // Arrange - ein Dokument mit fremdem Typ, wie es ein Angreifer mit DB-Zugriff einschleusen könnte
+        mongoTemplate.getCollection(MongoClusterMessageBus.COLLECTION).insertOne(new Document("origin", "node-x")
+                .append("sentAt", new Date(System.currentTimeMillis() + 1000))
+                .append("user", "user1")
+                .append("destination", "/queue/messages")
+                .append("payloadType", List.class.getName())
+                .append("payload", "[]"));
+
+        // Act
+        nodeA.publish(new ClusterEnvelope("user1", "/queue/messages", ChatMessageDTO.builder().id("ok").build()));
+
+        // Assert - nur die gültige Nachricht kommt an
+        ClusterEnvelope received = receivedByB.poll(10, TimeUnit.SECONDS);
+        assertNotNull(received);
+        assertEquals("ok", ((ChatMessageDTO) received.payload()).getId());
+    }
+
+    @Test
+    void failingReceiver_doesNotStopDelivery() throws Exception {
+        // Arrange
+        nodeB.subscribe(envelope -> {
+            throw new IllegalStateException("receiver failed");
+        });
+
+        // Act
+        nodeA.publish(new ClusterEnvelope("user1", "/queue/messages", ChatMessageDTO.builder().id("first").build()));
+        nodeA.publish(new ClusterEnvelope("user1", "/queue/messages", ChatMessageDTO.builder().id("second").build()));
+
+        // Assert
+        ClusterEnvelope first = receivedByB.poll(10, TimeUnit.SECONDS);
+        ClusterEnvelope second = receivedByB.poll(10, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertNotNull(second, "tailer stopped after a failing receiver");
+        assertEquals("second", ((ChatMessageDTO) second.payload()).getId());
+    }
+
+    @Test
+    void messageFromNodeWithLaggingClock_isDelivered() throws Exception {
+        // Arrange - die Uhr von node-x geht eine Stunde nach
+        mongoTemplate.getCollection(MongoClusterMessageBus.COLLECTION).insertOne(new Document("origin", "node-x")
+                .append("sentAt", new Date(System.currentTimeMillis() - 3_600_000))
+                .append("user", "user1")
+                .append("destination", "/queue/messages")
+                .append("payloadType", ChatMessageDTO.class.getName())
+                .append("payload", objectMapper.writeValueAsString(ChatMessageDTO.builder().id("late").build())));
+
+        // Act
+        ClusterEnvelope received = receivedByA.poll(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(received, "message skipped because of its timestamp");
+        assertEquals("late", ((ChatMessageDTO) received.payload()).getId());
+    }
+}
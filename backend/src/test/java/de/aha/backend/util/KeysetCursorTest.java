@@ -0,0 +1,66 @@
+package de.aha.backend.util;
+
+import de.aha.backend.exception.BadRequestException;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeDecode_roundTrip() {
+        KeysetCursor cursor = new KeysetCursor("rating", Sort.Direction.DESC, 4.5, "65f1c0ffee0000000000abcd");
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void encodeDecode_nullValue() {
+        KeysetCursor cursor = new KeysetCursor("name", Sort.Direction.ASC, null, "65f1c0ffee0000000000abcd");
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertNull(decoded.value());
+        assertEquals("name", decoded.sortField());
+    }
+
+    @Test
+    void decode_invalidToken_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("e30"));
+    }
+
+    @Test
+    void requireSort_mismatch_throwsBadRequest() {
+        KeysetCursor cursor = new KeysetCursor("rating", Sort.Direction.DESC, 4.5, "id1");
+
+        assertDoesNotThrow(() -> cursor.requireSort("rating", Sort.Direction.DESC));
+        assertThrows(BadRequestException.class, () -> cursor.requireSort("rating", Sort.Direction.ASC));
+        assertThrows(BadRequestException.class, () -> cursor.requireSort("name", Sort.Direction.DESC));
+    }
+
+    @Test
+    void toCriteria_descending_includesLowerValuesTiesAndNulls() {
+        KeysetCursor cursor = new KeysetCursor("rating", Sort.Direction.DESC, 4.5, "id1");
+
+        Document criteria = cursor.toCriteria().getCriteriaObject();
+
+        List<?> or = (List<?>) criteria.get("$or");
+        assertEquals(3, or.size());
+        assertEquals(new Document("rating", new Document("$lt", 4.5)), or.get(0));
+    }
+
+    @Test
+    void sort_addsIdTieBreak() {
+        Sort sort = KeysetCursor.sort("consultationFee", Sort.Direction.ASC);
+
+        assertEquals(Sort.Direction.ASC, sort.getOrderFor("consultationFee").getDirection());
+        assertNotNull(sort.getOrderFor("id"));
+    }
+}
@@ -0,0 +1,40 @@
+package de.aha.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchNormalizerTest {
+
+    @Test
+    void normalize_lowercasesAndFoldsAccents() {
+        assertEquals("ernahrungsberatung", SearchNormalizer.normalize("Ernährungsberatung"));
+        assertEquals("psychologie", SearchNormalizer.normalize("PSYCHOLOGIE"));
+        assertEquals("cafe", SearchNormalizer.normalize("Café"));
+    }
+
+    @Test
+    void normalize_collapsesSeparators() {
+        assertEquals("kinder und jugend psychotherapie",
+                SearchNormalizer.normalize("  Kinder- und Jugend/Psychotherapie  "));
+    }
+
+    @Test
+    void normalize_null() {
+        assertNull(SearchNormalizer.normalize(null));
+    }
+
+    @Test
+    void normalize_resultContainsNoRegexMetacharacters() {
+        assertEquals("c psych", SearchNormalizer.normalize("c++ (psych).*"));
+    }
+
+    @Test
+    void tokens_distinctWords() {
+        assertEquals(List.of("child", "psychology"), SearchNormalizer.tokens("Child Psychology, child"));
+        assertEquals(List.of(), SearchNormalizer.tokens("  "));
+        assertEquals(List.of(), SearchNormalizer.tokens(null));
+    }
+}